@@ -0,0 +1,115 @@
+package com.library.librarymanagement.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Profile pictures fetched over HTTP from a directory of 10k avatars, through the real
+ * Tomcat connector: {@code sendfile} is the current endpoint, {@code resource} the
+ * {@code UrlResource}-based one it replaced (see {@link LegacyProfilePictureController}).
+ * {@code revalidate} is a page reload with the avatar already cached: the current endpoint
+ * answers 304, the old one sends the whole file again.
+ * <p>
+ * Scored as average time per request, like the other benchmarks so the baseline check
+ * applies; with a fixed number of client threads, throughput is threads / score.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(16)
+@Fork(3)
+@State(Scope.Benchmark)
+public class AvatarServingBenchmark {
+
+    private static final int AVATARS = 10_000;
+
+    @Param({"sendfile", "resource"})
+    public String endpoint;
+
+    @Param("16384")
+    public int avatarBytes;
+
+    private BenchmarkEnvironment environment;
+    private HttpClient client;
+    private String baseUri;
+    private String[] names;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InterruptedException {
+        names = writeAvatars(BenchmarkEnvironment.UPLOAD_DIR);
+        environment = BenchmarkEnvironment.startWithServer();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        baseUri = "http://localhost:" + environment.port() + "/api/users/profile/picture/"
+                + ("sendfile".equals(endpoint) ? "" : "legacy/");
+
+        HttpResponse<byte[]> probe = client.send(get(names[0]).build(), HttpResponse.BodyHandlers.ofByteArray());
+        if (probe.statusCode() != 200 || probe.body().length != avatarBytes) {
+            throw new IllegalStateException("Avatar endpoint answered " + probe.statusCode() + " with " + probe.body().length + " bytes");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        environment.close();
+        deleteAvatars(BenchmarkEnvironment.UPLOAD_DIR);
+    }
+
+    @Benchmark
+    public int download() throws IOException, InterruptedException {
+        return client.send(get(randomName()).build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    @Benchmark
+    public int revalidate() throws IOException, InterruptedException {
+        String name = randomName();
+        HttpRequest request = get(name).header("If-None-Match", "\"" + name + "\"").build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private HttpRequest.Builder get(String name) {
+        return HttpRequest.newBuilder(URI.create(baseUri + name)).GET();
+    }
+
+    private String randomName() {
+        return names[ThreadLocalRandom.current().nextInt(names.length)];
+    }
+
+    private String[] writeAvatars(Path directory) throws IOException {
+        deleteAvatars(directory);
+        Files.createDirectories(directory);
+        Random random = new Random(42);
+        byte[] content = new byte[avatarBytes];
+        String[] written = new String[AVATARS];
+        for (int i = 0; i < AVATARS; i++) {
+            random.nextBytes(content);
+            written[i] = UUID.randomUUID() + ".jpg";
+            Files.write(directory.resolve(written[i]), content);
+        }
+        return written;
+    }
+
+    private static void deleteAvatars(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.library.librarymanagement.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares a JMH JSON result file with the committed baseline and exits non-zero when a
+ * benchmark got slower than the baseline by more than the tolerance, and by more than the
+ * noise of either run: its whole 99.9% confidence interval must lie above the baseline's.
+ * A slowdown within the noise is listed as {@code UNSURE} and doesn't fail the check, nor do
+ * benchmarks missing from either side.
+ * <p>
+ * Scores from different Java versions, or from a single fork, are not comparable, so the
+ * check refuses to run on them (exit status 2) rather than pass or fail on noise.
+ * <p>
+ * Usage: {@code BenchmarkBaseline <result.json> <baseline.json> [tolerance, default 0.25]}
+ */
+public final class BenchmarkBaseline {
+
+    private static final int MIN_FORKS = 3;
+
+    private BenchmarkBaseline() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkBaseline <result.json> <baseline.json> [tolerance]");
+            System.exit(2);
+        }
+        double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : 0.25;
+        JsonNode resultRuns = new ObjectMapper().readTree(new File(args[0]));
+        JsonNode baselineRuns = new ObjectMapper().readTree(new File(args[1]));
+        String problem = incomparable(resultRuns, baselineRuns);
+        if (problem != null) {
+            System.err.println(problem);
+            System.exit(2);
+        }
+        Map<String, Score> results = scores(resultRuns);
+        Map<String, Score> baseline = scores(baselineRuns);
+
+        int regressions = 0;
+        for (Map.Entry<String, Score> entry : new TreeMap<>(results).entrySet()) {
+            Score expected = baseline.get(entry.getKey());
+            Score actual = entry.getValue();
+            if (expected == null) {
+                System.out.printf("NEW         %-90s %12.3f%n", entry.getKey(), actual.score());
+                continue;
+            }
+            double change = actual.score() / expected.score() - 1;
+            String verdict = "ok";
+            if (change > tolerance) {
+                boolean beyondNoise = actual.low() > expected.high();
+                verdict = beyondNoise ? "REGRESSION" : "UNSURE";
+                if (beyondNoise) {
+                    regressions++;
+                }
+            }
+            System.out.printf("%-11s %-90s %12.3f +/-%.3f -> %12.3f +/-%.3f (%+.1f%%)%n", verdict, entry.getKey(),
+                    expected.score(), expected.error(), actual.score(), actual.error(), change * 100);
+        }
+        baseline.keySet().stream()
+                .filter(key -> !results.containsKey(key))
+                .sorted()
+                .forEach(key -> System.out.printf("NOT RUN     %s%n", key));
+
+        if (regressions > 0) {
+            System.out.printf("%d benchmark(s) slower than the baseline by more than %.0f%% and beyond its noise%n",
+                    regressions, tolerance * 100);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Why the two runs can't be compared, or {@code null} when they can.
+     */
+    private static String incomparable(JsonNode results, JsonNode baseline) {
+        for (JsonNode run : baseline) {
+            if (run.path("forks").asInt() < MIN_FORKS) {
+                return "Baseline " + run.path("benchmark").asText() + " was recorded with " + run.path("forks").asInt()
+                        + " fork(s); re-record it with at least " + MIN_FORKS;
+            }
+        }
+        for (JsonNode run : results) {
+            if (run.path("forks").asInt() < MIN_FORKS) {
+                return run.path("benchmark").asText() + " ran with " + run.path("forks").asInt()
+                        + " fork(s); its score is too noisy to compare, run it with at least " + MIN_FORKS;
+            }
+        }
+        String resultJava = javaVersion(results);
+        String baselineJava = javaVersion(baseline);
+        if (resultJava != null && baselineJava != null && !resultJava.equals(baselineJava)) {
+            return "Results are from Java " + resultJava + " but the baseline from Java " + baselineJava
+                    + "; re-record the baseline on the Java the application runs on";
+        }
+        return null;
+    }
+
+    private static String javaVersion(JsonNode runs) {
+        for (JsonNode run : runs) {
+            String version = run.path("jdkVersion").asText();
+            if (!version.isEmpty()) {
+                return version.split("[.+]")[0];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Average-time scores keyed by benchmark name and parameters; secondary metrics are ignored.
+     */
+    private static Map<String, Score> scores(JsonNode runs) {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode run : runs) {
+            StringBuilder key = new StringBuilder(run.path("benchmark").asText());
+            JsonNode params = run.path("params");
+            Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> param = fields.next();
+                key.append(key.indexOf("{") < 0 ? " {" : ", ").append(param.getKey()).append('=').append(param.getValue().asText());
+            }
+            if (params.size() > 0) {
+                key.append('}');
+            }
+            JsonNode metric = run.path("primaryMetric");
+            double score = metric.path("score").asDouble();
+            double error = metric.path("scoreError").isNumber() ? metric.path("scoreError").asDouble() : 0;
+            scores.put(key + " [" + metric.path("scoreUnit").asText() + "]", new Score(score, error));
+        }
+        return scores;
+    }
+
+    /**
+     * A score and the half-width of its confidence interval.
+     */
+    private record Score(double score, double error) {
+
+        double low() {
+            return score - error;
+        }
+
+        double high() {
+            return score + error;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.library.librarymanagement.benchmark;
+
+import com.library.librarymanagement.LibraryManagementApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The full application context on an in-memory H2 database (MySQL mode) and an embedded
+ * Redis, so service benchmarks go through the same transactions, caches and borrowing view
+ * as production.
+ */
+final class BenchmarkEnvironment implements AutoCloseable {
+
+    private static final int BATCH_SIZE = 5_000;
+    static final int COPIES_PER_BOOK = 1_000_000;
+    private static final int ID_ALLOCATION_SIZE = 50;
+    static final Path UPLOAD_DIR = Path.of(System.getProperty("java.io.tmpdir"), "library-benchmark-uploads");
+
+    private final RedisServer redis;
+    private final ConfigurableApplicationContext context;
+
+    private BenchmarkEnvironment(RedisServer redis, ConfigurableApplicationContext context) {
+        this.redis = redis;
+        this.context = context;
+    }
+
+    static BenchmarkEnvironment start() throws IOException {
+        return start(WebApplicationType.NONE);
+    }
+
+    /**
+     * Also starts the embedded Tomcat on a free port (see {@link #port()}), for benchmarks
+     * that go through HTTP. Extra arguments are added to the defaults.
+     */
+    static BenchmarkEnvironment startWithServer(String... arguments) throws IOException {
+        List<String> withPort = new ArrayList<>(List.of(arguments));
+        withPort.add("--server.port=0");
+        return start(WebApplicationType.SERVLET, withPort.toArray(new String[0]));
+    }
+
+    private static BenchmarkEnvironment start(WebApplicationType type, String... arguments) throws IOException {
+        int redisPort = freePort();
+        RedisServer redis = new RedisServer(redisPort);
+        redis.start();
+        try {
+            List<String> args = new ArrayList<>(List.of(
+                    "--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                    "--spring.datasource.driver-class-name=org.h2.Driver",
+                    "--spring.datasource.username=sa",
+                    "--spring.datasource.password=",
+                    "--spring.jpa.hibernate.ddl-auto=create",
+                    "--spring.jpa.show-sql=false",
+                    "--spring.data.redis.host=localhost",
+                    "--spring.data.redis.port=" + redisPort,
+                    "--spring.security.oauth2.client.registration.google.client-id=benchmark",
+                    "--spring.security.oauth2.client.registration.google.client-secret=benchmark",
+                    "--file.upload-dir=" + UPLOAD_DIR,
+                    "--borrowings.view.repair-interval=PT24H",
+                    "--logging.level.root=WARN"));
+            args.addAll(List.of(arguments));
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(LibraryManagementApplication.class)
+                    .web(type)
+                    .run(args.toArray(new String[0]));
+            return new BenchmarkEnvironment(redis, context);
+        } catch (RuntimeException e) {
+            redis.stop();
+            throw e;
+        }
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    int port() {
+        return Integer.parseInt(context.getEnvironment().getRequiredProperty("local.server.port"));
+    }
+
+    /**
+     * Inserts members, books and open borrowings with plain JDBC batches, bypassing the
+     * services so seeding a million rows stays quick. Every book gets
+     * {@link #COPIES_PER_BOOK} copies, so issuing never runs out of stock mid-benchmark.
+     */
+    void seed(int members, int books, int borrowings) {
+        JdbcTemplate jdbc = bean(JdbcTemplate.class);
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (int i = 1; i <= members; i++) {
+            rows.add(new Object[]{i, "Member " + i, i + " Library Street", "+1 555 " + i});
+            flushIfFull(jdbc, "INSERT INTO members (id, name, address, telephone) VALUES (?, ?, ?, ?)", rows, i == members);
+        }
+        LocalDate published = LocalDate.of(2000, 1, 1);
+        int[] onLoan = new int[books + 1];
+        for (int i = 1; i <= borrowings; i++) {
+            onLoan[bookOf(i, books)]++;
+        }
+        for (int i = 1; i <= books; i++) {
+            rows.add(new Object[]{i, "Book title " + i, "Publisher " + (i % 50), published.plusDays(i % 5_000),
+                    COPIES_PER_BOOK, COPIES_PER_BOOK - onLoan[i]});
+            flushIfFull(jdbc, "INSERT INTO books (id, title, publisher, publish_date, total_copies, available_copies) VALUES (?, ?, ?, ?, ?, ?)",
+                    rows, i == books);
+        }
+        LocalDate issued = LocalDate.now().minusDays(30);
+        for (int i = 1; i <= borrowings; i++) {
+            LocalDate issueDate = issued.plusDays(i % 30);
+            rows.add(new Object[]{i, 1 + i % members, bookOf(i, books), issueDate, issueDate.plusDays(14)});
+            flushIfFull(jdbc, "INSERT INTO borrowers (id, member_id, book_id, issue_date, due_date) VALUES (?, ?, ?, ?, ?)", rows, i == borrowings);
+        }
+        // move id generation past the seeded rows; pooled sequences hand out ids below the value read
+        jdbc.execute("ALTER SEQUENCE member_id_seq RESTART WITH " + (members + ID_ALLOCATION_SIZE));
+        jdbc.execute("ALTER SEQUENCE book_id_seq RESTART WITH " + (books + ID_ALLOCATION_SIZE));
+        jdbc.execute("ALTER SEQUENCE borrower_id_seq RESTART WITH " + (borrowings + ID_ALLOCATION_SIZE));
+    }
+
+    private static int bookOf(int borrowing, int books) {
+        return 1 + borrowing % books;
+    }
+
+    private static void flushIfFull(JdbcTemplate jdbc, String sql, List<Object[]> rows, boolean last) {
+        if (rows.size() == BATCH_SIZE || (last && !rows.isEmpty())) {
+            jdbc.batchUpdate(sql, rows);
+            rows.clear();
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            context.close();
+        } finally {
+            redis.stop();
+        }
+    }
+}
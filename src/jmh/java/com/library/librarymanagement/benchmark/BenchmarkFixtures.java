@@ -0,0 +1,44 @@
+package com.library.librarymanagement.benchmark;
+
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.model.Borrower;
+import com.library.librarymanagement.model.Member;
+
+import java.time.LocalDate;
+
+/**
+ * Representative detached entities shared by the in-memory benchmarks.
+ */
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    static Book book() {
+        Book book = new Book();
+        book.setId(4_211L);
+        book.setTitle("The Pragmatic Programmer: Your Journey to Mastery");
+        book.setPublisher("Addison-Wesley Professional");
+        book.setPublishDate(LocalDate.of(2019, 9, 13));
+        return book;
+    }
+
+    static Member member() {
+        Member member = new Member();
+        member.setId(982L);
+        member.setName("Grace Hopper");
+        member.setAddress("1 Computing Way, Arlington, VA");
+        member.setTelephone("+1 555 0100");
+        return member;
+    }
+
+    static Borrower borrowing() {
+        Borrower borrower = new Borrower();
+        borrower.setId(120_443L);
+        borrower.setMember(member());
+        borrower.setBook(book());
+        borrower.setIssueDate(LocalDate.of(2024, 3, 1));
+        borrower.setDueDate(LocalDate.of(2024, 3, 15));
+        return borrower;
+    }
+}
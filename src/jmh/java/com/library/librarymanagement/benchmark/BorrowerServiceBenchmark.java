@@ -0,0 +1,58 @@
+package com.library.librarymanagement.benchmark;
+
+import com.library.librarymanagement.model.Borrower;
+import com.library.librarymanagement.service.BorrowerService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Issuing and returning a book through {@link BorrowerService}, including the transaction,
+ * cache eviction and the borrowing view patch applied after commit.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(3)
+@State(Scope.Benchmark)
+public class BorrowerServiceBenchmark {
+
+    private static final int MEMBERS = 1_000;
+    private static final int BOOKS = 10_000;
+    private static final int BORROWINGS = 10_000;
+
+    private BenchmarkEnvironment environment;
+    private BorrowerService borrowerService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        environment = BenchmarkEnvironment.start();
+        environment.seed(MEMBERS, BOOKS, BORROWINGS);
+        borrowerService = environment.bean(BorrowerService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        environment.close();
+    }
+
+    @Benchmark
+    public Borrower issueBook() {
+        return issue();
+    }
+
+    @Benchmark
+    public Borrower issueAndReturnBook() {
+        return borrowerService.returnBook(issue().getId(), LocalDate.now());
+    }
+
+    private Borrower issue() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDate today = LocalDate.now();
+        return borrowerService.issueBook(1L + random.nextInt(MEMBERS), 1L + random.nextInt(BOOKS), today, today.plusDays(14));
+    }
+}
@@ -0,0 +1,61 @@
+package com.library.librarymanagement.benchmark;
+
+import com.library.librarymanagement.cache.CompactBinaryRedisSerializer;
+import com.library.librarymanagement.config.RedisCacheConfig;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Size and serialize/deserialize latency of cached values under the JSON serializer the
+ * caches used originally and under {@link CompactBinaryRedisSerializer}. Encoded sizes are
+ * printed once per trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(3)
+@State(Scope.Benchmark)
+public class CacheSerializerBenchmark {
+
+    @Param({"json", "binary", "binary-lz4"})
+    public String format;
+
+    // @Cacheable unwraps Optional results, so the caches hold the entities themselves
+    @Param({"book", "borrowing"})
+    public String payload;
+
+    private RedisSerializer<Object> serializer;
+    private Object value;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        serializer = switch (format) {
+            case "json" -> RedisCacheConfig.jsonRedisSerializer();
+            case "binary" -> new CompactBinaryRedisSerializer(0, RedisCacheConfig.jsonRedisSerializer());
+            case "binary-lz4" -> new CompactBinaryRedisSerializer(64, RedisCacheConfig.jsonRedisSerializer());
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        };
+        value = payload.equals("book") ? BenchmarkFixtures.book() : BenchmarkFixtures.borrowing();
+        encoded = serializer.serialize(value);
+        System.out.printf("%n%s/%s encoded size: %d bytes%n", format, payload, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(value);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(encoded);
+    }
+
+    @Benchmark
+    public Object roundTrip() {
+        return serializer.deserialize(serializer.serialize(value));
+    }
+}
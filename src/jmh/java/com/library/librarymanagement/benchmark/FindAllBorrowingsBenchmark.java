@@ -0,0 +1,60 @@
+package com.library.librarymanagement.benchmark;
+
+import com.library.librarymanagement.dto.BorrowerDto;
+import com.library.librarymanagement.service.BorrowerService;
+import com.library.librarymanagement.service.BorrowingView;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link BorrowerService#findAllBorrowings()} served from the Redis borrowing view and, with
+ * the view marked stale, from the database fallback.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 3, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class FindAllBorrowingsBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"view", "database"})
+    public String source;
+
+    private BenchmarkEnvironment environment;
+    private BorrowerService borrowerService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InterruptedException {
+        environment = BenchmarkEnvironment.start();
+        BorrowingView view = environment.bean(BorrowingView.class);
+        // let the startup rebuild of the empty view finish before seeding
+        while (!view.isReady()) {
+            Thread.sleep(50);
+        }
+        environment.seed(1_000, 10_000, rows);
+        if (source.equals("view")) {
+            view.rebuild();
+        } else {
+            environment.bean(StringRedisTemplate.class).delete("library:borrowings:ready");
+        }
+        borrowerService = environment.bean(BorrowerService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        environment.close();
+    }
+
+    @Benchmark
+    public List<BorrowerDto> findAllBorrowings() {
+        return borrowerService.findAllBorrowings();
+    }
+}
@@ -0,0 +1,35 @@
+package com.library.librarymanagement.benchmark;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.UrlResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.MalformedURLException;
+import java.nio.file.Path;
+
+/**
+ * The profile picture endpoint as it was before it served files itself: a {@link UrlResource}
+ * body without validators or cache headers, copied through Spring's message converter.
+ * Only on the benchmark classpath, for {@link AvatarServingBenchmark} to compare against.
+ */
+@RestController
+class LegacyProfilePictureController {
+
+    private final Path uploadDir;
+
+    LegacyProfilePictureController(@Value("${file.upload-dir}") String uploadDir) {
+        this.uploadDir = Path.of(uploadDir);
+    }
+
+    @GetMapping("/api/users/profile/picture/legacy/{filename:.+}")
+    ResponseEntity<Resource> serveFile(@PathVariable String filename) throws MalformedURLException {
+        Resource file = new UrlResource(uploadDir.resolve(filename).toUri());
+        return ResponseEntity.ok().header(HttpHeaders.CONTENT_DISPOSITION,
+                "inline; filename=\"" + file.getFilename() + "\"").body(file);
+    }
+}
@@ -0,0 +1,89 @@
+package com.library.librarymanagement.benchmark;
+
+import com.library.librarymanagement.dto.BookDto;
+import com.library.librarymanagement.dto.BorrowerDto;
+import com.library.librarymanagement.dto.MemberDto;
+import com.library.librarymanagement.mapper.BookMapper;
+import com.library.librarymanagement.mapper.BorrowingMapper;
+import com.library.librarymanagement.mapper.MemberMapper;
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.model.Borrower;
+import com.library.librarymanagement.model.Member;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity/DTO conversions done per element by the book, member and borrowing endpoints:
+ * the hand-written mappers against the reflective ModelMapper they replaced.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(3)
+@State(Scope.Benchmark)
+public class MappingBenchmark {
+
+    private ModelMapper modelMapper;
+    private Book book;
+    private BookDto bookDto;
+    private Member member;
+    private Borrower borrowing;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        modelMapper = new ModelMapper();
+        book = BenchmarkFixtures.book();
+        member = BenchmarkFixtures.member();
+        borrowing = BenchmarkFixtures.borrowing();
+        bookDto = modelMapper.map(book, BookDto.class);
+    }
+
+    @Benchmark
+    public BookDto bookToDto() {
+        return BookMapper.toDto(book);
+    }
+
+    @Benchmark
+    public Book dtoToBook() {
+        return BookMapper.toEntity(bookDto);
+    }
+
+    @Benchmark
+    public MemberDto memberToDto() {
+        return MemberMapper.toDto(member);
+    }
+
+    @Benchmark
+    public BorrowerDto borrowingToDto() {
+        return BorrowingMapper.toDto(borrowing);
+    }
+
+    @Benchmark
+    public BookDto bookToDtoModelMapper() {
+        return modelMapper.map(book, BookDto.class);
+    }
+
+    @Benchmark
+    public Book dtoToBookModelMapper() {
+        return modelMapper.map(bookDto, Book.class);
+    }
+
+    @Benchmark
+    public MemberDto memberToDtoModelMapper() {
+        return modelMapper.map(member, MemberDto.class);
+    }
+
+    // Same steps as the former BorrowerController.convertToDto
+    @Benchmark
+    public BorrowerDto borrowingToDtoModelMapper() {
+        BorrowerDto borrowerDto = modelMapper.map(borrowing, BorrowerDto.class);
+        borrowerDto.setMemberId(borrowing.getMember().getId());
+        borrowerDto.setMemberName(borrowing.getMember().getName());
+        borrowerDto.setBookId(borrowing.getBook().getId());
+        borrowerDto.setBookTitle(borrowing.getBook().getTitle());
+        return borrowerDto;
+    }
+}
@@ -0,0 +1,114 @@
+#!/usr/bin/env python3
+"""A minimal stand-in for hey (https://github.com/rakyll/hey), for machines without it.
+
+Supports the subset threading.sh uses: -z DURATION -c CLIENTS URL. Each client keeps one
+HTTP/1.1 connection open and sends GETs back to back until the duration is up; the summary
+is printed in hey's format, so threading.sh filters it the same way. Needs only the Python 3
+standard library:
+
+    HEY="python3 src/loadtest/hey.py" src/loadtest/threading.sh
+"""
+import argparse
+import asyncio
+import re
+import time
+from collections import Counter
+from urllib.parse import urlsplit
+
+
+def duration(text):
+    match = re.fullmatch(r"(\d+(?:\.\d+)?)(ms|s|m)", text)
+    if not match:
+        raise argparse.ArgumentTypeError("duration like 500ms, 10s or 2m expected")
+    return float(match.group(1)) * {"ms": 0.001, "s": 1, "m": 60}[match.group(2)]
+
+
+async def client(host, port, request, deadline, latencies, statuses, errors):
+    reader = writer = None
+    while time.monotonic() < deadline:
+        try:
+            if writer is None:
+                reader, writer = await asyncio.open_connection(host, port)
+            started = time.monotonic()
+            writer.write(request)
+            status_line = await reader.readline()
+            if not status_line:
+                raise ConnectionError("connection closed")
+            length, close = 0, False
+            while True:
+                line = await reader.readline()
+                if line in (b"\r\n", b""):
+                    break
+                name, _, value = line.decode("latin-1").partition(":")
+                name, value = name.strip().lower(), value.strip().lower()
+                if name == "content-length":
+                    length = int(value)
+                elif name == "transfer-encoding" and value == "chunked":
+                    length = -1
+                elif name == "connection" and value == "close":
+                    close = True
+            if length > 0:
+                await reader.readexactly(length)
+            elif length < 0:
+                while True:
+                    size = int((await reader.readline()).split(b";")[0], 16)
+                    await reader.readexactly(size + 2)
+                    if size == 0:
+                        break
+            latencies.append(time.monotonic() - started)
+            statuses[int(status_line.split()[1])] += 1
+            if close:
+                writer.close()
+                writer = None
+        except (OSError, ConnectionError, asyncio.IncompleteReadError, ValueError, IndexError) as e:
+            errors[type(e).__name__] += 1
+            if writer is not None:
+                writer.close()
+            writer = None
+            await asyncio.sleep(0.01)
+    if writer is not None:
+        writer.close()
+
+
+async def main():
+    parser = argparse.ArgumentParser()
+    parser.add_argument("-z", type=duration, required=True)
+    parser.add_argument("-c", type=int, default=50)
+    parser.add_argument("url")
+    args = parser.parse_args()
+
+    url = urlsplit(args.url)
+    path = url.path + ("?" + url.query if url.query else "")
+    request = (f"GET {path} HTTP/1.1\r\nHost: {url.netloc}\r\nAccept: application/json\r\n"
+               f"User-Agent: hey.py\r\n\r\n").encode("latin-1")
+    latencies, statuses, errors = [], Counter(), Counter()
+    started = time.monotonic()
+    deadline = started + args.z
+    await asyncio.gather(*(client(url.hostname, url.port or 80, request, deadline, latencies, statuses, errors)
+                           for _ in range(args.c)))
+    total = time.monotonic() - started
+
+    latencies.sort()
+    print("\nSummary:")
+    print(f"  Total:\t{total:.4f} secs")
+    if latencies:
+        print(f"  Slowest:\t{latencies[-1]:.4f} secs")
+        print(f"  Fastest:\t{latencies[0]:.4f} secs")
+        print(f"  Average:\t{sum(latencies) / len(latencies):.4f} secs")
+    print(f"  Requests/sec:\t{len(latencies) / total:.4f}")
+    print("\nLatency distribution:")
+    for percent in (10, 25, 50, 75, 90, 95, 99):
+        if latencies:
+            index = min(len(latencies) - 1, len(latencies) * percent // 100)
+            print(f"  {percent}% in {latencies[index]:.4f} secs")
+    print("\nStatus code distribution:")
+    for status, count in sorted(statuses.items()):
+        print(f"  [{status}]\t{count} responses")
+    if errors:
+        print("\nError distribution:")
+        for error, count in errors.most_common():
+            print(f"  [{count}]\t{error}")
+
+
+if __name__ == "__main__":
+    asyncio.run(main())
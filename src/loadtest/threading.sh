@@ -0,0 +1,58 @@
+#!/usr/bin/env sh
+# Compares request throughput and latency of the platform-thread default with the
+# virtual-thread mode at high client concurrency.
+#
+# Starts the packaged application once per mode (against the database and Redis configured
+# in its application.properties), waits for /actuator/health, drives the public read
+# endpoints with `hey` and prints its summary. Needs a built jar (./mvnw package) and hey
+# (https://github.com/rakyll/hey) on the PATH, or HEY pointing at a compatible tool such as
+# src/loadtest/hey.py. APP replaces the `java -jar` command line, e.g. to start the
+# application from its classpath; the port and thread mode are appended to it.
+#
+#   src/loadtest/threading.sh                       # 2000 clients, 60 s per endpoint
+#   CLIENTS=500 DURATION=30s src/loadtest/threading.sh
+#   HEY="python3 src/loadtest/hey.py" src/loadtest/threading.sh
+#
+# Results of past runs are kept in src/loadtest/results.
+set -eu
+
+CLIENTS=${CLIENTS:-2000}
+DURATION=${DURATION:-60s}
+PORT=${PORT:-8080}
+HEY=${HEY:-hey}
+JAR=${JAR:-$(ls target/library-management-*.jar 2>/dev/null | grep -v plain | head -n 1)}
+APP=${APP:-"java ${JAVA_OPTS:-} -jar $JAR"}
+BASE_URL="http://localhost:${PORT}"
+# A cached single-entity read (Redis / near-cache), a keyset page (one JDBC query) and
+# the ranked search (in-process index plus one JDBC query)
+ENDPOINTS=${ENDPOINTS:-"/api/books/1 /api/books/page?size=50 /api/books/search?q=history"}
+
+run_mode() {
+    mode=$1
+    echo "=== spring.threads.virtual.enabled=${mode} (${CLIENTS} clients, ${DURATION} per endpoint)"
+    $APP --server.port="$PORT" --spring.threads.virtual.enabled="$mode" \
+        --logging.level.root=WARN > "target/loadtest-${mode}.log" 2>&1 &
+    pid=$!
+    trap 'kill $pid 2>/dev/null' EXIT INT TERM
+
+    until curl -fs "${BASE_URL}/actuator/health" > /dev/null; do
+        kill -0 $pid 2>/dev/null || { echo "application failed to start, see target/loadtest-${mode}.log"; exit 1; }
+        sleep 1
+    done
+
+    for endpoint in $ENDPOINTS; do
+        # warm-up, then the measured run
+        $HEY -z 10s -c 50 "${BASE_URL}${endpoint}" > /dev/null
+        echo "--- GET ${endpoint}"
+        $HEY -z "$DURATION" -c "$CLIENTS" "${BASE_URL}${endpoint}" \
+            | sed -n '/Summary:/,/Latency distribution:/p;/ 50% /p;/ 99% /p;/Status code distribution:/,$p'
+    done
+
+    kill $pid
+    wait $pid 2>/dev/null || true
+    trap - EXIT INT TERM
+}
+
+mkdir -p target
+run_mode false
+run_mode true
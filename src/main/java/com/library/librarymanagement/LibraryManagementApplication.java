@@ -2,11 +2,17 @@ package com.library.librarymanagement;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.session.SessionAutoConfiguration;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+// Spring Session is set up by SessionConfig, and only when asked for
+@SpringBootApplication(exclude = SessionAutoConfiguration.class)
 @EnableCaching
+@EnableAsync
+@EnableScheduling
 @EnableJpaRepositories(basePackages = "com.library.librarymanagement.repository")
 public class LibraryManagementApplication {
 
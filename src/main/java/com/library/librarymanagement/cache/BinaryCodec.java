@@ -0,0 +1,25 @@
+package com.library.librarymanagement.cache;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Encodes one cached type for {@link CompactBinaryRedisSerializer}.
+ * <p>
+ * The type id is written in place of a class name and must never be reused for a different
+ * type. Bump {@link #schemaVersion()} when the layout changes and keep {@link #read} able to
+ * decode every older version still present in Redis.
+ */
+public interface BinaryCodec<T> {
+
+    int typeId();
+
+    Class<T> type();
+
+    int schemaVersion();
+
+    void write(T value, DataOutput out, CompactBinaryRedisSerializer serializer) throws IOException;
+
+    T read(DataInput in, int schemaVersion, CompactBinaryRedisSerializer serializer) throws IOException;
+}
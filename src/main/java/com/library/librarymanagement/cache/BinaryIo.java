@@ -0,0 +1,95 @@
+package com.library.librarymanagement.cache;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Variable-length primitives shared by the {@link BinaryCodec} implementations. Nullable
+ * values are shifted by one so that zero can mean "absent" without a separate flag byte.
+ */
+final class BinaryIo {
+
+    private BinaryIo() {
+    }
+
+    static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length integer");
+    }
+
+    static void writeVarInt(DataOutput out, int value) throws IOException {
+        writeVarLong(out, value & 0xFFFFFFFFL);
+    }
+
+    static int readVarInt(DataInput in) throws IOException {
+        return (int) readVarLong(in);
+    }
+
+    static void writeNullableLong(DataOutput out, Long value) throws IOException {
+        writeVarLong(out, value == null ? 0 : value + 1);
+    }
+
+    static Long readNullableLong(DataInput in) throws IOException {
+        long value = readVarLong(in);
+        return value == 0 ? null : value - 1;
+    }
+
+    static void writeNullableString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    static String readNullableString(DataInput in) throws IOException {
+        int length = readVarInt(in);
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length - 1];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Dates are written as a zig-zag encoded epoch day so dates before 1970 stay small too.
+     */
+    static void writeNullableDate(DataOutput out, LocalDate value) throws IOException {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        long epochDay = value.toEpochDay();
+        writeVarLong(out, ((epochDay << 1) ^ (epochDay >> 63)) + 1);
+    }
+
+    static LocalDate readNullableDate(DataInput in) throws IOException {
+        long encoded = readVarLong(in);
+        if (encoded == 0) {
+            return null;
+        }
+        long zigZag = encoded - 1;
+        return LocalDate.ofEpochDay((zigZag >>> 1) ^ -(zigZag & 1));
+    }
+}
@@ -0,0 +1,61 @@
+package com.library.librarymanagement.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.cache.support.NullValue;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * What {@link TwoTierCache} stores in both tiers: the value, when it expires and how long it
+ * took to load. The last two decide when to refresh it ahead of expiry.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheEnvelope {
+
+    /**
+     * The cached value, {@link NullValue} standing in for {@code null}.
+     */
+    private Object value;
+
+    private long expiresAtMillis;
+
+    private long loadMillis;
+
+    /**
+     * An entry written before values were enveloped, or by a put rather than a load: it
+     * expires as its Redis TTL says and is never refreshed early.
+     */
+    static CacheEnvelope withoutExpiry(Object value) {
+        return new CacheEnvelope(value, Long.MAX_VALUE, 0);
+    }
+
+    boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+
+    /**
+     * Probabilistic early expiration ("XFetch"): each read refreshes with a probability that
+     * rises towards expiry, from further out the longer the value took to load, so usually
+     * one read of a hot entry refreshes it shortly before it would expire.
+     */
+    boolean shouldRefreshEarly(long nowMillis, double beta) {
+        if (loadMillis <= 0 || beta <= 0) {
+            return false;
+        }
+        double random = 1 - ThreadLocalRandom.current().nextDouble();
+        return nowMillis - loadMillis * beta * Math.log(random) >= expiresAtMillis;
+    }
+
+    /**
+     * What is left of the entry's life, for its Redis TTL; never zero, which Redis would take
+     * as no expiry at all.
+     */
+    public Duration remainingTtl(long nowMillis) {
+        return Duration.ofMillis(Math.max(1, expiresAtMillis - nowMillis));
+    }
+}
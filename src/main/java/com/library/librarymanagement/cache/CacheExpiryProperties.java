@@ -0,0 +1,65 @@
+package com.library.librarymanagement.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * How long cached values live in Redis and how {@link TwoTierCache} keeps hot ones from
+ * expiring: a spread around each cache's TTL so entries written together do not expire
+ * together, one load per key at a time across the nodes, and refresh ahead of expiry.
+ */
+@Component
+@ConfigurationProperties(prefix = "cache.expiry")
+@Getter
+@Setter
+public class CacheExpiryProperties {
+
+    /**
+     * TTL of caches not listed in {@link #ttls}.
+     */
+    private Duration ttl = Duration.ofMinutes(10);
+
+    private Map<String, Duration> ttls = new LinkedHashMap<>(Map.of(
+            "books", Duration.ofMinutes(30),
+            "members", Duration.ofMinutes(30),
+            "borrowings", Duration.ofMinutes(10)));
+
+    /**
+     * Each entry lives its cache's TTL give or take up to this fraction of it.
+     */
+    private double jitter = 0.1;
+
+    /**
+     * How eagerly entries are reloaded before they expire, scaled by how long they took to
+     * load; 0 disables refresh ahead.
+     */
+    private double earlyRefreshBeta = 1.0;
+
+    /**
+     * How long a node holds the lock on a key it is loading, and so the longest other nodes
+     * wait for its value before loading the key themselves.
+     */
+    private Duration lockLease = Duration.ofSeconds(5);
+
+    private int refreshWorkers = 2;
+
+    public Duration ttlFor(String cacheName) {
+        return ttls.getOrDefault(cacheName, ttl);
+    }
+
+    /**
+     * The cache's TTL moved by a random amount within {@link #jitter}.
+     */
+    public Duration jitteredTtlFor(String cacheName) {
+        long millis = ttlFor(cacheName).toMillis();
+        double spread = jitter * (2 * ThreadLocalRandom.current().nextDouble() - 1);
+        return Duration.ofMillis(Math.max(1, Math.round(millis * (1 + spread))));
+    }
+}
@@ -0,0 +1,22 @@
+package com.library.librarymanagement.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Tells the other application nodes to drop a near-cache entry after this node changed it.
+ */
+public interface CacheInvalidationBus {
+
+    /**
+     * @param key the entry key, or {@code null} when the whole cache was cleared
+     */
+    void publish(String cacheName, Object key);
+
+    /**
+     * Hands what other nodes publish under {@code name} to {@code handler} rather than to the
+     * caches; for in-process state other than caches, such as an index. A bus that only
+     * carries cache invalidations delivers nothing to it.
+     */
+    default void subscribe(String name, Consumer<String> handler) {
+    }
+}
@@ -0,0 +1,22 @@
+package com.library.librarymanagement.cache;
+
+import java.time.Duration;
+
+/**
+ * Lets one node at a time load a missing or expiring cache entry, so a key that expires
+ * under load costs the database one query rather than one per node.
+ */
+public interface CacheLoadLock {
+
+    /**
+     * @param token      identifies this holder to {@link #unlock}
+     * @param leaseTime  after which the lock lapses even if never unlocked
+     * @return whether the lock was free and is now held with {@code token}
+     */
+    boolean tryLock(String cacheName, String key, String token, Duration leaseTime);
+
+    /**
+     * Releases the lock if it is still held with {@code token}.
+     */
+    void unlock(String cacheName, String key, String token);
+}
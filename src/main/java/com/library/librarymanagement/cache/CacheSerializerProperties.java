@@ -0,0 +1,28 @@
+package com.library.librarymanagement.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Chooses which caches store values with {@link CompactBinaryRedisSerializer}; all others
+ * keep the default JSON serializer.
+ */
+@Component
+@ConfigurationProperties(prefix = "cache.serializer")
+@Getter
+@Setter
+public class CacheSerializerProperties {
+
+    private Set<String> binaryCaches = new LinkedHashSet<>(List.of("books", "members", "borrowings", "users"));
+
+    /**
+     * Encoded size in bytes from which binary values are LZ4 compressed; 0 disables compression.
+     */
+    private int compressionThreshold = 512;
+}
@@ -0,0 +1,57 @@
+package com.library.librarymanagement.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hit, miss, put and eviction counters for one tier of one cache.
+ */
+public class CacheTierStatistics {
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    void recordHit() {
+        hits.increment();
+    }
+
+    void recordMiss() {
+        misses.increment();
+    }
+
+    void recordPut() {
+        puts.increment();
+    }
+
+    void recordEviction() {
+        evictions.increment();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getPuts() {
+        return puts.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public Map<String, Long> toMap() {
+        Map<String, Long> snapshot = new LinkedHashMap<>();
+        snapshot.put("hits", getHits());
+        snapshot.put("misses", getMisses());
+        snapshot.put("puts", getPuts());
+        snapshot.put("evictions", getEvictions());
+        return snapshot;
+    }
+}
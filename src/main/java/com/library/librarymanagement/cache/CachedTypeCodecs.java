@@ -0,0 +1,316 @@
+package com.library.librarymanagement.cache;
+
+import com.library.librarymanagement.dto.BookDto;
+import com.library.librarymanagement.dto.BorrowerDto;
+import com.library.librarymanagement.dto.MemberDto;
+import com.library.librarymanagement.dto.UserSnapshot;
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.model.Borrower;
+import com.library.librarymanagement.model.Member;
+import com.library.librarymanagement.model.User;
+import org.hibernate.Hibernate;
+import org.springframework.cache.support.NullValue;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+import static com.library.librarymanagement.cache.BinaryIo.*;
+
+/**
+ * The {@link BinaryCodec}s for every type the application caches. Type ids are part of the
+ * stored format: append new codecs with fresh ids, never renumber.
+ */
+final class CachedTypeCodecs {
+
+    private static final int ABSENT = 0;
+    private static final int INLINE = 1;
+    private static final int REFERENCE = 2;
+
+    private CachedTypeCodecs() {
+    }
+
+    static List<BinaryCodec<?>> all() {
+        return List.of(NULL_VALUE, OPTIONAL, BOOK, MEMBER, BORROWER, BOOK_DTO, MEMBER_DTO, BORROWER_DTO, USER_SNAPSHOT,
+                CACHE_ENVELOPE);
+    }
+
+    static final BinaryCodec<NullValue> NULL_VALUE = new Codec<>(0, NullValue.class, 1) {
+        @Override
+        public void write(NullValue value, DataOutput out, CompactBinaryRedisSerializer serializer) {
+        }
+
+        @Override
+        public NullValue read(DataInput in, int schemaVersion, CompactBinaryRedisSerializer serializer) {
+            return (NullValue) NullValue.INSTANCE;
+        }
+    };
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    static final BinaryCodec<Optional> OPTIONAL = new Codec<>(1, Optional.class, 1) {
+        @Override
+        public void write(Optional value, DataOutput out, CompactBinaryRedisSerializer serializer) throws IOException {
+            out.writeBoolean(value.isPresent());
+            if (value.isPresent()) {
+                serializer.writeValue(value.get(), out);
+            }
+        }
+
+        @Override
+        public Optional read(DataInput in, int schemaVersion, CompactBinaryRedisSerializer serializer) throws IOException {
+            return in.readBoolean() ? Optional.of(serializer.readValue(in)) : Optional.empty();
+        }
+    };
+
+    // Schema 2 appends the entity version; entries written before it read back as version 0,
+    // which is what every row had when the column was added
+
+    static final BinaryCodec<Book> BOOK = new Codec<>(2, Book.class, 2) {
+        @Override
+        public void write(Book book, DataOutput out, CompactBinaryRedisSerializer serializer) throws IOException {
+            writeNullableLong(out, book.getId());
+            writeNullableString(out, book.getTitle());
+            writeNullableString(out, book.getPublisher());
+            writeNullableDate(out, book.getPublishDate());
+            writeVarLong(out, book.getVersion());
+        }
+
+        @Override
+        public Book read(DataInput in, int schemaVersion, CompactBinaryRedisSerializer serializer) throws IOException {
+            Book book = new Book();
+            book.setId(readNullableLong(in));
+            book.setTitle(readNullableString(in));
+            book.setPublisher(readNullableString(in));
+            book.setPublishDate(readNullableDate(in));
+            if (schemaVersion >= 2) {
+                book.setVersion(readVarLong(in));
+            }
+            return book;
+        }
+    };
+
+    static final BinaryCodec<Member> MEMBER = new Codec<>(3, Member.class, 2) {
+        @Override
+        public void write(Member member, DataOutput out, CompactBinaryRedisSerializer serializer) throws IOException {
+            writeNullableLong(out, member.getId());
+            writeNullableString(out, member.getName());
+            writeNullableString(out, member.getAddress());
+            writeNullableString(out, member.getTelephone());
+            writeVarLong(out, member.getVersion());
+        }
+
+        @Override
+        public Member read(DataInput in, int schemaVersion, CompactBinaryRedisSerializer serializer) throws IOException {
+            Member member = new Member();
+            member.setId(readNullableLong(in));
+            member.setName(readNullableString(in));
+            member.setAddress(readNullableString(in));
+            member.setTelephone(readNullableString(in));
+            if (schemaVersion >= 2) {
+                member.setVersion(readVarLong(in));
+            }
+            return member;
+        }
+    };
+
+    /**
+     * A borrowing's member and book are written inline when loaded and as a bare id when
+     * they are still uninitialized lazy proxies.
+     */
+    static final BinaryCodec<Borrower> BORROWER = new Codec<>(4, Borrower.class, 2) {
+        @Override
+        public void write(Borrower borrower, DataOutput out, CompactBinaryRedisSerializer serializer) throws IOException {
+            writeNullableLong(out, borrower.getId());
+            writeAssociation(out, borrower.getMember(), borrower.getMember() == null ? null : borrower.getMember().getId(), MEMBER, serializer);
+            writeAssociation(out, borrower.getBook(), borrower.getBook() == null ? null : borrower.getBook().getId(), BOOK, serializer);
+            writeNullableDate(out, borrower.getIssueDate());
+            writeNullableDate(out, borrower.getDueDate());
+            writeNullableDate(out, borrower.getReturnDate());
+            writeVarLong(out, borrower.getVersion());
+        }
+
+        @Override
+        public Borrower read(DataInput in, int schemaVersion, CompactBinaryRedisSerializer serializer) throws IOException {
+            Borrower borrower = new Borrower();
+            borrower.setId(readNullableLong(in));
+            borrower.setMember(readAssociation(in, MEMBER, Member::new, Member::setId, serializer));
+            borrower.setBook(readAssociation(in, BOOK, Book::new, Book::setId, serializer));
+            borrower.setIssueDate(readNullableDate(in));
+            borrower.setDueDate(readNullableDate(in));
+            borrower.setReturnDate(readNullableDate(in));
+            if (schemaVersion >= 2) {
+                borrower.setVersion(readVarLong(in));
+            }
+            return borrower;
+        }
+    };
+
+    static final BinaryCodec<BookDto> BOOK_DTO = new Codec<>(5, BookDto.class, 1) {
+        @Override
+        public void write(BookDto book, DataOutput out, CompactBinaryRedisSerializer serializer) throws IOException {
+            writeNullableLong(out, book.getId());
+            writeNullableString(out, book.getTitle());
+            writeNullableString(out, book.getPublisher());
+            writeNullableDate(out, book.getPublishDate());
+        }
+
+        @Override
+        public BookDto read(DataInput in, int schemaVersion, CompactBinaryRedisSerializer serializer) throws IOException {
+            BookDto book = new BookDto();
+            book.setId(readNullableLong(in));
+            book.setTitle(readNullableString(in));
+            book.setPublisher(readNullableString(in));
+            book.setPublishDate(readNullableDate(in));
+            return book;
+        }
+    };
+
+    static final BinaryCodec<MemberDto> MEMBER_DTO = new Codec<>(6, MemberDto.class, 1) {
+        @Override
+        public void write(MemberDto member, DataOutput out, CompactBinaryRedisSerializer serializer) throws IOException {
+            writeNullableLong(out, member.getId());
+            writeNullableString(out, member.getName());
+            writeNullableString(out, member.getAddress());
+            writeNullableString(out, member.getTelephone());
+        }
+
+        @Override
+        public MemberDto read(DataInput in, int schemaVersion, CompactBinaryRedisSerializer serializer) throws IOException {
+            MemberDto member = new MemberDto();
+            member.setId(readNullableLong(in));
+            member.setName(readNullableString(in));
+            member.setAddress(readNullableString(in));
+            member.setTelephone(readNullableString(in));
+            return member;
+        }
+    };
+
+    static final BinaryCodec<BorrowerDto> BORROWER_DTO = new Codec<>(7, BorrowerDto.class, 1) {
+        @Override
+        public void write(BorrowerDto borrowing, DataOutput out, CompactBinaryRedisSerializer serializer) throws IOException {
+            writeNullableLong(out, borrowing.getId());
+            writeNullableLong(out, borrowing.getMemberId());
+            writeNullableString(out, borrowing.getMemberName());
+            writeNullableLong(out, borrowing.getBookId());
+            writeNullableString(out, borrowing.getBookTitle());
+            writeNullableDate(out, borrowing.getIssueDate());
+            writeNullableDate(out, borrowing.getDueDate());
+            writeNullableDate(out, borrowing.getReturnDate());
+        }
+
+        @Override
+        public BorrowerDto read(DataInput in, int schemaVersion, CompactBinaryRedisSerializer serializer) throws IOException {
+            BorrowerDto borrowing = new BorrowerDto();
+            borrowing.setId(readNullableLong(in));
+            borrowing.setMemberId(readNullableLong(in));
+            borrowing.setMemberName(readNullableString(in));
+            borrowing.setBookId(readNullableLong(in));
+            borrowing.setBookTitle(readNullableString(in));
+            borrowing.setIssueDate(readNullableDate(in));
+            borrowing.setDueDate(readNullableDate(in));
+            borrowing.setReturnDate(readNullableDate(in));
+            return borrowing;
+        }
+    };
+
+    static final BinaryCodec<UserSnapshot> USER_SNAPSHOT = new Codec<>(8, UserSnapshot.class, 1) {
+        @Override
+        public void write(UserSnapshot user, DataOutput out, CompactBinaryRedisSerializer serializer) throws IOException {
+            writeNullableLong(out, user.getId());
+            writeNullableString(out, user.getEmail());
+            writeNullableString(out, user.getName());
+            writeNullableString(out, user.getProfilePictureUrl());
+            writeNullableString(out, user.getRole() == null ? null : user.getRole().name());
+            writeNullableLong(out, user.getMemberId());
+        }
+
+        @Override
+        public UserSnapshot read(DataInput in, int schemaVersion, CompactBinaryRedisSerializer serializer) throws IOException {
+            UserSnapshot user = new UserSnapshot();
+            user.setId(readNullableLong(in));
+            user.setEmail(readNullableString(in));
+            user.setName(readNullableString(in));
+            user.setProfilePictureUrl(readNullableString(in));
+            String role = readNullableString(in);
+            user.setRole(role == null ? null : User.Role.valueOf(role));
+            user.setMemberId(readNullableLong(in));
+            return user;
+        }
+    };
+
+    private static <T> void writeAssociation(DataOutput out, T entity, Long id, BinaryCodec<T> codec,
+                                             CompactBinaryRedisSerializer serializer) throws IOException {
+        if (entity == null) {
+            out.writeByte(ABSENT);
+        } else if (Hibernate.isInitialized(entity)) {
+            out.writeByte(INLINE);
+            writeVarInt(out, codec.schemaVersion());
+            codec.write(codec.type().cast(Hibernate.unproxy(entity)), out, serializer);
+        } else {
+            out.writeByte(REFERENCE);
+            writeNullableLong(out, id);
+        }
+    }
+
+    private static <T> T readAssociation(DataInput in, BinaryCodec<T> codec, Supplier<T> factory,
+                                         BiConsumer<T, Long> idSetter,
+                                         CompactBinaryRedisSerializer serializer) throws IOException {
+        int kind = in.readByte();
+        if (kind == ABSENT) {
+            return null;
+        }
+        if (kind == INLINE) {
+            return codec.read(in, readVarInt(in), serializer);
+        }
+        T reference = factory.get();
+        idSetter.accept(reference, readNullableLong(in));
+        return reference;
+    }
+
+    static final BinaryCodec<CacheEnvelope> CACHE_ENVELOPE = new Codec<>(9, CacheEnvelope.class, 1) {
+        @Override
+        public void write(CacheEnvelope envelope, DataOutput out, CompactBinaryRedisSerializer serializer) throws IOException {
+            writeVarLong(out, envelope.getExpiresAtMillis());
+            writeVarLong(out, envelope.getLoadMillis());
+            serializer.writeValue(envelope.getValue(), out);
+        }
+
+        @Override
+        public CacheEnvelope read(DataInput in, int schemaVersion, CompactBinaryRedisSerializer serializer) throws IOException {
+            long expiresAtMillis = readVarLong(in);
+            long loadMillis = readVarLong(in);
+            return new CacheEnvelope(serializer.readValue(in), expiresAtMillis, loadMillis);
+        }
+    };
+
+    abstract static class Codec<T> implements BinaryCodec<T> {
+        private final int typeId;
+        private final Class<T> type;
+        private final int schemaVersion;
+
+        Codec(int typeId, Class<T> type, int schemaVersion) {
+            this.typeId = typeId;
+            this.type = type;
+            this.schemaVersion = schemaVersion;
+        }
+
+        @Override
+        public int typeId() {
+            return typeId;
+        }
+
+        @Override
+        public Class<T> type() {
+            return type;
+        }
+
+        @Override
+        public int schemaVersion() {
+            return schemaVersion;
+        }
+    }
+}
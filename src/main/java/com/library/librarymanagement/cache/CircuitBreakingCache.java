@@ -0,0 +1,165 @@
+package com.library.librarymanagement.cache;
+
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The remote tier of a {@link TwoTierCache}, passed through a {@link RedisCircuitBreaker}.
+ * While Redis is skipped or failing, reads miss and writes are dropped, so callers load from
+ * the database instead of waiting on Redis.
+ * <p>
+ * A dropped put or evict can leave an older value in Redis. Until the cache has been cleared
+ * after the last one dropped, reads miss; the first read that finds Redis answering clears
+ * it. A dropped {@link #putLoaded load} leaves nothing older than the database behind, so it
+ * does not count.
+ */
+public class CircuitBreakingCache implements Cache {
+
+    private final Cache delegate;
+    private final RedisCircuitBreaker circuitBreaker;
+    private final AtomicLong droppedWrites = new AtomicLong();
+    private final ReentrantLock clearing = new ReentrantLock();
+    private volatile long clearedThrough;
+
+    public CircuitBreakingCache(Cache delegate, RedisCircuitBreaker circuitBreaker) {
+        this.delegate = delegate;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        if (!clearIfDirty()) {
+            return null;
+        }
+        return circuitBreaker.call(() -> delegate.get(key), () -> null);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        if (!clearIfDirty()) {
+            return null;
+        }
+        return circuitBreaker.call(() -> delegate.get(key, type), () -> null);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        putLoaded(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        write(() -> delegate.put(key, value));
+    }
+
+    /**
+     * Stores a value just loaded from the database. If it is dropped, Redis keeps either no
+     * entry or the one the load replaced, which was current when that load began.
+     */
+    public void putLoaded(Object key, Object value) {
+        circuitBreaker.run(() -> delegate.put(key, value));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper[] existing = new ValueWrapper[1];
+        if (clearIfDirty()) {
+            write(() -> existing[0] = delegate.putIfAbsent(key, value));
+        } else {
+            droppedWrites.incrementAndGet();
+        }
+        return existing[0];
+    }
+
+    @Override
+    public void evict(Object key) {
+        write(() -> delegate.evict(key));
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean[] evicted = new boolean[1];
+        write(() -> evicted[0] = delegate.evictIfPresent(key));
+        return evicted[0];
+    }
+
+    @Override
+    public void clear() {
+        clearing.lock();
+        try {
+            long dropped = droppedWrites.get();
+            if (circuitBreaker.run(delegate::clear)) {
+                clearedThrough = dropped;
+            } else {
+                droppedWrites.incrementAndGet();
+            }
+        } finally {
+            clearing.unlock();
+        }
+    }
+
+    /**
+     * Whether writes were dropped since Redis was last cleared, so it may hold stale values.
+     */
+    public boolean isDirty() {
+        return droppedWrites.get() != clearedThrough;
+    }
+
+    private void write(Runnable operation) {
+        if (!circuitBreaker.run(operation)) {
+            droppedWrites.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return whether Redis may be read: nothing was dropped, or this call cleared it
+     */
+    private boolean clearIfDirty() {
+        if (!isDirty()) {
+            return true;
+        }
+        // readers arriving while another clears just miss
+        if (!clearing.tryLock()) {
+            return false;
+        }
+        try {
+            long dropped = droppedWrites.get();
+            if (dropped == clearedThrough) {
+                return true;
+            }
+            if (!circuitBreaker.run(delegate::clear)) {
+                return false;
+            }
+            // writes dropped while clearing leave it dirty for the next read
+            clearedThrough = dropped;
+            return !isDirty();
+        } finally {
+            clearing.unlock();
+        }
+    }
+}
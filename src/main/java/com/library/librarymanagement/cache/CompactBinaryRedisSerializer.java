@@ -0,0 +1,181 @@
+package com.library.librarymanagement.cache;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compact binary {@link RedisSerializer} for the cached model and DTO types.
+ * <p>
+ * A value is written as a three byte header (magic, format version, flags) followed by a
+ * registered type id, the codec's schema version and the fields, using variable-length
+ * integers throughout. Bodies of at least {@code compressionThreshold} bytes are LZ4
+ * compressed when that makes them smaller. Values of unregistered types, and values written before this serializer was
+ * enabled, go through the fallback serializer so caches can switch format without a flush.
+ */
+public class CompactBinaryRedisSerializer implements RedisSerializer<Object> {
+
+    static final byte MAGIC = (byte) 0xB1;
+    static final byte FORMAT_VERSION = 1;
+    private static final byte FLAG_LZ4 = 0x01;
+    private static final int HEADER_SIZE = 3;
+
+    private final Map<Class<?>, BinaryCodec<?>> codecsByType = new ConcurrentHashMap<>();
+    private final Map<Integer, BinaryCodec<?>> codecsById = new ConcurrentHashMap<>();
+    private final int compressionThreshold;
+    private final RedisSerializer<Object> fallback;
+    private final LZ4Compressor compressor = LZ4Factory.fastestInstance().fastCompressor();
+    private final LZ4FastDecompressor decompressor = LZ4Factory.fastestInstance().fastDecompressor();
+
+    /**
+     * @param compressionThreshold body size from which values are compressed; {@code 0} disables compression
+     * @param fallback             serializer for unregistered types and values not written by this serializer
+     */
+    public CompactBinaryRedisSerializer(int compressionThreshold, RedisSerializer<Object> fallback) {
+        this.compressionThreshold = compressionThreshold;
+        this.fallback = fallback;
+        CachedTypeCodecs.all().forEach(this::register);
+    }
+
+    public void register(BinaryCodec<?> codec) {
+        BinaryCodec<?> existing = codecsById.putIfAbsent(codec.typeId(), codec);
+        if (existing != null && existing != codec) {
+            throw new IllegalArgumentException("Type id " + codec.typeId() + " is already used by " + existing.type().getName());
+        }
+        codecsByType.put(codec.type(), codec);
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        if (!canEncode(value)) {
+            return fallback.serialize(value);
+        }
+        try {
+            ByteArrayOutputStream body = new ByteArrayOutputStream(128);
+            writeValue(value, new DataOutputStream(body));
+            byte[] raw = body.toByteArray();
+
+            if (compressionThreshold > 0 && raw.length >= compressionThreshold) {
+                byte[] compressed = compress(raw);
+                if (compressed.length < HEADER_SIZE + raw.length) {
+                    return compressed;
+                }
+            }
+            byte[] result = new byte[HEADER_SIZE + raw.length];
+            writeHeader(result, (byte) 0);
+            System.arraycopy(raw, 0, result, HEADER_SIZE, raw.length);
+            return result;
+        } catch (IOException e) {
+            throw new SerializationException("Could not serialize " + value.getClass().getName(), e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            return fallback.deserialize(bytes);
+        }
+        if (bytes.length < HEADER_SIZE || bytes[1] != FORMAT_VERSION) {
+            throw new SerializationException("Unsupported cache value format version " + (bytes.length > 1 ? bytes[1] : -1));
+        }
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, HEADER_SIZE, bytes.length - HEADER_SIZE));
+            if ((bytes[2] & FLAG_LZ4) != 0) {
+                int rawLength = BinaryIo.readVarInt(in);
+                int offset = bytes.length - in.available();
+                byte[] raw = decompressor.decompress(bytes, offset, rawLength);
+                in = new DataInputStream(new ByteArrayInputStream(raw));
+            }
+            return readValue(in);
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Could not deserialize cached value", e);
+        }
+    }
+
+    /**
+     * Writes a value with its type id and schema version; codecs call this for nested values.
+     */
+    @SuppressWarnings("unchecked")
+    public void writeValue(Object value, DataOutput out) throws IOException {
+        BinaryCodec<Object> codec = (BinaryCodec<Object>) findCodec(value.getClass());
+        if (codec == null) {
+            throw new SerializationException("No binary codec registered for " + value.getClass().getName());
+        }
+        BinaryIo.writeVarInt(out, codec.typeId());
+        BinaryIo.writeVarInt(out, codec.schemaVersion());
+        codec.write(value, out, this);
+    }
+
+    public Object readValue(DataInput in) throws IOException {
+        int typeId = BinaryIo.readVarInt(in);
+        BinaryCodec<?> codec = codecsById.get(typeId);
+        if (codec == null) {
+            throw new SerializationException("Unknown cached type id " + typeId);
+        }
+        int schemaVersion = BinaryIo.readVarInt(in);
+        if (schemaVersion > codec.schemaVersion()) {
+            throw new SerializationException("Cached " + codec.type().getSimpleName() + " has schema version "
+                    + schemaVersion + ", newer than supported " + codec.schemaVersion());
+        }
+        return codec.read(in, schemaVersion, this);
+    }
+
+    /**
+     * An envelope is encoded only when its content is, so one holding an unregistered type
+     * goes to the fallback whole.
+     */
+    private boolean canEncode(Object value) {
+        if (value instanceof CacheEnvelope envelope) {
+            return envelope.getValue() != null && canEncode(envelope.getValue());
+        }
+        return findCodec(value.getClass()) != null;
+    }
+
+    /**
+     * Resolves a codec for the class or its nearest registered superclass, so Hibernate
+     * proxies of an entity use the entity's codec.
+     */
+    private BinaryCodec<?> findCodec(Class<?> type) {
+        for (Class<?> candidate = type; candidate != null && candidate != Object.class; candidate = candidate.getSuperclass()) {
+            BinaryCodec<?> codec = codecsByType.get(candidate);
+            if (codec != null) {
+                return codec;
+            }
+        }
+        return null;
+    }
+
+    private byte[] compress(byte[] raw) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(HEADER_SIZE + 5 + compressor.maxCompressedLength(raw.length));
+        byte[] header = new byte[HEADER_SIZE];
+        writeHeader(header, FLAG_LZ4);
+        compressed.write(header);
+        BinaryIo.writeVarInt(new DataOutputStream(compressed), raw.length);
+        compressed.write(compressor.compress(raw));
+        return compressed.toByteArray();
+    }
+
+    private static void writeHeader(byte[] target, byte flags) {
+        target[0] = MAGIC;
+        target[1] = FORMAT_VERSION;
+        target[2] = flags;
+    }
+}
@@ -0,0 +1,47 @@
+package com.library.librarymanagement.cache;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextImpl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * A security context read from a session that decodes its authentication only when asked
+ * for it, and is written back as the bytes it was read from until then. Requests that load
+ * the session without consulting the authentication never decode it.
+ */
+final class LazySecurityContext extends SecurityContextImpl {
+
+    private byte[] encoded;
+
+    LazySecurityContext(byte[] encoded) {
+        this.encoded = encoded;
+    }
+
+    @Override
+    public synchronized Authentication getAuthentication() {
+        if (encoded != null) {
+            try {
+                super.setAuthentication(SessionAttributeCodecs.readAuthentication(encoded));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not decode the session's authentication", e);
+            }
+            encoded = null;
+        }
+        return super.getAuthentication();
+    }
+
+    @Override
+    public synchronized void setAuthentication(Authentication authentication) {
+        encoded = null;
+        super.setAuthentication(authentication);
+    }
+
+    /**
+     * The authentication as read, or null once it has been decoded or replaced.
+     */
+    synchronized byte[] encoded() {
+        return encoded;
+    }
+}
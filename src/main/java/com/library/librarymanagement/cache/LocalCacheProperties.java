@@ -0,0 +1,22 @@
+package com.library.librarymanagement.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Sizing of the on-heap near-cache kept in front of Redis, applied to each cache name.
+ */
+@Component
+@ConfigurationProperties(prefix = "cache.local")
+@Getter
+@Setter
+public class LocalCacheProperties {
+
+    private long maximumSize = 10_000;
+
+    private Duration ttl = Duration.ofSeconds(60);
+}
@@ -0,0 +1,71 @@
+package com.library.librarymanagement.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts near-cache invalidations over Redis pub/sub and applies the ones published by
+ * other nodes. Messages carry the publishing node's id so a node ignores its own echoes.
+ */
+public class RedisCacheInvalidationBus implements CacheInvalidationBus, MessageListener {
+
+    public static final String CHANNEL = "library:cache:invalidation";
+
+    private static final Logger log = LoggerFactory.getLogger(RedisCacheInvalidationBus.class);
+    private static final String SEPARATOR = "\n";
+    private static final String ALL_KEYS = "*";
+    private static final String KEY_PREFIX = "k:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, Consumer<String>> subscribers = new ConcurrentHashMap<>();
+    private volatile BiConsumer<String, String> invalidationHandler = (cacheName, key) -> { };
+
+    public RedisCacheInvalidationBus(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    public void setInvalidationHandler(BiConsumer<String, String> invalidationHandler) {
+        this.invalidationHandler = invalidationHandler;
+    }
+
+    @Override
+    public void subscribe(String name, Consumer<String> handler) {
+        subscribers.put(name, handler);
+    }
+
+    @Override
+    public void publish(String cacheName, Object key) {
+        String target = key == null ? ALL_KEYS : KEY_PREFIX + TwoTierCache.localKey(key);
+        redisTemplate.convertAndSend(CHANNEL, nodeId + SEPARATOR + cacheName + SEPARATOR + target);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(SEPARATOR, 3);
+        if (parts.length != 3) {
+            log.warn("Ignoring malformed cache invalidation message");
+            return;
+        }
+        if (nodeId.equals(parts[0])) {
+            return;
+        }
+        String key = parts[2].startsWith(KEY_PREFIX) ? parts[2].substring(KEY_PREFIX.length()) : null;
+        Consumer<String> subscriber = subscribers.get(parts[1]);
+        if (subscriber != null) {
+            subscriber.accept(key);
+        } else {
+            invalidationHandler.accept(parts[1], key);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.library.librarymanagement.cache;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * {@link CacheLoadLock} as a Redis key set with NX and an expiry; unlocking deletes the key
+ * only while it still holds the caller's token, so a load that outlived its lease cannot
+ * release the next holder's lock.
+ */
+public class RedisCacheLoadLock implements CacheLoadLock {
+
+    private static final String KEY_PREFIX = "library:cache:lock:";
+    private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    public RedisCacheLoadLock(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public boolean tryLock(String cacheName, String key, String token, Duration leaseTime) {
+        return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(lockKey(cacheName, key), token, leaseTime));
+    }
+
+    @Override
+    public void unlock(String cacheName, String key, String token) {
+        redisTemplate.execute(RELEASE, List.of(lockKey(cacheName, key)), token);
+    }
+
+    private static String lockKey(String cacheName, String key) {
+        return KEY_PREFIX + cacheName + ":" + key;
+    }
+}
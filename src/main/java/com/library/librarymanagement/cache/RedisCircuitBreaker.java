@@ -0,0 +1,172 @@
+package com.library.librarymanagement.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Decides whether the caches use Redis at all. After {@code failureThreshold} consecutive
+ * operations failed or ran slower than {@code slowCallThreshold} it opens, and operations
+ * are skipped for {@code openDuration}. Then one operation is let through as a trial: if it
+ * succeeds the breaker closes, otherwise it opens again.
+ * <p>
+ * Only {@link DataAccessException}s (connection failures, timeouts, Redis errors) count
+ * against Redis; anything else, a value that cannot be deserialized for one, propagates. If
+ * the trial throws it, the breaker opens again all the same rather than wait on a trial that
+ * will never report back.
+ */
+public class RedisCircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(RedisCircuitBreaker.class);
+
+    private final int failureThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final LongAdder notPermitted = new LongAdder();
+    private volatile long openedAt;
+
+    public RedisCircuitBreaker(RedisResilienceProperties properties) {
+        this.failureThreshold = properties.getFailureThreshold();
+        this.slowCallNanos = properties.getSlowCallThreshold().toNanos();
+        this.openNanos = properties.getOpenDuration().toNanos();
+    }
+
+    /**
+     * @return the operation's result, or the fallback's when the breaker is open or the
+     * operation failed
+     */
+    public <T> T call(Supplier<T> operation, Supplier<T> fallback) {
+        State permit = acquire();
+        if (permit == null) {
+            return fallback.get();
+        }
+        long started = System.nanoTime();
+        T result;
+        try {
+            result = operation.get();
+        } catch (DataAccessException e) {
+            log.debug("Redis operation failed", e);
+            onFailure(permit);
+            return fallback.get();
+        } catch (RuntimeException | Error e) {
+            if (permit == State.HALF_OPEN) {
+                open();
+            }
+            throw e;
+        }
+        onCompletion(permit, System.nanoTime() - started);
+        return result;
+    }
+
+    /**
+     * @return whether the operation ran and succeeded
+     */
+    public boolean run(Runnable operation) {
+        return call(() -> {
+            operation.run();
+            return true;
+        }, () -> false);
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    /**
+     * Operations skipped because the breaker was open.
+     */
+    public long getNotPermitted() {
+        return notPermitted.sum();
+    }
+
+    public CacheLoadLock guard(CacheLoadLock lock) {
+        return new CacheLoadLock() {
+            // without Redis every node loads for itself
+            @Override
+            public boolean tryLock(String cacheName, String key, String token, Duration leaseTime) {
+                return call(() -> lock.tryLock(cacheName, key, token, leaseTime), () -> true);
+            }
+
+            @Override
+            public void unlock(String cacheName, String key, String token) {
+                run(() -> lock.unlock(cacheName, key, token));
+            }
+        };
+    }
+
+    /**
+     * Invalidations that cannot be published are dropped: other nodes cannot receive them
+     * without Redis either, and their near-cache entries expire on their own.
+     */
+    public CacheInvalidationBus guard(CacheInvalidationBus bus) {
+        return new CacheInvalidationBus() {
+            @Override
+            public void publish(String cacheName, Object key) {
+                run(() -> bus.publish(cacheName, key));
+            }
+
+            // only registers a handler, so it never needs Redis
+            @Override
+            public void subscribe(String name, Consumer<String> handler) {
+                bus.subscribe(name, handler);
+            }
+        };
+    }
+
+    /**
+     * @return the state the operation runs under, or {@code null} when it may not run
+     */
+    private State acquire() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return current;
+        }
+        if (current == State.OPEN && System.nanoTime() - openedAt >= openNanos
+                && state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+            return State.HALF_OPEN;
+        }
+        notPermitted.increment();
+        return null;
+    }
+
+    private void onCompletion(State permit, long elapsedNanos) {
+        if (elapsedNanos > slowCallNanos) {
+            log.debug("Redis operation took {} ms", elapsedNanos / 1_000_000);
+            onFailure(permit);
+            return;
+        }
+        consecutiveFailures.set(0);
+        if (permit == State.HALF_OPEN && state.compareAndSet(State.HALF_OPEN, State.CLOSED)) {
+            log.info("Redis is answering again; caches use it from now on");
+        }
+    }
+
+    private void onFailure(State permit) {
+        if (permit == State.HALF_OPEN) {
+            open();
+        } else if (consecutiveFailures.incrementAndGet() >= failureThreshold && state.get() == State.CLOSED) {
+            open();
+        }
+    }
+
+    private void open() {
+        openedAt = System.nanoTime();
+        if (state.getAndSet(State.OPEN) == State.CLOSED) {
+            log.warn("Redis is failing or slow; caches skip it for {} ms at a time and read the database",
+                    openNanos / 1_000_000);
+        }
+    }
+}
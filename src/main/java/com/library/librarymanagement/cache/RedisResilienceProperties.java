@@ -0,0 +1,44 @@
+package com.library.librarymanagement.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Timeouts for Redis commands and the {@link RedisCircuitBreaker} that stops the caches from
+ * using Redis while it is failing or slow.
+ */
+@Component
+@ConfigurationProperties(prefix = "cache.redis")
+@Getter
+@Setter
+public class RedisResilienceProperties {
+
+    /**
+     * Limit on every Redis command unless {@code spring.data.redis.timeout} sets another.
+     */
+    private Duration commandTimeout = Duration.ofSeconds(1);
+
+    /**
+     * Limit on connecting unless {@code spring.data.redis.connect-timeout} sets another.
+     */
+    private Duration connectTimeout = Duration.ofMillis(500);
+
+    /**
+     * A cache operation slower than this counts as a failure, even though it completed.
+     */
+    private Duration slowCallThreshold = Duration.ofMillis(100);
+
+    /**
+     * Consecutive failed or slow operations after which Redis is skipped.
+     */
+    private int failureThreshold = 5;
+
+    /**
+     * How long Redis is skipped before one operation is let through to test it.
+     */
+    private Duration openDuration = Duration.ofSeconds(10);
+}
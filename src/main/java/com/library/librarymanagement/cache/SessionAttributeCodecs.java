@@ -0,0 +1,160 @@
+package com.library.librarymanagement.cache;
+
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.oidc.StandardClaimNames;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.library.librarymanagement.cache.BinaryIo.*;
+
+/**
+ * {@link BinaryCodec}s for HTTP session values stored in Redis: the timestamps and timeout
+ * Spring Session keeps per session, and the security context of a logged-in user.
+ * <p>
+ * An OAuth2 login is stored as its registration id, authorities and the profile claims the
+ * application reads ({@code sub}, {@code email}, {@code name}, {@code picture}) instead of
+ * the Java-serialized {@code DefaultOidcUser} with its ID token and every claim; it comes
+ * back as a {@link DefaultOAuth2User}. Any other authentication is Java-serialized inside
+ * the codec. Session type ids start at 16, apart from the cached types'.
+ */
+public final class SessionAttributeCodecs {
+
+    private static final List<String> PROFILE_CLAIMS = List.of(
+            StandardClaimNames.SUB, StandardClaimNames.EMAIL, StandardClaimNames.NAME, StandardClaimNames.PICTURE);
+
+    private static final int NO_AUTHENTICATION = 0;
+    private static final int OAUTH2_LOGIN = 1;
+    private static final int SERIALIZED = 2;
+
+    private static final JdkSerializationRedisSerializer JDK = new JdkSerializationRedisSerializer();
+
+    private SessionAttributeCodecs() {
+    }
+
+    public static List<BinaryCodec<?>> all() {
+        return List.of(LONG, INTEGER, SECURITY_CONTEXT);
+    }
+
+    static final BinaryCodec<Long> LONG = new CachedTypeCodecs.Codec<>(16, Long.class, 1) {
+        @Override
+        public void write(Long value, DataOutput out, CompactBinaryRedisSerializer serializer) throws IOException {
+            writeVarLong(out, value);
+        }
+
+        @Override
+        public Long read(DataInput in, int schemaVersion, CompactBinaryRedisSerializer serializer) throws IOException {
+            return readVarLong(in);
+        }
+    };
+
+    static final BinaryCodec<Integer> INTEGER = new CachedTypeCodecs.Codec<>(17, Integer.class, 1) {
+        @Override
+        public void write(Integer value, DataOutput out, CompactBinaryRedisSerializer serializer) throws IOException {
+            writeVarInt(out, value);
+        }
+
+        @Override
+        public Integer read(DataInput in, int schemaVersion, CompactBinaryRedisSerializer serializer) throws IOException {
+            return readVarInt(in);
+        }
+    };
+
+    // The authentication is length-prefixed so reading the session can skip decoding it
+    static final BinaryCodec<SecurityContextImpl> SECURITY_CONTEXT = new CachedTypeCodecs.Codec<>(18, SecurityContextImpl.class, 1) {
+        @Override
+        public void write(SecurityContextImpl context, DataOutput out, CompactBinaryRedisSerializer serializer) throws IOException {
+            byte[] encoded = context instanceof LazySecurityContext lazy ? lazy.encoded() : null;
+            if (encoded == null) {
+                encoded = writeAuthentication(context.getAuthentication());
+            }
+            writeVarInt(out, encoded.length);
+            out.write(encoded);
+        }
+
+        @Override
+        public SecurityContextImpl read(DataInput in, int schemaVersion, CompactBinaryRedisSerializer serializer) throws IOException {
+            byte[] encoded = new byte[readVarInt(in)];
+            in.readFully(encoded);
+            return new LazySecurityContext(encoded);
+        }
+    };
+
+    private static byte[] writeAuthentication(Authentication authentication) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        if (authentication == null) {
+            writeVarInt(out, NO_AUTHENTICATION);
+        } else if (authentication instanceof OAuth2AuthenticationToken token && isCompact(token.getPrincipal())) {
+            writeVarInt(out, OAUTH2_LOGIN);
+            writeNullableString(out, token.getAuthorizedClientRegistrationId());
+            writeVarInt(out, token.getAuthorities().size());
+            for (GrantedAuthority authority : token.getAuthorities()) {
+                writeNullableString(out, authority.getAuthority());
+            }
+            for (String claim : PROFILE_CLAIMS) {
+                writeNullableString(out, token.getPrincipal().getAttribute(claim));
+            }
+        } else {
+            writeVarInt(out, SERIALIZED);
+            out.write(JDK.serialize(authentication));
+        }
+        return bytes.toByteArray();
+    }
+
+    static Authentication readAuthentication(byte[] encoded) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded));
+        int kind = readVarInt(in);
+        if (kind == NO_AUTHENTICATION) {
+            return null;
+        }
+        if (kind == SERIALIZED) {
+            return (Authentication) JDK.deserialize(in.readAllBytes());
+        }
+        if (kind != OAUTH2_LOGIN) {
+            throw new IOException("Unknown session authentication kind " + kind);
+        }
+        String registrationId = readNullableString(in);
+        int count = readVarInt(in);
+        List<GrantedAuthority> authorities = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            authorities.add(new SimpleGrantedAuthority(readNullableString(in)));
+        }
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        for (String claim : PROFILE_CLAIMS) {
+            String value = readNullableString(in);
+            if (value != null) {
+                attributes.put(claim, value);
+            }
+        }
+        OAuth2User principal = new DefaultOAuth2User(authorities, attributes, StandardClaimNames.SUB);
+        return new OAuth2AuthenticationToken(principal, authorities, registrationId);
+    }
+
+    /**
+     * Whether the principal survives as its profile claims: it is named by its subject and
+     * those claims, where present, are strings.
+     */
+    private static boolean isCompact(OAuth2User principal) {
+        if (!(principal.getAttribute(StandardClaimNames.SUB) instanceof String subject) || !subject.equals(principal.getName())) {
+            return false;
+        }
+        return PROFILE_CLAIMS.stream().map(principal::getAttribute).allMatch(value -> value == null || value instanceof String);
+    }
+}
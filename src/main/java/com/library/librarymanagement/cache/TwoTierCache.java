@@ -0,0 +1,435 @@
+package com.library.librarymanagement.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link Cache} that answers from a bounded on-heap near-cache (L1) and falls back to a
+ * shared remote cache (L2). Every write goes to both tiers. Puts, evicts and clears are also
+ * announced on the {@link CacheInvalidationBus} so other nodes drop their now stale L1 copy;
+ * values loaded from the database are not, as no node holds anything newer than them.
+ * <p>
+ * Values are stored in a {@link CacheEnvelope} that expires after the cache's TTL, jittered
+ * per entry. Loads through {@link #get(Object, Callable)} (what {@code @Cacheable(sync = true)}
+ * uses) are coalesced: one per key in this JVM, and across nodes behind the
+ * {@link CacheLoadLock} while the others wait for its value to reach Redis. A read of an entry
+ * close to expiry may also reload it in the background, so hot entries are replaced before
+ * they expire instead of all their readers missing at once.
+ * <p>
+ * A load stores its value only if nothing wrote the entry while the loader ran: no put,
+ * evict or clear here or announced by another node, and Redis still holds the entry the load
+ * started from. Otherwise the loader may have read the database before that write committed
+ * and would put back the older value, with a fresh TTL.
+ */
+public class TwoTierCache implements Cache {
+
+    private static final Logger log = LoggerFactory.getLogger(TwoTierCache.class);
+    private static final long LOCK_POLL_MILLIS = 20;
+
+    private final String name;
+    private final Cache remote;
+    private final com.github.benmanes.caffeine.cache.Cache<String, CacheEnvelope> local;
+    private final CacheExpiryProperties expiryProperties;
+    private final CacheInvalidationBus invalidationBus;
+    private final CacheLoadLock loadLock;
+    private final Executor refreshExecutor;
+    private final ConcurrentMap<String, CompletableFuture<Object>> loads = new ConcurrentHashMap<>();
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final CacheTierStatistics localStatistics = new CacheTierStatistics();
+    private final CacheTierStatistics remoteStatistics = new CacheTierStatistics();
+    private final LongAdder missLoads = new LongAdder();
+    private final LongAdder coalescedLoads = new LongAdder();
+    private final LongAdder earlyRefreshes = new LongAdder();
+    private final LongAdder discardedLoads = new LongAdder();
+    // puts, evicts and clears seen by this node, its own and other nodes'; loads compare it
+    private final AtomicLong writes = new AtomicLong();
+
+    public TwoTierCache(Cache remote, LocalCacheProperties properties, CacheExpiryProperties expiryProperties,
+                        CacheInvalidationBus invalidationBus, CacheLoadLock loadLock, Executor refreshExecutor) {
+        this.name = remote.getName();
+        this.remote = remote;
+        this.expiryProperties = expiryProperties;
+        this.invalidationBus = invalidationBus;
+        this.loadLock = loadLock;
+        this.refreshExecutor = refreshExecutor;
+        this.local = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .<String, CacheEnvelope>evictionListener((key, value, cause) -> localStatistics.recordEviction())
+                .build();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        CacheEnvelope envelope = lookup(key);
+        return envelope != null ? toValueWrapper(envelope.getValue()) : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        CacheEnvelope envelope = lookup(key);
+        if (envelope == null) {
+            return (T) fromStoreValue(loadOnce(key, valueLoader));
+        }
+        if (envelope.shouldRefreshEarly(System.currentTimeMillis(), expiryProperties.getEarlyRefreshBeta())) {
+            refreshAhead(key, envelope, valueLoader);
+        }
+        return (T) fromStoreValue(envelope.getValue());
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        writes.incrementAndGet();
+        store(key, envelope(value, 0), false);
+        invalidationBus.publish(name, key);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        CacheEnvelope envelope = envelope(value, 0);
+        writes.incrementAndGet();
+        ValueWrapper existing = remote.putIfAbsent(key, envelope);
+        if (existing == null) {
+            remoteStatistics.recordPut();
+            local.put(localKey(key), envelope);
+            localStatistics.recordPut();
+            invalidationBus.publish(name, key);
+            return null;
+        }
+        return toValueWrapper(unwrap(existing.get()).getValue());
+    }
+
+    @Override
+    public void evict(Object key) {
+        writes.incrementAndGet();
+        remote.evict(key);
+        remoteStatistics.recordEviction();
+        invalidateLocal(localKey(key));
+        invalidationBus.publish(name, key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        writes.incrementAndGet();
+        boolean evicted = remote.evictIfPresent(key);
+        if (evicted) {
+            remoteStatistics.recordEviction();
+        }
+        invalidateLocal(localKey(key));
+        invalidationBus.publish(name, key);
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        writes.incrementAndGet();
+        remote.clear();
+        invalidateLocalAll();
+        invalidationBus.publish(name, null);
+    }
+
+    /**
+     * Drops a near-cache entry on behalf of another node; never re-publishes.
+     */
+    public void invalidateLocal(String localKey) {
+        writes.incrementAndGet();
+        if (local.asMap().remove(localKey) != null) {
+            localStatistics.recordEviction();
+        }
+    }
+
+    public void invalidateLocalAll() {
+        writes.incrementAndGet();
+        local.invalidateAll();
+    }
+
+    public CacheTierStatistics getLocalStatistics() {
+        return localStatistics;
+    }
+
+    public CacheTierStatistics getRemoteStatistics() {
+        return remoteStatistics;
+    }
+
+    /**
+     * Loads run by this node because an entry was missing from both tiers.
+     */
+    public long getMissLoads() {
+        return missLoads.sum();
+    }
+
+    /**
+     * Misses that waited for a load already running in this JVM instead of starting their own.
+     */
+    public long getCoalescedLoads() {
+        return coalescedLoads.sum();
+    }
+
+    /**
+     * Entries this node reloaded in the background ahead of their expiry.
+     */
+    public long getEarlyRefreshes() {
+        return earlyRefreshes.sum();
+    }
+
+    /**
+     * Loads whose value was returned but not stored, because the entry was written meanwhile.
+     */
+    public long getDiscardedLoads() {
+        return discardedLoads.sum();
+    }
+
+    public long getLocalSize() {
+        return local.estimatedSize();
+    }
+
+    /**
+     * Near-cache entries are keyed by the string form of the cache key, which is also what
+     * travels in invalidation messages.
+     */
+    static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+
+    private CacheEnvelope lookup(Object key) {
+        long now = System.currentTimeMillis();
+        CacheEnvelope cached = local.getIfPresent(localKey(key));
+        if (cached != null && !cached.isExpired(now)) {
+            localStatistics.recordHit();
+            return cached;
+        }
+        localStatistics.recordMiss();
+
+        CacheEnvelope stored = readRemote(key);
+        if (stored == null) {
+            remoteStatistics.recordMiss();
+            return null;
+        }
+        remoteStatistics.recordHit();
+        local.put(localKey(key), stored);
+        return stored;
+    }
+
+    private CacheEnvelope readRemote(Object key) {
+        ValueWrapper wrapper = remote.get(key);
+        return wrapper != null ? unwrap(wrapper.get()) : null;
+    }
+
+    /**
+     * Loads a missing entry, or waits for the load of it already running in this JVM.
+     *
+     * @return the store value
+     */
+    private Object loadOnce(Object key, Callable<?> valueLoader) {
+        String localKey = localKey(key);
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> running = loads.putIfAbsent(localKey, load);
+        if (running != null) {
+            coalescedLoads.increment();
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        try {
+            Object storeValue = loadAcrossNodes(key, localKey, valueLoader);
+            load.complete(storeValue);
+            return storeValue;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loads.remove(localKey, load);
+        }
+    }
+
+    /**
+     * Loads under the cross-node lock. While another node holds it, polls Redis for that
+     * node's value; if none arrives within the lease, loads anyway rather than fail the read.
+     */
+    private Object loadAcrossNodes(Object key, String localKey, Callable<?> valueLoader) {
+        Duration lease = expiryProperties.getLockLease();
+        String token = UUID.randomUUID().toString();
+        long deadline = System.nanoTime() + lease.toNanos();
+        boolean waited = false;
+        while (!loadLock.tryLock(name, localKey, token, lease)) {
+            waited = true;
+            CacheEnvelope loaded = readRemote(key);
+            if (loaded != null) {
+                local.put(localKey, loaded);
+                return loaded.getValue();
+            }
+            if (System.nanoTime() >= deadline || !pause()) {
+                log.debug("Loading {} in cache {} without the load lock", key, name);
+                return load(key, null, valueLoader, missLoads);
+            }
+        }
+        try {
+            if (waited) {
+                // the previous holder may have stored it just before releasing
+                CacheEnvelope loaded = readRemote(key);
+                if (loaded != null) {
+                    local.put(localKey, loaded);
+                    return loaded.getValue();
+                }
+            }
+            return load(key, null, valueLoader, missLoads);
+        } finally {
+            loadLock.unlock(name, localKey, token);
+        }
+    }
+
+    /**
+     * Reloads the entry on the refresh executor unless this node is already doing so or
+     * another node holds its lock; when the executor is busy the entry just expires.
+     */
+    private void refreshAhead(Object key, CacheEnvelope current, Callable<?> valueLoader) {
+        String localKey = localKey(key);
+        if (!refreshing.add(localKey)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    refresh(key, localKey, current, valueLoader);
+                } finally {
+                    refreshing.remove(localKey);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(localKey);
+        }
+    }
+
+    private void refresh(Object key, String localKey, CacheEnvelope current, Callable<?> valueLoader) {
+        String token = UUID.randomUUID().toString();
+        if (!loadLock.tryLock(name, localKey, token, expiryProperties.getLockLease())) {
+            return;
+        }
+        try {
+            load(key, current, valueLoader, earlyRefreshes);
+        } catch (RuntimeException e) {
+            log.warn("Could not refresh {} in cache {} ahead of its expiry", key, name, e);
+        } finally {
+            loadLock.unlock(name, localKey, token);
+        }
+    }
+
+    /**
+     * Calls the loader and stores its value with the time the call took, unless the entry
+     * was written while it ran.
+     *
+     * @param current the entry the load replaces, {@code null} when it was missing
+     * @return the store value
+     */
+    private Object load(Object key, CacheEnvelope current, Callable<?> valueLoader, LongAdder counter) {
+        long writesBefore = writes.get();
+        long started = System.nanoTime();
+        Object value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        counter.increment();
+        CacheEnvelope envelope = envelope(value, Math.max(1, (System.nanoTime() - started) / 1_000_000));
+        if (writes.get() == writesBefore && sameEntry(readRemote(key), current)) {
+            store(key, envelope, true);
+        } else {
+            discardedLoads.increment();
+            log.debug("Not storing {} in cache {}: it was written while loading", key, name);
+        }
+        return envelope.getValue();
+    }
+
+    private void store(Object key, CacheEnvelope envelope, boolean loaded) {
+        if (loaded && remote instanceof CircuitBreakingCache breaking) {
+            breaking.putLoaded(key, envelope);
+        } else {
+            remote.put(key, envelope);
+        }
+        remoteStatistics.recordPut();
+        local.put(localKey(key), envelope);
+        localStatistics.recordPut();
+    }
+
+    private CacheEnvelope envelope(Object value, long loadMillis) {
+        long expiresAt = System.currentTimeMillis() + expiryProperties.jitteredTtlFor(name).toMillis();
+        return new CacheEnvelope(toStoreValue(value), expiresAt, loadMillis);
+    }
+
+    // a put or load writes a new envelope, whose jittered expiry tells it from the one before
+    private static boolean sameEntry(CacheEnvelope stored, CacheEnvelope expected) {
+        if (stored == null || expected == null) {
+            return stored == expected;
+        }
+        return stored.getExpiresAtMillis() == expected.getExpiresAtMillis()
+                && stored.getLoadMillis() == expected.getLoadMillis();
+    }
+
+    private static CacheEnvelope unwrap(Object stored) {
+        return stored instanceof CacheEnvelope envelope ? envelope : CacheEnvelope.withoutExpiry(toStoreValue(stored));
+    }
+
+    private static boolean pause() {
+        try {
+            Thread.sleep(LOCK_POLL_MILLIS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static Object toStoreValue(Object value) {
+        return value != null ? value : NullValue.INSTANCE;
+    }
+
+    private static Object fromStoreValue(Object storeValue) {
+        return storeValue == NullValue.INSTANCE ? null : storeValue;
+    }
+
+    private static ValueWrapper toValueWrapper(Object storeValue) {
+        return new SimpleValueWrapper(fromStoreValue(storeValue));
+    }
+}
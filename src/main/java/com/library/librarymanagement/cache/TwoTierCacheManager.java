@@ -0,0 +1,156 @@
+package com.library.librarymanagement.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Wraps every cache of the remote (Redis) {@link CacheManager} in a {@link TwoTierCache}.
+ * The caches share a small pool of daemon threads for refreshing entries ahead of expiry, and
+ * one {@link RedisCircuitBreaker} in front of everything they do in Redis.
+ * <p>
+ * When {@link #setTransactionAware transaction aware}, puts and evicts made inside a
+ * transaction, {@code @CachePut} and {@code @CacheEvict} included, wait for it to commit and
+ * are dropped if it rolls back. Otherwise another request, on any node, could cache the old
+ * row again between the evict and the commit, or read a value that was never committed.
+ */
+public class TwoTierCacheManager implements CacheManager, AutoCloseable {
+
+    private static final int REFRESH_QUEUE_CAPACITY = 1_000;
+
+    private final CacheManager remoteCacheManager;
+    private final LocalCacheProperties localCacheProperties;
+    private final CacheExpiryProperties expiryProperties;
+    private final CacheInvalidationBus invalidationBus;
+    private final CacheLoadLock loadLock;
+    private final RedisCircuitBreaker circuitBreaker;
+    private final ExecutorService refreshExecutor;
+    private final ConcurrentMap<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Cache> transactionAwareCaches = new ConcurrentHashMap<>();
+    private volatile boolean transactionAware;
+    private final List<Consumer<TwoTierCache>> creationListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Caches the remote manager already knows about are wrapped up front, so they are
+     * visible (to metrics, for one) before their first use.
+     */
+    public TwoTierCacheManager(CacheManager remoteCacheManager, LocalCacheProperties localCacheProperties,
+                               CacheExpiryProperties expiryProperties, CacheInvalidationBus invalidationBus,
+                               CacheLoadLock loadLock, RedisCircuitBreaker circuitBreaker) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.localCacheProperties = localCacheProperties;
+        this.expiryProperties = expiryProperties;
+        this.invalidationBus = circuitBreaker.guard(invalidationBus);
+        this.loadLock = circuitBreaker.guard(loadLock);
+        this.circuitBreaker = circuitBreaker;
+        // a full queue drops the refresh; the entry then expires and is reloaded on a miss
+        this.refreshExecutor = new ThreadPoolExecutor(expiryProperties.getRefreshWorkers(), expiryProperties.getRefreshWorkers(),
+                0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(REFRESH_QUEUE_CAPACITY),
+                Thread.ofPlatform().name("cache-refresh-", 1).daemon(true).factory());
+        remoteCacheManager.getCacheNames().forEach(this::getTwoTierCache);
+    }
+
+    public void setTransactionAware(boolean transactionAware) {
+        this.transactionAware = transactionAware;
+    }
+
+    public boolean isTransactionAware() {
+        return transactionAware;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        TwoTierCache cache = getTwoTierCache(name);
+        if (cache == null || !transactionAware) {
+            return cache;
+        }
+        return transactionAwareCaches.computeIfAbsent(name, key -> new TransactionAwareCacheDecorator(cache));
+    }
+
+    private TwoTierCache getTwoTierCache(String name) {
+        TwoTierCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache remote = remoteCacheManager.getCache(name);
+        if (remote == null) {
+            return null;
+        }
+        TwoTierCache created = new TwoTierCache(new CircuitBreakingCache(remote, circuitBreaker), localCacheProperties, expiryProperties, invalidationBus,
+                loadLock, refreshExecutor);
+        TwoTierCache existing = caches.putIfAbsent(name, created);
+        if (existing != null) {
+            return existing;
+        }
+        creationListeners.forEach(listener -> listener.accept(created));
+        return created;
+    }
+
+    /**
+     * Calls the listener for every cache created so far and for each one created later.
+     */
+    public void forEachCache(Consumer<TwoTierCache> listener) {
+        creationListeners.add(listener);
+        caches.values().forEach(listener);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    /**
+     * Applies an invalidation announced by another node to this node's near-caches.
+     *
+     * @param key the string form of the changed key, or {@code null} to drop the whole cache
+     */
+    public void handleRemoteInvalidation(String cacheName, String key) {
+        TwoTierCache cache = caches.get(cacheName);
+        if (cache == null) {
+            return;
+        }
+        if (key == null) {
+            cache.invalidateLocalAll();
+        } else {
+            cache.invalidateLocal(key);
+        }
+    }
+
+    @Override
+    public void close() {
+        refreshExecutor.shutdownNow();
+    }
+
+    public RedisCircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public Map<String, TwoTierCache> getCaches() {
+        return Collections.unmodifiableMap(caches);
+    }
+
+    public Map<String, Map<String, Map<String, Long>>> getStatistics() {
+        Map<String, Map<String, Map<String, Long>>> statistics = new LinkedHashMap<>();
+        caches.forEach((name, cache) -> {
+            Map<String, Map<String, Long>> tiers = new LinkedHashMap<>();
+            tiers.put("local", cache.getLocalStatistics().toMap());
+            tiers.put("remote", cache.getRemoteStatistics().toMap());
+            statistics.put(name, tiers);
+        });
+        return statistics;
+    }
+}
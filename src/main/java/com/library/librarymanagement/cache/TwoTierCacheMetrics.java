@@ -0,0 +1,86 @@
+package com.library.librarymanagement.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.Locale;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publishes the {@link CacheTierStatistics} of every {@link TwoTierCache} under the standard
+ * Micrometer cache meter names, tagged by {@code cache} and {@code tier} (local or remote).
+ * The hit ratio of a tier is {@code cache_gets{result="hit"}} over all {@code cache_gets}.
+ * {@code cache_loads} counts the database loads behind a cache, by what triggered them, and
+ * {@code cache_redis_breaker_state} is 1 for the state the Redis circuit breaker is in.
+ */
+public class TwoTierCacheMetrics implements MeterBinder {
+
+    private final TwoTierCacheManager cacheManager;
+
+    public TwoTierCacheMetrics(TwoTierCacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        RedisCircuitBreaker circuitBreaker = cacheManager.getCircuitBreaker();
+        for (RedisCircuitBreaker.State state : RedisCircuitBreaker.State.values()) {
+            Gauge.builder("cache.redis.breaker.state", circuitBreaker, breaker -> breaker.getState() == state ? 1 : 0)
+                    .tags("state", state.name().toLowerCase(Locale.ROOT))
+                    .description("1 for the state the Redis circuit breaker is in, 0 for the others")
+                    .register(registry);
+        }
+        FunctionCounter.builder("cache.redis.breaker.not.permitted", circuitBreaker, RedisCircuitBreaker::getNotPermitted)
+                .description("The number of Redis operations skipped while the circuit breaker was open")
+                .register(registry);
+        cacheManager.forEachCache(cache -> {
+            bindTier(registry, cache, "local", cache.getLocalStatistics());
+            bindTier(registry, cache, "remote", cache.getRemoteStatistics());
+            Gauge.builder("cache.size", cache, TwoTierCache::getLocalSize)
+                    .tags(Tags.of("cache", cache.getName(), "tier", "local"))
+                    .description("The approximate number of entries in the near-cache")
+                    .register(registry);
+            Tags cacheTag = Tags.of("cache", cache.getName());
+            FunctionCounter.builder("cache.loads", cache, TwoTierCache::getMissLoads)
+                    .tags(cacheTag.and("trigger", "miss"))
+                    .description("The number of values this node loaded because both tiers missed")
+                    .register(registry);
+            FunctionCounter.builder("cache.loads", cache, TwoTierCache::getEarlyRefreshes)
+                    .tags(cacheTag.and("trigger", "refresh"))
+                    .description("The number of values this node reloaded in the background ahead of expiry")
+                    .register(registry);
+            FunctionCounter.builder("cache.loads.discarded", cache, TwoTierCache::getDiscardedLoads)
+                    .tags(cacheTag)
+                    .description("The number of loaded values not stored because the entry was written meanwhile")
+                    .register(registry);
+            FunctionCounter.builder("cache.loads.coalesced", cache, TwoTierCache::getCoalescedLoads)
+                    .tags(cacheTag)
+                    .description("The number of misses that waited for a load already running on this node")
+                    .register(registry);
+        });
+    }
+
+    private static void bindTier(MeterRegistry registry, TwoTierCache cache, String tier,
+                                 CacheTierStatistics statistics) {
+        Tags tags = Tags.of("cache", cache.getName(), "tier", tier);
+        counter(registry, "cache.gets", tags.and("result", "hit"), statistics, CacheTierStatistics::getHits,
+                "The number of times a cache lookup was answered by this tier");
+        counter(registry, "cache.gets", tags.and("result", "miss"), statistics, CacheTierStatistics::getMisses,
+                "The number of times a cache lookup missed this tier");
+        counter(registry, "cache.puts", tags, statistics, CacheTierStatistics::getPuts,
+                "The number of entries written to this tier");
+        counter(registry, "cache.evictions", tags, statistics, CacheTierStatistics::getEvictions,
+                "The number of entries evicted or invalidated from this tier");
+    }
+
+    private static void counter(MeterRegistry registry, String name, Tags tags, CacheTierStatistics statistics,
+                                ToDoubleFunction<CacheTierStatistics> count, String description) {
+        FunctionCounter.builder(name, statistics, count)
+                .tags(tags)
+                .description(description)
+                .register(registry);
+    }
+}
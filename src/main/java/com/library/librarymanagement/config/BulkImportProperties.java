@@ -0,0 +1,23 @@
+package com.library.librarymanagement.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "api.bulk-import")
+@Getter
+@Setter
+public class BulkImportProperties {
+
+    /**
+     * Rows written per transaction and per JDBC batch.
+     */
+    private int batchSize = 500;
+
+    /**
+     * Row errors listed in the response; further errors are only counted.
+     */
+    private int maxReportedErrors = 1000;
+}
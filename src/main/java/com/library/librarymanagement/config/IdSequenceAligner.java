@@ -0,0 +1,61 @@
+package com.library.librarymanagement.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Moves the id sequences of books, members and borrowings past the ids already in use.
+ * <p>
+ * These tables were numbered by AUTO_INCREMENT before they switched to pooled sequences,
+ * which MySQL emulates with a one-row {@code next_val} table that the baseline migration
+ * creates starting at 1. Hibernate hands out ids up to {@code allocationSize - 1} below the
+ * value it reads, so the sequence is raised to {@code MAX(id) + allocationSize}. Depends on
+ * the {@link EntityManagerFactory} so it runs after the migrations.
+ */
+@Component
+public class IdSequenceAligner {
+
+    private static final Logger log = LoggerFactory.getLogger(IdSequenceAligner.class);
+
+    private static final int ALLOCATION_SIZE = 50;
+
+    // sequence table -> entity table
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "book_id_seq", "books",
+            "member_id_seq", "members",
+            "borrower_id_seq", "borrowers");
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public IdSequenceAligner(DataSource dataSource, EntityManagerFactory entityManagerFactory) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @PostConstruct
+    public void align() throws MetaDataAccessException {
+        String product = JdbcUtils.extractDatabaseMetaData(dataSource, metaData -> metaData.getDatabaseProductName());
+        if (!"MySQL".equalsIgnoreCase(product)) {
+            return;
+        }
+        SEQUENCES.forEach((sequenceTable, table) -> {
+            long floor = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class) + ALLOCATION_SIZE;
+            int updated = jdbcTemplate.update("UPDATE " + sequenceTable + " SET next_val = ? WHERE next_val < ?", floor, floor);
+            if (updated > 0) {
+                log.info("Moved {} to {} past the existing ids in {}", sequenceTable, floor, table);
+            }
+        });
+    }
+}
@@ -0,0 +1,48 @@
+package com.library.librarymanagement.config;
+
+import com.library.librarymanagement.cache.TwoTierCacheManager;
+import com.library.librarymanagement.cache.TwoTierCacheMetrics;
+import com.library.librarymanagement.metrics.SqlStatementCounter;
+import com.library.librarymanagement.metrics.SqlStatementMetricsFilter;
+import com.library.librarymanagement.metrics.SqlStatementMetricsProperties;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Application meters on top of what actuator binds by itself (HTTP server requests, JVM,
+ * Hikari pool). Service timers come from {@code @Timed} on the service classes.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public TwoTierCacheMetrics twoTierCacheMetrics(TwoTierCacheManager cacheManager) {
+        return new TwoTierCacheMetrics(cacheManager);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementCounterCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlStatementCounter());
+    }
+
+    // Outermost, so statements run by the security filters count towards the request too
+    @Bean
+    public FilterRegistrationBean<SqlStatementMetricsFilter> sqlStatementMetricsFilter(
+            MeterRegistry meterRegistry, SqlStatementMetricsProperties properties) {
+        FilterRegistrationBean<SqlStatementMetricsFilter> registration = new FilterRegistrationBean<>(
+                new SqlStatementMetricsFilter(meterRegistry, properties.getWarnThreshold()));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
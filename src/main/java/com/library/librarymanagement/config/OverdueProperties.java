@@ -0,0 +1,24 @@
+package com.library.librarymanagement.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "borrowings.overdue")
+@Getter
+@Setter
+public class OverdueProperties {
+
+    /**
+     * Days, starting today, that the in-memory due-date wheel covers. Due-soon windows
+     * reaching further are read from the database.
+     */
+    private int horizonDays = 30;
+
+    /**
+     * Open borrowings read per query by the overdue scan.
+     */
+    private int scanChunkSize = 1000;
+}
@@ -0,0 +1,27 @@
+package com.library.librarymanagement.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "api.pagination")
+@Getter
+@Setter
+public class PaginationProperties {
+
+    private int defaultPageSize = 100;
+
+    private int maxPageSize = 1000;
+
+    public int resolvePageSize(Integer requested) {
+        if (requested == null) {
+            return defaultPageSize;
+        }
+        if (requested < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        return Math.min(requested, maxPageSize);
+    }
+}
@@ -0,0 +1,41 @@
+package com.library.librarymanagement.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Keeps the reads of a block on the primary database even inside read-only transactions,
+ * for code that must not see a lagging replica: loads that fill a shared cache and rebuilds
+ * of state that is afterwards only patched, either of which would keep a row that was just
+ * changed or deleted. Applies to connections opened inside the block; has no effect when no
+ * replicas are configured.
+ */
+public final class ReadRouting {
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private ReadRouting() {
+    }
+
+    public static <T> T onPrimary(Supplier<T> reads) {
+        Boolean previous = PINNED.get();
+        PINNED.set(Boolean.TRUE);
+        try {
+            return reads.get();
+        } finally {
+            if (previous == null) {
+                PINNED.remove();
+            }
+        }
+    }
+
+    public static void runOnPrimary(Runnable reads) {
+        onPrimary(() -> {
+            reads.run();
+            return null;
+        });
+    }
+
+    static boolean isPinnedToPrimary() {
+        return PINNED.get() != null;
+    }
+}
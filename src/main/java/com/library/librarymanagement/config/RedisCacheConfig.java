@@ -3,28 +3,159 @@ package com.library.librarymanagement.config;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.library.librarymanagement.cache.CacheEnvelope;
+import com.library.librarymanagement.cache.CacheExpiryProperties;
+import com.library.librarymanagement.cache.CacheSerializerProperties;
+import com.library.librarymanagement.cache.CompactBinaryRedisSerializer;
+import com.library.librarymanagement.cache.LocalCacheProperties;
+import com.library.librarymanagement.cache.RedisCacheInvalidationBus;
+import com.library.librarymanagement.cache.RedisCacheLoadLock;
+import com.library.librarymanagement.cache.RedisCircuitBreaker;
+import com.library.librarymanagement.cache.RedisResilienceProperties;
+import com.library.librarymanagement.cache.TwoTierCacheManager;
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.SocketOptions;
+import io.lettuce.core.TimeoutOptions;
+import org.springframework.boot.autoconfigure.data.redis.LettuceClientConfigurationBuilderCustomizer;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.cache.annotation.CachingConfigurer;
+import org.springframework.cache.interceptor.CacheErrorHandler;
+import org.springframework.cache.interceptor.LoggingCacheErrorHandler;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.BatchStrategies;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
 
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
 
 @Configuration
 public class RedisCacheConfig {
 
+    // Keys deleted per SCAN step when a cache is cleared
+    private static final int CLEAR_BATCH_SIZE = 1_000;
+
+    // TwoTierCache writes every value in an envelope carrying its own (jittered, per cache)
+    // expiry; anything else written to these caches gets the default TTL
     @Bean
-    public RedisCacheConfiguration cacheConfiguration() {
+    public RedisCacheConfiguration cacheConfiguration(CacheExpiryProperties expiryProperties) {
+        return RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl((key, value) -> value instanceof CacheEnvelope envelope
+                        ? envelope.remainingTtl(System.currentTimeMillis())
+                        : expiryProperties.getTtl())
+                .serializeValuesWith(SerializationPair.fromSerializer(jsonRedisSerializer()));
+    }
+
+    public static GenericJackson2JsonRedisSerializer jsonRedisSerializer() {
         ObjectMapper objectMapper = new ObjectMapper()
                 .registerModule(new JavaTimeModule())
                 .activateDefaultTyping(LaissezFaireSubTypeValidator.instance, ObjectMapper.DefaultTyping.NON_FINAL);
+        return new GenericJackson2JsonRedisSerializer(objectMapper);
+    }
+
+    // Entity and DTO caches use the compact binary format; JSON stays the fallback for
+    // anything else and for entries written before a cache was switched over
+    @Bean
+    public CompactBinaryRedisSerializer compactBinaryRedisSerializer(CacheSerializerProperties serializerProperties) {
+        return new CompactBinaryRedisSerializer(serializerProperties.getCompressionThreshold(), jsonRedisSerializer());
+    }
 
-        GenericJackson2JsonRedisSerializer redisSerializer = new GenericJackson2JsonRedisSerializer(objectMapper);
+    @Bean
+    public RedisCacheInvalidationBus cacheInvalidationBus(StringRedisTemplate stringRedisTemplate) {
+        return new RedisCacheInvalidationBus(stringRedisTemplate);
+    }
 
+    @Bean
+    public RedisCircuitBreaker redisCircuitBreaker(RedisResilienceProperties resilienceProperties) {
+        return new RedisCircuitBreaker(resilienceProperties);
+    }
 
-        return RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofMinutes(10))
-                .serializeValuesWith(SerializationPair.fromSerializer(redisSerializer));
+    // Commands fail at once while the connection is down instead of queueing for its return,
+    // and none waits longer than the command timeout (Lettuce's own default is a minute)
+    @Bean
+    public LettuceClientConfigurationBuilderCustomizer redisTimeouts(RedisProperties redisProperties,
+                                                                    RedisResilienceProperties resilienceProperties) {
+        return builder -> {
+            if (redisProperties.getTimeout() == null) {
+                builder.commandTimeout(resilienceProperties.getCommandTimeout());
+            }
+            if (redisProperties.getSsl().getBundle() != null) {
+                return;
+            }
+            Duration connectTimeout = redisProperties.getConnectTimeout() != null
+                    ? redisProperties.getConnectTimeout() : resilienceProperties.getConnectTimeout();
+            builder.clientOptions(ClientOptions.builder()
+                    .socketOptions(SocketOptions.builder().connectTimeout(connectTimeout).build())
+                    .timeoutOptions(TimeoutOptions.enabled())
+                    .disconnectedBehavior(ClientOptions.DisconnectedBehavior.REJECT_COMMANDS)
+                    .build());
+        };
+    }
+
+    // Whatever a cache still throws (a value that cannot be read back, say) is logged, and the
+    // method runs as if the cache had missed
+    @Bean
+    public CachingConfigurer cacheErrorHandling() {
+        return new CachingConfigurer() {
+            @Override
+            public CacheErrorHandler errorHandler() {
+                return new LoggingCacheErrorHandler(RedisCacheConfig.class.getName(), true);
+            }
+        };
+    }
+
+    @Bean
+    public RedisCacheLoadLock cacheLoadLock(StringRedisTemplate stringRedisTemplate) {
+        return new RedisCacheLoadLock(stringRedisTemplate);
+    }
+
+    // Caffeine near-cache (L1) in front of Redis (L2); see TwoTierCache
+    @Bean
+    public TwoTierCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                            RedisCacheConfiguration cacheConfiguration,
+                                            CompactBinaryRedisSerializer compactBinaryRedisSerializer,
+                                            CacheSerializerProperties serializerProperties,
+                                            LocalCacheProperties localCacheProperties,
+                                            CacheExpiryProperties expiryProperties,
+                                            RedisCacheInvalidationBus cacheInvalidationBus,
+                                            RedisCacheLoadLock cacheLoadLock,
+                                            RedisCircuitBreaker redisCircuitBreaker) {
+        RedisCacheConfiguration binaryConfiguration = cacheConfiguration
+                .serializeValuesWith(SerializationPair.fromSerializer(compactBinaryRedisSerializer));
+        Map<String, RedisCacheConfiguration> perCache = new HashMap<>();
+        serializerProperties.getBinaryCaches().forEach(name -> perCache.put(name, binaryConfiguration));
+
+        // clearing a cache walks its keys with SCAN; the default KEYS blocks Redis while it runs
+        RedisCacheWriter cacheWriter = RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory,
+                BatchStrategies.scan(CLEAR_BATCH_SIZE));
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(cacheWriter)
+                .cacheDefaults(cacheConfiguration)
+                .withInitialCacheConfigurations(perCache)
+                .build();
+        redisCacheManager.afterPropertiesSet();
+
+        TwoTierCacheManager cacheManager = new TwoTierCacheManager(redisCacheManager, localCacheProperties, expiryProperties,
+                cacheInvalidationBus, cacheLoadLock, redisCircuitBreaker);
+        cacheManager.setTransactionAware(true);
+        cacheInvalidationBus.setInvalidationHandler(cacheManager::handleRemoteInvalidation);
+        return cacheManager;
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                           RedisCacheInvalidationBus cacheInvalidationBus) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheInvalidationBus, new ChannelTopic(RedisCacheInvalidationBus.CHANNEL));
+        return container;
     }
-}
\ No newline at end of file
+}
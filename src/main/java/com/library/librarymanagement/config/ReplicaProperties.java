@@ -0,0 +1,41 @@
+package com.library.librarymanagement.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConfigurationProperties(prefix = "datasource.replicas")
+@Getter
+@Setter
+public class ReplicaProperties {
+
+    /**
+     * JDBC URLs of the read replicas. Read-only transactions are spread over them; with none,
+     * everything goes to {@code spring.datasource.url}.
+     */
+    private List<String> urls = new ArrayList<>();
+
+    /**
+     * Credentials for the replicas; default to those of the primary.
+     */
+    private String username;
+    private String password;
+
+    private int maximumPoolSize = 10;
+
+    /**
+     * A replica further behind the primary than this is skipped until it catches up.
+     */
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    /**
+     * How often replica lag is measured; lag is known to about this precision.
+     */
+    private Duration lagCheckInterval = Duration.ofSeconds(1);
+}
@@ -0,0 +1,73 @@
+package com.library.librarymanagement.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sends read-only transactions to the replicas in {@code datasource.replicas.urls}, when
+ * there are any, and everything else to the primary.
+ * <p>
+ * The application's {@link DataSource} hands out connections lazily: the physical connection
+ * is only taken when the first statement runs, by which time a read-only transaction has
+ * marked it read-only, and read-only connections come from {@link ReplicaRoutingDataSource}.
+ * A transaction that opens no connection at all (served from a cache) touches no pool.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "datasource.replicas", name = "urls")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             DataSourceProperties dataSourceProperties,
+                                                             ReplicaProperties replicaProperties,
+                                                             MeterRegistry meterRegistry) {
+        List<HikariDataSource> pools = new ArrayList<>();
+        for (int i = 0; i < replicaProperties.getUrls().size(); i++) {
+            HikariDataSource pool = dataSourceProperties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(replicaProperties.getUrls().get(i))
+                    .username(replicaProperties.getUsername() != null ? replicaProperties.getUsername() : dataSourceProperties.determineUsername())
+                    .password(replicaProperties.getPassword() != null ? replicaProperties.getPassword() : dataSourceProperties.determinePassword())
+                    .build();
+            pool.setPoolName("replica-" + i);
+            pool.setReadOnly(true);
+            pool.setMaximumPoolSize(replicaProperties.getMaximumPoolSize());
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            pools.add(pool);
+        }
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primaryDataSource, pools, replicaProperties.getMaxLag());
+        Gauge.builder("datasource.replicas.usable", routing, ReplicaRoutingDataSource::usableReplicas)
+                .description("Replicas currently receiving read-only transactions")
+                .register(meterRegistry);
+        return routing;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaRoutingDataSource replicaRoutingDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaRoutingDataSource);
+        return dataSource;
+    }
+}
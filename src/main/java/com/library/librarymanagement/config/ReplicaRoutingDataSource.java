@@ -0,0 +1,136 @@
+package com.library.librarymanagement.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Where read-only connections come from: the replicas in turn, skipping any that cannot be
+ * reached or are more than {@code datasource.replicas.max-lag} behind, and the primary when
+ * no replica is usable or inside {@link ReadRouting#onPrimary}.
+ * <p>
+ * Lag is measured with the {@code replication_heartbeat} row: each check reads the primary's
+ * beat and every replica's copy of it, then writes a new beat. A replica that has applied
+ * the previous beat is current to within one check interval; a replica with no beat yet
+ * counts as lagging, so replicas come into use from the second check after startup.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private static final String PRIMARY = "primary";
+    private static final ResultSetExtractor<Long> BEAT = rs -> rs.next() ? rs.getLong(1) : null;
+
+    private final JdbcTemplate primary;
+    private final List<Replica> replicas;
+    private final long maxLagMillis;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<HikariDataSource> replicaPools, Duration maxLag) {
+        this.primary = new JdbcTemplate(primary);
+        this.replicas = replicaPools.stream().map(Replica::new).toList();
+        this.maxLagMillis = maxLag.toMillis();
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        replicas.forEach(replica -> targets.put(replica.name(), replica.pool));
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (ReadRouting.isPinnedToPrimary() || replicas.isEmpty()) {
+            return PRIMARY;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.usable) {
+                return replica.name();
+            }
+        }
+        return PRIMARY;
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replicas.lag-check-interval:PT1S}",
+            initialDelayString = "${datasource.replicas.lag-check-interval:PT1S}")
+    public void checkLag() {
+        Long primaryBeat;
+        try {
+            primaryBeat = primary.query("SELECT beat_millis FROM replication_heartbeat WHERE id = 1", BEAT);
+        } catch (DataAccessException e) {
+            log.warn("Could not read the replication heartbeat on the primary", e);
+            return;
+        }
+        for (Replica replica : replicas) {
+            Long beat;
+            try {
+                beat = replica.jdbc.query("SELECT beat_millis FROM replication_heartbeat WHERE id = 1", BEAT);
+            } catch (DataAccessException e) {
+                log.debug("Could not read the replication heartbeat on {}", replica.name(), e);
+                beat = null;
+            }
+            boolean usable = primaryBeat != null && beat != null && primaryBeat - beat <= maxLagMillis;
+            if (usable != replica.usable) {
+                if (usable) {
+                    log.info("Replica {} is current; sending reads to it", replica.name());
+                } else {
+                    log.warn("Replica {} is unreachable or more than {} ms behind; reading from the primary instead",
+                            replica.name(), maxLagMillis);
+                }
+                replica.usable = usable;
+            }
+        }
+        writeBeat(System.currentTimeMillis());
+    }
+
+    public int usableReplicas() {
+        return (int) replicas.stream().filter(replica -> replica.usable).count();
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.pool.close());
+    }
+
+    private void writeBeat(long now) {
+        try {
+            if (primary.update("UPDATE replication_heartbeat SET beat_millis = ? WHERE id = 1", now) == 0) {
+                primary.update("INSERT INTO replication_heartbeat (id, beat_millis) VALUES (1, ?)", now);
+            }
+        } catch (DuplicateKeyException e) {
+            // inserted by another node at the same time; its beat will do
+        } catch (DataAccessException e) {
+            log.warn("Could not write the replication heartbeat", e);
+        }
+    }
+
+    private static final class Replica {
+        private final HikariDataSource pool;
+        private final JdbcTemplate jdbc;
+        private volatile boolean usable;
+
+        private Replica(HikariDataSource pool) {
+            this.pool = pool;
+            this.jdbc = new JdbcTemplate(pool);
+        }
+
+        private String name() {
+            return pool.getPoolName();
+        }
+    }
+}
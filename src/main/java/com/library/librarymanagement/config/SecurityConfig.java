@@ -2,6 +2,7 @@ package com.library.librarymanagement.config;
 
 import com.library.librarymanagement.service.CustomOidcUserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -21,6 +22,10 @@ public class SecurityConfig {
     @Autowired
     private AuthenticationSuccessHandler oauth2LoginSuccessHandler;
 
+    // Actuator's own port, kept off the public network; -1 when actuator shares the public port
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
@@ -37,16 +42,20 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.POST, "/api/books/**").hasAnyRole("PERSONNEL", "ADMIN")   // Create books.
                         .requestMatchers(HttpMethod.PUT, "/api/books/**").hasAnyRole("PERSONNEL", "ADMIN")    // Update books.
                         .requestMatchers(HttpMethod.DELETE, "/api/books/**").hasAnyRole("PERSONNEL", "ADMIN") // Delete books.
-                        .requestMatchers(HttpMethod.GET, "/api/requests").hasAnyRole("PERSONNEL", "ADMIN")   // View ALL book requests.
+                        .requestMatchers(HttpMethod.GET, "/api/requests", "/api/requests/page").hasAnyRole("PERSONNEL", "ADMIN") // View ALL book requests.
                         .requestMatchers(HttpMethod.PUT, "/api/requests/*/approve", "/api/requests/*/reject").hasAnyRole("PERSONNEL", "ADMIN") // Approve or reject requests.
+                        .requestMatchers(HttpMethod.POST, "/api/requests/batch").hasAnyRole("PERSONNEL", "ADMIN") // Approve or reject many requests at once.
 
                         // --- MEMBER-ONLY PERMISSIONS ---
                         .requestMatchers(HttpMethod.POST, "/api/requests").hasRole("MEMBER")                 // Create a new book request.
-                        .requestMatchers(HttpMethod.GET, "/api/requests/my-requests").hasRole("MEMBER")      // View their own requests.
+                        .requestMatchers(HttpMethod.GET, "/api/requests/my-requests", "/api/requests/my-requests/page").hasRole("MEMBER") // View their own requests.
 
                         // --- PUBLIC PERMISSIONS ---
                         .requestMatchers(HttpMethod.GET, "/api/books/**", "/api/users/profile/picture/**").permitAll()
                         .requestMatchers("/", "/index.html", "/style.css", "/app.js", "/favicon.ico").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/actuator/health/**").permitAll()                  // Probes.
+                        .requestMatchers(request -> request.getLocalPort() == managementPort).permitAll()     // Scrapes, on the management port only.
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")                                     // Metrics on the public port.
 
                         // --- CATCH-ALL ---
                         .anyRequest().authenticated()
@@ -63,7 +72,8 @@ public class SecurityConfig {
                                 .logoutUrl("/logout")
                                 .logoutSuccessUrl("/")
                                 .invalidateHttpSession(true)
-                                .deleteCookies("JSESSIONID")
+                                // SESSION when sessions are kept in Redis, JSESSIONID otherwise
+                                .deleteCookies("SESSION", "JSESSIONID")
                 );
         return http.build();
     }
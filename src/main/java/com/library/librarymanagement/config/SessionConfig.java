@@ -0,0 +1,47 @@
+package com.library.librarymanagement.config;
+
+import com.library.librarymanagement.cache.CompactBinaryRedisSerializer;
+import com.library.librarymanagement.cache.SessionAttributeCodecs;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.session.SessionProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.session.config.SessionRepositoryCustomizer;
+import org.springframework.session.data.redis.RedisSessionRepository;
+import org.springframework.session.data.redis.config.annotation.web.http.EnableRedisHttpSession;
+
+import java.time.Duration;
+
+/**
+ * With {@code spring.session.store-type=redis}, HTTP sessions are kept in Redis by Spring
+ * Session, idle for at most {@code spring.session.timeout}, so any node can serve any request
+ * and a restart keeps users logged in, but nobody can log in while Redis is down. Otherwise
+ * they stay in the node's memory, which needs sticky sessions with more than one node.
+ * <p>
+ * Session values are written in the caches' compact binary format with the
+ * {@link SessionAttributeCodecs}; anything else, such as the state of a login in progress,
+ * falls back to Java serialization.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.session.store-type", havingValue = "redis")
+@EnableRedisHttpSession
+@EnableConfigurationProperties(SessionProperties.class)
+public class SessionConfig {
+
+    @Bean
+    public SessionRepositoryCustomizer<RedisSessionRepository> sessionTimeout(SessionProperties sessionProperties) {
+        Duration timeout = sessionProperties.determineTimeout(() -> Duration.ofMinutes(30));
+        return repository -> repository.setDefaultMaxInactiveInterval(timeout);
+    }
+
+    // Picked up by name by Spring Session's Redis configuration
+    @Bean
+    public RedisSerializer<Object> springSessionDefaultRedisSerializer() {
+        CompactBinaryRedisSerializer serializer = new CompactBinaryRedisSerializer(0, new JdkSerializationRedisSerializer());
+        SessionAttributeCodecs.all().forEach(serializer::register);
+        return serializer;
+    }
+}
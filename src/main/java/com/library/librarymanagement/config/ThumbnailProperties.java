@@ -0,0 +1,38 @@
+package com.library.librarymanagement.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@ConfigurationProperties(prefix = "uploads.thumbnails")
+@Getter
+@Setter
+public class ThumbnailProperties {
+
+    /**
+     * Edge lengths, in pixels, of the square renditions made of every uploaded picture.
+     */
+    private List<Integer> sizes = List.of(48, 96, 256);
+
+    /**
+     * Threads rendering thumbnails; the work is CPU bound, so at most the core count.
+     */
+    private int workers = 2;
+
+    /**
+     * Pictures waiting for a worker; further ones are rendered when first requested.
+     */
+    private int queueCapacity = 200;
+
+    private float jpegQuality = 0.85f;
+
+    /**
+     * Pictures whose decoded size would exceed this many pixels (after subsampling) are
+     * not rendered.
+     */
+    private long maxDecodedPixels = 40_000_000;
+}
@@ -1,10 +1,15 @@
 package com.library.librarymanagement.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.librarymanagement.cache.TwoTierCacheManager;
+import com.library.librarymanagement.dto.CursorPage;
 import com.library.librarymanagement.model.User;
+import com.library.librarymanagement.service.BookService;
 import com.library.librarymanagement.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Map;
@@ -16,11 +21,42 @@ public class AdminController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TwoTierCacheManager cacheManager;
+
+    @Autowired
+    private BookService bookService;
+
     @GetMapping("/users")
     public List<User> listUsers() {
         return userService.getAllUsers();
     }
 
+    @GetMapping("/users/page")
+    public CursorPage<User> listUsersPage(@RequestParam(required = false) String cursor,
+                                          @RequestParam(required = false) Integer size) {
+        return userService.getUsersPage(cursor, size);
+    }
+
+    @GetMapping(value = "/users/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamUsers() {
+        return NdjsonResponses.stream(objectMapper, sink -> userService.streamAllUsers(sink::accept));
+    }
+
+    @GetMapping("/caches")
+    public Map<String, Map<String, Map<String, Long>>> cacheStatistics() {
+        return cacheManager.getStatistics();
+    }
+
+    // Repairs copy counts after manual data changes, or once after upgrading existing data
+    @PostMapping("/inventory/reconcile")
+    public Map<String, Integer> reconcileInventory() {
+        return Map.of("books", bookService.reconcileAvailableCopies());
+    }
+
     @PutMapping("/users/{email}/role")
     public ResponseEntity<User> updateUserRole(@PathVariable String email, @RequestBody Map<String, String> roleMap) {
         try {
@@ -1,57 +1,118 @@
 package com.library.librarymanagement.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.librarymanagement.dto.BookAvailability;
 import com.library.librarymanagement.dto.BookDto;
+import com.library.librarymanagement.dto.BulkImportResult;
+import com.library.librarymanagement.dto.CursorPage;
+import com.library.librarymanagement.mapper.BookMapper;
 import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.service.BookImportService;
 import com.library.librarymanagement.service.BookService;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/books")
 public class BookController {
 
     private final BookService bookService;
-    private final ModelMapper modelMapper;
+    private final BookImportService bookImportService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public BookController(BookService bookService, ModelMapper modelMapper) {
+    public BookController(BookService bookService, BookImportService bookImportService, ObjectMapper objectMapper) {
         this.bookService = bookService;
-        this.modelMapper = modelMapper;
+        this.bookImportService = bookImportService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
-    public List<BookDto> getAllBooks() {
-        return bookService.findAllBooks().stream()
-                .map(book -> modelMapper.map(book, BookDto.class))
-                .collect(Collectors.toList());
+    public ResponseEntity<List<BookDto>> getAllBooks(WebRequest request) {
+        return ConditionalResponses.listIfNoneMatch(request, "books", bookService::catalogueVersion,
+                bookService::findAllBooksVersioned);
+    }
+
+    @GetMapping("/page")
+    public CursorPage<BookDto> getBooksPage(@RequestParam(required = false) String cursor,
+                                            @RequestParam(required = false) Integer size) {
+        return bookService.findBooksPage(cursor, size);
+    }
+
+    @GetMapping("/search")
+    public List<BookDto> searchBooks(@RequestParam("q") String query,
+                                     @RequestParam(required = false) Integer limit) {
+        return bookService.searchBooks(query, limit);
+    }
+
+    @GetMapping(value = "/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamAllBooks() {
+        return NdjsonResponses.stream(objectMapper, sink -> bookService.streamAllBooks(sink::accept));
+    }
+
+    /**
+     * Imports books streamed as CSV ({@code text/csv}) or NDJSON ({@code application/x-ndjson}).
+     * Invalid rows are reported in the result and do not stop the import.
+     */
+    @PostMapping(value = "/bulk", consumes = {"text/csv", "application/x-ndjson"})
+    public BulkImportResult importBooks(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                        InputStream body) throws IOException {
+        BookImportService.Format format = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.APPLICATION_NDJSON)
+                ? BookImportService.Format.NDJSON
+                : BookImportService.Format.CSV;
+        return bookImportService.importBooks(body, format);
+    }
+
+    @GetMapping("/availability")
+    public List<BookAvailability> getAvailability(@RequestParam List<Long> ids) {
+        return bookService.findAvailability(ids);
+    }
+
+    @GetMapping("/{id}/availability")
+    public BookAvailability getAvailability(@PathVariable Long id) {
+        return bookService.findAvailability(id);
+    }
+
+    @PutMapping("/{id}/copies")
+    public BookAvailability setTotalCopies(@PathVariable Long id, @RequestBody Map<String, Integer> payload) {
+        Integer totalCopies = payload.get("totalCopies");
+        if (totalCopies == null) {
+            throw new IllegalArgumentException("totalCopies is required");
+        }
+        return bookService.setTotalCopies(id, totalCopies);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<BookDto> getBookById(@PathVariable Long id) {
+    public ResponseEntity<BookDto> getBookById(@PathVariable Long id, WebRequest request) {
         Book book = bookService.findBookById(id);
-        BookDto bookDto = modelMapper.map(book, BookDto.class);
-        return ResponseEntity.ok(bookDto);
+        String etag = ConditionalResponses.entityTag("book", book.getId(), book.getVersion());
+        return ConditionalResponses.ifNoneMatch(request, etag, () -> BookMapper.toDto(book));
     }
 
     @PostMapping
     public ResponseEntity<BookDto> createBook(@RequestBody BookDto bookDto) {
-        Book bookRequest = modelMapper.map(bookDto, Book.class);
+        Book bookRequest = BookMapper.toEntity(bookDto);
         Book createdBook = bookService.saveBook(bookRequest);
-        BookDto bookResponse = modelMapper.map(createdBook, BookDto.class);
+        BookDto bookResponse = BookMapper.toDto(createdBook);
         return new ResponseEntity<>(bookResponse, HttpStatus.CREATED);
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<BookDto> updateBook(@PathVariable Long id, @RequestBody BookDto bookDto) {
-        Book bookRequest = modelMapper.map(bookDto, Book.class);
+        Book bookRequest = BookMapper.toEntity(bookDto);
         Book updatedBook = bookService.updateBook(id, bookRequest);
-        BookDto bookResponse = modelMapper.map(updatedBook, BookDto.class);
+        BookDto bookResponse = BookMapper.toDto(updatedBook);
         return ResponseEntity.ok(bookResponse);
     }
 
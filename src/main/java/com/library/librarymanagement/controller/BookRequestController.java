@@ -1,15 +1,15 @@
 package com.library.librarymanagement.controller;
 
-import com.library.librarymanagement.exception.ResourceNotFoundException;
+import com.library.librarymanagement.dto.BatchDecisionRequest;
+import com.library.librarymanagement.dto.BatchDecisionResult;
+import com.library.librarymanagement.dto.BookRequestView;
+import com.library.librarymanagement.dto.CursorPage;
+import com.library.librarymanagement.dto.UserSnapshot;
 import com.library.librarymanagement.model.BookRequest;
-import com.library.librarymanagement.model.User;
-import com.library.librarymanagement.repository.UserRepository;
 import com.library.librarymanagement.service.BookRequestService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -22,45 +22,57 @@ public class BookRequestController {
     @Autowired
     private BookRequestService bookRequestService;
 
-    @Autowired
-    private UserRepository userRepository;
-
-    private User getAuthenticatedUser(OAuth2User principal) {
-        String email = principal.getAttribute("email");
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("Authenticated user not found in DB"));
-    }
-
     @PostMapping
-    public ResponseEntity<BookRequest> createBookRequest(@RequestBody Map<String, Long> payload, @AuthenticationPrincipal OAuth2User principal) {
-        User user = getAuthenticatedUser(principal);
+    public ResponseEntity<BookRequestView> createBookRequest(@RequestBody Map<String, Long> payload, @CurrentUser UserSnapshot user) {
         Long bookId = payload.get("bookId");
-        BookRequest newRequest = bookRequestService.createRequest(user, bookId);
+        BookRequestView newRequest = bookRequestService.createRequest(user, bookId);
         return new ResponseEntity<>(newRequest, HttpStatus.CREATED);
     }
 
     @GetMapping("/my-requests")
-    public ResponseEntity<List<BookRequest>> getMyRequests(@AuthenticationPrincipal OAuth2User principal) {
-        User user = getAuthenticatedUser(principal);
-        List<BookRequest> requests = bookRequestService.findMyRequests(user);
+    public ResponseEntity<List<BookRequestView>> getMyRequests(@CurrentUser UserSnapshot user) {
+        List<BookRequestView> requests = bookRequestService.findMyRequests(user);
         return ResponseEntity.ok(requests);
     }
 
+    @GetMapping("/my-requests/page")
+    public CursorPage<BookRequestView> getMyRequestsPage(@CurrentUser UserSnapshot user,
+                                                         @RequestParam(required = false) BookRequest.RequestStatus status,
+                                                         @RequestParam(required = false) String cursor,
+                                                         @RequestParam(required = false) Integer size) {
+        return bookRequestService.findMyRequestsPage(user, status, cursor, size);
+    }
+
     @GetMapping
-    public ResponseEntity<List<BookRequest>> getAllRequests() {
-        List<BookRequest> requests = bookRequestService.findAllRequests();
+    public ResponseEntity<List<BookRequestView>> getAllRequests(@RequestParam(required = false) BookRequest.RequestStatus status) {
+        List<BookRequestView> requests = bookRequestService.findAllRequests(status);
         return ResponseEntity.ok(requests);
     }
 
+    @GetMapping("/page")
+    public CursorPage<BookRequestView> getRequestsPage(@RequestParam(required = false) BookRequest.RequestStatus status,
+                                                       @RequestParam(required = false) String cursor,
+                                                       @RequestParam(required = false) Integer size) {
+        return bookRequestService.findRequestsPage(status, cursor, size);
+    }
+
+    /**
+     * Approves and rejects many requests at once; see {@link BookRequestService#decideBatch}.
+     */
+    @PostMapping("/batch")
+    public BatchDecisionResult decideBatch(@RequestBody BatchDecisionRequest batch) {
+        return bookRequestService.decideBatch(batch);
+    }
+
     @PutMapping("/{id}/approve")
-    public ResponseEntity<BookRequest> approveRequest(@PathVariable Long id) {
-        BookRequest approvedRequest = bookRequestService.approveRequest(id);
+    public ResponseEntity<BookRequestView> approveRequest(@PathVariable Long id) {
+        BookRequestView approvedRequest = bookRequestService.approveRequest(id);
         return ResponseEntity.ok(approvedRequest);
     }
 
     @PutMapping("/{id}/reject")
-    public ResponseEntity<BookRequest> rejectRequest(@PathVariable Long id) {
-        BookRequest rejectedRequest = bookRequestService.rejectRequest(id);
+    public ResponseEntity<BookRequestView> rejectRequest(@PathVariable Long id) {
+        BookRequestView rejectedRequest = bookRequestService.rejectRequest(id);
         return ResponseEntity.ok(rejectedRequest);
     }
 }
\ No newline at end of file
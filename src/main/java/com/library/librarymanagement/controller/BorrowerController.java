@@ -1,9 +1,10 @@
 package com.library.librarymanagement.controller;
 
 import com.library.librarymanagement.dto.BorrowerDto;
+import com.library.librarymanagement.dto.CursorPage;
+import com.library.librarymanagement.mapper.BorrowingMapper;
 import com.library.librarymanagement.model.Borrower;
 import com.library.librarymanagement.service.BorrowerService;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -11,35 +12,41 @@ import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/borrowings")
 public class BorrowerController {
 
     private final BorrowerService borrowerService;
-    private final ModelMapper modelMapper;
 
     @Autowired
-    public BorrowerController(BorrowerService borrowerService, ModelMapper modelMapper) {
+    public BorrowerController(BorrowerService borrowerService) {
         this.borrowerService = borrowerService;
-        this.modelMapper = modelMapper;
-    }
-
-    private BorrowerDto convertToDto(Borrower borrower) {
-        BorrowerDto borrowerDto = modelMapper.map(borrower, BorrowerDto.class);
-        borrowerDto.setMemberId(borrower.getMember().getId());
-        borrowerDto.setMemberName(borrower.getMember().getName());
-        borrowerDto.setBookId(borrower.getBook().getId());
-        borrowerDto.setBookTitle(borrower.getBook().getTitle());
-        return borrowerDto;
     }
 
     @GetMapping
     public List<BorrowerDto> getAllBorrowings() {
-        return borrowerService.findAllBorrowings().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return borrowerService.findAllBorrowings();
+    }
+
+    @GetMapping("/page")
+    public CursorPage<BorrowerDto> getBorrowingsPage(@RequestParam(required = false) String cursor,
+                                                     @RequestParam(required = false) Integer size,
+                                                     @RequestParam(required = false) Long memberId) {
+        return borrowerService.findBorrowingsPage(cursor, size, memberId);
+    }
+
+    @GetMapping("/overdue")
+    public CursorPage<BorrowerDto> getOverdueBorrowings(@RequestParam(required = false) String cursor,
+                                                        @RequestParam(required = false) Integer size) {
+        return borrowerService.findOverduePage(cursor, size);
+    }
+
+    @GetMapping("/due-soon")
+    public CursorPage<BorrowerDto> getBorrowingsDueSoon(@RequestParam(defaultValue = "7") int days,
+                                                        @RequestParam(required = false) String cursor,
+                                                        @RequestParam(required = false) Integer size) {
+        return borrowerService.findDueSoonPage(days, cursor, size);
     }
 
     @PostMapping("/issue")
@@ -50,13 +57,13 @@ public class BorrowerController {
                 borrowerDto.getIssueDate(),
                 borrowerDto.getDueDate()
         );
-        return new ResponseEntity<>(convertToDto(newBorrowing), HttpStatus.CREATED);
+        return new ResponseEntity<>(BorrowingMapper.toDto(newBorrowing), HttpStatus.CREATED);
     }
 
     @PutMapping("/{id}/return")
     public ResponseEntity<BorrowerDto> returnBook(@PathVariable Long id) {
         Borrower returnedBorrowing = borrowerService.returnBook(id, LocalDate.now());
-        return ResponseEntity.ok(convertToDto(returnedBorrowing));
+        return ResponseEntity.ok(BorrowingMapper.toDto(returnedBorrowing));
     }
 
     @DeleteMapping("/{id}")
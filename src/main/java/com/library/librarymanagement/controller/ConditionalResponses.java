@@ -0,0 +1,60 @@
+package com.library.librarymanagement.controller;
+
+import com.library.librarymanagement.dto.Versioned;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Strong ETags built from what the database already tracks: an entity's {@code @Version}
+ * for a single row, a table's modification counter for a list of its rows. A request whose
+ * {@code If-None-Match} still holds gets a 304 without the body being read or serialized.
+ */
+final class ConditionalResponses {
+
+    // Clients may keep the response but must revalidate it before every use
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private ConditionalResponses() {
+    }
+
+    static String entityTag(String type, Long id, long version) {
+        return "\"" + type + "-" + id + "-v" + version + "\"";
+    }
+
+    /**
+     * 304 when the request already holds {@code etag}, otherwise the body from {@code body}.
+     */
+    static <T> ResponseEntity<T> ifNoneMatch(WebRequest request, String etag, Supplier<T> body) {
+        if (request.checkNotModified(etag)) {
+            return notModified(etag);
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(body.get());
+    }
+
+    /**
+     * 304 when the request holds the tag of the table's current {@code counter}, otherwise
+     * the list tagged with the counter value it was read with.
+     */
+    static <T> ResponseEntity<T> listIfNoneMatch(WebRequest request, String table, LongSupplier counter,
+                                                 Supplier<Versioned<T>> list) {
+        String etag = listTag(table, counter.getAsLong());
+        if (request.checkNotModified(etag)) {
+            return notModified(etag);
+        }
+        Versioned<T> current = list.get();
+        return ResponseEntity.ok().eTag(listTag(table, current.getVersion())).cacheControl(REVALIDATE).body(current.getValue());
+    }
+
+    private static String listTag(String table, long counter) {
+        return "\"" + table + "-" + counter + "\"";
+    }
+
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build();
+    }
+}
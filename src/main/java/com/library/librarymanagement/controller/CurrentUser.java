@@ -0,0 +1,17 @@
+package com.library.librarymanagement.controller;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Binds a {@link com.library.librarymanagement.dto.UserSnapshot} parameter to the logged-in
+ * user, or to null on an anonymous request; see {@link CurrentUserArgumentResolver}.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CurrentUser {
+}
@@ -0,0 +1,46 @@
+package com.library.librarymanagement.controller;
+
+import com.library.librarymanagement.dto.UserSnapshot;
+import com.library.librarymanagement.service.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Resolves {@link CurrentUser} parameters from the login's email claim through
+ * {@link UserService#findSnapshot}, which is cached, so requests do not read the user from
+ * the database.
+ */
+@Component
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private final UserService userService;
+
+    @Autowired
+    public CurrentUserArgumentResolver(UserService userService) {
+        this.userService = userService;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(CurrentUser.class) && parameter.getParameterType() == UserSnapshot.class;
+    }
+
+    @Override
+    public UserSnapshot resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                        NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof OAuth2User principal)) {
+            return null;
+        }
+        String email = principal.getAttribute("email");
+        return email == null ? null : userService.findSnapshot(email);
+    }
+}
@@ -1,57 +1,70 @@
 package com.library.librarymanagement.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.librarymanagement.dto.CursorPage;
+import com.library.librarymanagement.mapper.MemberMapper;
 import com.library.librarymanagement.dto.MemberDto;
 import com.library.librarymanagement.model.Member;
 import com.library.librarymanagement.service.MemberService;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/members")
 public class MemberController {
 
     private final MemberService memberService;
-    private final ModelMapper modelMapper;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public MemberController(MemberService memberService, ModelMapper modelMapper) {
+    public MemberController(MemberService memberService, ObjectMapper objectMapper) {
         this.memberService = memberService;
-        this.modelMapper = modelMapper;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
-    public List<MemberDto> getAllMembers() {
-        return memberService.findAllMembers().stream()
-                .map(member -> modelMapper.map(member, MemberDto.class))
-                .collect(Collectors.toList());
+    public ResponseEntity<List<MemberDto>> getAllMembers(WebRequest request) {
+        return ConditionalResponses.listIfNoneMatch(request, "members", memberService::membershipVersion,
+                memberService::findAllMembersVersioned);
+    }
+
+    @GetMapping("/page")
+    public CursorPage<MemberDto> getMembersPage(@RequestParam(required = false) String cursor,
+                                                @RequestParam(required = false) Integer size) {
+        return memberService.findMembersPage(cursor, size);
+    }
+
+    @GetMapping(value = "/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamAllMembers() {
+        return NdjsonResponses.stream(objectMapper, sink -> memberService.streamAllMembers(sink::accept));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<MemberDto> getMemberById(@PathVariable Long id) {
+    public ResponseEntity<MemberDto> getMemberById(@PathVariable Long id, WebRequest request) {
         Member member = memberService.findMemberById(id);
-        MemberDto memberDto = modelMapper.map(member, MemberDto.class);
-        return ResponseEntity.ok(memberDto);
+        String etag = ConditionalResponses.entityTag("member", member.getId(), member.getVersion());
+        return ConditionalResponses.ifNoneMatch(request, etag, () -> MemberMapper.toDto(member));
     }
 
     @PostMapping
     public ResponseEntity<MemberDto> createMember(@RequestBody MemberDto memberDto) {
-        Member memberRequest = modelMapper.map(memberDto, Member.class);
+        Member memberRequest = MemberMapper.toEntity(memberDto);
         Member createdMember = memberService.saveMember(memberRequest);
-        MemberDto memberResponse = modelMapper.map(createdMember, MemberDto.class);
+        MemberDto memberResponse = MemberMapper.toDto(createdMember);
         return new ResponseEntity<>(memberResponse, HttpStatus.CREATED);
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<MemberDto> updateMember(@PathVariable Long id, @RequestBody MemberDto memberDto) {
-        Member memberRequest = modelMapper.map(memberDto, Member.class);
+        Member memberRequest = MemberMapper.toEntity(memberDto);
         Member updatedMember = memberService.updateMember(id, memberRequest);
-        MemberDto memberResponse = modelMapper.map(updatedMember, MemberDto.class);
+        MemberDto memberResponse = MemberMapper.toDto(updatedMember);
         return ResponseEntity.ok(memberResponse);
     }
 
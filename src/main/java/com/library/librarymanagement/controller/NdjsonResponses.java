@@ -0,0 +1,42 @@
+package com.library.librarymanagement.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Writes a sequence of objects as newline-delimited JSON while they are produced, so the
+ * response never has to be materialized in memory.
+ */
+final class NdjsonResponses {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private NdjsonResponses() {
+    }
+
+    static ResponseEntity<StreamingResponseBody> stream(ObjectMapper objectMapper, Consumer<Consumer<Object>> producer) {
+        StreamingResponseBody body = outputStream -> {
+            OutputStream out = new BufferedOutputStream(outputStream, BUFFER_SIZE);
+            producer.accept(item -> writeLine(objectMapper, out, item));
+            out.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    private static void writeLine(ObjectMapper objectMapper, OutputStream out, Object item) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(item));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write streamed response", e);
+        }
+    }
+}
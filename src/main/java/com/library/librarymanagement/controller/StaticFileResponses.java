@@ -0,0 +1,165 @@
+package com.library.librarymanagement.controller;
+
+import com.library.librarymanagement.exception.ResourceNotFoundException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Serves files that never change once written (stored under unique names), so the name is
+ * a strong validator and clients may cache them for a year without revalidating.
+ * <p>
+ * Answers {@code If-None-Match}/{@code If-Modified-Since} with 304 and a single byte
+ * {@code Range} with 206; a request for several ranges gets the whole file. The body is
+ * handed to Tomcat's sendfile when the connector supports it (plain NIO, no TLS), and is
+ * otherwise copied with {@link FileChannel#transferTo} rather than through a heap buffer.
+ */
+final class StaticFileResponses {
+
+    static final String IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable().getHeaderValue();
+
+    // Tomcat's sendfile contract: with these request attributes set and no body written,
+    // the connector writes the file region itself once the request completes
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private StaticFileResponses() {
+    }
+
+    static void serveImmutable(HttpServletRequest request, HttpServletResponse response, Path file) throws IOException {
+        serveImmutable(request, response, file, file.getFileName().toString());
+    }
+
+    /**
+     * Serves the file under {@code filename}, which supplies the ETag and the content type
+     * in place of the file's own name.
+     */
+    static void serveImmutable(HttpServletRequest request, HttpServletResponse response, Path file, String filename)
+            throws IOException {
+        serve(request, response, file, filename, IMMUTABLE);
+    }
+
+    /**
+     * As {@link #serveImmutable}, for a response that may later be replaced under the same
+     * URL: clients revalidate it on every use, so a changed file is picked up by its ETag.
+     */
+    static void serveRevalidated(HttpServletRequest request, HttpServletResponse response, Path file, String filename)
+            throws IOException {
+        serve(request, response, file, filename, CacheControl.noCache().getHeaderValue());
+    }
+
+    private static void serve(HttpServletRequest request, HttpServletResponse response, Path file, String filename,
+                              String cacheControl) throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            throw new ResourceNotFoundException("Could not read file: " + filename);
+        }
+        String etag = "\"" + filename + "\"";
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        long length = attributes.size();
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+
+        long start = 0;
+        long end = length;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && ifRangeHolds(request, etag, lastModified)) {
+            List<HttpRange> ranges = parseRanges(range);
+            if (ranges.size() == 1) {
+                start = ranges.get(0).getRangeStart(length);
+                end = ranges.get(0).getRangeEnd(length) + 1;
+                if (start >= length) {
+                    response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    return;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + length);
+            }
+        }
+
+        response.setContentType(MediaTypeFactory.getMediaType(filename).orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.inline().filename(filename).build().toString());
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        response.setContentLengthLong(end - start);
+        if (HttpMethod.HEAD.matches(request.getMethod()) || start == end) {
+            return;
+        }
+        writeBody(request, response, file, start, end);
+    }
+
+    private static void writeBody(HttpServletRequest request, HttpServletResponse response, Path file, long start, long end)
+            throws IOException {
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position < end) {
+                long written = channel.transferTo(position, end - position, out);
+                if (written <= 0) {
+                    throw new IOException("File shrank while being served: " + file.getFileName());
+                }
+                position += written;
+            }
+        }
+    }
+
+    /**
+     * A {@code Range} only applies while {@code If-Range}, if sent, still names this file.
+     */
+    private static boolean ifRangeHolds(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    // A malformed Range header is ignored rather than rejected
+    private static List<HttpRange> parseRanges(String range) {
+        try {
+            return HttpRange.parseRanges(range);
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
+    }
+}
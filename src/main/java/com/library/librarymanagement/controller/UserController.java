@@ -1,29 +1,26 @@
 package com.library.librarymanagement.controller;
 
+import com.library.librarymanagement.dto.UserSnapshot;
 import com.library.librarymanagement.service.FileStorageService;
 import com.library.librarymanagement.service.UserService;
-import com.library.librarymanagement.model.User;
-import com.library.librarymanagement.repository.UserRepository;
-import com.library.librarymanagement.exception.ResourceNotFoundException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import org.springframework.http.HttpStatus;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+
 
 @RestController
 @RequestMapping("/api/users")
 public class UserController {
 
-    @Autowired
-    private UserRepository userRepository;
-
     @Autowired
     private FileStorageService fileStorageService;
 
@@ -31,35 +28,50 @@ public class UserController {
     private UserService userService;
 
     @PostMapping("/profile/picture")
-    public ResponseEntity<String> uploadProfilePicture(@RequestParam("file") MultipartFile file, @AuthenticationPrincipal OAuth2User principal) {
+    public ResponseEntity<String> uploadProfilePicture(@RequestParam("file") MultipartFile file, @CurrentUser UserSnapshot user) {
         String filename = fileStorageService.store(file);
-        String email = principal.getAttribute("email");
+        String email = user.getEmail();
 
         String fileDownloadUri = ServletUriComponentsBuilder.fromCurrentContextPath()
-                .path("/api/users/profile/picture/")
+                .path(UserService.PROFILE_PICTURE_PATH)
                 .path(filename)
                 .toUriString();
 
-        userService.updateProfilePictureUrl(email, fileDownloadUri);
+        try {
+            userService.updateProfilePictureUrl(email, fileDownloadUri);
+        } catch (RuntimeException e) {
+            fileStorageService.release(filename);
+            throw e;
+        }
 
         return ResponseEntity.ok("File uploaded successfully. Download URI: " + fileDownloadUri);
     }
 
+    // Stored names are content hashes (or, for older uploads, random UUIDs) and files are
+    // never rewritten, so responses are cacheable forever. With ?size= the matching thumbnail
+    // is served once rendered; until then the original stands in, revalidated on every use
+    // so clients switch to the thumbnail when it appears.
     @GetMapping("/profile/picture/{filename:.+}")
-    public ResponseEntity<Resource> serveFile(@PathVariable String filename) {
-        Resource file = fileStorageService.loadAsResource(filename);
-        return ResponseEntity.ok().header(HttpHeaders.CONTENT_DISPOSITION,
-                "inline; filename=\"" + file.getFilename() + "\"").body(file);
+    public void serveFile(@PathVariable String filename, @RequestParam(required = false) Integer size,
+                          HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path original = fileStorageService.load(filename);
+        if (size == null) {
+            StaticFileResponses.serveImmutable(request, response, original, filename);
+            return;
+        }
+        Optional<Path> thumbnail = fileStorageService.loadThumbnail(filename, size);
+        if (thumbnail.isPresent()) {
+            StaticFileResponses.serveImmutable(request, response, thumbnail.get());
+        } else {
+            StaticFileResponses.serveRevalidated(request, response, original, filename);
+        }
     }
 
     @GetMapping("/me")
-    public ResponseEntity<User> getCurrentUser(@AuthenticationPrincipal OAuth2User principal) {
-        if (principal == null) {
+    public ResponseEntity<UserSnapshot> getCurrentUser(@CurrentUser UserSnapshot user) {
+        if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        String email = principal.getAttribute("email");
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
         return ResponseEntity.ok(user);
     }
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.library.librarymanagement.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The ids of the book requests to approve and to reject in one batch.
+ */
+@Data
+public class BatchDecisionRequest {
+    private List<Long> approve = new ArrayList<>();
+    private List<Long> reject = new ArrayList<>();
+}
@@ -0,0 +1,35 @@
+package com.library.librarymanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a batch of approvals and rejections: counts plus one result per request, in
+ * the order the ids were given (approvals first).
+ */
+@Data
+public class BatchDecisionResult {
+
+    private int approved;
+    private int rejected;
+    private int failed;
+    private List<ItemResult> results = new ArrayList<>();
+
+    public enum Outcome {
+        APPROVED,
+        REJECTED,
+        FAILED
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class ItemResult {
+        private Long requestId;
+        private Outcome outcome;
+        private Long borrowingId;
+        private String message;
+    }
+}
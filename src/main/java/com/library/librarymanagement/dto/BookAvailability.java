@@ -0,0 +1,18 @@
+package com.library.librarymanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookAvailability {
+    private Long bookId;
+    private int totalCopies;
+    private int availableCopies;
+
+    public boolean isAvailable() {
+        return availableCopies > 0;
+    }
+}
@@ -0,0 +1,18 @@
+package com.library.librarymanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * How many books there are, and the sums of their ids and versions: cheap to compute on
+ * both sides, and different as soon as a book is added, removed or updated on one only.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookIndexChecksum {
+    private long count;
+    private long idSum;
+    private long versionSum;
+}
@@ -0,0 +1,24 @@
+package com.library.librarymanagement.dto;
+
+import com.library.librarymanagement.model.BookRequest;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+
+/**
+ * A book request flattened with the requesting user's name and the book's title; the
+ * user's account and member profile never leave the server.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookRequestView {
+    private Long id;
+    private Long requesterId;
+    private String requesterName;
+    private Long bookId;
+    private String bookTitle;
+    private LocalDate requestDate;
+    private BookRequest.RequestStatus status;
+}
@@ -1,9 +1,13 @@
 package com.library.librarymanagement.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import java.time.LocalDate;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class BorrowerDto {
     private Long id;
     private Long memberId;
@@ -0,0 +1,15 @@
+package com.library.librarymanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BorrowingDue {
+    private Long id;
+    private LocalDate dueDate;
+}
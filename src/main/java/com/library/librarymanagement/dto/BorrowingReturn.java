@@ -0,0 +1,19 @@
+package com.library.librarymanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BorrowingReturn {
+    private Long id;
+    private LocalDate returnDate;
+
+    public boolean isOpen() {
+        return returnDate == null;
+    }
+}
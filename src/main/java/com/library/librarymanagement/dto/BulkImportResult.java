@@ -0,0 +1,36 @@
+package com.library.librarymanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk import: row counts plus the rejected rows with their line numbers.
+ */
+@Data
+public class BulkImportResult {
+
+    private long received;
+    private long imported;
+    private long failed;
+    private List<RowError> errors = new ArrayList<>();
+    private boolean errorsTruncated;
+
+    public void reject(long line, String message, int maxReportedErrors) {
+        failed++;
+        if (errors.size() < maxReportedErrors) {
+            errors.add(new RowError(line, message));
+        } else {
+            errorsTruncated = true;
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;
+        private String message;
+    }
+}
@@ -0,0 +1,114 @@
+package com.library.librarymanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * One page of a keyset-paginated listing. {@code nextCursor} is an opaque token that
+ * encodes the last id of the page (or its date and id, for listings ordered by a date);
+ * it is {@code null} once the listing is exhausted.
+ */
+@Data
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    private static final String CURSOR_PREFIX = "id:";
+    private static final String DATE_CURSOR_PREFIX = "date-id:";
+
+    private List<T> items;
+    private String nextCursor;
+
+    /**
+     * Builds a page from rows fetched with a limit of {@code pageSize + 1}; the extra row
+     * only signals that another page exists and is not returned.
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int pageSize, Function<T, Long> idExtractor) {
+        if (rows.size() <= pageSize) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, pageSize);
+        return new CursorPage<>(items, encodeCursor(idExtractor.apply(items.get(pageSize - 1))));
+    }
+
+    /**
+     * Like {@link #of(List, int, Function)}, for listings ordered by a date, then id.
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int pageSize, Function<T, LocalDate> dateExtractor,
+                                       Function<T, Long> idExtractor) {
+        if (rows.size() <= pageSize) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, pageSize);
+        T last = items.get(pageSize - 1);
+        return new CursorPage<>(items, encodeCursor(new DateKey(dateExtractor.apply(last), idExtractor.apply(last))));
+    }
+
+    public <R> CursorPage<R> map(Function<T, R> mapper) {
+        return new CursorPage<>(items.stream().map(mapper).collect(Collectors.toList()), nextCursor);
+    }
+
+    public static String encodeCursor(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the id to seek after, or {@code 0} when no cursor is given (first page).
+     */
+    public static long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(CURSOR_PREFIX)) {
+                throw new IllegalArgumentException("Invalid page cursor: " + cursor);
+            }
+            return Long.parseLong(decoded.substring(CURSOR_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page cursor: " + cursor, e);
+        }
+    }
+
+    public static String encodeCursor(DateKey last) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((DATE_CURSOR_PREFIX + last.date() + ":" + last.id()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the position to seek after, or {@link DateKey#FIRST} when no cursor is given.
+     */
+    public static DateKey decodeDateCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return DateKey.FIRST;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.lastIndexOf(':');
+            if (!decoded.startsWith(DATE_CURSOR_PREFIX) || separator < DATE_CURSOR_PREFIX.length()) {
+                throw new IllegalArgumentException("Invalid page cursor: " + cursor);
+            }
+            return new DateKey(LocalDate.parse(decoded.substring(DATE_CURSOR_PREFIX.length(), separator)),
+                    Long.parseLong(decoded.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid page cursor: " + cursor, e);
+        }
+    }
+
+    /**
+     * Position in a listing ordered by a date, then id.
+     */
+    public record DateKey(LocalDate date, long id) {
+
+        // MySQL's earliest DATE, so it also binds as a query parameter
+        public static final DateKey FIRST = new DateKey(LocalDate.of(1000, 1, 1), 0);
+    }
+}
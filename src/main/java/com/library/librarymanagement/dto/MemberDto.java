@@ -1,8 +1,12 @@
 package com.library.librarymanagement.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class MemberDto {
     private Long id;
     private String name;
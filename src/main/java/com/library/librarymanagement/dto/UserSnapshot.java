@@ -0,0 +1,22 @@
+package com.library.librarymanagement.dto;
+
+import com.library.librarymanagement.model.User;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * What requests need to know about the logged-in user, without the user entity and its
+ * eagerly loaded member profile.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSnapshot {
+    private Long id;
+    private String email;
+    private String name;
+    private String profilePictureUrl;
+    private User.Role role;
+    private Long memberId;
+}
@@ -0,0 +1,17 @@
+package com.library.librarymanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A value together with the modification counter it was read at, both read in one
+ * transaction.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Versioned<T> {
+    private long version;
+    private T value;
+}
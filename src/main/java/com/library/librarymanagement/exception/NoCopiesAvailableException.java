@@ -0,0 +1,10 @@
+package com.library.librarymanagement.exception;
+
+/**
+ * Every copy of the book is out on loan.
+ */
+public class NoCopiesAvailableException extends IllegalStateException {
+    public NoCopiesAvailableException(String message) {
+        super(message);
+    }
+}
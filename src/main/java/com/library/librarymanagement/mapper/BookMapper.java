@@ -0,0 +1,26 @@
+package com.library.librarymanagement.mapper;
+
+import com.library.librarymanagement.dto.BookDto;
+import com.library.librarymanagement.model.Book;
+
+/**
+ * Field-by-field conversions between {@link Book} and {@link BookDto}.
+ */
+public final class BookMapper {
+
+    private BookMapper() {
+    }
+
+    public static BookDto toDto(Book book) {
+        return new BookDto(book.getId(), book.getTitle(), book.getPublisher(), book.getPublishDate());
+    }
+
+    public static Book toEntity(BookDto dto) {
+        Book book = new Book();
+        book.setId(dto.getId());
+        book.setTitle(dto.getTitle());
+        book.setPublisher(dto.getPublisher());
+        book.setPublishDate(dto.getPublishDate());
+        return book;
+    }
+}
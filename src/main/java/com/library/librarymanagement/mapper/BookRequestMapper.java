@@ -0,0 +1,25 @@
+package com.library.librarymanagement.mapper;
+
+import com.library.librarymanagement.dto.BookRequestView;
+import com.library.librarymanagement.model.BookRequest;
+
+/**
+ * Flattens a {@link BookRequest} into a {@link BookRequestView}. Touches the lazy user and
+ * book, so call it inside the transaction that loaded the request.
+ */
+public final class BookRequestMapper {
+
+    private BookRequestMapper() {
+    }
+
+    public static BookRequestView toView(BookRequest request) {
+        return new BookRequestView(
+                request.getId(),
+                request.getRequestingUser().getId(),
+                request.getRequestingUser().getName(),
+                request.getBook().getId(),
+                request.getBook().getTitle(),
+                request.getRequestDate(),
+                request.getStatus());
+    }
+}
@@ -0,0 +1,26 @@
+package com.library.librarymanagement.mapper;
+
+import com.library.librarymanagement.dto.BorrowerDto;
+import com.library.librarymanagement.model.Borrower;
+
+/**
+ * Flattens a {@link Borrower} with its member and book into a {@link BorrowerDto}. The
+ * member and book must be loaded (or at least their names and titles must be reachable).
+ */
+public final class BorrowingMapper {
+
+    private BorrowingMapper() {
+    }
+
+    public static BorrowerDto toDto(Borrower borrower) {
+        return new BorrowerDto(
+                borrower.getId(),
+                borrower.getMember().getId(),
+                borrower.getMember().getName(),
+                borrower.getBook().getId(),
+                borrower.getBook().getTitle(),
+                borrower.getIssueDate(),
+                borrower.getDueDate(),
+                borrower.getReturnDate());
+    }
+}
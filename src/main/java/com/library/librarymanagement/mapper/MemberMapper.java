@@ -0,0 +1,26 @@
+package com.library.librarymanagement.mapper;
+
+import com.library.librarymanagement.dto.MemberDto;
+import com.library.librarymanagement.model.Member;
+
+/**
+ * Field-by-field conversions between {@link Member} and {@link MemberDto}.
+ */
+public final class MemberMapper {
+
+    private MemberMapper() {
+    }
+
+    public static MemberDto toDto(Member member) {
+        return new MemberDto(member.getId(), member.getName(), member.getAddress(), member.getTelephone());
+    }
+
+    public static Member toEntity(MemberDto dto) {
+        Member member = new Member();
+        member.setId(dto.getId());
+        member.setName(dto.getName());
+        member.setAddress(dto.getAddress());
+        member.setTelephone(dto.getTelephone());
+        return member;
+    }
+}
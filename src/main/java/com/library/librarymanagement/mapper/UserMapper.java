@@ -0,0 +1,23 @@
+package com.library.librarymanagement.mapper;
+
+import com.library.librarymanagement.dto.UserSnapshot;
+import com.library.librarymanagement.model.User;
+
+/**
+ * Conversions from {@link User}.
+ */
+public final class UserMapper {
+
+    private UserMapper() {
+    }
+
+    public static UserSnapshot toSnapshot(User user) {
+        return new UserSnapshot(
+                user.getId(),
+                user.getEmail(),
+                user.getName(),
+                user.getProfilePictureUrl(),
+                user.getRole(),
+                user.getMemberProfile() == null ? null : user.getMemberProfile().getId());
+    }
+}
@@ -0,0 +1,28 @@
+package com.library.librarymanagement.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread. Installed as the
+ * session factory's {@link StatementInspector}; it never alters the SQL.
+ * <p>
+ * A JDBC batch is prepared once, so it counts once however many rows it carries.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    /**
+     * The number of statements prepared on this thread so far; callers measure a unit of
+     * work by the difference between two readings.
+     */
+    public static long current() {
+        return COUNT.get()[0];
+    }
+}
@@ -0,0 +1,59 @@
+package com.library.librarymanagement.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Records how many SQL statements each request issued, per URI template, so an N+1 shows up
+ * as a rising {@code http_server_requests_sql_statements} for one endpoint. Requests that
+ * matched no handler are not recorded, which keeps the {@code uri} tag bounded.
+ * <p>
+ * Only statements run on the request thread are seen; the body of a streamed (NDJSON)
+ * response is written on an async thread and is not counted.
+ */
+public class SqlStatementMetricsFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStatementMetricsFilter.class);
+
+    private final MeterRegistry meterRegistry;
+    private final int warnThreshold;
+
+    public SqlStatementMetricsFilter(MeterRegistry meterRegistry, int warnThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.warnThreshold = warnThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long before = SqlStatementCounter.current();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (pattern != null) {
+                long statements = SqlStatementCounter.current() - before;
+                DistributionSummary.builder("http.server.requests.sql.statements")
+                        .description("SQL statements issued while handling a request")
+                        .baseUnit("statements")
+                        .tag("method", request.getMethod())
+                        .tag("uri", pattern.toString())
+                        .register(meterRegistry)
+                        .record(statements);
+                if (warnThreshold > 0 && statements >= warnThreshold) {
+                    log.warn("{} {} issued {} SQL statements", request.getMethod(), pattern, statements);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.library.librarymanagement.metrics;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "metrics.sql")
+@Getter
+@Setter
+public class SqlStatementMetricsProperties {
+
+    /**
+     * Requests issuing at least this many SQL statements are logged as a warning (0 disables).
+     */
+    private int warnThreshold = 50;
+}
@@ -3,6 +3,8 @@ package com.library.librarymanagement.model;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.io.Serializable;
 import java.time.LocalDate;
@@ -12,16 +14,25 @@ import java.util.Set;
 
 @Entity
 @Table(name = "books")
+@DynamicUpdate
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class Book implements Serializable {
 
+    // Pooled sequence (a one-row table on MySQL) so inserts can be JDBC batched; see IdSequenceAligner
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_id")
+    @SequenceGenerator(name = "book_id", sequenceName = "book_id_seq", allocationSize = 50)
     private Long id;
 
+    // Incremented by every update through the entity (not by the copy count UPDATEs); rows that predate the column start at 0
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private long version;
+
     @Column(name = "title", length = 255, nullable = false)
     private String title;
 
@@ -31,8 +42,20 @@ public class Book implements Serializable {
     @Column(name = "publish_date")
     private LocalDate publishDate;
 
+    // Copy counts are only changed by the conditional UPDATEs in BookRepository; @DynamicUpdate
+    // keeps an edit of the other columns from writing back a stale count. They are not part
+    // of the cached form of a book: read them through the availability queries.
+    @ColumnDefault("1")
+    @Column(name = "total_copies", nullable = false)
+    private int totalCopies = 1;
+
+    @ColumnDefault("1")
+    @Column(name = "available_copies", nullable = false)
+    private int availableCopies = 1;
+
+    // Not cascaded: deleting the book removes its borrowings with one statement, see BorrowerService
     @JsonIgnore
-    @OneToMany(mappedBy = "book", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @OneToMany(mappedBy = "book", fetch = FetchType.LAZY)
     private Set<Borrower> borrowings = new HashSet<>();
 
     @Override
@@ -3,10 +3,16 @@ package com.library.librarymanagement.model;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
+
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "book_requests")
+// Mirrors db/migration: the approval queue, a user's requests and all requests, newest first
+@Table(name = "book_requests", indexes = {
+        @Index(name = "idx_book_requests_status_date", columnList = "status, request_date, id"),
+        @Index(name = "idx_book_requests_user_date", columnList = "user_id, request_date, id"),
+        @Index(name = "idx_book_requests_date", columnList = "request_date, id")})
 @Getter
 @Setter
 public class BookRequest {
@@ -15,11 +21,17 @@ public class BookRequest {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    // Deciding a request bumps it, so a second decision made from the same PENDING read fails
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User requestingUser;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "book_id", nullable = false)
     private Book book;
 
@@ -2,23 +2,39 @@ package com.library.librarymanagement.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.io.Serializable;
 import java.time.LocalDate;
 import java.util.Objects;
 
 @Entity
-@Table(name = "borrowers")
+// Open loans by due date (return_date IS NULL, due_date range); InnoDB appends the id, so
+// keyset pages on (due_date, id) come out of the index in order. The schema itself comes
+// from the Flyway migrations in db/migration; these declarations mirror them.
+@Table(name = "borrowers", indexes = {
+        @Index(name = "idx_borrowers_return_due", columnList = "return_date, due_date"),
+        @Index(name = "idx_borrowers_member_return", columnList = "member_id, return_date"),
+        @Index(name = "idx_borrowers_book_return", columnList = "book_id, return_date"),
+        @Index(name = "idx_borrowers_due", columnList = "due_date")})
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class Borrower implements Serializable {
 
+    // Pooled sequence (a one-row table on MySQL) so inserts can be JDBC batched; see IdSequenceAligner
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "borrower_id")
+    @SequenceGenerator(name = "borrower_id", sequenceName = "borrower_id_seq", allocationSize = 50)
     private Long id;
 
+    // Incremented by every update through the entity; rows that predate the column start at 0
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "member_id", nullable = false)
     private Member member;
@@ -3,6 +3,7 @@ package com.library.librarymanagement.model;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.io.Serializable;
 import java.util.HashSet;
@@ -17,10 +18,18 @@ import java.util.Set;
 @AllArgsConstructor
 public class Member implements Serializable {
 
+    // Pooled sequence (a one-row table on MySQL) so inserts can be JDBC batched; see IdSequenceAligner
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_id")
+    @SequenceGenerator(name = "member_id", sequenceName = "member_id_seq", allocationSize = 50)
     private Long id;
 
+    // Incremented by every update through the entity; rows that predate the column start at 0
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private long version;
+
     @Column(name = "name", length = 255, nullable = false)
     private String name;
 
@@ -30,8 +39,9 @@ public class Member implements Serializable {
     @Column(name = "telephone", length = 15)
     private String telephone;
 
+    // Not cascaded: deleting the member removes its borrowings with one statement, see BorrowerService
     @JsonIgnore
-    @OneToMany(mappedBy = "member", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @OneToMany(mappedBy = "member", fetch = FetchType.LAZY)
     private Set<Borrower> borrowings = new HashSet<>();
 
     @Override
@@ -0,0 +1,24 @@
+package com.library.librarymanagement.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Counts the changes made to one table (e.g. {@code books}), so a list of its rows can be
+ * validated by this single row instead of by reading the rows.
+ */
+@Entity
+@Table(name = "modification_counters")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ModificationCounter {
+
+    @Id
+    @Column(name = "table_name", length = 64)
+    private String tableName;
+
+    @Column(name = "counter", nullable = false)
+    private long counter;
+}
@@ -0,0 +1,24 @@
+package com.library.librarymanagement.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * A single row whose timestamp is rewritten on the primary every few seconds; how far a
+ * replica's copy trails the primary's is that replica's lag. Written and read with plain
+ * JDBC by {@link com.library.librarymanagement.config.ReplicaRoutingDataSource}.
+ */
+@Entity
+@Table(name = "replication_heartbeat")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplicationHeartbeat {
+
+    @Id
+    private int id;
+
+    @Column(name = "beat_millis", nullable = false)
+    private long beatMillis;
+}
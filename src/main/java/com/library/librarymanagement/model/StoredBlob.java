@@ -0,0 +1,33 @@
+package com.library.librarymanagement.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * One stored upload, identified by the SHA-256 of its content. {@code refCount} counts the
+ * stored names (e.g. profile pictures) that point at it; the file is deleted when it drops
+ * to zero.
+ */
+@Entity
+@Table(name = "stored_blobs")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoredBlob {
+
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    @Column(nullable = false)
+    private long size;
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
@@ -1,10 +1,90 @@
 package com.library.librarymanagement.repository;
 
+import com.library.librarymanagement.dto.BookAvailability;
+import com.library.librarymanagement.dto.BookDto;
+import com.library.librarymanagement.dto.BookIndexChecksum;
 import com.library.librarymanagement.model.Book;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
 @Repository
 public interface BookRepository extends JpaRepository<Book, Long> {
-    // Inherits basic CRUD operations
-}
\ No newline at end of file
+
+    // DTO projections: listings read straight into BookDto without managed entities
+
+    @Query("SELECT new com.library.librarymanagement.dto.BookDto(b.id, b.title, b.publisher, b.publishDate) FROM Book b ORDER BY b.id")
+    List<BookDto> findAllDtos();
+
+    // Keyset pagination: seeks on the primary key instead of using OFFSET
+    @Query("SELECT new com.library.librarymanagement.dto.BookDto(b.id, b.title, b.publisher, b.publishDate) FROM Book b WHERE b.id > :afterId ORDER BY b.id")
+    List<BookDto> findDtoPageAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("SELECT new com.library.librarymanagement.dto.BookDto(b.id, b.title, b.publisher, b.publishDate) FROM Book b WHERE b.id IN :ids")
+    List<BookDto> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.library.librarymanagement.dto.BookDto(b.id, b.title, b.publisher, b.publishDate) FROM Book b ORDER BY b.id")
+    Stream<BookDto> streamAllDtos();
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    Stream<Book> streamAllByOrderByIdAsc();
+
+    // Copy inventory: each change is one conditional UPDATE that holds the row lock only
+    // until its transaction commits; 0 rows updated means the condition did not hold
+
+    @Modifying
+    @Query("UPDATE Book b SET b.availableCopies = b.availableCopies - 1 WHERE b.id = :id AND b.availableCopies > 0")
+    int claimCopy(@Param("id") Long id);
+
+    // All or nothing: claims {@code count} copies only if that many are available
+    @Modifying
+    @Query("UPDATE Book b SET b.availableCopies = b.availableCopies - :count WHERE b.id = :id AND b.availableCopies >= :count")
+    int claimCopies(@Param("id") Long id, @Param("count") int count);
+
+    @Modifying
+    @Query("UPDATE Book b SET b.availableCopies = b.availableCopies + 1 WHERE b.id = :id AND b.availableCopies < b.totalCopies")
+    int releaseCopy(@Param("id") Long id);
+
+    // Refused when fewer copies than are currently on loan would remain
+    @Modifying
+    @Query("UPDATE Book b SET b.availableCopies = b.availableCopies + :totalCopies - b.totalCopies, b.totalCopies = :totalCopies WHERE b.id = :id AND b.totalCopies - b.availableCopies <= :totalCopies")
+    int setTotalCopies(@Param("id") Long id, @Param("totalCopies") int totalCopies);
+
+    // Gives back every copy the member still has on loan, for deleting the member's borrowings
+    @Modifying
+    @Query("UPDATE Book b SET b.availableCopies = b.availableCopies + (SELECT COUNT(br) FROM Borrower br WHERE br.book = b AND br.member.id = :memberId AND br.returnDate IS NULL) " +
+            "WHERE b.id IN (SELECT br.book.id FROM Borrower br WHERE br.member.id = :memberId AND br.returnDate IS NULL)")
+    int releaseCopiesLentTo(@Param("memberId") Long memberId);
+
+    // Recomputes the available count of every book from its open borrowings
+    @Modifying
+    @Query("UPDATE Book b SET b.availableCopies = b.totalCopies - (SELECT COUNT(br) FROM Borrower br WHERE br.book = b AND br.returnDate IS NULL)")
+    int reconcileAvailableCopies();
+
+    @Query("SELECT new com.library.librarymanagement.dto.BookAvailability(b.id, b.totalCopies, b.availableCopies) FROM Book b WHERE b.id = :id")
+    Optional<BookAvailability> findAvailability(@Param("id") Long id);
+
+    @Query("SELECT new com.library.librarymanagement.dto.BookAvailability(b.id, b.totalCopies, b.availableCopies) FROM Book b WHERE b.id IN :ids")
+    List<BookAvailability> findAvailabilityByIdIn(@Param("ids") Collection<Long> ids);
+
+    // What BookSearchIndex compares its own contents against; one pass over the primary key
+    @Query("SELECT new com.library.librarymanagement.dto.BookIndexChecksum(COUNT(b), COALESCE(SUM(b.id), 0L), COALESCE(SUM(b.version), 0L)) FROM Book b")
+    BookIndexChecksum findIndexChecksum();
+}
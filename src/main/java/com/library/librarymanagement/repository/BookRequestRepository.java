@@ -1,18 +1,73 @@
 package com.library.librarymanagement.repository;
 
+import com.library.librarymanagement.dto.BookRequestView;
 import com.library.librarymanagement.model.BookRequest;
 import com.library.librarymanagement.model.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface BookRequestRepository extends JpaRepository<BookRequest, Long> {
 
+    // User.memberProfile is an eager one-to-one; fetching it in the same join keeps it
+    // from costing a select per requesting user
+    @EntityGraph(attributePaths = {"requestingUser", "requestingUser.memberProfile", "book"})
     List<BookRequest> findByRequestingUser(User user);
 
-    @Query("SELECT br FROM BookRequest br JOIN FETCH br.requestingUser JOIN FETCH br.book ORDER BY br.requestDate DESC")
+    @EntityGraph(attributePaths = {"requestingUser", "requestingUser.memberProfile", "book"})
+    @Query("SELECT br FROM BookRequest br ORDER BY br.requestDate DESC")
     List<BookRequest> findAllWithDetails();
-}
\ No newline at end of file
+
+    @EntityGraph(attributePaths = {"requestingUser", "requestingUser.memberProfile", "book"})
+    List<BookRequest> findAllByIdIn(Collection<Long> ids);
+
+    // Two queries rather than one "(:status IS NULL OR ...)": the optional filter would keep
+    // idx_book_requests_status_date from being used when a status is given
+    default List<BookRequestView> findViews(BookRequest.RequestStatus status) {
+        return status == null ? findAllViews() : findViewsByStatus(status);
+    }
+
+    @Query("SELECT new com.library.librarymanagement.dto.BookRequestView(br.id, u.id, u.name, b.id, b.title, br.requestDate, br.status) FROM BookRequest br JOIN br.requestingUser u JOIN br.book b ORDER BY br.requestDate DESC, br.id DESC")
+    List<BookRequestView> findAllViews();
+
+    @Query("SELECT new com.library.librarymanagement.dto.BookRequestView(br.id, u.id, u.name, b.id, b.title, br.requestDate, br.status) FROM BookRequest br JOIN br.requestingUser u JOIN br.book b WHERE br.status = :status ORDER BY br.requestDate DESC, br.id DESC")
+    List<BookRequestView> findViewsByStatus(@Param("status") BookRequest.RequestStatus status);
+
+    @Query("SELECT new com.library.librarymanagement.dto.BookRequestView(br.id, u.id, u.name, b.id, b.title, br.requestDate, br.status) FROM BookRequest br JOIN br.requestingUser u JOIN br.book b WHERE u.id = :userId ORDER BY br.requestDate DESC, br.id DESC")
+    List<BookRequestView> findViewsByRequester(@Param("userId") Long userId);
+
+    // Split by status for the same reason as findViews
+    default List<BookRequestView> findViewPageAfter(BookRequest.RequestStatus status, Long afterId, Limit limit) {
+        return status == null ? findAllViewPageAfter(afterId, limit) : findViewPageByStatusAfter(status, afterId, limit);
+    }
+
+    @Query("SELECT new com.library.librarymanagement.dto.BookRequestView(br.id, u.id, u.name, b.id, b.title, br.requestDate, br.status) FROM BookRequest br JOIN br.requestingUser u JOIN br.book b WHERE br.id > :afterId ORDER BY br.id")
+    List<BookRequestView> findAllViewPageAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("SELECT new com.library.librarymanagement.dto.BookRequestView(br.id, u.id, u.name, b.id, b.title, br.requestDate, br.status) FROM BookRequest br JOIN br.requestingUser u JOIN br.book b WHERE br.status = :status AND br.id > :afterId ORDER BY br.id")
+    List<BookRequestView> findViewPageByStatusAfter(@Param("status") BookRequest.RequestStatus status,
+                                                    @Param("afterId") Long afterId, Limit limit);
+
+    default List<BookRequestView> findViewPageByRequesterAfter(Long userId, BookRequest.RequestStatus status,
+                                                               Long afterId, Limit limit) {
+        return status == null
+                ? findAllViewPageByRequesterAfter(userId, afterId, limit)
+                : findViewPageByRequesterAndStatusAfter(userId, status, afterId, limit);
+    }
+
+    @Query("SELECT new com.library.librarymanagement.dto.BookRequestView(br.id, u.id, u.name, b.id, b.title, br.requestDate, br.status) FROM BookRequest br JOIN br.requestingUser u JOIN br.book b WHERE u.id = :userId AND br.id > :afterId ORDER BY br.id")
+    List<BookRequestView> findAllViewPageByRequesterAfter(@Param("userId") Long userId,
+                                                          @Param("afterId") Long afterId, Limit limit);
+
+    @Query("SELECT new com.library.librarymanagement.dto.BookRequestView(br.id, u.id, u.name, b.id, b.title, br.requestDate, br.status) FROM BookRequest br JOIN br.requestingUser u JOIN br.book b WHERE u.id = :userId AND br.status = :status AND br.id > :afterId ORDER BY br.id")
+    List<BookRequestView> findViewPageByRequesterAndStatusAfter(@Param("userId") Long userId,
+                                                                @Param("status") BookRequest.RequestStatus status,
+                                                                @Param("afterId") Long afterId, Limit limit);
+}
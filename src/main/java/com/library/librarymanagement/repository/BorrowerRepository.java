@@ -1,20 +1,70 @@
 package com.library.librarymanagement.repository;
 
+import com.library.librarymanagement.dto.BorrowerDto;
+import com.library.librarymanagement.dto.BorrowingDue;
+import com.library.librarymanagement.dto.BorrowingReturn;
 import com.library.librarymanagement.model.Borrower;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface BorrowerRepository extends JpaRepository<Borrower, Long> {
 
-    @Query("SELECT b FROM Borrower b JOIN FETCH b.member JOIN FETCH b.book")
-    List<Borrower> findAllWithMemberAndBook();
-
     @Query("SELECT b FROM Borrower b JOIN FETCH b.member JOIN FETCH b.book WHERE b.id = :id")
     Optional<Borrower> findByIdWithMemberAndBook(@Param("id") Long id);
-}
\ No newline at end of file
+
+    // DTO projections: member name and book title come from the joins, no entities are materialized
+
+    @Query("SELECT new com.library.librarymanagement.dto.BorrowerDto(b.id, m.id, m.name, bk.id, bk.title, b.issueDate, b.dueDate, b.returnDate) FROM Borrower b JOIN b.member m JOIN b.book bk ORDER BY b.id")
+    List<BorrowerDto> findAllDtos();
+
+    @Query("SELECT new com.library.librarymanagement.dto.BorrowerDto(b.id, m.id, m.name, bk.id, bk.title, b.issueDate, b.dueDate, b.returnDate) FROM Borrower b JOIN b.member m JOIN b.book bk WHERE b.id > :afterId ORDER BY b.id")
+    List<BorrowerDto> findDtoPageAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("SELECT new com.library.librarymanagement.dto.BorrowerDto(b.id, m.id, m.name, bk.id, bk.title, b.issueDate, b.dueDate, b.returnDate) FROM Borrower b JOIN b.member m JOIN b.book bk WHERE m.id = :memberId AND b.id > :afterId ORDER BY b.id")
+    List<BorrowerDto> findDtoPageByMemberAfter(@Param("memberId") Long memberId, @Param("afterId") Long afterId, Limit limit);
+
+    @Query("SELECT new com.library.librarymanagement.dto.BorrowerDto(b.id, m.id, m.name, bk.id, bk.title, b.issueDate, b.dueDate, b.returnDate) FROM Borrower b JOIN b.member m JOIN b.book bk WHERE b.id IN :ids")
+    List<BorrowerDto> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Open loans by due date, keyset paged on (dueDate, id); served by idx_borrowers_return_due
+
+    @Query("SELECT new com.library.librarymanagement.dto.BorrowerDto(b.id, m.id, m.name, bk.id, bk.title, b.issueDate, b.dueDate, b.returnDate) FROM Borrower b JOIN b.member m JOIN b.book bk " +
+            "WHERE b.returnDate IS NULL AND b.dueDate BETWEEN :from AND :to AND (b.dueDate > :afterDue OR (b.dueDate = :afterDue AND b.id > :afterId)) ORDER BY b.dueDate, b.id")
+    List<BorrowerDto> findOpenDtoPageDueBetween(@Param("from") LocalDate from, @Param("to") LocalDate to,
+                                                @Param("afterDue") LocalDate afterDue, @Param("afterId") Long afterId, Limit limit);
+
+    // Reads only indexed columns, so the overdue scan never touches the table rows
+    @Query("SELECT new com.library.librarymanagement.dto.BorrowingDue(b.id, b.dueDate) FROM Borrower b " +
+            "WHERE b.returnDate IS NULL AND b.dueDate <= :to AND (b.dueDate > :afterDue OR (b.dueDate = :afterDue AND b.id > :afterId)) ORDER BY b.dueDate, b.id")
+    List<BorrowingDue> findOpenDuePageThrough(@Param("to") LocalDate to, @Param("afterDue") LocalDate afterDue,
+                                              @Param("afterId") Long afterId, Limit limit);
+
+    // A book's or a member's whole history, deleted set-based with the book or member;
+    // served by idx_borrowers_book_return and idx_borrowers_member_return
+
+    @Query("SELECT new com.library.librarymanagement.dto.BorrowingReturn(b.id, b.returnDate) FROM Borrower b " +
+            "WHERE b.book.id = :bookId")
+    List<BorrowingReturn> findReturnsByBookId(@Param("bookId") Long bookId);
+
+    @Query("SELECT new com.library.librarymanagement.dto.BorrowingReturn(b.id, b.returnDate) FROM Borrower b " +
+            "WHERE b.member.id = :memberId")
+    List<BorrowingReturn> findReturnsByMemberId(@Param("memberId") Long memberId);
+
+    @Modifying
+    @Query("DELETE FROM Borrower b WHERE b.book.id = :bookId")
+    int deleteByBookId(@Param("bookId") Long bookId);
+
+    @Modifying
+    @Query("DELETE FROM Borrower b WHERE b.member.id = :memberId")
+    int deleteByMemberId(@Param("memberId") Long memberId);
+}
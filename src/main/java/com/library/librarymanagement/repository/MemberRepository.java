@@ -1,10 +1,31 @@
 package com.library.librarymanagement.repository;
 
+import com.library.librarymanagement.dto.MemberDto;
 import com.library.librarymanagement.model.Member;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
 @Repository
 public interface MemberRepository extends JpaRepository<Member, Long> {
     // This interface automatically inherits methods like save(), findById(), findAll(), deleteById(), etc.
-}
\ No newline at end of file
+
+    @Query("SELECT new com.library.librarymanagement.dto.MemberDto(m.id, m.name, m.address, m.telephone) FROM Member m ORDER BY m.id")
+    List<MemberDto> findAllDtos();
+
+    @Query("SELECT new com.library.librarymanagement.dto.MemberDto(m.id, m.name, m.address, m.telephone) FROM Member m WHERE m.id > :afterId ORDER BY m.id")
+    List<MemberDto> findDtoPageAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.library.librarymanagement.dto.MemberDto(m.id, m.name, m.address, m.telephone) FROM Member m ORDER BY m.id")
+    Stream<MemberDto> streamAllDtos();
+}
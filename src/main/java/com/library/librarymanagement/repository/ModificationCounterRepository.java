@@ -0,0 +1,21 @@
+package com.library.librarymanagement.repository;
+
+import com.library.librarymanagement.model.ModificationCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ModificationCounterRepository extends JpaRepository<ModificationCounter, String> {
+
+    @Modifying
+    @Query("UPDATE ModificationCounter c SET c.counter = c.counter + 1 WHERE c.tableName = :tableName")
+    int increment(@Param("tableName") String tableName);
+
+    @Query("SELECT c.counter FROM ModificationCounter c WHERE c.tableName = :tableName")
+    Optional<Long> findCounter(@Param("tableName") String tableName);
+}
@@ -0,0 +1,31 @@
+package com.library.librarymanagement.repository;
+
+import com.library.librarymanagement.model.StoredBlob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface StoredBlobRepository extends JpaRepository<StoredBlob, String> {
+
+    // Reference counts change with conditional UPDATEs, which also lock the row until commit;
+    // 0 rows updated means there is no such blob (or, on release, no reference left)
+
+    @Modifying
+    @Query("UPDATE StoredBlob b SET b.refCount = b.refCount + 1 WHERE b.hash = :hash")
+    int acquire(@Param("hash") String hash);
+
+    @Modifying
+    @Query("UPDATE StoredBlob b SET b.refCount = b.refCount - 1 WHERE b.hash = :hash AND b.refCount > 0")
+    int release(@Param("hash") String hash);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM StoredBlob b WHERE b.hash = :hash AND b.refCount = 0")
+    Optional<StoredBlob> findUnreferenced(@Param("hash") String hash);
+}
@@ -1,12 +1,35 @@
 package com.library.librarymanagement.repository;
 
+import com.library.librarymanagement.dto.UserSnapshot;
 import com.library.librarymanagement.model.User;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
-}
\ No newline at end of file
+
+    // Reads the member id from the users row instead of loading the member profile
+    @Query("SELECT new com.library.librarymanagement.dto.UserSnapshot(u.id, u.email, u.name, u.profilePictureUrl, u.role, u.memberProfile.id) "
+            + "FROM User u WHERE u.email = :email")
+    Optional<UserSnapshot> findSnapshotByEmail(@Param("email") String email);
+
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.memberProfile WHERE u.id > :afterId ORDER BY u.id")
+    List<User> findPageAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.library.librarymanagement.dto.UserSnapshot(u.id, u.email, u.name, u.profilePictureUrl, u.role, u.memberProfile.id) "
+            + "FROM User u ORDER BY u.id")
+    Stream<UserSnapshot> streamAllSnapshots();
+}
@@ -0,0 +1,237 @@
+package com.library.librarymanagement.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.librarymanagement.config.BulkImportProperties;
+import com.library.librarymanagement.dto.BookDto;
+import com.library.librarymanagement.dto.BulkImportResult;
+import com.library.librarymanagement.mapper.BookMapper;
+import com.library.librarymanagement.model.Book;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams books from CSV or NDJSON into the catalogue.
+ * <p>
+ * Rows are validated as they are read and written in chunks of {@code api.bulk-import.batch-size},
+ * one transaction and one JDBC batch per chunk. Invalid rows are reported and skipped; when a
+ * chunk fails in the database its rows are retried one by one so only the offending rows are
+ * rejected. A CSV file may start with a {@code title,publisher,publishDate} header line.
+ */
+@Service
+@Timed("library.service")
+public class BookImportService {
+
+    public enum Format { CSV, NDJSON }
+
+    private static final Logger log = LoggerFactory.getLogger(BookImportService.class);
+
+    private static final String CSV_HEADER = "title,publisher,publishdate";
+    private static final int MAX_TITLE_LENGTH = 255;
+    private static final int MAX_PUBLISHER_LENGTH = 32;
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final BookSearchIndex bookSearchIndex;
+    private final ObjectMapper objectMapper;
+    private final BulkImportProperties properties;
+    private final ModificationCounters modificationCounters;
+
+    @Autowired
+    public BookImportService(EntityManager entityManager, PlatformTransactionManager transactionManager,
+                             BookSearchIndex bookSearchIndex, ObjectMapper objectMapper, BulkImportProperties properties,
+                             ModificationCounters modificationCounters) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.bookSearchIndex = bookSearchIndex;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.modificationCounters = modificationCounters;
+    }
+
+    public BulkImportResult importBooks(InputStream input, Format format) throws IOException {
+        long started = System.nanoTime();
+        BulkImportResult result = new BulkImportResult();
+        List<PendingRow> chunk = new ArrayList<>(properties.getBatchSize());
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || (lineNumber == 1 && format == Format.CSV && isCsvHeader(line))) {
+                    continue;
+                }
+                result.setReceived(result.getReceived() + 1);
+                try {
+                    chunk.add(new PendingRow(lineNumber, toBook(format == Format.CSV ? parseCsv(line) : parseJson(line))));
+                } catch (IllegalArgumentException e) {
+                    result.reject(lineNumber, e.getMessage(), properties.getMaxReportedErrors());
+                }
+                if (chunk.size() == properties.getBatchSize()) {
+                    write(chunk, result);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            write(chunk, result);
+        }
+
+        long elapsedMillis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        log.info("Bulk import finished: {} imported, {} rejected in {} ms ({} rows/s)",
+                result.getImported(), result.getFailed(), elapsedMillis, result.getImported() * 1000 / elapsedMillis);
+        return result;
+    }
+
+    private void write(List<PendingRow> chunk, BulkImportResult result) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> persist(chunk));
+            imported(chunk, result);
+        } catch (PersistenceException | DataAccessException e) {
+            log.warn("Bulk import chunk of {} rows failed, retrying row by row: {}", chunk.size(), rootMessage(e));
+            for (PendingRow row : chunk) {
+                // the failed attempt already assigned an id; persist needs a fresh entity state
+                row.book.setId(null);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> persist(List.of(row)));
+                    imported(List.of(row), result);
+                } catch (PersistenceException | DataAccessException rowFailure) {
+                    result.reject(row.line, rootMessage(rowFailure), properties.getMaxReportedErrors());
+                }
+            }
+        }
+    }
+
+    private void persist(List<PendingRow> rows) {
+        entityManager.unwrap(Session.class).setJdbcBatchSize(properties.getBatchSize());
+        rows.forEach(row -> entityManager.persist(row.book));
+        entityManager.flush();
+        entityManager.clear();
+        modificationCounters.increment(ModificationCounters.BOOKS);
+    }
+
+    private void imported(List<PendingRow> rows, BulkImportResult result) {
+        bookSearchIndex.indexAll(rows.stream().map(row -> row.book).toList());
+        result.setImported(result.getImported() + rows.size());
+    }
+
+    private BookDto parseJson(String line) {
+        try {
+            return objectMapper.readValue(line, BookDto.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private static BookDto parseCsv(String line) {
+        List<String> fields = splitCsv(line);
+        if (fields.size() > 3) {
+            throw new IllegalArgumentException("Expected at most 3 columns (title,publisher,publishDate) but found " + fields.size());
+        }
+        BookDto dto = new BookDto();
+        dto.setTitle(fields.get(0));
+        dto.setPublisher(fields.size() > 1 ? blankToNull(fields.get(1)) : null);
+        if (fields.size() > 2 && !fields.get(2).isBlank()) {
+            try {
+                dto.setPublishDate(LocalDate.parse(fields.get(2).trim()));
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("publishDate must be an ISO date (yyyy-MM-dd): " + fields.get(2));
+            }
+        }
+        return dto;
+    }
+
+    private static Book toBook(BookDto dto) {
+        if (dto == null || dto.getTitle() == null || dto.getTitle().isBlank()) {
+            throw new IllegalArgumentException("title is required");
+        }
+        if (dto.getTitle().length() > MAX_TITLE_LENGTH) {
+            throw new IllegalArgumentException("title is longer than " + MAX_TITLE_LENGTH + " characters");
+        }
+        if (dto.getPublisher() != null && dto.getPublisher().length() > MAX_PUBLISHER_LENGTH) {
+            throw new IllegalArgumentException("publisher is longer than " + MAX_PUBLISHER_LENGTH + " characters");
+        }
+        Book book = BookMapper.toEntity(dto);
+        book.setId(null);
+        return book;
+    }
+
+    private static boolean isCsvHeader(String line) {
+        return line.replace("\"", "").replace(" ", "").replace("_", "").equalsIgnoreCase(CSV_HEADER);
+    }
+
+    /**
+     * Splits one RFC 4180 record; fields may be quoted, with {@code ""} for a literal quote.
+     * Quoted line breaks are not supported because input is read line by line.
+     */
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>(3);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    private static String rootMessage(Exception e) {
+        Throwable root = NestedExceptionUtils.getMostSpecificCause(e);
+        return root.getMessage() != null ? root.getMessage() : root.getClass().getSimpleName();
+    }
+
+    private static final class PendingRow {
+        private final long line;
+        private final Book book;
+
+        PendingRow(long line, Book book) {
+            this.line = line;
+            this.book = book;
+        }
+    }
+}
@@ -1,18 +1,38 @@
 package com.library.librarymanagement.service;
 
+import com.library.librarymanagement.config.PaginationProperties;
+import com.library.librarymanagement.dto.BatchDecisionRequest;
+import com.library.librarymanagement.dto.BatchDecisionResult;
+import com.library.librarymanagement.dto.BatchDecisionResult.Outcome;
+import com.library.librarymanagement.dto.BookRequestView;
+import com.library.librarymanagement.dto.CursorPage;
+import com.library.librarymanagement.dto.UserSnapshot;
 import com.library.librarymanagement.exception.ResourceNotFoundException;
+import com.library.librarymanagement.mapper.BookRequestMapper;
 import com.library.librarymanagement.model.*;
 import com.library.librarymanagement.repository.BookRepository;
 import com.library.librarymanagement.repository.BookRequestRepository;
 import com.library.librarymanagement.repository.BorrowerRepository;
+import com.library.librarymanagement.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
+@Timed("library.service")
 public class BookRequestService {
 
     @Autowired
@@ -20,32 +40,62 @@ public class BookRequestService {
     @Autowired
     private BookRepository bookRepository;
     @Autowired
+    private UserRepository userRepository;
+    @Autowired
     private BorrowerService borrowerService;
+    @Autowired
+    private PaginationProperties paginationProperties;
 
+    // The requester is only referenced by id, so the user row is not read
     @Transactional
-    public BookRequest createRequest(User user, Long bookId) {
+    public BookRequestView createRequest(UserSnapshot user, Long bookId) {
         Book book = bookRepository.findById(bookId)
                 .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + bookId));
 
         BookRequest newRequest = new BookRequest();
-        newRequest.setRequestingUser(user);
+        newRequest.setRequestingUser(userRepository.getReferenceById(user.getId()));
         newRequest.setBook(book);
         newRequest.setRequestDate(LocalDate.now());
         newRequest.setStatus(BookRequest.RequestStatus.PENDING);
+        BookRequest saved = bookRequestRepository.save(newRequest);
+
+        return new BookRequestView(saved.getId(), user.getId(), user.getName(), book.getId(), book.getTitle(),
+                saved.getRequestDate(), saved.getStatus());
+    }
 
-        return bookRequestRepository.save(newRequest);
+    @Transactional(readOnly = true)
+    public List<BookRequestView> findMyRequests(UserSnapshot user) {
+        return bookRequestRepository.findViewsByRequester(user.getId());
     }
 
-    public List<BookRequest> findMyRequests(User user) {
-        return bookRequestRepository.findByRequestingUser(user);
+    /**
+     * All requests, newest first; {@code status} narrows them (e.g. to the PENDING approval
+     * queue) when given.
+     */
+    @Transactional(readOnly = true)
+    public List<BookRequestView> findAllRequests(BookRequest.RequestStatus status) {
+        return bookRequestRepository.findViews(status);
     }
 
-    public List<BookRequest> findAllRequests() {
-        return bookRequestRepository.findAllWithDetails();
+    @Transactional(readOnly = true)
+    public CursorPage<BookRequestView> findRequestsPage(BookRequest.RequestStatus status, String cursor, Integer size) {
+        int pageSize = paginationProperties.resolvePageSize(size);
+        List<BookRequestView> rows = bookRequestRepository.findViewPageAfter(
+                status, CursorPage.decodeCursor(cursor), Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, BookRequestView::getId);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<BookRequestView> findMyRequestsPage(UserSnapshot user, BookRequest.RequestStatus status,
+                                                          String cursor, Integer size) {
+        int pageSize = paginationProperties.resolvePageSize(size);
+        List<BookRequestView> rows = bookRequestRepository.findViewPageByRequesterAfter(
+                user.getId(), status, CursorPage.decodeCursor(cursor), Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, BookRequestView::getId);
     }
 
     @Transactional
-    public BookRequest approveRequest(Long requestId) {
+    public BookRequestView approveRequest(Long requestId) {
         BookRequest request = bookRequestRepository.findById(requestId)
                 .orElseThrow(() -> new ResourceNotFoundException("Request not found"));
 
@@ -62,11 +112,11 @@ public class BookRequestService {
                 LocalDate.now().plusDays(14)
         );
 
-        return bookRequestRepository.save(request);
+        return BookRequestMapper.toView(bookRequestRepository.save(request));
     }
 
     @Transactional
-    public BookRequest rejectRequest(Long requestId) {
+    public BookRequestView rejectRequest(Long requestId) {
         BookRequest request = bookRequestRepository.findById(requestId)
                 .orElseThrow(() -> new ResourceNotFoundException("Request not found"));
 
@@ -75,6 +125,132 @@ public class BookRequestService {
         }
 
         request.setStatus(BookRequest.RequestStatus.REJECTED);
-        return bookRequestRepository.save(request);
+        return BookRequestMapper.toView(bookRequestRepository.save(request));
+    }
+
+    /**
+     * Approves and rejects a batch of requests in one transaction. All requests are loaded
+     * with their users, member profiles and books in one query, copies are claimed with one
+     * UPDATE per distinct book and the resulting borrowings are inserted as JDBC batches.
+     * A request that cannot be decided (unknown, no longer pending, no copy left) fails on
+     * its own and does not affect the rest of the batch. A request decided by someone else
+     * after it was read fails the whole batch at commit, on its {@code @Version}.
+     */
+    @Transactional
+    public BatchDecisionResult decideBatch(BatchDecisionRequest batch) {
+        List<Long> approveIds = batch.getApprove();
+        List<Long> rejectIds = batch.getReject();
+        int size = approveIds.size() + rejectIds.size();
+        if (size > paginationProperties.getMaxPageSize()) {
+            throw new IllegalArgumentException("At most " + paginationProperties.getMaxPageSize() + " requests per batch");
+        }
+        Set<Long> distinct = new HashSet<>(approveIds);
+        distinct.addAll(rejectIds);
+        if (distinct.size() != size) {
+            throw new IllegalArgumentException("Each request may appear only once per batch");
+        }
+
+        Map<Long, BookRequest> requests = bookRequestRepository.findAllByIdIn(distinct).stream()
+                .collect(Collectors.toMap(BookRequest::getId, Function.identity()));
+        Map<Long, BatchDecisionResult.ItemResult> results = new LinkedHashMap<>();
+        approveIds.forEach(id -> results.put(id, null));
+        rejectIds.forEach(id -> results.put(id, null));
+
+        for (Long id : rejectIds) {
+            BookRequest request = requests.get(id);
+            String problem = undecidable(request);
+            if (problem != null) {
+                results.put(id, failure(id, problem));
+                continue;
+            }
+            request.setStatus(BookRequest.RequestStatus.REJECTED);
+            results.put(id, new BatchDecisionResult.ItemResult(id, Outcome.REJECTED, null, null));
+        }
+
+        // approvals grouped by book, oldest request first, so copies go to whoever asked first;
+        // books are claimed in id order, so concurrent batches lock their rows in the same order
+        Map<Long, List<BookRequest>> approvalsByBook = new TreeMap<>();
+        approveIds.stream().sorted().forEach(id -> {
+            BookRequest request = requests.get(id);
+            String problem = undecidable(request);
+            if (problem == null && request.getRequestingUser().getMemberProfile() == null) {
+                problem = "Requesting user has no member profile";
+            }
+            if (problem != null) {
+                results.put(id, failure(id, problem));
+            } else {
+                approvalsByBook.computeIfAbsent(request.getBook().getId(), bookId -> new ArrayList<>()).add(request);
+            }
+        });
+
+        LocalDate today = LocalDate.now();
+        List<BookRequest> approved = new ArrayList<>();
+        List<Borrower> loans = new ArrayList<>();
+        approvalsByBook.forEach((bookId, bookRequests) -> {
+            int granted = claimUpTo(bookId, bookRequests.size());
+            for (int i = 0; i < bookRequests.size(); i++) {
+                BookRequest request = bookRequests.get(i);
+                if (i >= granted) {
+                    results.put(request.getId(), failure(request.getId(), "No copies of book " + bookId + " are available"));
+                    continue;
+                }
+                Borrower loan = new Borrower();
+                loan.setMember(request.getRequestingUser().getMemberProfile());
+                loan.setBook(request.getBook());
+                loan.setIssueDate(today);
+                loan.setDueDate(today.plusDays(14));
+                loans.add(loan);
+                approved.add(request);
+            }
+        });
+
+        List<Borrower> savedLoans = borrowerService.saveClaimedLoans(loans);
+        for (int i = 0; i < approved.size(); i++) {
+            BookRequest request = approved.get(i);
+            request.setStatus(BookRequest.RequestStatus.APPROVED);
+            results.put(request.getId(), new BatchDecisionResult.ItemResult(
+                    request.getId(), Outcome.APPROVED, savedLoans.get(i).getId(), null));
+        }
+
+        BatchDecisionResult result = new BatchDecisionResult();
+        result.getResults().addAll(results.values());
+        result.getResults().forEach(item -> {
+            switch (item.getOutcome()) {
+                case APPROVED -> result.setApproved(result.getApproved() + 1);
+                case REJECTED -> result.setRejected(result.getRejected() + 1);
+                case FAILED -> result.setFailed(result.getFailed() + 1);
+            }
+        });
+        return result;
+    }
+
+    private static String undecidable(BookRequest request) {
+        if (request == null) {
+            return "Request not found";
+        }
+        if (request.getStatus() != BookRequest.RequestStatus.PENDING) {
+            return "Request is not in PENDING state.";
+        }
+        return null;
+    }
+
+    private static BatchDecisionResult.ItemResult failure(Long id, String message) {
+        return new BatchDecisionResult.ItemResult(id, Outcome.FAILED, null, message);
+    }
+
+    /**
+     * Claims as many of {@code wanted} copies as are available and returns how many it got.
+     * Short of copies, it claims them one at a time: each UPDATE checks the current count,
+     * where a read of it could be a stale snapshot.
+     */
+    private int claimUpTo(Long bookId, int wanted) {
+        if (bookRepository.claimCopies(bookId, wanted) == 1) {
+            return wanted;
+        }
+        int claimed = 0;
+        while (claimed < wanted && bookRepository.claimCopy(bookId) == 1) {
+            claimed++;
+        }
+        return claimed;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,517 @@
+package com.library.librarymanagement.service;
+
+import com.library.librarymanagement.cache.CacheInvalidationBus;
+import com.library.librarymanagement.cache.RedisCircuitBreaker;
+import com.library.librarymanagement.config.ReadRouting;
+import com.library.librarymanagement.dto.BookIndexChecksum;
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.repository.BookRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * In-process inverted index over book titles and publishers.
+ * <p>
+ * Query tokens match indexed terms exactly, by prefix, or within one edit; matches are
+ * ranked with BM25, with prefix and fuzzy matches discounted against exact ones. The index
+ * is rebuilt from the database at startup and kept current by {@link BookService} and
+ * {@link BookImportService} once their changes commit. Every node keeps its own index, so
+ * the ids a node indexes or removes are published on the cache invalidation bus and the
+ * other nodes reload those books. To catch up on a message lost, such as one not sent while
+ * the {@link RedisCircuitBreaker} kept Redis out, each node periodically compares a checksum
+ * of what it indexed with one of the books table, and rebuilds only if they differ.
+ * <p>
+ * A rebuild reads into a fresh index while searches keep using the current one, and swaps
+ * it in once complete, replaying whatever changed in the meantime.
+ */
+@Component
+public class BookSearchIndex {
+
+    public static final String CHANNEL_NAME = "book-search";
+
+    private static final Logger log = LoggerFactory.getLogger(BookSearchIndex.class);
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double PREFIX_WEIGHT = 0.8;
+    private static final double FUZZY_WEIGHT = 0.6;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final int MAX_PREFIX_EXPANSIONS = 32;
+    private static final String ID_SEPARATOR = ",";
+
+    private final BookRepository bookRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final CacheInvalidationBus invalidationBus;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // a lock rather than a monitor, so a virtual thread reading the database under it is not pinned
+    private final ReentrantLock rebuilding = new ReentrantLock();
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+    private Contents contents = new Contents();
+    // changes applied while a rebuild reads the database, replayed onto what it read; null otherwise
+    private List<Consumer<Contents>> changesDuringRebuild;
+
+    @Autowired
+    public BookSearchIndex(BookRepository bookRepository, PlatformTransactionManager transactionManager,
+                           ObjectProvider<CacheInvalidationBus> invalidationBus,
+                           ObjectProvider<RedisCircuitBreaker> circuitBreaker) {
+        this.bookRepository = bookRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        CacheInvalidationBus bus = invalidationBus == null ? null : invalidationBus.getIfAvailable();
+        RedisCircuitBreaker breaker = circuitBreaker == null ? null : circuitBreaker.getIfAvailable();
+        if (bus != null) {
+            bus.subscribe(CHANNEL_NAME, this::reload);
+        }
+        this.invalidationBus = bus == null || breaker == null ? bus : breaker.guard(bus);
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        rebuilding.lock();
+        try {
+            log.info("Rebuilding book search index...");
+            long started = System.nanoTime();
+            List<Consumer<Contents>> changes = new ArrayList<>();
+            Contents rebuilt = new Contents();
+            lock.writeLock().lock();
+            try {
+                changesDuringRebuild = changes;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            try {
+                // kept current by BookService from here on, so it must start from the primary
+                ReadRouting.runOnPrimary(() -> readOnlyTransaction.executeWithoutResult(status -> {
+                    try (Stream<Book> books = bookRepository.streamAllByOrderByIdAsc()) {
+                        books.forEach(book -> rebuilt.add(book.getId(), book.getVersion(),
+                                tokenize(book.getTitle(), book.getPublisher())));
+                    }
+                }));
+                lock.writeLock().lock();
+                try {
+                    changes.forEach(change -> change.accept(rebuilt));
+                    contents = rebuilt;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    changesDuringRebuild = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+            log.info("Book search index rebuilt: {} documents in {} ms",
+                    size(), (System.nanoTime() - started) / 1_000_000);
+        } finally {
+            rebuilding.unlock();
+        }
+    }
+
+    /**
+     * Rebuilds the index if it no longer matches the books table, which takes one aggregate
+     * query instead of reading every book. A change committed while this runs can make the
+     * two differ for a moment; that costs an unneeded rebuild, never a missed one.
+     */
+    @Scheduled(fixedDelayString = "${books.search.check-interval:PT1H}", initialDelayString = "${books.search.check-interval:PT1H}")
+    public void rebuildIfOutOfDate() {
+        if (rebuilding.isLocked()) {
+            return;
+        }
+        BookIndexChecksum indexed;
+        lock.readLock().lock();
+        try {
+            indexed = contents.checksum();
+        } finally {
+            lock.readLock().unlock();
+        }
+        BookIndexChecksum stored;
+        try {
+            stored = ReadRouting.onPrimary(() -> readOnlyTransaction.execute(status -> bookRepository.findIndexChecksum()));
+        } catch (RuntimeException e) {
+            log.warn("Could not check the book search index against the database", e);
+            return;
+        }
+        if (!indexed.equals(stored)) {
+            log.warn("Book search index is out of date ({} indexed, {} stored); rebuilding", indexed, stored);
+            rebuild();
+        }
+    }
+
+    /**
+     * Indexes a committed book, replacing what was indexed for it before, on every node.
+     */
+    public void index(Book book) {
+        indexAll(List.of(book));
+    }
+
+    /**
+     * Indexes committed books, telling the other nodes in one message.
+     */
+    public void indexAll(Collection<Book> books) {
+        books.forEach(this::indexLocally);
+        publish(books.stream().map(Book::getId).toList());
+    }
+
+    /**
+     * Drops a deleted book from the index on every node.
+     */
+    public void remove(Long bookId) {
+        apply(current -> current.remove(bookId));
+        publish(List.of(bookId));
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            contents = new Contents();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return contents.documentTerms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of the best matching books, highest score first.
+     */
+    public List<Long> search(String query, int limit) {
+        String[] queryTerms = tokenize(query);
+        if (queryTerms.length == 0 || limit < 1) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Contents current = contents;
+            if (current.documentTerms.isEmpty()) {
+                return List.of();
+            }
+            double averageLength = (double) current.totalTermCount / current.documentTerms.size();
+            Map<Long, Double> scores = new HashMap<>();
+            for (String queryTerm : new LinkedHashSet<>(Arrays.asList(queryTerms))) {
+                Map<Long, Double> termScores = new HashMap<>();
+                expand(current, queryTerm).forEach((term, weight) ->
+                        scoreTerm(current, term, weight, averageLength, termScores));
+                termScores.forEach((bookId, score) -> scores.merge(bookId, score, Double::sum));
+            }
+            return topK(scores, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void indexLocally(Book book) {
+        String[] terms = tokenize(book.getTitle(), book.getPublisher());
+        long version = book.getVersion();
+        apply(current -> current.add(book.getId(), version, terms));
+    }
+
+    private void apply(Consumer<Contents> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(contents);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void publish(List<Long> bookIds) {
+        if (invalidationBus == null || bookIds.isEmpty()) {
+            return;
+        }
+        try {
+            invalidationBus.publish(CHANNEL_NAME,
+                    bookIds.stream().map(String::valueOf).collect(Collectors.joining(ID_SEPARATOR)));
+        } catch (RuntimeException e) {
+            log.warn("Could not publish search index changes for books {}; other nodes catch up at their next rebuild",
+                    bookIds, e);
+        }
+    }
+
+    /**
+     * Applies what another node published: re-reads the named books from the primary, which
+     * they were committed to before the message was sent. A request to rebuild runs on a
+     * thread of its own, not on the listener thread that delivers every node's messages.
+     */
+    private void reload(String message) {
+        if (message == null) {
+            if (rebuildRequested.compareAndSet(false, true)) {
+                Thread.ofVirtual().name("book-search-rebuild").start(() -> {
+                    rebuildRequested.set(false);
+                    rebuild();
+                });
+            }
+            return;
+        }
+        List<Long> bookIds = Arrays.stream(message.split(ID_SEPARATOR)).map(Long::valueOf).toList();
+        try {
+            List<Book> books = ReadRouting.onPrimary(() -> readOnlyTransaction.execute(status ->
+                    bookRepository.findAllById(bookIds)));
+            Set<Long> found = new HashSet<>();
+            for (Book book : books) {
+                indexLocally(book);
+                found.add(book.getId());
+            }
+            bookIds.stream().filter(id -> !found.contains(id)).forEach(id -> apply(current -> current.remove(id)));
+        } catch (RuntimeException e) {
+            log.warn("Could not reload books {} into the search index; they catch up at the next rebuild", bookIds, e);
+        }
+    }
+
+    /**
+     * Maps each indexed term the query term can stand for to the weight its matches carry.
+     */
+    private static Map<String, Double> expand(Contents current, String queryTerm) {
+        Map<String, Double> expansions = new HashMap<>();
+        if (current.postings.containsKey(queryTerm)) {
+            expansions.put(queryTerm, 1.0);
+        }
+        if (queryTerm.length() >= MIN_PREFIX_LENGTH) {
+            int expanded = 0;
+            for (String term : current.postings.subMap(queryTerm, false, queryTerm + Character.MAX_VALUE, false).keySet()) {
+                if (expanded++ == MAX_PREFIX_EXPANSIONS) {
+                    break;
+                }
+                expansions.putIfAbsent(term, PREFIX_WEIGHT);
+            }
+        }
+        if (queryTerm.length() >= MIN_FUZZY_LENGTH) {
+            Set<String> variants = deletionVariants(queryTerm);
+            variants.add(queryTerm);
+            for (String variant : variants) {
+                for (String term : current.deletionNeighbours.getOrDefault(variant, Set.of())) {
+                    if (!expansions.containsKey(term) && withinOneEdit(queryTerm, term)) {
+                        expansions.put(term, FUZZY_WEIGHT);
+                    }
+                }
+            }
+        }
+        return expansions;
+    }
+
+    private static void scoreTerm(Contents current, String term, double weight, double averageLength,
+                                  Map<Long, Double> termScores) {
+        PostingList list = current.postings.get(term);
+        int documentCount = current.documentTerms.size();
+        double idf = Math.log(1 + (documentCount - list.size + 0.5) / (list.size + 0.5));
+        for (int i = 0; i < list.size; i++) {
+            long bookId = list.bookIds[i];
+            int frequency = list.frequencies[i];
+            double lengthNorm = 1 - B + B * current.documentTerms.get(bookId).length / averageLength;
+            double score = weight * idf * frequency * (K1 + 1) / (frequency + K1 * lengthNorm);
+            termScores.merge(bookId, score, Math::max);
+        }
+    }
+
+    private static List<Long> topK(Map<Long, Double> scores, int limit) {
+        PriorityQueue<Map.Entry<Long, Double>> heap = new PriorityQueue<>(Map.Entry.comparingByValue());
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            if (heap.size() < limit) {
+                heap.add(entry);
+            } else if (entry.getValue() > heap.peek().getValue()) {
+                heap.poll();
+                heap.add(entry);
+            }
+        }
+        List<Long> ranked = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            ranked.add(heap.poll().getKey());
+        }
+        Collections.reverse(ranked);
+        return ranked;
+    }
+
+    private static Set<String> deletionVariants(String term) {
+        Set<String> variants = new HashSet<>();
+        for (int i = 0; i < term.length(); i++) {
+            variants.add(term.substring(0, i) + term.substring(i + 1));
+        }
+        return variants;
+    }
+
+    /**
+     * Levenshtein distance of at most one, counting an adjacent transposition as one edit.
+     */
+    static boolean withinOneEdit(String a, String b) {
+        if (Math.abs(a.length() - b.length()) > 1) {
+            return false;
+        }
+        int i = 0;
+        while (i < a.length() && i < b.length() && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        if (a.length() == b.length()) {
+            if (i == a.length()) {
+                return true;
+            }
+            if (a.substring(i + 1).equals(b.substring(i + 1))) {
+                return true;
+            }
+            return i + 1 < a.length()
+                    && a.charAt(i) == b.charAt(i + 1) && a.charAt(i + 1) == b.charAt(i)
+                    && a.substring(i + 2).equals(b.substring(i + 2));
+        }
+        String longer = a.length() > b.length() ? a : b;
+        String shorter = a.length() > b.length() ? b : a;
+        return longer.substring(i + 1).equals(shorter.substring(i));
+    }
+
+    static String[] tokenize(String... fields) {
+        List<String> tokens = new ArrayList<>();
+        for (String field : fields) {
+            if (field == null) {
+                continue;
+            }
+            String folded = Normalizer.normalize(field, Normalizer.Form.NFD)
+                    .replaceAll("\\p{M}+", "")
+                    .toLowerCase(Locale.ROOT);
+            for (String token : folded.split("[^\\p{L}\\p{N}]+")) {
+                if (!token.isEmpty()) {
+                    tokens.add(token);
+                }
+            }
+        }
+        return tokens.toArray(new String[0]);
+    }
+
+    /**
+     * The postings, fuzzy-match neighbours and document lengths of one generation of the index.
+     */
+    private static final class Contents {
+        private final TreeMap<String, PostingList> postings = new TreeMap<>();
+        private final Map<String, Set<String>> deletionNeighbours = new HashMap<>();
+        private final Map<Long, String[]> documentTerms = new HashMap<>();
+        private final Map<Long, Long> documentVersions = new HashMap<>();
+        private long totalTermCount;
+        private long idSum;
+        private long versionSum;
+
+        void add(Long bookId, long version, String[] terms) {
+            remove(bookId);
+            documentTerms.put(bookId, terms);
+            documentVersions.put(bookId, version);
+            totalTermCount += terms.length;
+            idSum += bookId;
+            versionSum += version;
+            Map<String, Integer> frequencies = new HashMap<>();
+            for (String term : terms) {
+                frequencies.merge(term, 1, Integer::sum);
+            }
+            frequencies.forEach((term, frequency) -> {
+                PostingList list = postings.get(term);
+                if (list == null) {
+                    list = new PostingList();
+                    postings.put(term, list);
+                    addDeletionNeighbours(term);
+                }
+                list.add(bookId, frequency);
+            });
+        }
+
+        void remove(Long bookId) {
+            String[] terms = documentTerms.remove(bookId);
+            if (terms == null) {
+                return;
+            }
+            totalTermCount -= terms.length;
+            idSum -= bookId;
+            versionSum -= documentVersions.remove(bookId);
+            for (String term : new HashSet<>(Arrays.asList(terms))) {
+                PostingList list = postings.get(term);
+                if (list != null && list.remove(bookId) && list.size == 0) {
+                    postings.remove(term);
+                    removeDeletionNeighbours(term);
+                }
+            }
+        }
+
+        BookIndexChecksum checksum() {
+            return new BookIndexChecksum(documentTerms.size(), idSum, versionSum);
+        }
+
+        private void addDeletionNeighbours(String term) {
+            if (term.length() < MIN_FUZZY_LENGTH - 1) {
+                return;
+            }
+            deletionNeighbours.computeIfAbsent(term, key -> new HashSet<>()).add(term);
+            for (String variant : deletionVariants(term)) {
+                deletionNeighbours.computeIfAbsent(variant, key -> new HashSet<>()).add(term);
+            }
+        }
+
+        private void removeDeletionNeighbours(String term) {
+            List<String> keys = new ArrayList<>(deletionVariants(term));
+            keys.add(term);
+            for (String key : keys) {
+                Set<String> terms = deletionNeighbours.get(key);
+                if (terms != null && terms.remove(term) && terms.isEmpty()) {
+                    deletionNeighbours.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Unordered, array-backed postings for one term; far smaller than a boxed map per term.
+     */
+    private static final class PostingList {
+        private long[] bookIds = new long[4];
+        private int[] frequencies = new int[4];
+        private int size;
+
+        void add(long bookId, int frequency) {
+            if (size == bookIds.length) {
+                bookIds = Arrays.copyOf(bookIds, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            bookIds[size] = bookId;
+            frequencies[size] = frequency;
+            size++;
+        }
+
+        boolean remove(long bookId) {
+            for (int i = 0; i < size; i++) {
+                if (bookIds[i] == bookId) {
+                    size--;
+                    bookIds[i] = bookIds[size];
+                    frequencies[i] = frequencies[size];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
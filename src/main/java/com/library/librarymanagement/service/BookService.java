@@ -1,49 +1,178 @@
 package com.library.librarymanagement.service;
 
+import com.library.librarymanagement.config.PaginationProperties;
+import com.library.librarymanagement.config.ReadRouting;
+import com.library.librarymanagement.dto.BookAvailability;
+import com.library.librarymanagement.dto.BookDto;
+import com.library.librarymanagement.dto.CursorPage;
+import com.library.librarymanagement.dto.Versioned;
 import com.library.librarymanagement.exception.ResourceNotFoundException;
 import com.library.librarymanagement.model.Book;
 import com.library.librarymanagement.repository.BookRepository;
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Timed("library.service")
 public class BookService {
 
     private static final Logger log = LoggerFactory.getLogger(BookService.class);
     private final BookRepository bookRepository;
+    private final PaginationProperties paginationProperties;
+    private final BookSearchIndex bookSearchIndex;
+    private final BorrowingView borrowingView;
+    private final BorrowerService borrowerService;
+    private final ModificationCounters modificationCounters;
 
     @Autowired
-    public BookService(BookRepository bookRepository) {
+    public BookService(BookRepository bookRepository, PaginationProperties paginationProperties,
+                       BookSearchIndex bookSearchIndex, BorrowingView borrowingView,
+                       BorrowerService borrowerService, ModificationCounters modificationCounters) {
         this.bookRepository = bookRepository;
+        this.paginationProperties = paginationProperties;
+        this.bookSearchIndex = bookSearchIndex;
+        this.borrowingView = borrowingView;
+        this.borrowerService = borrowerService;
+        this.modificationCounters = modificationCounters;
     }
 
-    public List<Book> findAllBooks() {
-        log.info("Fetching all books from the database...");
-        return bookRepository.findAll();
+    /**
+     * Changes whenever a book is added, edited or deleted.
+     */
+    @Transactional(readOnly = true)
+    public long catalogueVersion() {
+        return modificationCounters.current(ModificationCounters.BOOKS);
     }
 
-    @Cacheable(value = "books", key = "#id")
+    @Transactional(readOnly = true)
+    public List<BookDto> findAllBooks() {
+        log.debug("Fetching all books from the database...");
+        return bookRepository.findAllDtos();
+    }
+
+    /**
+     * Every book with the {@link #catalogueVersion()} it matches. Both are read on one
+     * connection, so they come from the same database even when reads go to replicas.
+     */
+    @Transactional(readOnly = true)
+    public Versioned<List<BookDto>> findAllBooksVersioned() {
+        long version = catalogueVersion();
+        return new Versioned<>(version, findAllBooks());
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<BookDto> findBooksPage(String cursor, Integer size) {
+        int pageSize = paginationProperties.resolvePageSize(size);
+        List<BookDto> rows = bookRepository.findDtoPageAfter(CursorPage.decodeCursor(cursor), Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, BookDto::getId);
+    }
+
+    /**
+     * Hands every book to the consumer in id order. Rows are read as DTOs, so nothing
+     * accumulates in the persistence context however long the stream is.
+     */
+    @Transactional(readOnly = true)
+    public void streamAllBooks(Consumer<BookDto> consumer) {
+        try (Stream<BookDto> books = bookRepository.streamAllDtos()) {
+            books.forEach(consumer);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<BookDto> searchBooks(String query, Integer limit) {
+        List<Long> rankedIds = bookSearchIndex.search(query, paginationProperties.resolvePageSize(limit));
+        if (rankedIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, BookDto> booksById = bookRepository.findDtosByIdIn(rankedIds).stream()
+                .collect(Collectors.toMap(BookDto::getId, Function.identity()));
+        return rankedIds.stream()
+                .map(booksById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Cacheable(value = "books", key = "#id", sync = true)
     public Book findBookById(Long id) {
-        log.info("Fetching book from database: id={}", id);
-        return bookRepository.findById(id)
+        log.debug("Fetching book from database: id={}", id);
+        return ReadRouting.onPrimary(() -> bookRepository.findById(id))
                 .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + id));
     }
 
+    @Transactional(readOnly = true)
+    public BookAvailability findAvailability(Long id) {
+        return bookRepository.findAvailability(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + id));
+    }
+
+    /**
+     * Availability of each existing book among {@code ids}, in no particular order; unknown
+     * ids are left out.
+     */
+    @Transactional(readOnly = true)
+    public List<BookAvailability> findAvailability(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        if (ids.size() > paginationProperties.getMaxPageSize()) {
+            throw new IllegalArgumentException("At most " + paginationProperties.getMaxPageSize() + " ids per lookup");
+        }
+        return bookRepository.findAvailabilityByIdIn(ids);
+    }
+
+    @Transactional
+    public BookAvailability setTotalCopies(Long id, int totalCopies) {
+        if (totalCopies < 0) {
+            throw new IllegalArgumentException("Total copies must not be negative");
+        }
+        if (bookRepository.setTotalCopies(id, totalCopies) == 0) {
+            BookAvailability current = findAvailability(id);
+            throw new IllegalStateException("Cannot reduce book " + id + " to " + totalCopies + " copies: "
+                    + (current.getTotalCopies() - current.getAvailableCopies()) + " are on loan");
+        }
+        return findAvailability(id);
+    }
+
+    @Transactional
+    public int reconcileAvailableCopies() {
+        int books = bookRepository.reconcileAvailableCopies();
+        log.info("Recomputed available copies of {} books from open borrowings", books);
+        return books;
+    }
+
+    @Transactional
     public Book saveBook(Book book) {
-        log.info("Saving new book to the database...");
-        return bookRepository.save(book);
+        log.debug("Saving new book to the database...");
+        // always an insert, never an update of whatever row a client-supplied id names
+        book.setId(null);
+        book.setAvailableCopies(book.getTotalCopies());
+        Book savedBook = bookRepository.save(book);
+        modificationCounters.increment(ModificationCounters.BOOKS);
+        AfterCommit.run(() -> bookSearchIndex.index(savedBook));
+        return savedBook;
     }
 
+    @Transactional
     @CachePut(value = "books", key = "#id")
     public Book updateBook(Long id, Book bookDetails) {
-        log.info("Updating book and cache: id={}", id);
+        log.debug("Updating book and cache: id={}", id);
         Book book = bookRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + id));
 
@@ -51,15 +180,25 @@ public class BookService {
         book.setPublisher(bookDetails.getPublisher());
         book.setPublishDate(bookDetails.getPublishDate());
 
-        return bookRepository.save(book);
+        // flushed here so the cached copy carries the incremented version
+        Book savedBook = bookRepository.saveAndFlush(book);
+        modificationCounters.increment(ModificationCounters.BOOKS);
+        AfterCommit.run(() -> bookSearchIndex.index(savedBook));
+        borrowingView.updateBookTitle(id, savedBook.getTitle());
+        return savedBook;
     }
 
+    @Transactional
     @CacheEvict(value = "books", key = "#id")
     public void deleteBookById(Long id) {
-        log.info("Deleting book and evicting from cache: id={}", id);
+        log.debug("Deleting book and evicting from cache: id={}", id);
         if (!bookRepository.existsById(id)) {
             throw new ResourceNotFoundException("Book not found with id: " + id);
         }
+        int borrowings = borrowerService.deleteAllOfBook(id);
         bookRepository.deleteById(id);
+        modificationCounters.increment(ModificationCounters.BOOKS);
+        AfterCommit.run(() -> bookSearchIndex.remove(id));
+        log.debug("Deleted book id={} with {} borrowings", id, borrowings);
     }
-}
\ No newline at end of file
+}
@@ -1,59 +1,155 @@
 package com.library.librarymanagement.service;
 
+import com.library.librarymanagement.config.PaginationProperties;
+import com.library.librarymanagement.config.ReadRouting;
+import com.library.librarymanagement.dto.BorrowerDto;
+import com.library.librarymanagement.dto.BorrowingReturn;
+import com.library.librarymanagement.dto.CursorPage;
+import com.library.librarymanagement.dto.CursorPage.DateKey;
+import com.library.librarymanagement.exception.NoCopiesAvailableException;
 import com.library.librarymanagement.model.Book;
 import com.library.librarymanagement.model.Borrower;
 import com.library.librarymanagement.model.Member;
 import com.library.librarymanagement.repository.BorrowerRepository;
 import com.library.librarymanagement.repository.BookRepository;
 import com.library.librarymanagement.repository.MemberRepository;
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
+@Timed("library.service")
 public class BorrowerService {
 
     private static final Logger log = LoggerFactory.getLogger(BorrowerService.class);
+    private static final String BORROWINGS_CACHE = "borrowings";
     private final BorrowerRepository borrowerRepository;
     private final MemberRepository memberRepository;
     private final BookRepository bookRepository;
+    private final BorrowingView borrowingView;
+    private final DueDateWheel dueDateWheel;
+    private final PaginationProperties paginationProperties;
+    private final ObjectProvider<CacheManager> cacheManager;
 
     @Autowired
-    public BorrowerService(BorrowerRepository borrowerRepository, MemberRepository memberRepository, BookRepository bookRepository) {
+    public BorrowerService(BorrowerRepository borrowerRepository, MemberRepository memberRepository, BookRepository bookRepository,
+                           BorrowingView borrowingView, DueDateWheel dueDateWheel, PaginationProperties paginationProperties,
+                           ObjectProvider<CacheManager> cacheManager) {
         this.borrowerRepository = borrowerRepository;
         this.memberRepository = memberRepository;
         this.bookRepository = bookRepository;
+        this.borrowingView = borrowingView;
+        this.dueDateWheel = dueDateWheel;
+        this.paginationProperties = paginationProperties;
+        this.cacheManager = cacheManager;
     }
 
-    @Cacheable("borrowings_all")
-    public List<Borrower> findAllBorrowings() {
-        log.info("Fetching all borrowings from the database...");
-        return borrowerRepository.findAllWithMemberAndBook();
+    public List<BorrowerDto> findAllBorrowings() {
+        try {
+            if (borrowingView.isReady()) {
+                return borrowingView.findAll();
+            }
+        } catch (DataAccessException e) {
+            log.warn("Borrowing view unavailable, reading from the database", e);
+        }
+        log.debug("Fetching all borrowings from the database...");
+        return borrowerRepository.findAllDtos();
     }
 
-    @Cacheable(value = "borrowings", key = "#id")
+    public CursorPage<BorrowerDto> findBorrowingsPage(String cursor, Integer size, Long memberId) {
+        int pageSize = paginationProperties.resolvePageSize(size);
+        long afterId = CursorPage.decodeCursor(cursor);
+        try {
+            if (borrowingView.isReady()) {
+                return memberId == null
+                        ? borrowingView.findPage(afterId, pageSize)
+                        : borrowingView.findPageByMember(memberId, afterId, pageSize);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Borrowing view unavailable, reading from the database", e);
+        }
+        List<BorrowerDto> rows = memberId == null
+                ? borrowerRepository.findDtoPageAfter(afterId, Limit.of(pageSize + 1))
+                : borrowerRepository.findDtoPageByMemberAfter(memberId, afterId, Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, BorrowerDto::getId);
+    }
+
+    /**
+     * Open borrowings due before today, earliest due first.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<BorrowerDto> findOverduePage(String cursor, Integer size) {
+        int pageSize = paginationProperties.resolvePageSize(size);
+        DateKey after = CursorPage.decodeDateCursor(cursor);
+        List<BorrowerDto> rows = borrowerRepository.findOpenDtoPageDueBetween(DateKey.FIRST.date(), LocalDate.now().minusDays(1),
+                after.date(), after.id(), Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, BorrowerDto::getDueDate, BorrowerDto::getId);
+    }
+
+    /**
+     * Open borrowings due today or in the {@code days - 1} days after, earliest due first.
+     * Served from the {@link DueDateWheel} when it covers the window, otherwise from the
+     * database; also from the database when the wheel lists a loan that has since changed.
+     */
+    public CursorPage<BorrowerDto> findDueSoonPage(int days, String cursor, Integer size) {
+        if (days < 1) {
+            throw new IllegalArgumentException("Days must be at least 1");
+        }
+        int pageSize = paginationProperties.resolvePageSize(size);
+        DateKey after = CursorPage.decodeDateCursor(cursor);
+        LocalDate from = LocalDate.now();
+        LocalDate to = from.plusDays(days - 1);
+
+        List<BorrowerDto> rows = dueDateWheel.findDue(from, to, after, pageSize + 1)
+                .map(ids -> loadOpenDueBetween(ids, from, to))
+                .orElse(null);
+        if (rows == null) {
+            rows = borrowerRepository.findOpenDtoPageDueBetween(from, to, after.date(), after.id(), Limit.of(pageSize + 1));
+        }
+        return CursorPage.of(rows, pageSize, BorrowerDto::getDueDate, BorrowerDto::getId);
+    }
+
+    @Cacheable(value = "borrowings", key = "#id", sync = true)
     public Optional<Borrower> findBorrowingById(Long id) {
-        log.info("Fetching borrowing from database: id={}", id);
-        return borrowerRepository.findById(id);
+        log.debug("Fetching borrowing from database: id={}", id);
+        return ReadRouting.onPrimary(() -> borrowerRepository.findById(id));
     }
 
+    /**
+     * Lends one copy of the book. The copy is claimed by a conditional UPDATE as the last
+     * statement of the transaction, so the book row stays locked only for the commit and
+     * concurrent issues of the last copy fail fast instead of queueing.
+     *
+     * @throws NoCopiesAvailableException when every copy is already on loan
+     */
     @Transactional
-    @CacheEvict(value = "borrowings_all", allEntries = true)
     public Borrower issueBook(Long memberId, Long bookId, LocalDate issueDate, LocalDate dueDate) {
-        log.info("Issuing a book and evicting 'borrowings_all' cache...");
+        log.debug("Issuing a book and patching the borrowing view...");
         Member member = memberRepository.findById(memberId)
                 .orElseThrow(() -> new IllegalArgumentException("Member not found with ID: " + memberId));
         Book book = bookRepository.findById(bookId)
                 .orElseThrow(() -> new IllegalArgumentException("Book not found with ID: " + bookId));
+        if (book.getAvailableCopies() < 1) {
+            throw new NoCopiesAvailableException("No copies of book " + bookId + " are available");
+        }
 
         Borrower borrower = new Borrower();
         borrower.setMember(member);
@@ -61,16 +157,32 @@ public class BorrowerService {
         borrower.setIssueDate(issueDate);
         borrower.setDueDate(dueDate);
 
-        return borrowerRepository.save(borrower);
+        Borrower savedBorrower = borrowerRepository.save(borrower);
+        if (bookRepository.claimCopy(bookId) == 0) {
+            throw new NoCopiesAvailableException("No copies of book " + bookId + " are available");
+        }
+        borrowingView.put(savedBorrower);
+        dueDateWheel.put(savedBorrower.getId(), dueDate);
+        return savedBorrower;
+    }
+
+    /**
+     * Saves new loans whose copies the caller has already claimed (see
+     * {@link BookRepository#claimCopies}), as JDBC batches, and patches the borrowing view
+     * once for all of them after commit. Members and books must be loaded.
+     */
+    @Transactional
+    public List<Borrower> saveClaimedLoans(List<Borrower> loans) {
+        List<Borrower> saved = borrowerRepository.saveAll(loans);
+        borrowingView.putAll(saved);
+        saved.forEach(loan -> dueDateWheel.put(loan.getId(), loan.getDueDate()));
+        return saved;
     }
 
     @Transactional
-    @Caching(evict = {
-            @CacheEvict(value = "borrowings", key = "#borrowingId"),
-            @CacheEvict(value = "borrowings_all", allEntries = true)
-    })
+    @CacheEvict(value = "borrowings", key = "#borrowingId")
     public Borrower returnBook(Long borrowingId, LocalDate returnDate) {
-        log.info("Returning a book and evicting caches for id={} and 'borrowings_all'", borrowingId);
+        log.debug("Returning a book and evicting cache for id={}", borrowingId);
         Borrower borrower = borrowerRepository.findByIdWithMemberAndBook(borrowingId)
                 .orElseThrow(() -> new IllegalArgumentException("Borrowing record not found with ID: " + borrowingId));
 
@@ -78,15 +190,93 @@ public class BorrowerService {
             throw new IllegalStateException("Book already returned for borrowing ID: " + borrowingId);
         }
         borrower.setReturnDate(returnDate);
+        releaseCopy(borrower.getBook().getId());
+        borrowingView.put(borrower);
+        dueDateWheel.remove(borrowingId);
         return borrower;
     }
 
-    @Caching(evict = {
-            @CacheEvict(value = "borrowings", key = "#id"),
-            @CacheEvict(value = "borrowings_all", allEntries = true)
-    })
+    @Transactional
+    @CacheEvict(value = "borrowings", key = "#id")
     public void deleteBorrowingById(Long id) {
-        log.info("Deleting borrowing and evicting caches for id={} and 'borrowings_all'", id);
-        borrowerRepository.deleteById(id);
+        log.debug("Deleting borrowing and evicting cache for id={}", id);
+        borrowerRepository.findById(id).ifPresent(borrower -> {
+            if (borrower.getReturnDate() == null) {
+                releaseCopy(borrower.getBook().getId());
+            }
+            borrowerRepository.delete(borrower);
+        });
+        borrowingView.remove(id);
+        dueDateWheel.remove(id);
+    }
+
+    /**
+     * Deletes every borrowing of the book, returned or not, with one statement instead of
+     * loading them; for deleting the book in the same transaction. Their ids are read first,
+     * so that just their cache entries are evicted (once the deletion commits, as the cache
+     * manager is transaction aware).
+     */
+    @Transactional
+    public int deleteAllOfBook(Long bookId) {
+        log.debug("Deleting the borrowings of book id={}", bookId);
+        List<BorrowingReturn> borrowings = borrowerRepository.findReturnsByBookId(bookId);
+        int deleted = borrowerRepository.deleteByBookId(bookId);
+        forgetDeleted(borrowings);
+        borrowingView.removeByBook(bookId);
+        return deleted;
+    }
+
+    /**
+     * Deletes every borrowing of the member like {@link #deleteAllOfBook}, first giving back
+     * the copies still on loan to them.
+     */
+    @Transactional
+    public int deleteAllOfMember(Long memberId) {
+        log.debug("Deleting the borrowings of member id={}", memberId);
+        List<BorrowingReturn> borrowings = borrowerRepository.findReturnsByMemberId(memberId);
+        if (borrowings.stream().anyMatch(BorrowingReturn::isOpen)) {
+            bookRepository.releaseCopiesLentTo(memberId);
+        }
+        int deleted = borrowerRepository.deleteByMemberId(memberId);
+        forgetDeleted(borrowings);
+        borrowingView.removeByMember(memberId);
+        return deleted;
+    }
+
+    private void forgetDeleted(List<BorrowingReturn> borrowings) {
+        borrowings.stream().filter(BorrowingReturn::isOpen).map(BorrowingReturn::getId).forEach(dueDateWheel::remove);
+        CacheManager manager = cacheManager.getIfAvailable();
+        Cache cache = manager != null ? manager.getCache(BORROWINGS_CACHE) : null;
+        if (cache != null) {
+            borrowings.forEach(borrowing -> cache.evict(borrowing.getId()));
+        }
+    }
+
+    /**
+     * The borrowings behind the wheel's ids, in the wheel's order, or {@code null} when one
+     * of them is no longer open and due in the window.
+     */
+    private List<BorrowerDto> loadOpenDueBetween(List<Long> ids, LocalDate from, LocalDate to) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, BorrowerDto> borrowingsById = borrowerRepository.findDtosByIdIn(ids).stream()
+                .collect(Collectors.toMap(BorrowerDto::getId, Function.identity()));
+        List<BorrowerDto> rows = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            BorrowerDto borrowing = borrowingsById.get(id);
+            if (borrowing == null || borrowing.getReturnDate() != null
+                    || borrowing.getDueDate().isBefore(from) || borrowing.getDueDate().isAfter(to)) {
+                return null;
+            }
+            rows.add(borrowing);
+        }
+        return rows;
+    }
+
+    private void releaseCopy(Long bookId) {
+        if (bookRepository.releaseCopy(bookId) == 0) {
+            log.warn("Book {} already had all copies available on return; its counts need reconciling", bookId);
+        }
     }
-}
\ No newline at end of file
+}
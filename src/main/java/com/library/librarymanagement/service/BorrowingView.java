@@ -0,0 +1,600 @@
+package com.library.librarymanagement.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.librarymanagement.cache.RedisCircuitBreaker;
+import com.library.librarymanagement.config.ReadRouting;
+import com.library.librarymanagement.dto.BorrowerDto;
+import com.library.librarymanagement.dto.CursorPage;
+import com.library.librarymanagement.mapper.BorrowingMapper;
+import com.library.librarymanagement.model.Borrower;
+import com.library.librarymanagement.repository.BorrowerRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Write-through read model of the borrowing table kept in Redis.
+ * <p>
+ * Each borrowing is one field of a hash, keyed by id, and is indexed by sorted sets by id
+ * (for keyset paging), by member, by book and, while still on loan, by due date. Mutations
+ * patch only the affected records once the surrounding transaction commits, each with one
+ * Lua script so that patches committed at the same time cannot undo each other: a loan is
+ * written with its entity version and never over a later one (patches of concurrent
+ * transactions can run out of order), a deleted loan leaves a tombstone, and a renamed book
+ * or member changes just that field of their records. Every hour a reconcile compares the
+ * view with the database and rewrites what still differs. Until a full
+ * rebuild has completed, or after a write could not be applied, {@link #isReady()} is false
+ * and callers read from the database instead; a periodic repair then rebuilds it.
+ * <p>
+ * Reads and patches go through the caches' {@link RedisCircuitBreaker}, so while Redis is
+ * failing borrowings are read from the database without waiting on it. A patch that could
+ * not even mark the view stale is remembered here: this node reads from the database until
+ * the repair has marked it.
+ * <p>
+ * A rebuild writes pages it read from the database a moment earlier, so a patch committed in
+ * between would be overwritten by the older row. While a rebuild holds its lock, patches on
+ * every node also note what they touched; the rebuild reloads those records from the
+ * database after its last page, until none are left, and only then marks the view ready.
+ */
+@Component
+public class BorrowingView {
+
+    private static final Logger log = LoggerFactory.getLogger(BorrowingView.class);
+
+    private static final String PREFIX = "library:borrowings:";
+    private static final String RECORDS = PREFIX + "records";
+    private static final String BY_ID = PREFIX + "by-id";
+    private static final String BY_DUE_DATE = PREFIX + "by-due";
+    private static final String BY_MEMBER = PREFIX + "by-member:";
+    private static final String BY_BOOK = PREFIX + "by-book:";
+    private static final String READY = PREFIX + "ready";
+    private static final String REBUILD_LOCK = PREFIX + "rebuild-lock";
+    // the entity version each record was last patched at, or DELETED; cleared by a rebuild
+    private static final String VERSIONS = PREFIX + "versions";
+    private static final String DELETED = "deleted";
+    // touched while a rebuild runs: "id:<borrowing>", "book:<book>" or "member:<member>"
+    private static final String REBUILD_DIRTY = PREFIX + "rebuild-dirty";
+    private static final Duration REBUILD_LEASE = Duration.ofMinutes(10);
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+    // keeps a long rebuild's lock, so patches go on noting their changes for it
+    private static final RedisScript<Long> EXTEND = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('pexpire', KEYS[1], ARGV[2]) else return 0 end",
+            Long.class);
+
+    // KEYS: records, versions, by-id, by-due; ARGV: the by-member and by-book key prefixes, then
+    // per borrowing its id, version, member id, book id, due day ('' once returned) and record
+    private static final RedisScript<Long> PUT = new DefaultRedisScript<>("""
+            local written = 0
+            for i = 3, #ARGV, 6 do
+              local id = ARGV[i]
+              local stored = redis.call('hget', KEYS[2], id)
+              if not stored or (stored ~= 'deleted' and tonumber(stored) <= tonumber(ARGV[i + 1])) then
+                redis.call('hset', KEYS[1], id, ARGV[i + 5])
+                redis.call('hset', KEYS[2], id, ARGV[i + 1])
+                redis.call('zadd', KEYS[3], id, id)
+                redis.call('zadd', ARGV[1] .. ARGV[i + 2], id, id)
+                redis.call('zadd', ARGV[2] .. ARGV[i + 3], id, id)
+                if ARGV[i + 4] == '' then
+                  redis.call('zrem', KEYS[4], id)
+                else
+                  redis.call('zadd', KEYS[4], ARGV[i + 4], id)
+                end
+                written = written + 1
+              end
+            end
+            return written""", Long.class);
+    // KEYS: records, the index of the book or member; ARGV: the field and its new value
+    private static final RedisScript<Long> SET_FIELD = new DefaultRedisScript<>("""
+            local ids = redis.call('zrange', KEYS[2], 0, -1)
+            for _, id in ipairs(ids) do
+              local record = redis.call('hget', KEYS[1], id)
+              if record then
+                local borrowing = cjson.decode(record)
+                borrowing[ARGV[1]] = ARGV[2]
+                redis.call('hset', KEYS[1], id, cjson.encode(borrowing))
+              end
+            end
+            return #ids""", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final BorrowerRepository borrowerRepository;
+    private final RedisCircuitBreaker circuitBreaker;
+    private volatile boolean missedPatch;
+
+    @Autowired
+    public BorrowingView(StringRedisTemplate redisTemplate, ObjectMapper objectMapper, BorrowerRepository borrowerRepository,
+                         RedisCircuitBreaker circuitBreaker) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.borrowerRepository = borrowerRepository;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public boolean isReady() {
+        return !missedPatch && circuitBreaker.call(() -> Boolean.TRUE.equals(redisTemplate.hasKey(READY)), () -> false);
+    }
+
+    // --- Reads ---
+
+    /**
+     * Every borrowing in id order, read through the id index a batch at a time rather than
+     * with one HVALS of the whole hash.
+     */
+    public List<BorrowerDto> findAll() {
+        List<BorrowerDto> borrowings = new ArrayList<>();
+        for (long start = 0; ; start += REBUILD_BATCH_SIZE) {
+            Set<String> ids = redisTemplate.opsForZSet().range(BY_ID, start, start + REBUILD_BATCH_SIZE - 1);
+            borrowings.addAll(load(ids));
+            if (ids == null || ids.size() < REBUILD_BATCH_SIZE) {
+                return borrowings;
+            }
+        }
+    }
+
+    public CursorPage<BorrowerDto> findPage(long afterId, int pageSize) {
+        return page(BY_ID, afterId, pageSize);
+    }
+
+    public CursorPage<BorrowerDto> findPageByMember(Long memberId, long afterId, int pageSize) {
+        return page(BY_MEMBER + memberId, afterId, pageSize);
+    }
+
+    /**
+     * Open borrowings due between the two dates (inclusive), earliest due first.
+     */
+    public List<BorrowerDto> findDueBetween(LocalDate from, LocalDate to, int limit) {
+        Set<String> ids = redisTemplate.opsForZSet()
+                .rangeByScore(BY_DUE_DATE, from.toEpochDay(), to.toEpochDay(), 0, limit);
+        return load(ids);
+    }
+
+    // --- Write-through patches, applied after the surrounding transaction commits ---
+
+    /**
+     * Writes a loan as committed. Its version is read only once the commit has flushed it,
+     * so a save still pending in the transaction is written with the version it ends up at.
+     */
+    public void put(Borrower borrower) {
+        putAll(List.of(borrower));
+    }
+
+    public void putAll(Collection<Borrower> borrowers) {
+        if (borrowers.isEmpty()) {
+            return;
+        }
+        // mapped now, while the member and book can still be loaded
+        List<BorrowerDto> mapped = borrowers.stream().map(BorrowingMapper::toDto).toList();
+        afterCommit(() -> {
+            noteIfRebuilding(mapped.stream().map(borrowing -> "id:" + borrowing.getId()).toList());
+            List<String> args = new ArrayList<>(List.of(BY_MEMBER, BY_BOOK));
+            Iterator<Borrower> versions = borrowers.iterator();
+            for (BorrowerDto borrowing : mapped) {
+                Borrower borrower = versions.next();
+                args.add(String.valueOf(borrowing.getId()));
+                args.add(String.valueOf(borrower.getVersion()));
+                args.add(String.valueOf(borrowing.getMemberId()));
+                args.add(String.valueOf(borrowing.getBookId()));
+                args.add(borrowing.getReturnDate() != null ? "" : String.valueOf(borrowing.getDueDate().toEpochDay()));
+                args.add(serialize(borrowing));
+            }
+            redisTemplate.execute(PUT, List.of(RECORDS, VERSIONS, BY_ID, BY_DUE_DATE), args.toArray());
+        });
+    }
+
+    public void remove(Long borrowingId) {
+        afterCommit(() -> {
+            noteIfRebuilding(List.of("id:" + borrowingId));
+            removeById(String.valueOf(borrowingId));
+        });
+    }
+
+    public void updateBookTitle(Long bookId, String title) {
+        afterCommit(() -> {
+            noteIfRebuilding(List.of("book:" + bookId));
+            setField(BY_BOOK + bookId, "bookTitle", title);
+        });
+    }
+
+    public void updateMemberName(Long memberId, String name) {
+        afterCommit(() -> {
+            noteIfRebuilding(List.of("member:" + memberId));
+            setField(BY_MEMBER + memberId, "memberName", name);
+        });
+    }
+
+    public void removeByBook(Long bookId) {
+        afterCommit(() -> {
+            noteIfRebuilding(List.of("book:" + bookId));
+            removeIndexed(BY_BOOK + bookId);
+        });
+    }
+
+    public void removeByMember(Long memberId) {
+        afterCommit(() -> {
+            noteIfRebuilding(List.of("member:" + memberId));
+            removeIndexed(BY_MEMBER + memberId);
+        });
+    }
+
+    // --- Rebuild ---
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfMissing() {
+        try {
+            if (missedPatch) {
+                missedPatch = false;
+                if (!markStale()) {
+                    return;
+                }
+            }
+            if (circuitBreaker.call(() -> !Boolean.TRUE.equals(redisTemplate.hasKey(READY)), () -> false)) {
+                rebuild();
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not rebuild borrowing view; reads will use the database", e);
+        }
+    }
+
+    /**
+     * Brings the view back after it was marked stale, without waiting for a restart.
+     */
+    @Scheduled(fixedDelayString = "${borrowings.view.repair-interval:PT1M}", initialDelayString = "${borrowings.view.repair-interval:PT1M}")
+    public void repair() {
+        rebuildIfMissing();
+    }
+
+    /**
+     * Rebuilds the view unless another node already is.
+     *
+     * @return whether this call rebuilt it
+     */
+    public boolean rebuild() {
+        String token = UUID.randomUUID().toString();
+        if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(REBUILD_LOCK, token, REBUILD_LEASE))) {
+            log.info("Borrowing view rebuild already running on another node");
+            return false;
+        }
+        try {
+            rebuildLocked(token);
+            return true;
+        } finally {
+            // only while the lock is still ours: a rebuild that outlived its lease must not
+            // release the next one's
+            redisTemplate.execute(RELEASE, List.of(REBUILD_LOCK), token);
+        }
+    }
+
+    private void rebuildLocked(String token) {
+        log.info("Rebuilding borrowing view from the database...");
+        redisTemplate.delete(READY);
+        deleteMatching(PREFIX + "*", Set.of(REBUILD_LOCK, REBUILD_DIRTY));
+
+        long afterId = 0;
+        long count = 0;
+        List<BorrowerDto> batch;
+        do {
+            long after = afterId;
+            // later loans are only patched in, so the view is rebuilt from the primary
+            List<BorrowerDto> borrowings = ReadRouting.onPrimary(
+                    () -> borrowerRepository.findDtoPageAfter(after, Limit.of(REBUILD_BATCH_SIZE)));
+            pipeline(operations -> borrowings.forEach(borrowing -> write(operations, borrowing)));
+            redisTemplate.execute(EXTEND, List.of(REBUILD_LOCK), token, String.valueOf(REBUILD_LEASE.toMillis()));
+            batch = borrowings;
+            if (!batch.isEmpty()) {
+                afterId = batch.get(batch.size() - 1).getId();
+                count += batch.size();
+            }
+        } while (batch.size() == REBUILD_BATCH_SIZE);
+
+        int replayed = replayDirty();
+        redisTemplate.opsForValue().set(READY, String.valueOf(System.currentTimeMillis()));
+        log.info("Borrowing view rebuilt with {} records, {} reloaded after changes during the rebuild", count, replayed);
+    }
+
+    /**
+     * Compares the view, a page at a time, with the database and rewrites the records that
+     * differ, such as one overwritten by a patch that lost a race. It holds the rebuild lock,
+     * so patches meanwhile are noted and reloaded at the end as after a rebuild, and the view
+     * stays readable throughout.
+     *
+     * @return how many records it corrected, or -1 if it did not run
+     */
+    @Scheduled(fixedDelayString = "${borrowings.view.reconcile-interval:PT1H}", initialDelayString = "${borrowings.view.reconcile-interval:PT1H}")
+    public int reconcile() {
+        String token = UUID.randomUUID().toString();
+        try {
+            if (!isReady() || !Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(REBUILD_LOCK, token, REBUILD_LEASE))) {
+                return -1;
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not reconcile borrowing view", e);
+            return -1;
+        }
+        try {
+            int corrected = reconcileLocked(token);
+            if (corrected > 0) {
+                log.warn("Borrowing view reconciled: {} records differed from the database", corrected);
+            }
+            return corrected;
+        } catch (DataAccessException e) {
+            log.warn("Could not reconcile borrowing view", e);
+            return -1;
+        } finally {
+            redisTemplate.execute(RELEASE, List.of(REBUILD_LOCK), token);
+        }
+    }
+
+    private int reconcileLocked(String token) {
+        int corrected = 0;
+        long afterId = 0;
+        List<BorrowerDto> current;
+        do {
+            long after = afterId;
+            current = ReadRouting.onPrimary(() -> borrowerRepository.findDtoPageAfter(after, Limit.of(REBUILD_BATCH_SIZE)));
+            boolean last = current.size() < REBUILD_BATCH_SIZE;
+            double upTo = last ? Double.POSITIVE_INFINITY : current.get(current.size() - 1).getId();
+            Set<String> ids = Objects.requireNonNullElse(
+                    redisTemplate.opsForZSet().rangeByScore(BY_ID, afterId + 1, upTo), Set.of());
+            Map<Long, BorrowerDto> viewed = load(ids).stream()
+                    .collect(Collectors.toMap(BorrowerDto::getId, borrowing -> borrowing));
+            List<BorrowerDto> stale = current.stream()
+                    .filter(borrowing -> !borrowing.equals(viewed.get(borrowing.getId())))
+                    .toList();
+            Set<String> extra = new HashSet<>(ids);
+            current.forEach(borrowing -> extra.remove(String.valueOf(borrowing.getId())));
+            if (!stale.isEmpty() || !extra.isEmpty()) {
+                transaction(operations -> {
+                    stale.forEach(borrowing -> {
+                        BorrowerDto old = viewed.get(borrowing.getId());
+                        if (old != null) {
+                            delete(operations, old);
+                        }
+                        write(operations, borrowing);
+                    });
+                    extra.forEach(id -> {
+                        BorrowerDto old = viewed.get(Long.valueOf(id));
+                        if (old != null) {
+                            delete(operations, old);
+                        } else {
+                            operations.opsForZSet().remove(BY_ID, id);
+                            operations.opsForZSet().remove(BY_DUE_DATE, id);
+                        }
+                        operations.opsForHash().put(VERSIONS, id, DELETED);
+                    });
+                });
+                corrected += stale.size() + extra.size();
+            }
+            redisTemplate.execute(EXTEND, List.of(REBUILD_LOCK), token, String.valueOf(REBUILD_LEASE.toMillis()));
+            if (!current.isEmpty()) {
+                afterId = current.get(current.size() - 1).getId();
+            }
+        } while (current.size() == REBUILD_BATCH_SIZE);
+        replayDirty();
+        return corrected;
+    }
+
+    /**
+     * Reloads from the database the records that patches touched while the rebuild ran, so
+     * a page read before a change cannot outlive it; repeats until no new changes came in.
+     * A record reloaded here can again be overwritten by a patch racing it, but that patch
+     * notes it anew and the next round reloads it.
+     */
+    private int replayDirty() {
+        int replayed = 0;
+        while (true) {
+            List<String> touched = redisTemplate.opsForSet().pop(REBUILD_DIRTY, REBUILD_BATCH_SIZE);
+            if (touched == null || touched.isEmpty()) {
+                return replayed;
+            }
+            Set<String> ids = new LinkedHashSet<>();
+            for (String entry : touched) {
+                if (entry.startsWith("id:")) {
+                    ids.add(entry.substring("id:".length()));
+                } else {
+                    String index = entry.startsWith("book:") ? BY_BOOK + entry.substring("book:".length())
+                            : BY_MEMBER + entry.substring("member:".length());
+                    ids.addAll(Objects.requireNonNullElse(redisTemplate.opsForZSet().range(index, 0, -1), Set.of()));
+                }
+            }
+            List<BorrowerDto> viewed = load(ids);
+            List<Long> borrowingIds = ids.stream().map(Long::valueOf).toList();
+            List<BorrowerDto> current = ReadRouting.onPrimary(() -> borrowerRepository.findDtosByIdIn(borrowingIds));
+            Set<String> gone = new HashSet<>(ids);
+            current.forEach(borrowing -> gone.remove(String.valueOf(borrowing.getId())));
+            // dropped first, so a reloaded loan leaves no entry under a member or book it no longer has
+            transaction(operations -> {
+                viewed.forEach(borrowing -> delete(operations, borrowing));
+                current.forEach(borrowing -> write(operations, borrowing));
+                gone.forEach(id -> operations.opsForHash().put(VERSIONS, id, DELETED));
+            });
+            replayed += borrowingIds.size();
+        }
+    }
+
+    /**
+     * Notes the records a patch touches, for the rebuild running now (on any node) to reload.
+     */
+    private void noteIfRebuilding(List<String> touched) {
+        if (Boolean.TRUE.equals(redisTemplate.hasKey(REBUILD_LOCK))) {
+            redisTemplate.opsForSet().add(REBUILD_DIRTY, touched.toArray(String[]::new));
+        }
+    }
+
+    // --- Internals ---
+
+    private CursorPage<BorrowerDto> page(String indexKey, long afterId, int pageSize) {
+        Set<String> ids = redisTemplate.opsForZSet()
+                .rangeByScore(indexKey, afterId + 1, Double.POSITIVE_INFINITY, 0, pageSize + 1);
+        return CursorPage.of(load(ids), pageSize, BorrowerDto::getId);
+    }
+
+    private List<BorrowerDto> load(Collection<String> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        List<String> records = redisTemplate.<String, String>opsForHash().multiGet(RECORDS, ids);
+        return parse(records.stream().filter(Objects::nonNull).collect(Collectors.toList()));
+    }
+
+    private void removeById(String id) {
+        BorrowerDto existing = load(List.of(id)).stream().findFirst().orElse(null);
+        transaction(operations -> {
+            if (existing != null) {
+                delete(operations, existing);
+            }
+            operations.opsForHash().put(VERSIONS, id, DELETED);
+        });
+    }
+
+    private void setField(String indexKey, String field, String value) {
+        redisTemplate.execute(SET_FIELD, List.of(RECORDS, indexKey), field, value);
+    }
+
+    private void removeIndexed(String indexKey) {
+        List<BorrowerDto> borrowings = load(redisTemplate.opsForZSet().range(indexKey, 0, -1));
+        transaction(operations -> {
+            borrowings.forEach(borrowing -> {
+                delete(operations, borrowing);
+                operations.opsForHash().put(VERSIONS, String.valueOf(borrowing.getId()), DELETED);
+            });
+            operations.delete(indexKey);
+        });
+    }
+
+    private void write(RedisOperations<String, String> operations, BorrowerDto borrowing) {
+        String id = String.valueOf(borrowing.getId());
+        operations.opsForHash().put(RECORDS, id, serialize(borrowing));
+        operations.opsForZSet().add(BY_ID, id, borrowing.getId());
+        operations.opsForZSet().add(BY_MEMBER + borrowing.getMemberId(), id, borrowing.getId());
+        operations.opsForZSet().add(BY_BOOK + borrowing.getBookId(), id, borrowing.getId());
+        if (borrowing.getReturnDate() == null) {
+            operations.opsForZSet().add(BY_DUE_DATE, id, borrowing.getDueDate().toEpochDay());
+        } else {
+            operations.opsForZSet().remove(BY_DUE_DATE, id);
+        }
+    }
+
+    private void delete(RedisOperations<String, String> operations, BorrowerDto borrowing) {
+        String id = String.valueOf(borrowing.getId());
+        operations.opsForHash().delete(RECORDS, id);
+        operations.opsForZSet().remove(BY_ID, id);
+        operations.opsForZSet().remove(BY_MEMBER + borrowing.getMemberId(), id);
+        operations.opsForZSet().remove(BY_BOOK + borrowing.getBookId(), id);
+        operations.opsForZSet().remove(BY_DUE_DATE, id);
+    }
+
+    private void deleteMatching(String pattern, Set<String> keep) {
+        List<String> batch = new ArrayList<>();
+        try (Cursor<String> keys = redisTemplate.scan(ScanOptions.scanOptions().match(pattern).count(1000).build())) {
+            while (keys.hasNext()) {
+                String key = keys.next();
+                if (!keep.contains(key)) {
+                    batch.add(key);
+                }
+                if (batch.size() == 1000) {
+                    redisTemplate.delete(batch);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            redisTemplate.delete(batch);
+        }
+    }
+
+    private void afterCommit(Runnable patch) {
+        Runnable guarded = () -> {
+            try {
+                if (!circuitBreaker.run(patch)) {
+                    log.warn("Could not patch borrowing view; marking it stale until the next rebuild");
+                    markStale();
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to patch borrowing view; marking it stale until the next rebuild", e);
+                markStale();
+            }
+        };
+        AfterCommit.run(guarded);
+    }
+
+    /**
+     * @return whether the view is marked stale in Redis; if not, this node alone knows it is
+     */
+    private boolean markStale() {
+        if (circuitBreaker.run(() -> redisTemplate.delete(READY))) {
+            return true;
+        }
+        log.warn("Could not mark borrowing view stale; this node reads borrowings from the database until it is");
+        missedPatch = true;
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void transaction(Consumer<RedisOperations<String, String>> commands) {
+        redisTemplate.execute(new SessionCallback<List<Object>>() {
+            @Override
+            public <K, V> List<Object> execute(RedisOperations<K, V> operations) {
+                operations.multi();
+                commands.accept((RedisOperations<String, String>) operations);
+                return operations.exec();
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private void pipeline(Consumer<RedisOperations<String, String>> commands) {
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                commands.accept((RedisOperations<String, String>) operations);
+                return null;
+            }
+        });
+    }
+
+    private String serialize(BorrowerDto borrowing) {
+        try {
+            return objectMapper.writeValueAsString(borrowing);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize borrowing " + borrowing.getId(), e);
+        }
+    }
+
+    private List<BorrowerDto> parse(Collection<String> records) {
+        List<BorrowerDto> borrowings = new ArrayList<>(records.size());
+        for (String record : records) {
+            try {
+                borrowings.add(objectMapper.readValue(record, BorrowerDto.class));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Corrupt borrowing record in view", e);
+            }
+        }
+        return borrowings;
+    }
+}
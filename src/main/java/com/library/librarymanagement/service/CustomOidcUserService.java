@@ -33,6 +33,12 @@ public class CustomOidcUserService extends OidcUserService {
     @Autowired
     private MemberRepository memberRepository;
 
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ModificationCounters modificationCounters;
+
     @Override
     @Transactional
     public OidcUser loadUser(OidcUserRequest userRequest) throws OAuth2AuthenticationException {
@@ -40,6 +46,7 @@ public class CustomOidcUserService extends OidcUserService {
         Map<String, Object> attributes = oidcUser.getAttributes();
 
         User user = findOrCreateUser(attributes);
+        userService.cacheSnapshot(user);
 
         Set<GrantedAuthority> authorities = new HashSet<>();
         authorities.add(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()));
@@ -62,6 +69,7 @@ public class CustomOidcUserService extends OidcUserService {
             Member newMemberProfile = new Member();
             newMemberProfile.setName((String) attributes.get("name"));
             memberRepository.save(newMemberProfile);
+            modificationCounters.increment(ModificationCounters.MEMBERS);
 
             User newUser = new User();
             newUser.setEmail(email);
@@ -0,0 +1,226 @@
+package com.library.librarymanagement.service;
+
+import com.library.librarymanagement.config.OverdueProperties;
+import com.library.librarymanagement.dto.BorrowingDue;
+import com.library.librarymanagement.dto.CursorPage.DateKey;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process timing wheel of the open borrowings due in the next {@code horizonDays} days:
+ * one bucket of borrowing ids per day, reused as the days pass. Loaded by
+ * {@link OverdueScanner} and kept current by {@link BorrowerService} once its
+ * transactions commit; changes made on other instances show up after the next scan.
+ * <p>
+ * A day that rotates into the window is empty until the next scan has filled it, so
+ * {@link #findDue} only answers for days a scan has covered.
+ */
+@Component
+public class DueDateWheel {
+
+    private final int horizonDays;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeSet<Long>[] buckets;
+    private final Map<Long, Slot> slots = new HashMap<>();
+    // epoch days; firstDay is today once anything ran, loadedThrough the last day a scan covered
+    private long firstDay = Long.MIN_VALUE;
+    private long loadedThrough = Long.MIN_VALUE;
+    private long generation;
+
+    @Autowired
+    @SuppressWarnings("unchecked")
+    public DueDateWheel(OverdueProperties properties) {
+        if (properties.getHorizonDays() < 1) {
+            throw new IllegalArgumentException("The due-date horizon must be at least one day");
+        }
+        this.horizonDays = properties.getHorizonDays();
+        this.buckets = new TreeSet[horizonDays];
+        for (int i = 0; i < horizonDays; i++) {
+            buckets[i] = new TreeSet<>();
+        }
+    }
+
+    public int getHorizonDays() {
+        return horizonDays;
+    }
+
+    // --- Kept current after commit ---
+
+    public void put(Long borrowingId, LocalDate dueDate) {
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                advance(LocalDate.now().toEpochDay());
+                removeLocked(borrowingId);
+                place(borrowingId, dueDate.toEpochDay(), generation);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void remove(Long borrowingId) {
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                removeLocked(borrowingId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // --- Loading, by the overdue scan ---
+
+    /**
+     * Starts a load and returns its generation. Entries that neither the load nor a
+     * concurrent {@link #put} touches before {@link #endLoad} are dropped then.
+     */
+    public long beginLoad() {
+        lock.writeLock().lock();
+        try {
+            advance(LocalDate.now().toEpochDay());
+            return ++generation;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void load(long loadGeneration, List<BorrowingDue> borrowings) {
+        lock.writeLock().lock();
+        try {
+            for (BorrowingDue borrowing : borrowings) {
+                removeLocked(borrowing.getId());
+                place(borrowing.getId(), borrowing.getDueDate().toEpochDay(), loadGeneration);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void endLoad(long loadGeneration, LocalDate through) {
+        lock.writeLock().lock();
+        try {
+            slots.entrySet().removeIf(entry -> {
+                Slot slot = entry.getValue();
+                if (slot.generation() >= loadGeneration) {
+                    return false;
+                }
+                bucket(slot.day()).remove(entry.getKey());
+                return true;
+            });
+            loadedThrough = through.toEpochDay();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // --- Reads ---
+
+    /**
+     * Ids of the open borrowings due between the two dates (inclusive) that come after
+     * {@code after}, by due date then id; empty when the wheel does not cover the dates.
+     */
+    public Optional<List<Long>> findDue(LocalDate from, LocalDate to, DateKey after, int limit) {
+        long today = LocalDate.now().toEpochDay();
+        if (firstDayIsBefore(today)) {
+            lock.writeLock().lock();
+            try {
+                advance(today);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        lock.readLock().lock();
+        try {
+            long start = Math.max(from.toEpochDay(), after.date().toEpochDay());
+            long end = to.toEpochDay();
+            if (from.toEpochDay() < firstDay || end > Math.min(loadedThrough, firstDay + horizonDays - 1)) {
+                return Optional.empty();
+            }
+            List<Long> ids = new ArrayList<>(Math.min(limit, slots.size()));
+            for (long day = start; day <= end && ids.size() < limit; day++) {
+                SortedSet<Long> bucket = day == after.date().toEpochDay()
+                        ? bucket(day).tailSet(after.id() + 1)
+                        : bucket(day);
+                for (Long id : bucket) {
+                    if (ids.size() == limit) {
+                        break;
+                    }
+                    ids.add(id);
+                }
+            }
+            return Optional.of(ids);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slots.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // --- Internals, under the write lock ---
+
+    /**
+     * Moves the window to start at {@code today}, emptying the buckets of the days left behind.
+     */
+    private void advance(long today) {
+        if (firstDay == Long.MIN_VALUE) {
+            firstDay = today;
+            return;
+        }
+        if (today <= firstDay) {
+            return;
+        }
+        long lastCleared = Math.min(today - 1, firstDay + horizonDays - 1);
+        for (long day = firstDay; day <= lastCleared; day++) {
+            TreeSet<Long> bucket = bucket(day);
+            bucket.forEach(slots::remove);
+            bucket.clear();
+        }
+        firstDay = today;
+    }
+
+    private void place(Long borrowingId, long day, long entryGeneration) {
+        if (day < firstDay || day >= firstDay + horizonDays) {
+            return;
+        }
+        bucket(day).add(borrowingId);
+        slots.put(borrowingId, new Slot(day, entryGeneration));
+    }
+
+    private void removeLocked(Long borrowingId) {
+        Slot slot = slots.remove(borrowingId);
+        if (slot != null) {
+            bucket(slot.day()).remove(borrowingId);
+        }
+    }
+
+    private TreeSet<Long> bucket(long day) {
+        return buckets[(int) Math.floorMod(day, (long) horizonDays)];
+    }
+
+    private boolean firstDayIsBefore(long today) {
+        lock.readLock().lock();
+        try {
+            return firstDay < today;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private record Slot(long day, long generation) {
+    }
+}
@@ -1,79 +1,247 @@
 package com.library.librarymanagement.service;
 
 import com.library.librarymanagement.exception.ResourceNotFoundException;
+import com.library.librarymanagement.model.StoredBlob;
+import com.library.librarymanagement.repository.StoredBlobRepository;
+import io.micrometer.core.annotation.Timed;
 import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.MalformedURLException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
-import java.util.UUID;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+/**
+ * Content-addressed upload store. An upload is streamed through a SHA-256 digest into a
+ * temporary file and kept once per distinct content under {@code ab/cd/<hash>}, so no
+ * directory grows past 256 entries per level. Stored names are {@code <hash><extension>};
+ * the extension only selects the served content type.
+ * <p>
+ * Every {@link #store} takes a reference on the content and every {@link #release} drops
+ * one; the file and its {@code stored_blobs} row are deleted with the last reference. Both
+ * run under the blob's row lock, so a release and a store of the same content serialize.
+ * Files from before this layout (flat {@code <uuid><extension>} names) are still served.
+ * <p>
+ * New content is handed to {@link ThumbnailService} for rendering, and its thumbnails are
+ * deleted with it.
+ */
 @Service
+@Timed("library.service")
 public class FileStorageService {
 
-    @Value("${file.upload-dir}")
-    private String uploadDir;
+    private static final Logger log = LoggerFactory.getLogger(FileStorageService.class);
+
+    private static final Pattern STORED_NAME = Pattern.compile("([0-9a-f]{64})(\\.[a-z0-9]{1,10})?");
+    private static final Pattern EXTENSION = Pattern.compile("\\.[a-z0-9]{1,10}");
+    private static final String TEMP_DIR = ".tmp";
+
+    private final String uploadDir;
+    private final StoredBlobRepository storedBlobRepository;
+    private final TransactionTemplate transaction;
+    private final ThumbnailService thumbnailService;
 
     private Path rootLocation;
 
+    @Autowired
+    public FileStorageService(@Value("${file.upload-dir}") String uploadDir, StoredBlobRepository storedBlobRepository,
+                              PlatformTransactionManager transactionManager, ThumbnailService thumbnailService) {
+        this.uploadDir = uploadDir;
+        this.storedBlobRepository = storedBlobRepository;
+        this.thumbnailService = thumbnailService;
+        // own transactions, also when called after another one committed
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
     @PostConstruct
     public void init() {
-        this.rootLocation = Paths.get(uploadDir);
+        this.rootLocation = Paths.get(uploadDir).toAbsolutePath().normalize();
         try {
-            Files.createDirectories(rootLocation);
+            Files.createDirectories(rootLocation.resolve(TEMP_DIR));
         } catch (IOException e) {
             throw new RuntimeException("Could not initialize storage location", e);
         }
     }
 
+    /**
+     * Stores the upload, or takes another reference on identical content stored before,
+     * and returns its stored name.
+     */
     public String store(MultipartFile file) {
-        String originalFilename = StringUtils.cleanPath(file.getOriginalFilename());
-        String extension = "";
-        int i = originalFilename.lastIndexOf('.');
-        if (i > 0) {
-            extension = originalFilename.substring(i);
-        }
-        String filename = UUID.randomUUID().toString() + extension;
-
         if (file.isEmpty()) {
-            throw new RuntimeException("Failed to store empty file " + filename);
+            throw new IllegalArgumentException("Cannot store an empty file");
         }
+        String extension = extensionOf(file.getOriginalFilename());
+        Path temp = null;
         try {
-            Path destinationFile = this.rootLocation.resolve(Paths.get(filename))
-                    .normalize().toAbsolutePath();
-            if (!destinationFile.getParent().equals(this.rootLocation.toAbsolutePath())) {
-                throw new RuntimeException("Cannot store file outside current directory.");
+            temp = Files.createTempFile(rootLocation.resolve(TEMP_DIR), "upload-", ".part");
+            MessageDigest digest = sha256();
+            try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+                Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
             }
-            try (InputStream inputStream = file.getInputStream()) {
-                Files.copy(inputStream, destinationFile, StandardCopyOption.REPLACE_EXISTING);
+            String hash = HexFormat.of().formatHex(digest.digest());
+            if (acquire(hash, temp, Files.size(temp))) {
+                thumbnailService.submit(blobPath(hash));
             }
-            return filename;
+            return hash + extension;
         } catch (IOException e) {
-            throw new RuntimeException("Failed to store file " + filename, e);
+            throw new UncheckedIOException("Failed to store file " + file.getOriginalFilename(), e);
+        } finally {
+            deleteQuietly(temp);
         }
     }
 
-    public Resource loadAsResource(String filename) {
-        try {
-            Path file = rootLocation.resolve(filename);
-            Resource resource = new UrlResource(file.toUri());
-            if (resource.exists() || resource.isReadable()) {
-                return resource;
-            } else {
-                throw new ResourceNotFoundException("Could not read file: " + filename);
+    /**
+     * Drops the reference a stored name holds, deleting the content with its last
+     * reference. Files from before the content-addressed layout are deleted outright.
+     */
+    public void release(String name) {
+        Matcher stored = STORED_NAME.matcher(name);
+        if (!stored.matches()) {
+            Path legacy = resolveLegacy(name);
+            if (legacy != null && Files.isRegularFile(legacy)) {
+                deleteQuietly(legacy);
+            }
+            return;
+        }
+        String hash = stored.group(1);
+        transaction.executeWithoutResult(status -> {
+            if (storedBlobRepository.release(hash) == 0) {
+                return;
             }
-        } catch (MalformedURLException e) {
-            throw new RuntimeException("Could not read file: " + filename, e);
+            storedBlobRepository.findUnreferenced(hash).ifPresent(blob -> {
+                deleteQuietly(blobPath(hash));
+                thumbnailService.deleteRenditions(blobPath(hash));
+                storedBlobRepository.delete(blob);
+                log.debug("Deleted unreferenced blob {}", hash);
+            });
+        });
+    }
+
+    /**
+     * Path of a stored file, for serving.
+     */
+    public Path load(String name) {
+        Matcher stored = STORED_NAME.matcher(name);
+        Path file = stored.matches() ? blobPath(stored.group(1)) : resolveLegacy(name);
+        if (file == null || !Files.isRegularFile(file)) {
+            throw new ResourceNotFoundException("Could not read file: " + name);
+        }
+        return file;
+    }
+
+    /**
+     * Thumbnail of a stored picture at least {@code size} pixels wide, once it has been
+     * rendered. Empty while it is being rendered and when there is none: for larger sizes,
+     * files that are not images, and uploads from before the content-addressed layout.
+     */
+    public Optional<Path> loadThumbnail(String name, int size) {
+        OptionalInt rendition = thumbnailService.renditionSize(size);
+        Matcher stored = STORED_NAME.matcher(name);
+        if (rendition.isEmpty() || !stored.matches()) {
+            return Optional.empty();
+        }
+        return thumbnailService.findOrSchedule(blobPath(stored.group(1)), rendition.getAsInt());
+    }
+
+    /**
+     * Takes a reference on the blob, creating its row on first upload. A concurrent first
+     * upload of the same content loses the insert race and retries as a reference.
+     *
+     * @return whether the content was written to the store by this call
+     */
+    private boolean acquire(String hash, Path temp, long size) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return Boolean.TRUE.equals(transaction.execute(status -> {
+                    if (storedBlobRepository.acquire(hash) == 0) {
+                        storedBlobRepository.saveAndFlush(new StoredBlob(hash, size, 1, Instant.now()));
+                    }
+                    // the file may also be missing after a release that deleted it but failed to commit
+                    return placeIfMissing(hash, temp);
+                }));
+            } catch (DataIntegrityViolationException e) {
+                if (attempt == 2) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private boolean placeIfMissing(String hash, Path temp) {
+        Path target = blobPath(hash);
+        if (Files.exists(target)) {
+            return false;
+        }
+        try {
+            Files.createDirectories(target.getParent());
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store blob " + hash, e);
+        }
+    }
+
+    private Path blobPath(String hash) {
+        return rootLocation.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    // Only names directly inside the upload directory resolve
+    private Path resolveLegacy(String name) {
+        Path file = rootLocation.resolve(name).normalize();
+        return rootLocation.equals(file.getParent()) ? file : null;
+    }
+
+    private static String extensionOf(String originalFilename) {
+        String filename = StringUtils.cleanPath(originalFilename == null ? "" : originalFilename);
+        int i = filename.lastIndexOf('.');
+        if (i <= 0) {
+            return "";
+        }
+        String extension = filename.substring(i).toLowerCase(Locale.ROOT);
+        return EXTENSION.matcher(extension).matches() ? extension : "";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}", file, e);
         }
     }
-}
\ No newline at end of file
+}
@@ -1,49 +1,108 @@
 package com.library.librarymanagement.service;
 
+import com.library.librarymanagement.config.PaginationProperties;
+import com.library.librarymanagement.config.ReadRouting;
+import com.library.librarymanagement.dto.CursorPage;
+import com.library.librarymanagement.dto.MemberDto;
+import com.library.librarymanagement.dto.Versioned;
 import com.library.librarymanagement.exception.ResourceNotFoundException;
 import com.library.librarymanagement.model.Member;
 import com.library.librarymanagement.repository.MemberRepository;
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
+@Timed("library.service")
 public class MemberService {
 
     private static final Logger log = LoggerFactory.getLogger(MemberService.class);
     private final MemberRepository memberRepository;
+    private final PaginationProperties paginationProperties;
+    private final BorrowingView borrowingView;
+    private final BorrowerService borrowerService;
+    private final ModificationCounters modificationCounters;
 
     @Autowired
-    public MemberService(MemberRepository memberRepository) {
+    public MemberService(MemberRepository memberRepository, PaginationProperties paginationProperties,
+                         BorrowingView borrowingView, BorrowerService borrowerService,
+                         ModificationCounters modificationCounters) {
         this.memberRepository = memberRepository;
+        this.paginationProperties = paginationProperties;
+        this.borrowingView = borrowingView;
+        this.borrowerService = borrowerService;
+        this.modificationCounters = modificationCounters;
     }
 
-    public List<Member> findAllMembers() {
-        log.info("Fetching all members from the database...");
-        return memberRepository.findAll();
+    /**
+     * Changes whenever a member is added, edited or deleted.
+     */
+    @Transactional(readOnly = true)
+    public long membershipVersion() {
+        return modificationCounters.current(ModificationCounters.MEMBERS);
     }
 
-    @Cacheable(value = "members", key = "#id")
+    @Transactional(readOnly = true)
+    public List<MemberDto> findAllMembers() {
+        log.debug("Fetching all members from the database...");
+        return memberRepository.findAllDtos();
+    }
+
+    /**
+     * Every member with the {@link #membershipVersion()} it matches, read on one connection.
+     */
+    @Transactional(readOnly = true)
+    public Versioned<List<MemberDto>> findAllMembersVersioned() {
+        long version = membershipVersion();
+        return new Versioned<>(version, findAllMembers());
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<MemberDto> findMembersPage(String cursor, Integer size) {
+        int pageSize = paginationProperties.resolvePageSize(size);
+        List<MemberDto> rows = memberRepository.findDtoPageAfter(CursorPage.decodeCursor(cursor), Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, MemberDto::getId);
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAllMembers(Consumer<MemberDto> consumer) {
+        try (Stream<MemberDto> members = memberRepository.streamAllDtos()) {
+            members.forEach(consumer);
+        }
+    }
+
+    @Cacheable(value = "members", key = "#id", sync = true)
     public Member findMemberById(Long id) {
-        log.info("Fetching member from database: id={}", id);
-        return memberRepository.findById(id)
+        log.debug("Fetching member from database: id={}", id);
+        return ReadRouting.onPrimary(() -> memberRepository.findById(id))
                 .orElseThrow(() -> new ResourceNotFoundException("Member not found with id: " + id));
     }
 
+    @Transactional
     public Member saveMember(Member member) {
-        log.info("Saving new member to the database...");
-        return memberRepository.save(member);
+        log.debug("Saving new member to the database...");
+        // always an insert, never an update of whatever row a client-supplied id names
+        member.setId(null);
+        Member savedMember = memberRepository.save(member);
+        modificationCounters.increment(ModificationCounters.MEMBERS);
+        return savedMember;
     }
 
+    @Transactional
     @CachePut(value = "members", key = "#id")
     public Member updateMember(Long id, Member memberDetails) {
-        log.info("Updating member and cache: id={}", id);
+        log.debug("Updating member and cache: id={}", id);
         Member member = memberRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Member not found with id: " + id));
 
@@ -51,15 +110,23 @@ public class MemberService {
         member.setAddress(memberDetails.getAddress());
         member.setTelephone(memberDetails.getTelephone());
 
-        return memberRepository.save(member);
+        // flushed here so the cached copy carries the incremented version
+        Member savedMember = memberRepository.saveAndFlush(member);
+        modificationCounters.increment(ModificationCounters.MEMBERS);
+        borrowingView.updateMemberName(id, savedMember.getName());
+        return savedMember;
     }
 
+    @Transactional
     @CacheEvict(value = "members", key = "#id")
     public void deleteMemberById(Long id) {
-        log.info("Deleting member and evicting from cache: id={}", id);
+        log.debug("Deleting member and evicting from cache: id={}", id);
         if(!memberRepository.existsById(id)) {
             throw new ResourceNotFoundException("Member not found with id: " + id);
         }
+        int borrowings = borrowerService.deleteAllOfMember(id);
         memberRepository.deleteById(id);
+        modificationCounters.increment(ModificationCounters.MEMBERS);
+        log.debug("Deleted member id={} with {} borrowings", id, borrowings);
     }
 }
\ No newline at end of file
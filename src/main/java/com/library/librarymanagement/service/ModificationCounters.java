@@ -0,0 +1,59 @@
+package com.library.librarymanagement.service;
+
+import com.library.librarymanagement.config.ReadRouting;
+import com.library.librarymanagement.model.ModificationCounter;
+import com.library.librarymanagement.repository.ModificationCounterRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Per-table change counters, the validators of list endpoints. Each write to a counted table
+ * increments its counter in the same transaction, so a list read in one transaction with the
+ * counter is exactly the list at that value. The increment holds the counter row's lock until
+ * commit, which is fine for tables edited by staff rather than on every loan.
+ */
+@Service
+public class ModificationCounters {
+
+    public static final String BOOKS = "books";
+    public static final String MEMBERS = "members";
+
+    private static final List<String> TABLES = List.of(BOOKS, MEMBERS);
+
+    private final ModificationCounterRepository modificationCounterRepository;
+
+    @Autowired
+    public ModificationCounters(ModificationCounterRepository modificationCounterRepository) {
+        this.modificationCounterRepository = modificationCounterRepository;
+    }
+
+    @PostConstruct
+    public void seed() {
+        for (String table : TABLES) {
+            if (ReadRouting.onPrimary(() -> modificationCounterRepository.existsById(table))) {
+                continue;
+            }
+            try {
+                modificationCounterRepository.saveAndFlush(new ModificationCounter(table, 0));
+            } catch (DataIntegrityViolationException e) {
+                // seeded by another node starting at the same time
+            }
+        }
+    }
+
+    public long current(String table) {
+        return modificationCounterRepository.findCounter(table).orElse(0L);
+    }
+
+    @Transactional
+    public void increment(String table) {
+        if (modificationCounterRepository.increment(table) == 0) {
+            throw new IllegalStateException("No modification counter for table " + table);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.library.librarymanagement.service;
+
+import com.library.librarymanagement.config.OverdueProperties;
+import com.library.librarymanagement.config.ReadRouting;
+import com.library.librarymanagement.dto.BorrowingDue;
+import com.library.librarymanagement.dto.CursorPage.DateKey;
+import com.library.librarymanagement.repository.BorrowerRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Walks the open borrowings in due-date order, in keyset-paged chunks that read only the
+ * {@code (return_date, due_date)} index, up to the end of the {@link DueDateWheel} horizon.
+ * Counts the overdue ones (published as {@code library.borrowings.overdue}) and reloads
+ * the wheel with the rest.
+ */
+@Component
+public class OverdueScanner {
+
+    private static final Logger log = LoggerFactory.getLogger(OverdueScanner.class);
+
+    private final BorrowerRepository borrowerRepository;
+    private final DueDateWheel dueDateWheel;
+    private final OverdueProperties properties;
+
+    private final ReentrantLock scanLock = new ReentrantLock();
+    private final AtomicLong overdue = new AtomicLong();
+
+    @Autowired
+    public OverdueScanner(BorrowerRepository borrowerRepository, DueDateWheel dueDateWheel,
+                          OverdueProperties properties, MeterRegistry meterRegistry) {
+        this.borrowerRepository = borrowerRepository;
+        this.dueDateWheel = dueDateWheel;
+        this.properties = properties;
+        Gauge.builder("library.borrowings.overdue", overdue, AtomicLong::get)
+                .description("Open borrowings past their due date at the last scan")
+                .register(meterRegistry);
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void scanAtStartup() {
+        scan();
+    }
+
+    @Scheduled(fixedDelayString = "${borrowings.overdue.scan-interval:PT10M}", initialDelayString = "${borrowings.overdue.scan-interval:PT10M}")
+    public void scan() {
+        if (!scanLock.tryLock()) {
+            log.debug("Overdue scan already running");
+            return;
+        }
+        try {
+            // the wheel is patched by later loans and returns, so it is loaded from the primary
+            ReadRouting.runOnPrimary(this::scanLocked);
+        } catch (DataAccessException e) {
+            log.warn("Overdue scan failed; due-soon reads use the database until the next one", e);
+        } finally {
+            scanLock.unlock();
+        }
+    }
+
+    public long getOverdueCount() {
+        return overdue.get();
+    }
+
+    private void scanLocked() {
+        long started = System.nanoTime();
+        LocalDate today = LocalDate.now();
+        LocalDate through = today.plusDays(dueDateWheel.getHorizonDays() - 1);
+        int chunkSize = properties.getScanChunkSize();
+
+        long generation = dueDateWheel.beginLoad();
+        DateKey after = DateKey.FIRST;
+        long overdueCount = 0;
+        long upcomingCount = 0;
+        List<BorrowingDue> chunk;
+        do {
+            chunk = borrowerRepository.findOpenDuePageThrough(through, after.date(), after.id(), Limit.of(chunkSize));
+            for (BorrowingDue borrowing : chunk) {
+                if (borrowing.getDueDate().isBefore(today)) {
+                    overdueCount++;
+                } else {
+                    upcomingCount++;
+                }
+            }
+            dueDateWheel.load(generation, chunk);
+            if (!chunk.isEmpty()) {
+                BorrowingDue last = chunk.get(chunk.size() - 1);
+                after = new DateKey(last.getDueDate(), last.getId());
+            }
+        } while (chunk.size() == chunkSize);
+        dueDateWheel.endLoad(generation, through);
+
+        overdue.set(overdueCount);
+        log.info("Overdue scan: {} overdue, {} due through {}, in {} ms",
+                overdueCount, upcomingCount, through, (System.nanoTime() - started) / 1_000_000);
+    }
+}
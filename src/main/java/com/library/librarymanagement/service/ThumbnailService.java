@@ -0,0 +1,242 @@
+package com.library.librarymanagement.service;
+
+import com.library.librarymanagement.config.ThumbnailProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders square JPEG thumbnails of stored pictures, next to the original as
+ * {@code <name>@<size>.jpg}. Each picture is decoded once, subsampled on decode when it is
+ * much larger than the biggest rendition, and every size is scaled down from the one above.
+ * <p>
+ * Rendering runs on a small dedicated pool with a bounded queue: when the queue is full a
+ * picture is skipped rather than queued without limit, and is rendered when a thumbnail of
+ * it is first requested. Until then callers serve the original. Pool meters are published
+ * as {@code executor_*{name="thumbnails"}}.
+ */
+@Service
+public class ThumbnailService {
+
+    private static final Logger log = LoggerFactory.getLogger(ThumbnailService.class);
+
+    private static final String UNRENDERABLE = ".unrenderable";
+
+    private final ThumbnailProperties properties;
+    private final List<Integer> sizes;
+    private final ExecutorService executor;
+    private final Set<Path> inFlight = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public ThumbnailService(ThumbnailProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.sizes = properties.getSizes().stream().sorted(Comparator.reverseOrder()).toList();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(properties.getWorkers(), properties.getWorkers(),
+                0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                Thread.ofPlatform().name("thumbnail-", 1).daemon(true).factory());
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, pool, "thumbnails");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * The smallest rendition at least {@code requested} pixels wide, or empty when only the
+     * original is that large.
+     */
+    public OptionalInt renditionSize(int requested) {
+        if (requested < 1) {
+            throw new IllegalArgumentException("Size must be at least 1");
+        }
+        return sizes.stream().mapToInt(Integer::intValue).filter(size -> size >= requested).min();
+    }
+
+    /**
+     * The rendition if it has been rendered; otherwise schedules the picture and returns empty.
+     */
+    public Optional<Path> findOrSchedule(Path original, int size) {
+        Path rendition = renditionPath(original, size);
+        if (Files.isRegularFile(rendition)) {
+            return Optional.of(rendition);
+        }
+        if (!Files.exists(marker(original))) {
+            submit(original);
+        }
+        return Optional.empty();
+    }
+
+    public void submit(Path original) {
+        if (!inFlight.add(original)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    render(original);
+                } finally {
+                    inFlight.remove(original);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(original);
+            log.debug("Thumbnail queue full; {} is rendered when first requested", original.getFileName());
+        }
+    }
+
+    /**
+     * Renders every size of the picture, replacing existing renditions. A file that cannot
+     * be decoded as an image is marked so it is not tried again.
+     */
+    public void render(Path original) {
+        try {
+            BufferedImage image = decode(original);
+            if (image == null) {
+                Files.createFile(marker(original));
+                return;
+            }
+            for (int size : sizes) {
+                image = squareThumbnail(image, size);
+                writeJpeg(image, renditionPath(original, size));
+            }
+            if (!Files.exists(original)) {
+                // released while rendering
+                deleteRenditions(original);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not render thumbnails of {}", original.getFileName(), e);
+        }
+    }
+
+    public void deleteRenditions(Path original) {
+        try {
+            for (int size : sizes) {
+                Files.deleteIfExists(renditionPath(original, size));
+            }
+            Files.deleteIfExists(marker(original));
+        } catch (IOException e) {
+            log.warn("Could not delete thumbnails of {}", original.getFileName(), e);
+        }
+    }
+
+    Path renditionPath(Path original, int size) {
+        return original.resolveSibling(original.getFileName() + "@" + size + ".jpg");
+    }
+
+    private Path marker(Path original) {
+        return original.resolveSibling(original.getFileName() + UNRENDERABLE);
+    }
+
+    /**
+     * Decodes the picture, skipping source pixels when it is at least twice as large as the
+     * biggest rendition needs; null when it is not an image or is too large.
+     */
+    private BufferedImage decode(Path original) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(original.toFile())) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                long width = reader.getWidth(0);
+                long height = reader.getHeight(0);
+                int subsampling = (int) Math.max(1, Math.min(width, height) / (2L * sizes.get(0)));
+                if ((width / subsampling) * (height / subsampling) > properties.getMaxDecodedPixels()) {
+                    log.info("Not rendering thumbnails of {}: {}x{} pixels", original.getFileName(), width, height);
+                    return null;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Centre square of the image scaled to {@code size}, halving at most per step so the
+     * bilinear filter never skips source pixels; never scales up.
+     */
+    private static BufferedImage squareThumbnail(BufferedImage image, int size) {
+        int edge = Math.min(image.getWidth(), image.getHeight());
+        BufferedImage current = image.getSubimage((image.getWidth() - edge) / 2, (image.getHeight() - edge) / 2, edge, edge);
+        int target = Math.min(size, edge);
+        do {
+            int next = Math.max(target, current.getWidth() / 2);
+            current = draw(current, next);
+        } while (current.getWidth() > target);
+        return current;
+    }
+
+    // Also flattens transparency onto white, since JPEG has no alpha channel
+    private static BufferedImage draw(BufferedImage source, int size) {
+        BufferedImage scaled = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, size, size);
+            graphics.drawImage(source, 0, 0, size, size, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    private void writeJpeg(BufferedImage image, Path target) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".part");
+        try {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            try (ImageOutputStream output = ImageIO.createImageOutputStream(temp.toFile())) {
+                writer.setOutput(output);
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(properties.getJpegQuality());
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
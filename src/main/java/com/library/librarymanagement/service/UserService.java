@@ -1,25 +1,86 @@
 package com.library.librarymanagement.service;
 
+import com.library.librarymanagement.config.PaginationProperties;
+import com.library.librarymanagement.config.ReadRouting;
+import com.library.librarymanagement.dto.CursorPage;
+import com.library.librarymanagement.dto.UserSnapshot;
 import com.library.librarymanagement.exception.ResourceNotFoundException;
+import com.library.librarymanagement.mapper.UserMapper;
 import com.library.librarymanagement.model.User;
 import com.library.librarymanagement.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
+@Timed("library.service")
 public class UserService {
 
+    public static final String PROFILE_PICTURE_PATH = "/api/users/profile/picture/";
+
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private PaginationProperties paginationProperties;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Transactional(readOnly = true)
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public CursorPage<User> getUsersPage(String cursor, Integer size) {
+        int pageSize = paginationProperties.resolvePageSize(size);
+        List<User> rows = userRepository.findPageAfter(CursorPage.decodeCursor(cursor), Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, User::getId);
+    }
+
+    /**
+     * Hands every user to the consumer in id order, as snapshots carrying the member id.
+     * Rows are read as DTOs, so nothing accumulates in the persistence context however
+     * long the stream is.
+     */
+    @Transactional(readOnly = true)
+    public void streamAllUsers(Consumer<UserSnapshot> consumer) {
+        try (Stream<UserSnapshot> users = userRepository.streamAllSnapshots()) {
+            users.forEach(consumer);
+        }
+    }
+
+    /**
+     * The user behind a login, as controllers receive it through {@code @CurrentUser}.
+     * Cached per email from login onwards; changing the user's role or picture evicts it.
+     */
+    @Cacheable(value = "users", key = "#email")
+    public UserSnapshot findSnapshot(String email) {
+        // on the primary, or a replica behind a role change could cache the old role
+        return ReadRouting.onPrimary(() -> userRepository.findSnapshotByEmail(email))
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
+    }
+
+    /**
+     * Caches the snapshot of a user who just logged in, so their requests start from it.
+     */
+    @CachePut(value = "users", key = "#user.email")
+    public UserSnapshot cacheSnapshot(User user) {
+        return UserMapper.toSnapshot(user);
+    }
+
     @Transactional
+    @CacheEvict(value = "users", key = "#email")
     public User changeUserRole(String email, User.Role newRole) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
@@ -28,11 +89,30 @@ public class UserService {
         return userRepository.save(user);
     }
 
+    /**
+     * Points the user's picture at {@code fileUrl}; once committed, the stored file behind
+     * the previous picture loses its reference and is deleted if nothing else uses it.
+     */
     @Transactional
+    @CacheEvict(value = "users", key = "#email")
     public User updateProfilePictureUrl(String email, String fileUrl) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
+        String previous = storedPictureName(user.getProfilePictureUrl());
         user.setProfilePictureUrl(fileUrl);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        if (previous != null) {
+            AfterCommit.run(() -> fileStorageService.release(previous));
+        }
+        return saved;
+    }
+
+    // Stored name behind a picture URL served by this application; null for external ones (e.g. Google's)
+    private static String storedPictureName(String url) {
+        if (url == null) {
+            return null;
+        }
+        int i = url.indexOf(PROFILE_PICTURE_PATH);
+        return i < 0 ? null : url.substring(i + PROFILE_PICTURE_PATH.length());
     }
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+-- Indexes for the filters and orderings of BorrowerRepository and BookRequestRepository.
+-- Each leads with the foreign key column where there is one, so it also backs the constraint.
+
+-- a member's or a book's loans, open ones (return_date is null) first in the index
+create index idx_borrowers_member_return on borrowers (member_id, return_date);
+create index idx_borrowers_book_return on borrowers (book_id, return_date);
+-- loans by due date whether returned or not; open loans use idx_borrowers_return_due
+create index idx_borrowers_due on borrowers (due_date);
+
+-- the approval queue: one status, newest first
+create index idx_book_requests_status_date on book_requests (status, request_date, id);
+-- a user's requests, newest first
+create index idx_book_requests_user_date on book_requests (user_id, request_date, id);
+-- all requests, newest first
+create index idx_book_requests_date on book_requests (request_date, id);
@@ -0,0 +1,3 @@
+-- Optimistic locking for book requests, so two transactions cannot both decide one request.
+-- Requests that predate the column start at version 0.
+alter table book_requests add column version bigint default 0 not null;
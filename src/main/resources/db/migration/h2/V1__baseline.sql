@@ -0,0 +1,85 @@
+-- The MySQL baseline in H2's dialect, for the in-memory databases the tests run against
+
+create sequence book_id_seq start with 1 increment by 50;
+create sequence borrower_id_seq start with 1 increment by 50;
+create sequence member_id_seq start with 1 increment by 50;
+
+create table books (
+    id bigint not null,
+    title varchar(255) not null,
+    publisher varchar(32),
+    publish_date date,
+    total_copies integer default 1 not null,
+    available_copies integer default 1 not null,
+    version bigint default 0 not null,
+    primary key (id)
+);
+
+create table members (
+    id bigint not null,
+    name varchar(255) not null,
+    address varchar(255),
+    telephone varchar(15),
+    version bigint default 0 not null,
+    primary key (id)
+);
+
+create table borrowers (
+    id bigint not null,
+    member_id bigint not null,
+    book_id bigint not null,
+    issue_date date not null,
+    due_date date not null,
+    return_date date,
+    version bigint default 0 not null,
+    primary key (id)
+);
+
+create table users (
+    id bigint generated by default as identity,
+    email varchar(255) not null,
+    name varchar(255),
+    profile_picture_url varchar(255),
+    role enum ('ADMIN','MEMBER','PERSONNEL'),
+    member_id bigint,
+    primary key (id)
+);
+
+create table book_requests (
+    id bigint generated by default as identity,
+    user_id bigint not null,
+    book_id bigint not null,
+    request_date date not null,
+    status enum ('APPROVED','PENDING','REJECTED') not null,
+    primary key (id)
+);
+
+create table modification_counters (
+    table_name varchar(64) not null,
+    counter bigint not null,
+    primary key (table_name)
+);
+
+create table replication_heartbeat (
+    id integer not null,
+    beat_millis bigint not null,
+    primary key (id)
+);
+
+create table stored_blobs (
+    hash varchar(64) not null,
+    size bigint not null,
+    ref_count integer not null,
+    created_at timestamp(6) with time zone not null,
+    primary key (hash)
+);
+
+create index idx_borrowers_return_due on borrowers (return_date, due_date);
+
+alter table users add constraint UK4lxonc7i8h0rijko84flsbd4e unique (member_id);
+alter table users add constraint UK6dotkott2kjsp8vw4d0m25fb7 unique (email);
+alter table book_requests add constraint FK8b4twec5c1mnswtkqoyf1c14i foreign key (book_id) references books (id);
+alter table book_requests add constraint FK15p3ut0mrj4pjqv5qgiqy3u4y foreign key (user_id) references users (id);
+alter table borrowers add constraint FKlevhsgw2ssf6ewxvhmi87qr0p foreign key (book_id) references books (id);
+alter table borrowers add constraint FKa1k8u9wbs5g5dawdyofn3fthe foreign key (member_id) references members (id);
+alter table users add constraint FKef7r5hcsku4ros9bfyfbmo0jm foreign key (member_id) references members (id);
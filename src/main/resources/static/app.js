@@ -15,6 +15,8 @@ const insufficientPrivilegeView = document.getElementById('insufficient-privileg
 
 // Containers
 const publicBookListContainer = document.getElementById('public-book-list-container');
+const bookSearchForm = document.getElementById('book-search-form');
+const bookSearchInput = document.getElementById('book-search-input');
 const userManagementContainer = document.getElementById('user-management-container');
 const adminBookListContainer = document.getElementById('admin-book-list-container');
 const adminMemberListContainer = document.getElementById('admin-member-list-container');
@@ -50,6 +52,35 @@ async function apiFetch(url, options) {
     return response;
 }
 
+// Last ETag and body of each list/record we have loaded; the server answers a request that
+// sends the ETag back with 304 and no body while nothing has changed
+const validatedResponses = new Map();
+
+async function fetchJson(url, fetcher = apiFetch) {
+    const cached = validatedResponses.get(url);
+    const response = await fetcher(url, cached ? { headers: { 'If-None-Match': cached.etag } } : undefined);
+    if (response.status === 304 && cached) {
+        return cached.body;
+    }
+    const body = await response.json();
+    const etag = response.headers.get('ETag');
+    if (response.ok && etag) {
+        validatedResponses.set(url, { etag, body });
+    } else {
+        validatedResponses.delete(url);
+    }
+    return body;
+}
+
+// Our own uploads have thumbnails; ask for one that fills the box on this screen
+function avatarUrl(url, cssPixels) {
+    if (!url || !url.includes('/api/users/profile/picture/')) {
+        return url;
+    }
+    const size = Math.ceil(cssPixels * (window.devicePixelRatio || 1));
+    return `${url}${url.includes('?') ? '&' : '?'}size=${size}`;
+}
+
 function showInsufficientPrivilegeView() {
     document.querySelectorAll('main section').forEach(s => s.classList.add('hidden'));
     insufficientPrivilegeView.classList.remove('hidden');
@@ -60,6 +91,7 @@ function showInsufficientPrivilegeView() {
 async function main() {
     await checkUserStatus();
     renderUI();
+    bookSearchForm.addEventListener('submit', handleBookSearch);
     await loadPublicBooks();
 
     if (currentUser) {
@@ -96,7 +128,7 @@ function renderUI() {
     userActionsDiv.innerHTML = '';
     if (currentUser) {
         userViewSection.classList.remove('hidden');
-        const userHTML = `<img src="${currentUser.profilePictureUrl || 'https://via.placeholder.com/60'}" alt="Profile Picture"> <span>Welcome, <strong>${currentUser.name}</strong> (${currentUser.role})</span>`;
+        const userHTML = `<img src="${avatarUrl(currentUser.profilePictureUrl, 60) || 'https://via.placeholder.com/60'}" alt="Profile Picture"> <span>Welcome, <strong>${currentUser.name}</strong> (${currentUser.role})</span>`;
         userInfoDiv.innerHTML = userHTML;
         const logoutButton = document.createElement('button');
         logoutButton.innerText = 'Logout';
@@ -129,10 +161,16 @@ function renderUI() {
 }
 
 // --- DATA LOADING FUNCTIONS ---
+async function handleBookSearch(event) {
+    event.preventDefault();
+    await loadPublicBooks();
+}
+
 async function loadPublicBooks() {
     try {
-        const response = await fetch('/api/books');
-        const books = await response.json();
+        const query = bookSearchInput.value.trim();
+        const url = query ? `/api/books/search?q=${encodeURIComponent(query)}` : '/api/books';
+        const books = await fetchJson(url, fetch);
         let tableHTML = `<table><thead><tr><th>Title</th><th>Publisher</th><th>Action</th></tr></thead><tbody>`;
         books.forEach(book => {
             let actionCell = 'Login to request';
@@ -192,7 +230,7 @@ async function loadMyRequests() {
             tableHTML += '<tr><td colspan="3">You have no book requests.</td></tr>';
         } else {
             requests.forEach(req => {
-                tableHTML += `<tr><td>${req.book.title}</td><td>${req.requestDate}</td><td class="status-${req.status.toLowerCase()}">${req.status}</td></tr>`;
+                tableHTML += `<tr><td>${req.bookTitle}</td><td>${req.requestDate}</td><td class="status-${req.status.toLowerCase()}">${req.status}</td></tr>`;
             });
         }
         tableHTML += '</tbody></table>';
@@ -205,10 +243,9 @@ async function loadMyRequests() {
 // --- PERSONNEL/ADMIN-SPECIFIC FUNCTIONS ---
 async function loadPendingRequests() {
     try {
-        const response = await apiFetch('/api/requests');
-        const requests = await response.json();
+        const response = await apiFetch('/api/requests?status=PENDING');
+        const pendingRequests = await response.json();
         let tableHTML = '<table><thead><tr><th>User</th><th>Book</th><th>Request Date</th><th>Status</th><th>Actions</th></tr></thead><tbody>';
-        const pendingRequests = requests.filter(r => r.status === 'PENDING');
 
         if (pendingRequests.length === 0) {
             tableHTML += '<tr><td colspan="5">No pending requests.</td></tr>';
@@ -216,8 +253,8 @@ async function loadPendingRequests() {
             pendingRequests.forEach(req => {
                 tableHTML += `
                     <tr>
-                        <td>${req.requestingUser.name}</td>
-                        <td>${req.book.title}</td>
+                        <td>${req.requesterName}</td>
+                        <td>${req.bookTitle}</td>
                         <td>${req.requestDate}</td>
                         <td>${req.status}</td>
                         <td class="action-buttons">
@@ -259,7 +296,7 @@ async function loadUsersForAdmin() {
         const users = await response.json();
         let tableHTML = `<table><thead><tr><th>Picture</th><th>Name</th><th>Email</th><th>Role</th><th>Actions</th></tr></thead><tbody>`;
         users.forEach(user => {
-            const profilePicUrl = user.profilePictureUrl || 'https://via.placeholder.com/40';
+            const profilePicUrl = avatarUrl(user.profilePictureUrl, 40) || 'https://via.placeholder.com/40';
             const roles = ['MEMBER', 'PERSONNEL', 'ADMIN'];
             let options = roles.map(r => `<option value="${r}" ${user.role === r ? 'selected' : ''}>${r}</option>`).join('');
             tableHTML += `
@@ -330,8 +367,7 @@ async function handleProfilePictureUpload(event) {
 
 async function loadAdminBooks() {
     try {
-        const response = await apiFetch('/api/books');
-        const books = await response.json();
+        const books = await fetchJson('/api/books');
         let tableHTML = `<table><thead><tr><th>ID</th><th>Title</th><th>Publisher</th><th>Actions</th></tr></thead><tbody>`;
         books.forEach(book => {
             tableHTML += `
@@ -354,8 +390,7 @@ async function loadAdminBooks() {
 
 async function loadAdminMembers() {
     try {
-        const response = await apiFetch('/api/members');
-        const members = await response.json();
+        const members = await fetchJson('/api/members');
         let tableHTML = `<table><thead><tr><th>ID</th><th>Name</th><th>Address</th><th>Telephone</th><th>Actions</th></tr></thead><tbody>`;
         members.forEach(member => {
             tableHTML += `
@@ -404,9 +439,7 @@ async function loadBorrowings() {
 
 async function populateIssueBookDropdowns() {
     try {
-        const [membersRes, booksRes] = await Promise.all([apiFetch('/api/members'), apiFetch('/api/books')]);
-        const members = await membersRes.json();
-        const books = await booksRes.json();
+        const [members, books] = await Promise.all([fetchJson('/api/members'), fetchJson('/api/books')]);
 
         const memberSelect = document.getElementById('issue-member-select');
         const bookSelect = document.getElementById('issue-book-select');
@@ -511,8 +544,7 @@ async function handleReturnBook(borrowingId) {
 
 async function openEditModal(type, id) {
     try {
-        const response = await apiFetch(`/api/${type}s/${id}`);
-        const data = await response.json();
+        const data = await fetchJson(`/api/${type}s/${id}`);
         editForm.dataset.type = type;
         editForm.dataset.id = id;
         let fieldsHtml = '';
@@ -0,0 +1,147 @@
+package com.library.librarymanagement.cache;
+
+import com.library.librarymanagement.config.RedisCacheConfig;
+import com.library.librarymanagement.dto.BorrowerDto;
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.model.Borrower;
+import com.library.librarymanagement.model.Member;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactBinaryRedisSerializerTests {
+
+    private final GenericJackson2JsonRedisSerializer json = RedisCacheConfig.jsonRedisSerializer();
+    private final CompactBinaryRedisSerializer serializer = new CompactBinaryRedisSerializer(0, json);
+
+    @Test
+    void roundTripsBorrowingWithItsMemberAndBook() {
+        Borrower borrower = borrower();
+
+        Borrower copy = (Borrower) serializer.deserialize(serializer.serialize(borrower));
+
+        assertThat(copy.getId()).isEqualTo(7L);
+        assertThat(copy.getMember().getName()).isEqualTo("Ada Lovelace");
+        assertThat(copy.getBook().getTitle()).isEqualTo("Dune");
+        assertThat(copy.getBook().getPublishDate()).isEqualTo(LocalDate.of(1965, 8, 1));
+        assertThat(copy.getDueDate()).isEqualTo(LocalDate.of(2024, 3, 15));
+        assertThat(copy.getReturnDate()).isNull();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void roundTripsOptionalsNullValuesAndDtos() {
+        BorrowerDto dto = new BorrowerDto();
+        dto.setId(3L);
+        dto.setBookTitle("Dune");
+        dto.setIssueDate(LocalDate.of(1969, 12, 31));
+
+        Optional<Object> present = (Optional<Object>) serializer.deserialize(serializer.serialize(Optional.of(dto)));
+        Optional<Object> empty = (Optional<Object>) serializer.deserialize(serializer.serialize(Optional.empty()));
+
+        assertThat(present).contains(dto);
+        assertThat(empty).isEmpty();
+        assertThat(serializer.deserialize(serializer.serialize(NullValue.INSTANCE))).isSameAs(NullValue.INSTANCE);
+    }
+
+    @Test
+    void isSmallerThanJsonAndCompressesLargeValues() {
+        Borrower borrower = borrower();
+        borrower.getBook().setTitle("A very long title ".repeat(40));
+
+        byte[] plain = serializer.serialize(borrower);
+        byte[] compressed = new CompactBinaryRedisSerializer(64, json).serialize(borrower);
+
+        assertThat(plain.length).isLessThan(json.serialize(borrower).length);
+        assertThat(compressed.length).isLessThan(plain.length);
+        assertThat(((Borrower) serializer.deserialize(compressed)).getBook().getTitle())
+                .isEqualTo(borrower.getBook().getTitle());
+    }
+
+    @Test
+    void readsEntriesWrittenAsJsonAndWritesUnknownTypesAsJson() {
+        Book book = new Book();
+        book.setId(1L);
+        book.setTitle("Dune");
+
+        assertThat(((Book) serializer.deserialize(json.serialize(book))).getTitle()).isEqualTo("Dune");
+        ArrayList<String> titles = new ArrayList<>(List.of("Dune", "Emma"));
+        assertThat(serializer.serialize(titles)).isEqualTo(json.serialize(titles));
+        assertThat(serializer.deserialize(serializer.serialize(titles))).isEqualTo(titles);
+    }
+
+    @Test
+    void writesEnvelopesInTheFormatOfTheirContent() {
+        Book book = new Book();
+        book.setId(1L);
+        book.setTitle("Dune");
+        CacheEnvelope envelope = new CacheEnvelope(book, 1_760_000_000_000L, 12);
+
+        byte[] bytes = serializer.serialize(envelope);
+        assertThat(bytes[0]).isEqualTo(CompactBinaryRedisSerializer.MAGIC);
+        CacheEnvelope copy = (CacheEnvelope) serializer.deserialize(bytes);
+        assertThat(copy.getExpiresAtMillis()).isEqualTo(1_760_000_000_000L);
+        assertThat(copy.getLoadMillis()).isEqualTo(12);
+        assertThat(((Book) copy.getValue()).getTitle()).isEqualTo("Dune");
+
+        CacheEnvelope titles = new CacheEnvelope(new ArrayList<>(List.of("Dune", "Emma")), 1_760_000_000_000L, 3);
+        assertThat(serializer.deserialize(serializer.serialize(titles))).isEqualTo(titles);
+    }
+
+    @Test
+    void decodesSessionLoginsOnlyWhenAskedAndWritesThemBackUnchanged() {
+        CompactBinaryRedisSerializer sessions = new CompactBinaryRedisSerializer(0, new JdkSerializationRedisSerializer());
+        SessionAttributeCodecs.all().forEach(sessions::register);
+        var authorities = AuthorityUtils.createAuthorityList("ROLE_ADMIN");
+        DefaultOAuth2User user = new DefaultOAuth2User(authorities, Map.of("sub", "42", "email", "ada@example.com", "locale", "en"), "sub");
+        byte[] stored = sessions.serialize(new SecurityContextImpl(new OAuth2AuthenticationToken(user, authorities, "google")));
+
+        LazySecurityContext context = (LazySecurityContext) sessions.deserialize(stored);
+        assertThat(context.encoded()).isNotNull();
+        assertThat(sessions.serialize(context)).isEqualTo(stored);
+
+        OAuth2AuthenticationToken token = (OAuth2AuthenticationToken) context.getAuthentication();
+        assertThat(context.encoded()).isNull();
+        assertThat(token.getAuthorizedClientRegistrationId()).isEqualTo("google");
+        assertThat(token.getName()).isEqualTo("42");
+        assertThat(token.getPrincipal().getAttributes()).containsOnly(Map.entry("sub", "42"), Map.entry("email", "ada@example.com"));
+        assertThat(token.getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_ADMIN");
+        assertThat(sessions.deserialize(sessions.serialize(1_700_000_000_000L))).isEqualTo(1_700_000_000_000L);
+        assertThat(sessions.deserialize(sessions.serialize(1800))).isEqualTo(1800);
+    }
+
+    private static Borrower borrower() {
+        Member member = new Member();
+        member.setId(11L);
+        member.setName("Ada Lovelace");
+        member.setAddress("12 St James's Square");
+
+        Book book = new Book();
+        book.setId(22L);
+        book.setTitle("Dune");
+        book.setPublisher("Chilton");
+        book.setPublishDate(LocalDate.of(1965, 8, 1));
+
+        Borrower borrower = new Borrower();
+        borrower.setId(7L);
+        borrower.setMember(member);
+        borrower.setBook(book);
+        borrower.setIssueDate(LocalDate.of(2024, 3, 1));
+        borrower.setDueDate(LocalDate.of(2024, 3, 15));
+        return borrower;
+    }
+}
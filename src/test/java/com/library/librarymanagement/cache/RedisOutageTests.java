@@ -0,0 +1,270 @@
+package com.library.librarymanagement.cache;
+
+import com.library.librarymanagement.config.RedisCacheConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+import org.springframework.data.redis.serializer.SerializationException;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The caches in front of a Redis (embedded) that is killed and restarted under load, and in
+ * front of an in-memory stand-in that fails on demand.
+ */
+class RedisOutageTests {
+
+    private final RedisResilienceProperties resilienceProperties = new RedisResilienceProperties();
+    private RedisServer redis;
+    private LettuceConnectionFactory connectionFactory;
+    private TwoTierCacheManager cacheManager;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (cacheManager != null) {
+            cacheManager.close();
+        }
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+        if (redis != null && redis.isActive()) {
+            redis.stop();
+        }
+    }
+
+    @Test
+    void servesReadsFromTheDatabaseWhileRedisIsDownAndReturnsToRedisWhenItIsBack() throws Exception {
+        int port = freePort();
+        redis = new RedisServer(port);
+        redis.start();
+        resilienceProperties.setFailureThreshold(3);
+        resilienceProperties.setSlowCallThreshold(Duration.ofSeconds(1));
+        resilienceProperties.setOpenDuration(Duration.ofMillis(200));
+        Cache books = cacheManager(port).getCache("books");
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new TwoTierCacheMetrics(cacheManager).bindTo(registry);
+
+        AtomicInteger databaseLoads = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        AtomicLong slowestReadMillis = new AtomicLong();
+        AtomicBoolean reading = new AtomicBoolean(true);
+        ExecutorService readers = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 4; i++) {
+            readers.execute(() -> {
+                for (long n = 0; reading.get(); n++) {
+                    long id = n % 20;
+                    long started = System.nanoTime();
+                    try {
+                        assertThat(books.get(id, () -> {
+                            databaseLoads.incrementAndGet();
+                            return "Book " + id;
+                        })).isEqualTo("Book " + id);
+                    } catch (RuntimeException | AssertionError e) {
+                        errors.incrementAndGet();
+                    }
+                    slowestReadMillis.accumulateAndGet((System.nanoTime() - started) / 1_000_000, Math::max);
+                }
+            });
+        }
+        try {
+            TwoTierCache twoTier = (TwoTierCache) books;
+            awaitCondition(() -> twoTier.getRemoteStatistics().getHits() > 100);
+
+            redis.stop();
+            awaitCondition(() -> cacheManager.getCircuitBreaker().getState() != RedisCircuitBreaker.State.CLOSED);
+            assertThat(registry.get("cache.redis.breaker.state").tag("state", "closed").gauge().value()).isZero();
+            int loadsBeforeOutage = databaseLoads.get();
+            slowestReadMillis.set(0);
+            Thread.sleep(500);
+            assertThat(databaseLoads.get()).isGreaterThan(loadsBeforeOutage + 20);
+            assertThat(slowestReadMillis.get()).isLessThan(1_000);
+
+            redis = new RedisServer(port);
+            redis.start();
+            long hitsBeforeRecovery = twoTier.getRemoteStatistics().getHits();
+            awaitCondition(() -> twoTier.getRemoteStatistics().getHits() > hitsBeforeRecovery + 100);
+            assertThat(cacheManager.getCircuitBreaker().getState()).isEqualTo(RedisCircuitBreaker.State.CLOSED);
+            assertThat(registry.get("cache.redis.breaker.state").tag("state", "closed").gauge().value()).isEqualTo(1);
+        } finally {
+            reading.set(false);
+            readers.shutdown();
+            assertThat(readers.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        }
+        assertThat(errors).hasValue(0);
+    }
+
+    @Test
+    void skipsAFailingRedisAndClearsWhatItMissedBeforeReadingItAgain() throws Exception {
+        resilienceProperties.setFailureThreshold(3);
+        resilienceProperties.setOpenDuration(Duration.ofMillis(100));
+        RedisCircuitBreaker breaker = new RedisCircuitBreaker(resilienceProperties);
+        FlakyCache redisStandIn = new FlakyCache();
+        CircuitBreakingCache books = new CircuitBreakingCache(redisStandIn, breaker);
+        books.put(1L, "Dune");
+
+        redisStandIn.down = true;
+        books.evict(1L);
+        assertThat(books.isDirty()).isTrue();
+        for (int i = 0; i < 3; i++) {
+            assertThat(books.get(2L)).isNull();
+        }
+        assertThat(breaker.getState()).isEqualTo(RedisCircuitBreaker.State.OPEN);
+        int callsWhileOpen = redisStandIn.calls.get();
+        assertThat(books.get(2L)).isNull();
+        assertThat(redisStandIn.calls).hasValue(callsWhileOpen);
+
+        redisStandIn.down = false;
+        Thread.sleep(150);
+        // the evict never reached Redis: the first read clears the cache instead of returning the old title
+        assertThat(books.get(1L)).isNull();
+        assertThat(breaker.getState()).isEqualTo(RedisCircuitBreaker.State.CLOSED);
+        assertThat(books.isDirty()).isFalse();
+        assertThat(redisStandIn.getNativeCache()).isEmpty();
+
+        books.put(1L, "Dune Messiah");
+        assertThat(books.get(1L).get()).isEqualTo("Dune Messiah");
+    }
+
+    @Test
+    void aTrialThatThrowsSomethingElseStillSettlesTheBreaker() throws Exception {
+        resilienceProperties.setFailureThreshold(1);
+        resilienceProperties.setOpenDuration(Duration.ofMillis(50));
+        RedisCircuitBreaker breaker = new RedisCircuitBreaker(resilienceProperties);
+        breaker.run(() -> {
+            throw new RedisConnectionFailureException("Redis is down");
+        });
+        assertThat(breaker.getState()).isEqualTo(RedisCircuitBreaker.State.OPEN);
+
+        Thread.sleep(100);
+        assertThatThrownBy(() -> breaker.call(() -> {
+            throw new SerializationException("Cannot deserialize");
+        }, () -> null)).isInstanceOf(SerializationException.class);
+        assertThat(breaker.getState()).isEqualTo(RedisCircuitBreaker.State.OPEN);
+
+        Thread.sleep(100);
+        assertThat(breaker.call(() -> "Dune", () -> "fallback")).isEqualTo("Dune");
+        assertThat(breaker.getState()).isEqualTo(RedisCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void aDroppedLoadLeavesNothingToClear() {
+        resilienceProperties.setFailureThreshold(100);
+        FlakyCache redisStandIn = new FlakyCache();
+        redisStandIn.down = true;
+        CircuitBreakingCache books = new CircuitBreakingCache(redisStandIn, new RedisCircuitBreaker(resilienceProperties));
+
+        assertThat(books.get(1L, () -> "Dune")).isEqualTo("Dune");
+        books.putLoaded(2L, "Emma");
+        assertThat(books.isDirty()).isFalse();
+
+        books.put(1L, "Dune Messiah");
+        assertThat(books.isDirty()).isTrue();
+    }
+
+    private TwoTierCacheManager cacheManager(int port) {
+        RedisCacheConfig config = new RedisCacheConfig();
+        LettuceClientConfiguration.LettuceClientConfigurationBuilder client = LettuceClientConfiguration.builder();
+        config.redisTimeouts(new RedisProperties(), resilienceProperties).customize(client);
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port), client.build());
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+
+        CacheExpiryProperties expiryProperties = new CacheExpiryProperties();
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(config.cacheConfiguration(expiryProperties).serializeValuesWith(SerializationPair.fromSerializer(
+                        new CompactBinaryRedisSerializer(0, RedisCacheConfig.jsonRedisSerializer()))))
+                .initialCacheNames(Set.of("books"))
+                .build();
+        redisCacheManager.afterPropertiesSet();
+
+        // a near-cache that forgets at once, so every read goes to Redis
+        LocalCacheProperties localCacheProperties = new LocalCacheProperties();
+        localCacheProperties.setTtl(Duration.ofNanos(1));
+        StringRedisTemplate redisTemplate = new StringRedisTemplate(connectionFactory);
+        cacheManager = new TwoTierCacheManager(redisCacheManager, localCacheProperties, expiryProperties,
+                new RedisCacheInvalidationBus(redisTemplate), new RedisCacheLoadLock(redisTemplate),
+                new RedisCircuitBreaker(resilienceProperties));
+        return cacheManager;
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met in time").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    /**
+     * An in-memory cache that fails like an unreachable Redis while {@code down}.
+     */
+    private static class FlakyCache extends ConcurrentMapCache {
+        private volatile boolean down;
+        private final AtomicInteger calls = new AtomicInteger();
+
+        FlakyCache() {
+            super("books");
+        }
+
+        @Override
+        protected Object lookup(Object key) {
+            check();
+            return super.lookup(key);
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            check();
+            super.put(key, value);
+        }
+
+        @Override
+        public void evict(Object key) {
+            check();
+            super.evict(key);
+        }
+
+        @Override
+        public void clear() {
+            check();
+            super.clear();
+        }
+
+        private void check() {
+            calls.incrementAndGet();
+            if (down) {
+                throw new RedisConnectionFailureException("Redis is down");
+            }
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package com.library.librarymanagement.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two application nodes sharing one in-memory stand-in for Redis, with invalidations
+ * delivered synchronously from one node's near-cache to the other's.
+ */
+class TwoTierCacheTests {
+
+    private final LocalCacheProperties properties = new LocalCacheProperties();
+    private final CacheExpiryProperties expiryProperties = new CacheExpiryProperties();
+    private final SharedLock sharedLock = new SharedLock();
+    private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor();
+    private ConcurrentMapCache sharedRemote;
+    private TwoTierCache nodeA;
+    private TwoTierCache nodeB;
+
+    @BeforeEach
+    void setUp() {
+        properties.setMaximumSize(100);
+        properties.setTtl(Duration.ofMinutes(1));
+        expiryProperties.setLockLease(Duration.ofSeconds(10));
+
+        sharedRemote = new ConcurrentMapCache("books");
+        nodeA = new TwoTierCache(sharedRemote, properties, expiryProperties, (cacheName, key) -> deliver(nodeB, key),
+                sharedLock, refreshExecutor);
+        nodeB = new TwoTierCache(sharedRemote, properties, expiryProperties, (cacheName, key) -> deliver(nodeA, key),
+                sharedLock, refreshExecutor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    @Test
+    void servesRepeatedReadsFromTheNearCache() {
+        nodeA.put(1L, "Dune");
+
+        assertThat(nodeB.get(1L).get()).isEqualTo("Dune");
+        assertThat(nodeB.get(1L).get()).isEqualTo("Dune");
+
+        assertThat(nodeB.getRemoteStatistics().getHits()).isEqualTo(1);
+        assertThat(nodeB.getLocalStatistics().getHits()).isEqualTo(1);
+        assertThat(nodeB.getLocalStatistics().getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    void writesOnOneNodeInvalidateTheOtherNodesNearCache() {
+        nodeA.put(1L, "Dune");
+        assertThat(nodeB.get(1L).get()).isEqualTo("Dune");
+
+        nodeA.put(1L, "Dune Messiah");
+        assertThat(nodeB.get(1L).get()).isEqualTo("Dune Messiah");
+
+        nodeA.evict(1L);
+        assertThat(nodeB.get(1L)).isNull();
+        assertThat(nodeB.getRemoteStatistics().getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    void clearOnOneNodeEmptiesEveryTier() {
+        nodeA.put(1L, "Dune");
+        nodeA.put(2L, "Emma");
+        nodeB.get(1L);
+
+        nodeB.clear();
+
+        assertThat(nodeA.get(1L)).isNull();
+        assertThat(nodeA.get(2L)).isNull();
+        assertThat(sharedRemote.getNativeCache()).isEmpty();
+    }
+
+    @Test
+    void loadsMissingValuesOnceThroughBothTiers() {
+        assertThat(nodeA.get(3L, () -> "Ulysses")).isEqualTo("Ulysses");
+        assertThat(nodeB.get(3L, () -> "never loaded")).isEqualTo("Ulysses");
+    }
+
+    @Test
+    void concurrentMissesOnOneNodeShareOneLoad() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        Callable<String> loader = () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            release.await();
+            return "Dune";
+        };
+
+        ExecutorService readers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> reads = new ArrayList<>();
+            reads.add(readers.submit(() -> nodeA.get(1L, loader)));
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+            for (int i = 0; i < 7; i++) {
+                reads.add(readers.submit(() -> nodeA.get(1L, loader)));
+            }
+            awaitCondition(() -> nodeA.getCoalescedLoads() == 7);
+            release.countDown();
+
+            for (Future<String> read : reads) {
+                assertThat(read.get(5, TimeUnit.SECONDS)).isEqualTo("Dune");
+            }
+        } finally {
+            readers.shutdownNow();
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(nodeA.getMissLoads()).isEqualTo(1);
+    }
+
+    @Test
+    void aNodeWaitsForTheValueAnotherNodeIsLoading() throws Exception {
+        // node A is loading the key
+        assertThat(sharedLock.tryLock("books", "1", "node-a", Duration.ofSeconds(10))).isTrue();
+
+        ExecutorService reader = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> read = reader.submit(() -> nodeB.get(1L, () -> "loaded twice"));
+            Thread.sleep(100);
+            assertThat(read).isNotDone();
+
+            sharedRemote.put(1L, new CacheEnvelope("Dune", System.currentTimeMillis() + 60_000, 5));
+            assertThat(read.get(5, TimeUnit.SECONDS)).isEqualTo("Dune");
+        } finally {
+            reader.shutdownNow();
+        }
+        assertThat(nodeB.getMissLoads()).isZero();
+    }
+
+    @Test
+    void refreshesAnEntryInTheBackgroundBeforeItExpires() throws Exception {
+        expiryProperties.setEarlyRefreshBeta(1_000);
+        // a minute from expiry, after a load so slow that any read refreshes it
+        sharedRemote.put(1L, new CacheEnvelope("Dune", System.currentTimeMillis() + 60_000, 1_000_000));
+
+        assertThat(nodeA.get(1L, () -> "Dune, revised")).isEqualTo("Dune");
+
+        awaitCondition(() -> nodeA.getEarlyRefreshes() == 1);
+        assertThat(nodeB.get(1L).get()).isEqualTo("Dune, revised");
+        CacheEnvelope refreshed = (CacheEnvelope) sharedRemote.get(1L).get();
+        assertThat(refreshed.getExpiresAtMillis()).isGreaterThan(System.currentTimeMillis() + 60_000);
+    }
+
+    @Test
+    void aRefreshDoesNotOverwriteAValuePutWhileItLoaded() throws Exception {
+        expiryProperties.setEarlyRefreshBeta(1_000);
+        sharedRemote.put(1L, new CacheEnvelope("Dune", System.currentTimeMillis() + 60_000, 1_000_000));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        nodeA.get(1L, () -> {
+            loading.countDown();
+            release.await();
+            // read from the database before the update below committed
+            return "Dune";
+        });
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        nodeB.put(1L, "Dune, revised");
+        release.countDown();
+
+        awaitCondition(() -> nodeA.getDiscardedLoads() == 1);
+        assertThat(nodeA.get(1L).get()).isEqualTo("Dune, revised");
+        assertThat(((CacheEnvelope) sharedRemote.get(1L).get()).getValue()).isEqualTo("Dune, revised");
+    }
+
+    @Test
+    void aMissLoadDoesNotStoreOverAnEviction() {
+        assertThat(nodeA.get(1L, () -> {
+            // another node updated and evicted the entry meanwhile
+            nodeB.evict(1L);
+            return "Dune";
+        })).isEqualTo("Dune");
+
+        assertThat(sharedRemote.get(1L)).isNull();
+        assertThat(nodeA.getDiscardedLoads()).isEqualTo(1);
+    }
+
+    @Test
+    void announcesWritesButNotLoads() throws Exception {
+        List<Object> published = new ArrayList<>();
+        TwoTierCache node = new TwoTierCache(sharedRemote, properties, expiryProperties,
+                (cacheName, key) -> published.add(key), sharedLock, refreshExecutor);
+        expiryProperties.setEarlyRefreshBeta(1_000);
+        // a minute from expiry, after a load so slow that any read refreshes it
+        sharedRemote.put(2L, new CacheEnvelope("Emma", System.currentTimeMillis() + 60_000, 1_000_000));
+
+        node.get(1L, () -> "Dune");
+        node.get(2L, () -> "Emma, revised");
+        awaitCondition(() -> node.getEarlyRefreshes() == 1);
+        assertThat(published).isEmpty();
+
+        node.put(1L, "Dune Messiah");
+        node.evict(2L);
+        assertThat(published).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void spreadsExpiriesAroundTheCachesTtl() {
+        expiryProperties.setTtls(Map.of("books", Duration.ofMinutes(30)));
+        expiryProperties.setJitter(0.1);
+
+        Set<Long> expiries = new HashSet<>();
+        long before = System.currentTimeMillis();
+        for (long id = 0; id < 50; id++) {
+            nodeA.put(id, "Book " + id);
+            expiries.add(((CacheEnvelope) sharedRemote.get(id).get()).getExpiresAtMillis() - before);
+        }
+
+        assertThat(expiries).hasSizeGreaterThan(1)
+                .allSatisfy(ttl -> assertThat(ttl).isBetween(27 * 60_000L, 33 * 60_000L + 1_000));
+    }
+
+    @Test
+    void readsEntriesWrittenBeforeValuesWereEnveloped() {
+        sharedRemote.put(1L, "Dune");
+
+        assertThat(nodeA.get(1L, () -> "never loaded")).isEqualTo("Dune");
+        assertThat(nodeA.getEarlyRefreshes()).isZero();
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met in time").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * The in-memory stand-in for the Redis load lock shared by both nodes.
+     */
+    private static class SharedLock implements CacheLoadLock {
+        private final ConcurrentMap<String, String> holders = new ConcurrentHashMap<>();
+
+        @Override
+        public boolean tryLock(String cacheName, String key, String token, Duration leaseTime) {
+            return holders.putIfAbsent(cacheName + ":" + key, token) == null;
+        }
+
+        @Override
+        public void unlock(String cacheName, String key, String token) {
+            holders.remove(cacheName + ":" + key, token);
+        }
+    }
+
+    private static void deliver(TwoTierCache target, Object key) {
+        if (key == null) {
+            target.invalidateLocalAll();
+        } else {
+            target.invalidateLocal(TwoTierCache.localKey(key));
+        }
+    }
+
+    @Test
+    void aTransactionAwareManagerWritesWhenTheTransactionCommits() {
+        TwoTierCacheManager manager = new TwoTierCacheManager(new ConcurrentMapCacheManager("users"), properties,
+                expiryProperties, (cacheName, key) -> { }, sharedLock, new RedisCircuitBreaker(new RedisResilienceProperties()));
+        manager.setTransactionAware(true);
+        Cache users = manager.getCache("users");
+        users.put("ada@example.com", "MEMBER");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            users.evict("ada@example.com");
+            users.put("grace@example.com", "ADMIN");
+            assertThat(users.get("ada@example.com").get()).isEqualTo("MEMBER");
+            assertThat(users.get("grace@example.com")).isNull();
+
+            TransactionSynchronizationUtils.triggerAfterCommit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertThat(users.get("ada@example.com")).isNull();
+        assertThat(users.get("grace@example.com").get()).isEqualTo("ADMIN");
+        manager.close();
+    }
+
+    @Test
+    void publishesTierStatisticsAsCacheMeters() {
+        ConcurrentMapCacheManager remote = new ConcurrentMapCacheManager();
+        remote.getCache("books");
+        TwoTierCacheManager manager = new TwoTierCacheManager(remote, new LocalCacheProperties(), new CacheExpiryProperties(),
+                (cacheName, key) -> { }, sharedLock, new RedisCircuitBreaker(new RedisResilienceProperties()));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new TwoTierCacheMetrics(manager).bindTo(registry);
+
+        Cache books = manager.getCache("books");
+        books.put(1L, "Dune");
+        books.get(1L);
+        books.get(2L);
+
+        assertThat(registry.get("cache.gets").tags("cache", "books", "tier", "local", "result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("cache.gets").tags("cache", "books", "tier", "remote", "result", "miss")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("cache.puts").tags("cache", "books", "tier", "remote")
+                .functionCounter().count()).isEqualTo(1);
+
+        manager.getCache("members");
+        assertThat(registry.find("cache.size").tags("cache", "members").gauge()).isNotNull();
+        manager.close();
+    }
+}
@@ -0,0 +1,140 @@
+package com.library.librarymanagement.config;
+
+import com.library.librarymanagement.dto.BookDto;
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.repository.BookRepository;
+import com.library.librarymanagement.service.BookSearchIndex;
+import com.library.librarymanagement.service.BookService;
+import com.library.librarymanagement.service.BorrowerService;
+import com.library.librarymanagement.service.BorrowingView;
+import com.library.librarymanagement.service.DueDateWheel;
+import com.library.librarymanagement.service.ModificationCounters;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A primary and a replica as two separate in-memory H2 databases. The replica is not fed by
+ * replication: the tests put rows into it directly, so a read shows which database it hit.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=" + ReplicaRoutingTests.PRIMARY_URL,
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "datasource.replicas.urls=" + ReplicaRoutingTests.REPLICA_URL,
+        "datasource.replicas.max-lag=PT5S",
+        "datasource.replicas.lag-check-interval=PT1H"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ReplicaRoutingConfig.class, ReplicaProperties.class, SimpleMeterRegistry.class, BookService.class,
+        BookSearchIndex.class, PaginationProperties.class, ModificationCounters.class, BorrowerService.class,
+        DueDateWheel.class, OverdueProperties.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReplicaRoutingTests {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    @MockitoBean
+    private BorrowingView borrowingView;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private ReplicaRoutingDataSource routing;
+
+    @Autowired
+    private HikariDataSource primaryDataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private JdbcTemplate primary;
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @BeforeEach
+    void setUp() {
+        primary = new JdbcTemplate(primaryDataSource);
+        bookRepository.deleteAll();
+        replica.execute("DROP ALL OBJECTS");
+        for (String statement : primary.queryForList("SCRIPT NODATA", String.class)) {
+            if (!statement.startsWith("--")) {
+                replica.execute(statement);
+            }
+        }
+        replica.update("INSERT INTO books (id, title, total_copies, available_copies, version) VALUES (9001, 'Replica copy', 1, 1, 0)");
+    }
+
+    @Test
+    void readOnlyTransactionsReadTheReplicaAndWritesGoToThePrimary() {
+        Book dune = new Book();
+        dune.setTitle("Dune");
+        bookService.saveBook(dune);
+        assertThat(primary.queryForList("SELECT title FROM books", String.class)).containsExactly("Dune");
+        assertThat(replica.queryForList("SELECT title FROM books", String.class)).containsExactly("Replica copy");
+
+        // before the replica has shown it is current, reads stay on the primary
+        routing.checkLag();
+        assertThat(titles(bookService.findAllBooks())).containsExactly("Dune");
+
+        replicateHeartbeat();
+        routing.checkLag();
+        assertThat(routing.usableReplicas()).isEqualTo(1);
+        assertThat(titles(bookService.findAllBooks())).containsExactly("Replica copy");
+        assertThat(titles(bookService.findAllBooksVersioned().getValue())).containsExactly("Replica copy");
+
+        List<String> inReadWriteTransaction = new TransactionTemplate(transactionManager)
+                .execute(status -> bookRepository.findAll().stream().map(Book::getTitle).toList());
+        assertThat(inReadWriteTransaction).containsExactly("Dune");
+        assertThat(titles(ReadRouting.onPrimary(bookService::findAllBooks))).containsExactly("Dune");
+        assertThat(bookService.findBookById(dune.getId()).getTitle()).isEqualTo("Dune");
+    }
+
+    @Test
+    void aReplicaFallingBehindIsSkippedUntilItCatchesUp() {
+        routing.checkLag();
+        replicateHeartbeat();
+        routing.checkLag();
+        assertThat(titles(bookService.findAllBooks())).containsExactly("Replica copy");
+
+        // the primary is a minute of beats ahead of what the replica has applied
+        primary.update("UPDATE replication_heartbeat SET beat_millis = beat_millis + 60000");
+        routing.checkLag();
+        assertThat(routing.usableReplicas()).isZero();
+        assertThat(titles(bookService.findAllBooks())).isEmpty();
+
+        replicateHeartbeat();
+        routing.checkLag();
+        assertThat(titles(bookService.findAllBooks())).containsExactly("Replica copy");
+    }
+
+    private void replicateHeartbeat() {
+        Long beat = primary.queryForObject("SELECT beat_millis FROM replication_heartbeat WHERE id = 1", Long.class);
+        replica.update("DELETE FROM replication_heartbeat");
+        replica.update("INSERT INTO replication_heartbeat (id, beat_millis) VALUES (1, ?)", beat);
+    }
+
+    private static List<String> titles(List<BookDto> books) {
+        return books.stream().map(BookDto::getTitle).toList();
+    }
+}
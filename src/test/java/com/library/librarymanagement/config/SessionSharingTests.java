@@ -0,0 +1,196 @@
+package com.library.librarymanagement.config;
+
+import com.library.librarymanagement.LibraryManagementApplication;
+import com.library.librarymanagement.model.User;
+import com.library.librarymanagement.repository.UserRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.core.oidc.user.DefaultOidcUser;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two application nodes on one Redis (embedded) and one database, with sessions kept in
+ * Redis: a login made on one node is honoured by the other, and logging out on either ends it
+ * on both.
+ */
+class SessionSharingTests {
+
+    private static final String EMAIL = "reader@example.com";
+
+    @TempDir
+    static Path uploadDir;
+
+    private static RedisServer redis;
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeAll
+    static void startNodes() throws IOException {
+        int redisPort = freePort();
+        redis = new RedisServer(redisPort);
+        redis.start();
+        nodeA = startNode(redisPort);
+        nodeB = startNode(redisPort);
+
+        User user = new User();
+        user.setEmail(EMAIL);
+        user.setName("Reader");
+        user.setRole(User.Role.MEMBER);
+        nodeA.getBean(UserRepository.class).save(user);
+    }
+
+    @AfterAll
+    static void stopNodes() throws IOException {
+        try {
+            if (nodeA != null) {
+                nodeA.close();
+            }
+            if (nodeB != null) {
+                nodeB.close();
+            }
+        } finally {
+            redis.stop();
+        }
+    }
+
+    @Test
+    void requestsAlternatingBetweenNodesShareOneLogin() throws Exception {
+        Session session = login(nodeA);
+
+        for (int i = 0; i < 4; i++) {
+            HttpResponse<String> me = send(i % 2 == 0 ? nodeA : nodeB, "GET", "/api/users/me", session);
+            assertThat(me.statusCode()).isEqualTo(200);
+            assertThat(me.body()).contains(EMAIL);
+        }
+
+        assertThat(send(nodeB, "POST", "/logout", session).statusCode()).isEqualTo(302);
+        HttpResponse<String> afterLogout = send(nodeA, "GET", "/api/users/me", session);
+        assertThat(afterLogout.statusCode()).isEqualTo(302);
+        assertThat(afterLogout.headers().firstValue("Location")).hasValueSatisfying(location -> assertThat(location).contains("/oauth2/authorization/"));
+    }
+
+    @Test
+    void storesTheLoginAsItsProfileClaims() throws Exception {
+        Session session = login(nodeA);
+        assertThat(send(nodeB, "GET", "/api/users/me", session).statusCode()).isEqualTo(200);
+
+        byte[] stored;
+        try (RedisConnection connection = nodeA.getBean(RedisConnectionFactory.class).getConnection()) {
+            stored = connection.hashCommands().hGet(("spring:session:sessions:" + session.getId()).getBytes(StandardCharsets.UTF_8),
+                    ("sessionAttr:" + HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY).getBytes(StandardCharsets.UTF_8));
+        }
+        byte[] javaSerialized = new JdkSerializationRedisSerializer().serialize(securityContext());
+        assertThat(stored).isNotNull();
+        assertThat(stored.length).isLessThan(javaSerialized.length / 10);
+    }
+
+    @Test
+    void keepsSessionsInTheNodeUnlessRedisIsAskedFor() {
+        WebApplicationContextRunner runner = new WebApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(RedisAutoConfiguration.class))
+                .withUserConfiguration(SessionConfig.class);
+
+        runner.run(context -> assertThat(context).doesNotHaveBean(SessionRepository.class));
+        runner.withPropertyValues("spring.session.store-type=redis", "spring.session.timeout=5m")
+                .run(context -> assertThat(context.getBean(SessionRepository.class).createSession().getMaxInactiveInterval())
+                        .isEqualTo(Duration.ofMinutes(5)));
+    }
+
+    /**
+     * A session holding what a completed OpenID Connect login leaves in it.
+     */
+    @SuppressWarnings("unchecked")
+    private static Session login(ConfigurableApplicationContext node) {
+        SessionRepository<Session> sessions = node.getBean(SessionRepository.class);
+        Session session = sessions.createSession();
+        session.setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY, securityContext());
+        sessions.save(session);
+        return session;
+    }
+
+    private static SecurityContextImpl securityContext() {
+        Instant now = Instant.now();
+        OidcIdToken idToken = OidcIdToken.withTokenValue("eyJhbGciOiJSUzI1NiJ9." + "x".repeat(800))
+                .subject("104857600000000000001")
+                .issuer("https://accounts.google.com")
+                .audience(List.of("library-client"))
+                .issuedAt(now)
+                .expiresAt(now.plusSeconds(3600))
+                .claim("email", EMAIL)
+                .claim("email_verified", true)
+                .claim("name", "Reader")
+                .claim("picture", "https://example.com/reader.png")
+                .build();
+        var authorities = AuthorityUtils.createAuthorityList("ROLE_MEMBER");
+        DefaultOidcUser user = new DefaultOidcUser(authorities, idToken);
+        return new SecurityContextImpl(new OAuth2AuthenticationToken(user, authorities, "google"));
+    }
+
+    private HttpResponse<String> send(ConfigurableApplicationContext node, String method, String path, Session session)
+            throws IOException, InterruptedException {
+        String port = node.getEnvironment().getRequiredProperty("local.server.port");
+        String cookie = Base64.getEncoder().encodeToString(session.getId().getBytes(StandardCharsets.UTF_8));
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Cookie", "SESSION=" + cookie)
+                .method(method, HttpRequest.BodyPublishers.noBody())
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static ConfigurableApplicationContext startNode(int redisPort) {
+        return new SpringApplicationBuilder(LibraryManagementApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:sessions;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.show-sql=false",
+                "--spring.data.redis.host=localhost",
+                "--spring.data.redis.port=" + redisPort,
+                "--spring.session.store-type=redis",
+                "--spring.security.oauth2.client.registration.google.client-id=test",
+                "--spring.security.oauth2.client.registration.google.client-secret=test",
+                "--file.upload-dir=" + uploadDir,
+                "--logging.level.root=WARN");
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.library.librarymanagement.controller;
+
+import com.library.librarymanagement.config.OverdueProperties;
+import com.library.librarymanagement.config.PaginationProperties;
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.repository.BookRepository;
+import com.library.librarymanagement.service.BookSearchIndex;
+import com.library.librarymanagement.service.BookService;
+import com.library.librarymanagement.service.BorrowerService;
+import com.library.librarymanagement.service.BorrowingView;
+import com.library.librarymanagement.service.DueDateWheel;
+import com.library.librarymanagement.service.ModificationCounters;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({BookService.class, BookSearchIndex.class, PaginationProperties.class, ModificationCounters.class,
+        BorrowerService.class, DueDateWheel.class, OverdueProperties.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ConditionalGetTests {
+
+    @MockitoBean
+    private BorrowingView borrowingView;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private MockMvc mockMvc;
+    private Book book;
+
+    @BeforeEach
+    void setUp() {
+        bookRepository.deleteAll();
+        mockMvc = MockMvcBuilders.standaloneSetup(new BookController(bookService, null, null)).build();
+        Book dune = new Book();
+        dune.setTitle("Dune");
+        book = bookService.saveBook(dune);
+    }
+
+    @Test
+    void aBookIsRevalidatedByItsVersion() throws Exception {
+        MockHttpServletResponse first = perform("/api/books/" + book.getId(), null);
+        String etag = first.getHeader(HttpHeaders.ETAG);
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(etag).isEqualTo("\"book-" + book.getId() + "-v0\"");
+        assertThat(first.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("no-cache, private");
+
+        MockHttpServletResponse unchanged = perform("/api/books/" + book.getId(), etag);
+        assertThat(unchanged.getStatus()).isEqualTo(304);
+        assertThat(unchanged.getContentAsByteArray()).isEmpty();
+
+        Book edit = new Book();
+        edit.setTitle("Dune Messiah");
+        assertThat(bookService.updateBook(book.getId(), edit).getVersion()).isEqualTo(1);
+
+        MockHttpServletResponse changed = perform("/api/books/" + book.getId(), etag);
+        assertThat(changed.getStatus()).isEqualTo(200);
+        assertThat(changed.getHeader(HttpHeaders.ETAG)).isEqualTo("\"book-" + book.getId() + "-v1\"");
+        assertThat(changed.getContentAsString()).contains("Dune Messiah");
+    }
+
+    @Test
+    void theCatalogueIsRevalidatedByOneCounterLookup() throws Exception {
+        String etag = perform("/api/books", null).getHeader(HttpHeaders.ETAG);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        MockHttpServletResponse unchanged = perform("/api/books", etag);
+        assertThat(unchanged.getStatus()).isEqualTo(304);
+        assertThat(unchanged.getContentAsByteArray()).isEmpty();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        Book emma = new Book();
+        emma.setTitle("Emma");
+        bookService.saveBook(emma);
+
+        MockHttpServletResponse changed = perform("/api/books", etag);
+        assertThat(changed.getStatus()).isEqualTo(200);
+        assertThat(changed.getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+        assertThat(changed.getContentAsString()).contains("Dune", "Emma");
+
+        bookService.deleteBookById(emma.getId());
+        assertThat(perform("/api/books", changed.getHeader(HttpHeaders.ETAG)).getStatus()).isEqualTo(200);
+    }
+
+    private MockHttpServletResponse perform(String url, String ifNoneMatch) throws Exception {
+        var request = get(url);
+        if (ifNoneMatch != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return mockMvc.perform(request).andReturn().getResponse();
+    }
+}
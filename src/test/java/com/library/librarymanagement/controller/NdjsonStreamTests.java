@@ -0,0 +1,148 @@
+package com.library.librarymanagement.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.librarymanagement.config.OverdueProperties;
+import com.library.librarymanagement.config.PaginationProperties;
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.model.Member;
+import com.library.librarymanagement.model.User;
+import com.library.librarymanagement.repository.BookRepository;
+import com.library.librarymanagement.repository.MemberRepository;
+import com.library.librarymanagement.repository.UserRepository;
+import com.library.librarymanagement.service.BookSearchIndex;
+import com.library.librarymanagement.service.BookService;
+import com.library.librarymanagement.service.BorrowerService;
+import com.library.librarymanagement.service.BorrowingView;
+import com.library.librarymanagement.service.DueDateWheel;
+import com.library.librarymanagement.service.FileStorageService;
+import com.library.librarymanagement.service.ModificationCounters;
+import com.library.librarymanagement.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * The NDJSON exports, read back line by line after the streamed body finished.
+ */
+@DataJpaTest
+@Import({BookService.class, BookSearchIndex.class, PaginationProperties.class, ModificationCounters.class,
+        BorrowerService.class, DueDateWheel.class, OverdueProperties.class, UserService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class NdjsonStreamTests {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @MockitoBean
+    private BorrowingView borrowingView;
+
+    @MockitoBean
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        bookRepository.deleteAll();
+        userRepository.deleteAll();
+        memberRepository.deleteAll();
+        AdminController adminController = new AdminController();
+        ReflectionTestUtils.setField(adminController, "userService", userService);
+        ReflectionTestUtils.setField(adminController, "objectMapper", objectMapper);
+        mockMvc = MockMvcBuilders.standaloneSetup(new BookController(bookService, null, objectMapper), adminController)
+                .build();
+    }
+
+    @Test
+    void streamsEveryBookInIdOrder() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (String title : List.of("Dune", "Emma", "Ulysses")) {
+            Book book = new Book();
+            book.setTitle(title);
+            ids.add(bookService.saveBook(book).getId());
+        }
+
+        List<JsonNode> lines = stream("/api/books/stream");
+
+        assertThat(lines).extracting(line -> line.get("id").asLong()).containsExactlyElementsOf(ids);
+        assertThat(lines).extracting(line -> line.get("title").asText()).containsExactly("Dune", "Emma", "Ulysses");
+    }
+
+    @Test
+    void streamsEveryUserWithTheIdOfTheirMemberProfile() throws Exception {
+        Member member = new Member();
+        member.setName("Reader");
+        User reader = user("reader@example.com", member);
+        User staff = user("staff@example.com", null);
+
+        List<JsonNode> lines = stream("/api/admin/users/stream");
+
+        assertThat(lines).extracting(line -> line.get("email").asText())
+                .containsExactly("reader@example.com", "staff@example.com");
+        assertThat(lines.get(0).get("id").asLong()).isEqualTo(reader.getId());
+        assertThat(lines.get(0).get("memberId").asLong()).isEqualTo(reader.getMemberProfile().getId());
+        assertThat(lines.get(1).get("id").asLong()).isEqualTo(staff.getId());
+        assertThat(lines.get(1).get("memberId").isNull()).isTrue();
+    }
+
+    @Test
+    void anEmptyListingStreamsNoLines() throws Exception {
+        assertThat(stream("/api/books/stream")).isEmpty();
+    }
+
+    private List<JsonNode> stream(String url) throws Exception {
+        MvcResult started = mockMvc.perform(get(url)).andReturn();
+        MockHttpServletResponse response = mockMvc.perform(asyncDispatch(started)).andReturn().getResponse();
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentType()).isEqualTo(MediaType.APPLICATION_NDJSON_VALUE);
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : response.getContentAsString().split("\n")) {
+            if (!line.isEmpty()) {
+                lines.add(objectMapper.readTree(line));
+            }
+        }
+        return lines;
+    }
+
+    private User user(String email, Member member) {
+        User user = new User();
+        user.setEmail(email);
+        user.setName(email);
+        user.setRole(member == null ? User.Role.PERSONNEL : User.Role.MEMBER);
+        user.setMemberProfile(member);
+        return userRepository.save(user);
+    }
+}
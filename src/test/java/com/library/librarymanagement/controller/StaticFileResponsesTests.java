@@ -0,0 +1,121 @@
+package com.library.librarymanagement.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StaticFileResponsesTests {
+
+    private static final String NAME = "3f2b8c1e-4d5a-4e6f-9a7b-0c1d2e3f4a5b.png";
+    private static final Instant MODIFIED = Instant.parse("2024-05-01T10:00:00Z");
+
+    @TempDir
+    Path directory;
+
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        file = Files.writeString(directory.resolve(NAME), "0123456789", StandardCharsets.US_ASCII);
+        Files.setLastModifiedTime(file, FileTime.from(MODIFIED));
+    }
+
+    @Test
+    void servesTheWholeFileWithValidatorsAndImmutableCaching() throws Exception {
+        MockHttpServletResponse response = serve(get());
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo("0123456789");
+        assertThat(response.getContentType()).isEqualTo("image/png");
+        assertThat(response.getContentLengthLong()).isEqualTo(10);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo("\"" + NAME + "\"");
+        assertThat(response.getDateHeader(HttpHeaders.LAST_MODIFIED)).isEqualTo(MODIFIED.toEpochMilli());
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("max-age=31536000, public, immutable");
+        assertThat(response.getHeader(HttpHeaders.ACCEPT_RANGES)).isEqualTo("bytes");
+    }
+
+    @Test
+    void answersConditionalRequestsWithNotModified() throws Exception {
+        MockHttpServletRequest byEtag = get();
+        byEtag.addHeader(HttpHeaders.IF_NONE_MATCH, "\"" + NAME + "\"");
+        MockHttpServletRequest byDate = get();
+        byDate.addHeader(HttpHeaders.IF_MODIFIED_SINCE, MODIFIED.toEpochMilli());
+        MockHttpServletRequest otherEtag = get();
+        otherEtag.addHeader(HttpHeaders.IF_NONE_MATCH, "\"something-else.png\"");
+
+        for (MockHttpServletRequest request : new MockHttpServletRequest[]{byEtag, byDate}) {
+            MockHttpServletResponse response = serve(request);
+            assertThat(response.getStatus()).isEqualTo(304);
+            assertThat(response.getContentAsByteArray()).isEmpty();
+            assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).contains("immutable");
+        }
+        assertThat(serve(otherEtag).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void servesSingleByteRanges() throws Exception {
+        MockHttpServletRequest range = get();
+        range.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+        MockHttpServletRequest suffix = get();
+        suffix.addHeader(HttpHeaders.RANGE, "bytes=-3");
+
+        MockHttpServletResponse partial = serve(range);
+        assertThat(partial.getStatus()).isEqualTo(206);
+        assertThat(partial.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 2-5/10");
+        assertThat(partial.getContentAsString()).isEqualTo("2345");
+        assertThat(partial.getContentLengthLong()).isEqualTo(4);
+        assertThat(serve(suffix).getContentAsString()).isEqualTo("789");
+    }
+
+    @Test
+    void ignoresStaleIfRangeAndRejectsUnsatisfiableRanges() throws Exception {
+        MockHttpServletRequest stale = get();
+        stale.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+        stale.addHeader(HttpHeaders.IF_RANGE, "\"older.png\"");
+        MockHttpServletRequest beyond = get();
+        beyond.addHeader(HttpHeaders.RANGE, "bytes=20-30");
+
+        MockHttpServletResponse whole = serve(stale);
+        assertThat(whole.getStatus()).isEqualTo(200);
+        assertThat(whole.getContentAsString()).isEqualTo("0123456789");
+        MockHttpServletResponse unsatisfiable = serve(beyond);
+        assertThat(unsatisfiable.getStatus()).isEqualTo(416);
+        assertThat(unsatisfiable.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */10");
+    }
+
+    @Test
+    void handsTheBodyToSendfileWhenTheConnectorSupportsIt() throws Exception {
+        MockHttpServletRequest request = get();
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        request.addHeader(HttpHeaders.RANGE, "bytes=4-");
+
+        MockHttpServletResponse response = serve(request);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.filename")).isEqualTo(file.toAbsolutePath().toString());
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.start")).isEqualTo(4L);
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.end")).isEqualTo(10L);
+    }
+
+    private MockHttpServletRequest get() {
+        return new MockHttpServletRequest("GET", "/api/users/profile/picture/" + NAME);
+    }
+
+    private MockHttpServletResponse serve(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        StaticFileResponses.serveImmutable(request, response, file);
+        return response;
+    }
+}
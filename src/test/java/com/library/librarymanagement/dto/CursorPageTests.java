@@ -0,0 +1,75 @@
+package com.library.librarymanagement.dto;
+
+import com.library.librarymanagement.dto.CursorPage.DateKey;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorPageTests {
+
+    @Test
+    void aCursorDecodesToTheIdItWasMadeFrom() {
+        assertThat(CursorPage.decodeCursor(CursorPage.encodeCursor(42L))).isEqualTo(42L);
+        assertThat(CursorPage.decodeCursor(null)).isZero();
+        assertThat(CursorPage.decodeCursor(" ")).isZero();
+    }
+
+    @Test
+    void aDateCursorDecodesToTheDateAndIdItWasMadeFrom() {
+        DateKey last = new DateKey(LocalDate.of(2024, 3, 15), 42L);
+
+        assertThat(CursorPage.decodeDateCursor(CursorPage.encodeCursor(last))).isEqualTo(last);
+        assertThat(CursorPage.decodeDateCursor(null)).isEqualTo(DateKey.FIRST);
+    }
+
+    @Test
+    void onlyAPageWithMoreRowsBehindItHasANextCursor() {
+        CursorPage<Long> notLast = CursorPage.of(List.of(1L, 2L, 3L), 2, Function.identity());
+        assertThat(notLast.getItems()).containsExactly(1L, 2L);
+        assertThat(CursorPage.decodeCursor(notLast.getNextCursor())).isEqualTo(2L);
+
+        CursorPage<Long> last = CursorPage.of(List.of(3L, 4L), 2, Function.identity());
+        assertThat(last.getItems()).containsExactly(3L, 4L);
+        assertThat(last.getNextCursor()).isNull();
+
+        assertThat(CursorPage.of(List.<Long>of(), 2, Function.identity()).getNextCursor()).isNull();
+    }
+
+    @Test
+    void aPageOrderedByDateContinuesAfterItsLastDateAndId() {
+        LocalDate due = LocalDate.of(2024, 3, 15);
+        List<DateKey> rows = List.of(new DateKey(due, 7L), new DateKey(due, 9L), new DateKey(due.plusDays(1), 1L));
+
+        CursorPage<DateKey> page = CursorPage.of(rows, 2, DateKey::date, DateKey::id);
+
+        assertThat(CursorPage.decodeDateCursor(page.getNextCursor())).isEqualTo(new DateKey(due, 9L));
+        assertThat(CursorPage.of(rows, 3, DateKey::date, DateKey::id).getNextCursor()).isNull();
+    }
+
+    @Test
+    void rejectsCursorsItDidNotIssue() {
+        String dateCursor = CursorPage.encodeCursor(new DateKey(LocalDate.of(2024, 3, 15), 42L));
+        for (String cursor : List.of("not base64!", encode("id:forty-two"), encode("offset:42"), dateCursor)) {
+            assertThatThrownBy(() -> CursorPage.decodeCursor(cursor))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("Invalid page cursor");
+        }
+        for (String cursor : List.of("not base64!", encode("date-id:yesterday:42"), encode("date-id:2024-03-15"),
+                CursorPage.encodeCursor(42L))) {
+            assertThatThrownBy(() -> CursorPage.decodeDateCursor(cursor))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("Invalid page cursor");
+        }
+    }
+
+    private static String encode(String cursor) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+}
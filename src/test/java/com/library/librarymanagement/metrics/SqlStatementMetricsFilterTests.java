@@ -0,0 +1,58 @@
+package com.library.librarymanagement.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlStatementMetricsFilterTests {
+
+    private final SqlStatementCounter inspector = new SqlStatementCounter();
+    private SimpleMeterRegistry registry;
+    private SqlStatementMetricsFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        filter = new SqlStatementMetricsFilter(registry, 0);
+    }
+
+    @Test
+    void recordsTheStatementsOfEachRequestUnderItsUriTemplate() throws Exception {
+        inspector.inspect("select 1");
+
+        handle("/api/books/{id}", 3);
+        handle("/api/books/{id}", 1);
+
+        DistributionSummary summary = registry.get("http.server.requests.sql.statements")
+                .tags("method", "GET", "uri", "/api/books/{id}")
+                .summary();
+        assertThat(summary.count()).isEqualTo(2);
+        assertThat(summary.totalAmount()).isEqualTo(4);
+        assertThat(summary.max()).isEqualTo(3);
+    }
+
+    @Test
+    void ignoresRequestsThatMatchedNoHandler() throws Exception {
+        handle(null, 2);
+
+        assertThat(registry.find("http.server.requests.sql.statements").meters()).isEmpty();
+    }
+
+    private void handle(String uriTemplate, int statements) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books/1");
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            for (int i = 0; i < statements; i++) {
+                inspector.inspect("select * from books where id = ?");
+            }
+            if (uriTemplate != null) {
+                req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, uriTemplate);
+            }
+        });
+    }
+}
@@ -0,0 +1,117 @@
+package com.library.librarymanagement.repository;
+
+import com.library.librarymanagement.dto.BookRequestView;
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.model.BookRequest;
+import com.library.librarymanagement.model.Member;
+import com.library.librarymanagement.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Every listing must cost the same number of statements for one request as for many,
+ * each from a different user with a member profile.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class BookRequestRepositoryTests {
+
+    @Autowired
+    private BookRequestRepository repository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void listingsIssueAConstantNumberOfStatements() {
+        List<User> users = seed(1);
+        long[] few = countStatements(users.get(0));
+
+        users = seed(25);
+        long[] many = countStatements(users.get(0));
+
+        assertThat(many).containsExactly(few);
+        assertThat(few).containsOnly(1L);
+    }
+
+    @Test
+    void filtersByStatusAndPagesByCursor() {
+        seed(5);
+        List<BookRequestView> pending = repository.findViews(BookRequest.RequestStatus.PENDING);
+        assertThat(pending).hasSize(3).allSatisfy(view -> {
+            assertThat(view.getStatus()).isEqualTo(BookRequest.RequestStatus.PENDING);
+            assertThat(view.getRequesterName()).startsWith("Reader");
+            assertThat(view.getBookTitle()).startsWith("Book");
+        });
+
+        List<BookRequestView> firstPage = repository.findViewPageAfter(null, 0L, Limit.of(2));
+        List<BookRequestView> secondPage = repository.findViewPageAfter(null, firstPage.get(1).getId(), Limit.of(10));
+        assertThat(firstPage).hasSize(2);
+        assertThat(secondPage).hasSize(3);
+        assertThat(secondPage.get(0).getId()).isGreaterThan(firstPage.get(1).getId());
+    }
+
+    private long[] countStatements(User user) {
+        return new long[]{
+                count(() -> repository.findByRequestingUser(user)),
+                count(() -> repository.findAllWithDetails().stream()
+                        .map(request -> request.getRequestingUser().getMemberProfile().getName() + request.getBook().getTitle())
+                        .toList()),
+                count(() -> repository.findViews(null)),
+                count(() -> repository.findViewsByRequester(user.getId())),
+                count(() -> repository.findViewPageAfter(BookRequest.RequestStatus.PENDING, 0L, Limit.of(100))),
+        };
+    }
+
+    private long count(Supplier<?> query) {
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        query.get();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private List<User> seed(int requests) {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            Member member = new Member();
+            member.setName("Reader " + i);
+            User user = new User();
+            user.setEmail("reader" + System.nanoTime() + "@example.com");
+            user.setName("Reader " + i);
+            user.setRole(User.Role.MEMBER);
+            user.setMemberProfile(member);
+            entityManager.persist(user);
+            users.add(user);
+
+            Book book = new Book();
+            book.setTitle("Book " + i);
+            entityManager.persist(book);
+
+            BookRequest request = new BookRequest();
+            request.setRequestingUser(user);
+            request.setBook(book);
+            request.setRequestDate(LocalDate.now().minusDays(i));
+            request.setStatus(i % 2 == 0 ? BookRequest.RequestStatus.PENDING : BookRequest.RequestStatus.REJECTED);
+            entityManager.persist(request);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return users;
+    }
+}
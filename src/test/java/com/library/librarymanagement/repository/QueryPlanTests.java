@@ -0,0 +1,193 @@
+package com.library.librarymanagement.repository;
+
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.model.BookRequest;
+import com.library.librarymanagement.model.Borrower;
+import com.library.librarymanagement.model.Member;
+import com.library.librarymanagement.model.User;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs {@code EXPLAIN} on the SQL of every borrowing and book request query against the
+ * schema the migrations build, and fails when a table is read by a full scan.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.library.librarymanagement.repository.QueryPlanTests$RecordingInspector")
+class QueryPlanTests {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 3, 1);
+
+    // List every row by design; they may read a whole index, in the order it is sorted in
+    private static final Set<String> LISTINGS = Set.of("findAllDtos", "findAllWithDetails", "findAllViews");
+
+    // A table in H2's plan and the index it is read through, with ": condition" when one narrows it
+    private static final Pattern TABLE_ACCESS = Pattern.compile(
+            "(?:FROM|JOIN) \"PUBLIC\"\\.\"(\\w+)\".*\\R\\s*/\\* PUBLIC\\.([\\w.]+)(:)?");
+
+    @Autowired
+    private BorrowerRepository borrowerRepository;
+
+    @Autowired
+    private BookRequestRepository bookRequestRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private Member member;
+
+    @BeforeEach
+    void seed() {
+        for (int i = 0; i < 50; i++) {
+            Member reader = new Member();
+            reader.setName("Reader " + i);
+            User account = new User();
+            account.setEmail("reader" + i + "@example.com");
+            account.setRole(User.Role.MEMBER);
+            account.setMemberProfile(reader);
+            entityManager.persist(account);
+
+            Book book = new Book();
+            book.setTitle("Book " + i);
+            entityManager.persist(book);
+
+            Borrower loan = new Borrower();
+            loan.setMember(reader);
+            loan.setBook(book);
+            loan.setIssueDate(TODAY.minusDays(i));
+            loan.setDueDate(TODAY.plusDays(14 - i));
+            loan.setReturnDate(i % 3 == 0 ? TODAY : null);
+            entityManager.persist(loan);
+
+            BookRequest request = new BookRequest();
+            request.setRequestingUser(account);
+            request.setBook(book);
+            request.setRequestDate(TODAY.minusDays(i));
+            request.setStatus(BookRequest.RequestStatus.values()[i % 3]);
+            entityManager.persist(request);
+            user = account;
+            member = reader;
+        }
+        entityManager.flush();
+        entityManager.clear();
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    void noQueryScansAWholeTable() {
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("findByIdWithMemberAndBook", () -> borrowerRepository.findByIdWithMemberAndBook(1L));
+        queries.put("findAllDtos", () -> borrowerRepository.findAllDtos());
+        queries.put("findDtoPageAfter", () -> borrowerRepository.findDtoPageAfter(0L, Limit.of(20)));
+        queries.put("findDtoPageByMemberAfter", () -> borrowerRepository.findDtoPageByMemberAfter(member.getId(), 0L, Limit.of(20)));
+        queries.put("findDtosByIdIn", () -> borrowerRepository.findDtosByIdIn(List.of(1L, 2L)));
+        queries.put("findOpenDtoPageDueBetween", () -> borrowerRepository.findOpenDtoPageDueBetween(
+                TODAY, TODAY.plusDays(7), TODAY.minusDays(1), 0L, Limit.of(20)));
+        queries.put("findOpenDuePageThrough", () -> borrowerRepository.findOpenDuePageThrough(
+                TODAY, LocalDate.MIN, 0L, Limit.of(20)));
+        queries.put("findReturnsByBookId", () -> borrowerRepository.findReturnsByBookId(1L));
+        queries.put("findReturnsByMemberId", () -> borrowerRepository.findReturnsByMemberId(member.getId()));
+        queries.put("deleteByBookId", () -> borrowerRepository.deleteByBookId(-1L));
+        queries.put("deleteByMemberId", () -> borrowerRepository.deleteByMemberId(-1L));
+        queries.put("findByRequestingUser", () -> bookRequestRepository.findByRequestingUser(user));
+        queries.put("findAllWithDetails", () -> bookRequestRepository.findAllWithDetails());
+        queries.put("findAllByIdIn", () -> bookRequestRepository.findAllByIdIn(List.of(1L, 2L)));
+        queries.put("findAllViews", () -> bookRequestRepository.findAllViews());
+        queries.put("findViewsByStatus", () -> bookRequestRepository.findViewsByStatus(BookRequest.RequestStatus.PENDING));
+        queries.put("findViewsByRequester", () -> bookRequestRepository.findViewsByRequester(user.getId()));
+        queries.put("findAllViewPageAfter", () -> bookRequestRepository.findViewPageAfter(null, 0L, Limit.of(20)));
+        queries.put("findViewPageByStatusAfter", () -> bookRequestRepository.findViewPageAfter(
+                BookRequest.RequestStatus.PENDING, 0L, Limit.of(20)));
+        queries.put("findAllViewPageByRequesterAfter", () -> bookRequestRepository.findViewPageByRequesterAfter(
+                user.getId(), null, 0L, Limit.of(20)));
+        queries.put("findViewPageByRequesterAndStatusAfter", () -> bookRequestRepository.findViewPageByRequesterAfter(
+                user.getId(), BookRequest.RequestStatus.PENDING, 0L, Limit.of(20)));
+
+        queries.forEach((name, query) -> {
+            List<String> statements = record(query);
+            assertThat(statements).as(name).isNotEmpty();
+            for (String sql : statements) {
+                String plan = explain(sql);
+                assertThat(plan).as(name + "\n" + plan).doesNotContain(".tableScan");
+                if (!LISTINGS.contains(name)) {
+                    assertThat(fullScans(plan)).as(name + "\n" + plan).isEmpty();
+                }
+            }
+        });
+    }
+
+    /**
+     * The tables the plan reads through an index without a condition on it, every row.
+     */
+    private static List<String> fullScans(String plan) {
+        List<String> tables = new ArrayList<>();
+        Matcher access = TABLE_ACCESS.matcher(plan);
+        while (access.find()) {
+            if (access.group(3) == null) {
+                tables.add(access.group(1) + " via " + access.group(2));
+            }
+        }
+        return tables;
+    }
+
+    private List<String> record(Runnable query) {
+        entityManager.clear();
+        RecordingInspector.STATEMENTS.get().clear();
+        query.run();
+        return new ArrayList<>(RecordingInspector.STATEMENTS.get());
+    }
+
+    // H2 plans a statement with its parameters unbound, so the plan holds for any values
+    private String explain(String sql) {
+        return jdbcTemplate.execute((Connection connection) -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                int parameters = statement.getParameterMetaData().getParameterCount();
+                for (int i = 1; i <= parameters; i++) {
+                    statement.setObject(i, null);
+                }
+                try (ResultSet result = statement.executeQuery()) {
+                    result.next();
+                    return result.getString(1);
+                }
+            }
+        });
+    }
+
+    /**
+     * Keeps the SQL Hibernate prepares on the current thread.
+     */
+    public static class RecordingInspector implements StatementInspector {
+
+        static final ThreadLocal<List<String>> STATEMENTS = ThreadLocal.withInitial(ArrayList::new);
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.get().add(sql);
+            return sql;
+        }
+    }
+}
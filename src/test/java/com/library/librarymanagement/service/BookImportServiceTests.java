@@ -0,0 +1,119 @@
+package com.library.librarymanagement.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.library.librarymanagement.config.BulkImportProperties;
+import com.library.librarymanagement.dto.BulkImportResult;
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.repository.BookRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({BookImportService.class, BookSearchIndex.class, BulkImportProperties.class, ModificationCounters.class,
+        BookImportServiceTests.Config.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookImportServiceTests {
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper().registerModule(new JavaTimeModule());
+        }
+    }
+
+    @Autowired
+    private BookImportService importService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookSearchIndex bookSearchIndex;
+
+    @Autowired
+    private BulkImportProperties properties;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        bookRepository.deleteAll();
+        bookSearchIndex.clear();
+        properties.setBatchSize(500);
+    }
+
+    @Test
+    void importsCsvAndReportsInvalidRowsByLine() throws Exception {
+        BulkImportResult result = importService.importBooks(stream("""
+                title,publisher,publishDate
+                Dune,Chilton,1965-08-01
+                "Good Omens, the Nice and Accurate Prophecies","Gollancz",
+                ,Nobody,2001-01-01
+                Emma,Murray,18th of December
+                "The ""Quoted"" Book"
+                """), BookImportService.Format.CSV);
+
+        assertThat(result.getReceived()).isEqualTo(5);
+        assertThat(result.getImported()).isEqualTo(3);
+        assertThat(result.getErrors()).extracting(BulkImportResult.RowError::getLine).containsExactly(4L, 5L);
+        assertThat(bookRepository.findAll()).extracting(Book::getTitle).containsExactlyInAnyOrder(
+                "Dune", "Good Omens, the Nice and Accurate Prophecies", "The \"Quoted\" Book");
+        assertThat(bookRepository.findAll()).filteredOn(book -> book.getTitle().equals("Dune"))
+                .extracting(Book::getPublishDate).containsExactly(LocalDate.of(1965, 8, 1));
+        assertThat(bookSearchIndex.size()).isEqualTo(3);
+    }
+
+    @Test
+    void importsNdjson() throws Exception {
+        BulkImportResult result = importService.importBooks(stream("""
+                {"title":"Dune","publisher":"Chilton","publishDate":"1965-08-01"}
+                {"title":"Emma","publisher":"A publisher name far longer than thirty-two characters"}
+                {"title":
+                """), BookImportService.Format.NDJSON);
+
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getFailed()).isEqualTo(2);
+        assertThat(result.getErrors().get(0).getMessage()).contains("publisher");
+    }
+
+    @Test
+    void writesRowsInJdbcBatches() throws Exception {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 1_200; i++) {
+            csv.append("Book ").append(i).append(",Publisher,2020-01-01\n");
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        BulkImportResult result = importService.importBooks(stream(csv.toString()), BookImportService.Format.CSV);
+
+        assertThat(result.getImported()).isEqualTo(1_200);
+        assertThat(bookRepository.count()).isEqualTo(1_200);
+        // 3 insert batches plus one sequence call per 50 ids, instead of 1 200 single inserts
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(40);
+        assertThat(bookRepository.findAll()).extracting(Book::getId).doesNotHaveDuplicates();
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
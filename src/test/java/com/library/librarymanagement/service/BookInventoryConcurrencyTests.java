@@ -0,0 +1,165 @@
+package com.library.librarymanagement.service;
+
+import com.library.librarymanagement.config.OverdueProperties;
+import com.library.librarymanagement.config.PaginationProperties;
+import com.library.librarymanagement.dto.BookAvailability;
+import com.library.librarymanagement.exception.NoCopiesAvailableException;
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.model.Borrower;
+import com.library.librarymanagement.model.Member;
+import com.library.librarymanagement.repository.BookRepository;
+import com.library.librarymanagement.repository.BorrowerRepository;
+import com.library.librarymanagement.repository.MemberRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@Import({BorrowerService.class, DueDateWheel.class, OverdueProperties.class, BookService.class, BookSearchIndex.class, PaginationProperties.class,
+        ModificationCounters.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookInventoryConcurrencyTests {
+
+    private static final int THREADS = 200;
+
+    @MockitoBean
+    private BorrowingView borrowingView;
+
+    @Autowired
+    private BorrowerService borrowerService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private BorrowerRepository borrowerRepository;
+
+    private Member member;
+
+    @BeforeEach
+    void setUp() {
+        borrowerRepository.deleteAll();
+        bookRepository.deleteAll();
+        memberRepository.deleteAll();
+        member = new Member();
+        member.setName("Reader");
+        member = memberRepository.save(member);
+    }
+
+    @Test
+    void twoHundredConcurrentIssuesOfTheLastCopyLendItExactlyOnce() throws Exception {
+        Book book = bookWithCopies(3);
+        issue(book);
+        issue(book);
+
+        List<Future<Borrower>> attempts = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long started = System.nanoTime();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                attempts.add(executor.submit(() -> {
+                    start.await();
+                    return issue(book);
+                }));
+            }
+            start.countDown();
+
+            int lent = 0;
+            List<Throwable> refusals = new ArrayList<>();
+            for (Future<Borrower> attempt : attempts) {
+                try {
+                    attempt.get(30, TimeUnit.SECONDS);
+                    lent++;
+                } catch (java.util.concurrent.ExecutionException e) {
+                    refusals.add(e.getCause());
+                }
+            }
+            long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+            assertThat(lent).isEqualTo(1);
+            // every loser is refused for lack of stock, none by a lock timeout or deadlock
+            assertThat(refusals).hasSize(THREADS - 1).allMatch(NoCopiesAvailableException.class::isInstance);
+            assertThat(elapsedMillis).isLessThan(10_000);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(bookRepository.findAvailability(book.getId())).get()
+                .extracting(BookAvailability::getAvailableCopies, BookAvailability::isAvailable)
+                .containsExactly(0, false);
+        assertThat(borrowerRepository.count()).isEqualTo(3);
+    }
+
+    @Test
+    void returningAndDeletingOpenLoansReleaseCopies() {
+        Book book = bookWithCopies(2);
+        Borrower first = issue(book);
+        Borrower second = issue(book);
+        assertThatThrownBy(() -> issue(book)).isInstanceOf(NoCopiesAvailableException.class);
+
+        borrowerService.returnBook(first.getId(), LocalDate.now());
+        assertThat(available(book)).isEqualTo(1);
+
+        borrowerService.deleteBorrowingById(second.getId());
+        assertThat(available(book)).isEqualTo(2);
+
+        // a returned loan no longer holds a copy
+        borrowerService.deleteBorrowingById(first.getId());
+        assertThat(available(book)).isEqualTo(2);
+    }
+
+    @Test
+    void totalCopiesCannotDropBelowTheCopiesOnLoan() {
+        Book book = bookWithCopies(3);
+        issue(book);
+        issue(book);
+
+        assertThatThrownBy(() -> bookService.setTotalCopies(book.getId(), 1))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("2 are on loan");
+        assertThat(bookService.setTotalCopies(book.getId(), 5).getAvailableCopies()).isEqualTo(3);
+
+        bookService.reconcileAvailableCopies();
+        assertThat(available(book)).isEqualTo(3);
+    }
+
+    private Book bookWithCopies(int copies) {
+        Book book = new Book();
+        book.setTitle("Dune");
+        book.setTotalCopies(copies);
+        book.setAvailableCopies(copies);
+        return bookRepository.save(book);
+    }
+
+    private Borrower issue(Book book) {
+        return borrowerService.issueBook(member.getId(), book.getId(), LocalDate.now(), LocalDate.now().plusDays(14));
+    }
+
+    private int available(Book book) {
+        return bookRepository.findAvailability(book.getId()).orElseThrow().getAvailableCopies();
+    }
+}
@@ -0,0 +1,186 @@
+package com.library.librarymanagement.service;
+
+import com.library.librarymanagement.config.OverdueProperties;
+import com.library.librarymanagement.config.PaginationProperties;
+import com.library.librarymanagement.dto.BatchDecisionRequest;
+import com.library.librarymanagement.dto.BatchDecisionResult;
+import com.library.librarymanagement.dto.BatchDecisionResult.Outcome;
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.model.BookRequest;
+import com.library.librarymanagement.model.Member;
+import com.library.librarymanagement.model.User;
+import com.library.librarymanagement.repository.BookRepository;
+import com.library.librarymanagement.repository.BookRequestRepository;
+import com.library.librarymanagement.repository.BorrowerRepository;
+import com.library.librarymanagement.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({BookRequestService.class, BorrowerService.class, DueDateWheel.class, OverdueProperties.class, PaginationProperties.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookRequestServiceTests {
+
+    @MockitoBean
+    private BorrowingView borrowingView;
+
+    @Autowired
+    private BookRequestService bookRequestService;
+
+    @Autowired
+    private BookRequestRepository bookRequestRepository;
+
+    @Autowired
+    private BorrowerRepository borrowerRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        bookRequestRepository.deleteAll();
+        borrowerRepository.deleteAll();
+        userRepository.deleteAll();
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    void decidesEachRequestOnItsOwnWithinOneBatch() {
+        Book scarce = book(1);
+        Book plentiful = book(10);
+        BookRequest first = request(scarce);
+        BookRequest second = request(scarce);
+        BookRequest third = request(plentiful);
+        BookRequest alreadyRejected = request(plentiful);
+        alreadyRejected.setStatus(BookRequest.RequestStatus.REJECTED);
+        bookRequestRepository.save(alreadyRejected);
+        BookRequest toReject = request(plentiful);
+
+        BatchDecisionResult result = bookRequestService.decideBatch(batch(
+                List.of(second.getId(), first.getId(), third.getId(), alreadyRejected.getId(), 999_999L),
+                List.of(toReject.getId())));
+
+        assertThat(result.getResults()).extracting(BatchDecisionResult.ItemResult::getRequestId).containsExactly(
+                second.getId(), first.getId(), third.getId(), alreadyRejected.getId(), 999_999L, toReject.getId());
+        assertThat(result.getResults()).extracting(BatchDecisionResult.ItemResult::getOutcome).containsExactly(
+                Outcome.FAILED, Outcome.APPROVED, Outcome.APPROVED, Outcome.FAILED, Outcome.FAILED, Outcome.REJECTED);
+        assertThat(result.getApproved()).isEqualTo(2);
+        assertThat(result.getRejected()).isEqualTo(1);
+        assertThat(result.getFailed()).isEqualTo(3);
+
+        assertThat(status(first)).isEqualTo(BookRequest.RequestStatus.APPROVED);
+        assertThat(status(second)).isEqualTo(BookRequest.RequestStatus.PENDING);
+        assertThat(status(toReject)).isEqualTo(BookRequest.RequestStatus.REJECTED);
+        assertThat(borrowerRepository.count()).isEqualTo(2);
+        assertThat(bookRepository.findAvailability(scarce.getId()).orElseThrow().getAvailableCopies()).isZero();
+        assertThat(bookRepository.findAvailability(plentiful.getId()).orElseThrow().getAvailableCopies()).isEqualTo(9);
+        verify(borrowingView, times(1)).putAll(anyCollection());
+    }
+
+    @Test
+    void aRequestDecidedWhileTheBatchRunsIsNotDecidedAgain() {
+        Book book = book(1);
+        BookRequest request = request(book);
+        // commits a rejection of the request after the batch read it as pending
+        doAnswer(invocation -> {
+            CompletableFuture.runAsync(() -> bookRequestService.rejectRequest(request.getId())).join();
+            return null;
+        }).when(borrowingView).putAll(anyCollection());
+
+        assertThatThrownBy(() -> bookRequestService.decideBatch(batch(List.of(request.getId()), List.of())))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+
+        assertThat(status(request)).isEqualTo(BookRequest.RequestStatus.REJECTED);
+        assertThat(borrowerRepository.count()).isZero();
+        assertThat(bookRepository.findAvailability(book.getId()).orElseThrow().getAvailableCopies()).isEqualTo(1);
+    }
+
+    @Test
+    void statementCountDoesNotGrowWithTheBatch() {
+        Book book = book(100);
+        // the pooled optimizer reads the sequence twice before its first full block of ids
+        approveAll(book, 2);
+        long few = approveAll(book, 3);
+        long many = approveAll(book, 40);
+
+        assertThat(many).isEqualTo(few);
+        assertThat(borrowerRepository.count()).isEqualTo(45);
+    }
+
+    private long approveAll(Book book, int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(request(book).getId());
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        BatchDecisionResult result = bookRequestService.decideBatch(batch(ids, List.of()));
+        assertThat(result.getApproved()).isEqualTo(count);
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Book book(int copies) {
+        Book book = new Book();
+        book.setTitle("Book with " + copies + " copies");
+        book.setTotalCopies(copies);
+        book.setAvailableCopies(copies);
+        return bookRepository.save(book);
+    }
+
+    private BookRequest request(Book book) {
+        Member member = new Member();
+        member.setName("Reader");
+        User user = new User();
+        user.setEmail("reader" + System.nanoTime() + "@example.com");
+        user.setName("Reader");
+        user.setRole(User.Role.MEMBER);
+        user.setMemberProfile(member);
+        user = userRepository.save(user);
+
+        BookRequest request = new BookRequest();
+        request.setRequestingUser(user);
+        request.setBook(book);
+        request.setRequestDate(LocalDate.now());
+        request.setStatus(BookRequest.RequestStatus.PENDING);
+        return bookRequestRepository.save(request);
+    }
+
+    private BookRequest.RequestStatus status(BookRequest request) {
+        return bookRequestRepository.findById(request.getId()).orElseThrow().getStatus();
+    }
+
+    private static BatchDecisionRequest batch(List<Long> approve, List<Long> reject) {
+        BatchDecisionRequest batch = new BatchDecisionRequest();
+        batch.setApprove(approve);
+        batch.setReject(reject);
+        return batch;
+    }
+}
@@ -0,0 +1,154 @@
+package com.library.librarymanagement.service;
+
+import com.library.librarymanagement.cache.CacheInvalidationBus;
+import com.library.librarymanagement.dto.BookIndexChecksum;
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.repository.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookSearchIndexTests {
+
+    private BookSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new BookSearchIndex(null, null, null, null);
+        index.index(book(1L, "The Pragmatic Programmer", "Addison-Wesley"));
+        index.index(book(2L, "Programming Pearls", "Addison-Wesley"));
+        index.index(book(3L, "Clean Code", "Prentice Hall"));
+        index.index(book(4L, "Código Limpio", "Anaya"));
+    }
+
+    @Test
+    void ranksExactMatchesAboveOthers() {
+        assertThat(index.search("clean code", 10)).startsWith(3L);
+    }
+
+    @Test
+    void matchesByPrefix() {
+        assertThat(index.search("program", 10)).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void matchesWithinOneEdit() {
+        assertThat(index.search("pragmatc", 10)).containsExactly(1L);
+        assertThat(index.search("pearsl", 10)).containsExactly(2L);
+    }
+
+    @Test
+    void foldsCaseAndAccents() {
+        assertThat(index.search("CODIGO", 10)).containsExactly(4L);
+    }
+
+    @Test
+    void followsUpdatesAndDeletes() {
+        index.index(book(3L, "Refactoring", "Addison-Wesley"));
+        assertThat(index.search("clean", 10)).isEmpty();
+        assertThat(index.search("refactoring", 10)).containsExactly(3L);
+
+        index.remove(3L);
+        assertThat(index.search("refactoring", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    void honoursLimit() {
+        assertThat(new HashSet<>(index.search("addison", 1))).hasSize(1);
+    }
+
+    @Test
+    void keepsServingAndKeepsChangesMadeWhileItRebuilds() {
+        BookRepository repository = mock(BookRepository.class);
+        BookSearchIndex rebuilding = new BookSearchIndex(repository, mock(PlatformTransactionManager.class), null, null);
+        rebuilding.index(book(1L, "Clean Code", "Prentice Hall"));
+        when(repository.streamAllByOrderByIdAsc()).thenAnswer(invocation -> {
+            assertThat(rebuilding.search("clean", 10)).containsExactly(1L);
+            // committed after the rebuild read these rows
+            rebuilding.index(book(1L, "Refactoring", "Addison-Wesley"));
+            rebuilding.index(book(2L, "Dune", "Chilton"));
+            return Stream.of(book(1L, "Clean Code", "Prentice Hall"));
+        });
+
+        rebuilding.rebuild();
+
+        assertThat(rebuilding.search("clean", 10)).isEmpty();
+        assertThat(rebuilding.search("refactoring", 10)).containsExactly(1L);
+        assertThat(rebuilding.search("dune", 10)).containsExactly(2L);
+        assertThat(rebuilding.size()).isEqualTo(2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void sharesChangesWithTheOtherNodes() {
+        BookRepository repository = mock(BookRepository.class);
+        CacheInvalidationBus bus = mock(CacheInvalidationBus.class);
+        ObjectProvider<CacheInvalidationBus> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(bus);
+        BookSearchIndex node = new BookSearchIndex(repository, mock(PlatformTransactionManager.class), provider, null);
+        ArgumentCaptor<Consumer<String>> fromOtherNodes = ArgumentCaptor.forClass(Consumer.class);
+        verify(bus).subscribe(eq(BookSearchIndex.CHANNEL_NAME), fromOtherNodes.capture());
+
+        node.indexAll(List.of(book(1L, "Clean Code", "Prentice Hall"), book(2L, "Dune", "Chilton")));
+        node.remove(1L);
+        verify(bus).publish(BookSearchIndex.CHANNEL_NAME, "1,2");
+        verify(bus).publish(BookSearchIndex.CHANNEL_NAME, "1");
+
+        // another node edited book 2 and deleted book 3
+        node.index(book(3L, "Emma", "John Murray"));
+        when(repository.findAllById(List.of(2L, 3L))).thenReturn(List.of(book(2L, "Dune Messiah", "Putnam")));
+        fromOtherNodes.getValue().accept("2,3");
+
+        assertThat(node.search("messiah", 10)).containsExactly(2L);
+        assertThat(node.search("emma", 10)).isEmpty();
+        assertThat(node.size()).isEqualTo(1);
+    }
+
+    @Test
+    void rebuildsOnlyWhenItNoLongerMatchesTheDatabase() {
+        BookRepository repository = mock(BookRepository.class);
+        BookSearchIndex checked = new BookSearchIndex(repository, mock(PlatformTransactionManager.class), null, null);
+        checked.index(book(1L, "Clean Code", "Prentice Hall"));
+        checked.index(book(2L, "Dune", "Chilton"));
+        when(repository.findIndexChecksum()).thenReturn(new BookIndexChecksum(2, 3, 0));
+
+        checked.rebuildIfOutOfDate();
+        verify(repository, never()).streamAllByOrderByIdAsc();
+
+        // book 2 was edited on a node whose broadcast never arrived
+        Book edited = book(2L, "Dune Messiah", "Putnam");
+        edited.setVersion(1);
+        when(repository.findIndexChecksum()).thenReturn(new BookIndexChecksum(2, 3, 1));
+        when(repository.streamAllByOrderByIdAsc()).thenAnswer(invocation ->
+                Stream.of(book(1L, "Clean Code", "Prentice Hall"), edited));
+
+        checked.rebuildIfOutOfDate();
+        assertThat(checked.search("messiah", 10)).containsExactly(2L);
+        checked.rebuildIfOutOfDate();
+        verify(repository, times(1)).streamAllByOrderByIdAsc();
+    }
+
+    private static Book book(Long id, String title, String publisher) {
+        Book book = new Book();
+        book.setId(id);
+        book.setTitle(title);
+        book.setPublisher(publisher);
+        return book;
+    }
+}
@@ -0,0 +1,198 @@
+package com.library.librarymanagement.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.library.librarymanagement.cache.RedisCircuitBreaker;
+import com.library.librarymanagement.cache.RedisResilienceProperties;
+import com.library.librarymanagement.dto.BorrowerDto;
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.model.Borrower;
+import com.library.librarymanagement.model.Member;
+import com.library.librarymanagement.repository.BorrowerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The view in an embedded Redis, rebuilt from a stand-in repository whose pages are
+ * changed under the rebuild while it reads them.
+ */
+class BorrowingViewTests {
+
+    private static final String LOCK = "library:borrowings:rebuild-lock";
+    private static final String READY = "library:borrowings:ready";
+
+    private final BorrowerRepository borrowerRepository = mock(BorrowerRepository.class);
+    private final RedisResilienceProperties resilienceProperties = new RedisResilienceProperties();
+    private RedisCircuitBreaker circuitBreaker;
+    private RedisServer redis;
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redisTemplate;
+    private BorrowingView view;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redis = new RedisServer(port);
+        redis.start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        resilienceProperties.setFailureThreshold(1);
+        resilienceProperties.setOpenDuration(Duration.ofMillis(50));
+        circuitBreaker = new RedisCircuitBreaker(resilienceProperties);
+        view = new BorrowingView(redisTemplate, new ObjectMapper().registerModule(new JavaTimeModule()), borrowerRepository,
+                circuitBreaker);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        connectionFactory.destroy();
+        redis.stop();
+    }
+
+    @Test
+    void changesCommittedWhileAPageIsWrittenSurviveTheRebuild() {
+        BorrowerDto deleted = borrowing(1L, null);
+        BorrowerDto returned = borrowing(2L, null);
+        BorrowerDto kept = borrowing(3L, null);
+        when(borrowerRepository.findDtoPageAfter(eq(0L), any(Limit.class))).thenAnswer(invocation -> {
+            // commit after the page was read, before it is written
+            view.remove(1L);
+            view.put(loan(2L, 1, LocalDate.of(2024, 3, 9)));
+            return List.of(deleted, returned, kept);
+        });
+        when(borrowerRepository.findDtosByIdIn(anyCollection()))
+                .thenReturn(List.of(borrowing(2L, LocalDate.of(2024, 3, 9))));
+
+        assertThat(view.rebuild()).isTrue();
+
+        assertThat(view.isReady()).isTrue();
+        assertThat(view.findAll()).extracting(BorrowerDto::getId).containsExactly(2L, 3L);
+        assertThat(view.findAll().get(0).getReturnDate()).isEqualTo(LocalDate.of(2024, 3, 9));
+        assertThat(view.findDueBetween(LocalDate.MIN, LocalDate.MAX, 10)).extracting(BorrowerDto::getId).containsExactly(3L);
+    }
+
+    @Test
+    void aRebuildThatOutlivedItsLeaseLeavesTheNextHoldersLockAlone() {
+        when(borrowerRepository.findDtoPageAfter(eq(0L), any(Limit.class))).thenAnswer(invocation -> {
+            redisTemplate.opsForValue().set(LOCK, "another node");
+            return List.of(borrowing(1L, null));
+        });
+
+        assertThat(view.rebuild()).isTrue();
+
+        assertThat(redisTemplate.opsForValue().get(LOCK)).isEqualTo("another node");
+        assertThat(view.rebuild()).isFalse();
+    }
+
+    @Test
+    void aPatchSkippedWhileRedisFailedKeepsReadsOnTheDatabaseUntilTheViewIsRebuilt() throws Exception {
+        when(borrowerRepository.findDtoPageAfter(eq(0L), any(Limit.class))).thenReturn(List.of(borrowing(1L, null)));
+        assertThat(view.rebuild()).isTrue();
+        circuitBreaker.run(() -> {
+            throw new RedisConnectionFailureException("Redis is down");
+        });
+
+        view.put(loan(2L, 0, null));
+        Thread.sleep(100);
+        // the view still looks ready in Redis, but this node knows better
+        assertThat(redisTemplate.hasKey(READY)).isTrue();
+        assertThat(view.isReady()).isFalse();
+
+        when(borrowerRepository.findDtoPageAfter(eq(0L), any(Limit.class)))
+                .thenReturn(List.of(borrowing(1L, null), borrowing(2L, null)));
+        view.repair();
+        assertThat(view.isReady()).isTrue();
+        assertThat(view.findAll()).extracting(BorrowerDto::getId).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void aPatchOfAnOlderVersionDoesNotUndoANewerOne() {
+        view.put(loan(1L, 1, LocalDate.of(2024, 3, 9)));
+        view.put(loan(1L, 0, null));
+        view.remove(2L);
+        view.put(loan(2L, 0, null));
+
+        assertThat(view.findAll()).extracting(BorrowerDto::getId).containsExactly(1L);
+        assertThat(view.findAll().get(0).getReturnDate()).isEqualTo(LocalDate.of(2024, 3, 9));
+        assertThat(view.findDueBetween(LocalDate.MIN, LocalDate.MAX, 10)).isEmpty();
+    }
+
+    @Test
+    void aRenameChangesOnlyTheNameOfEachRecord() {
+        view.put(loan(1L, 1, LocalDate.of(2024, 3, 9)));
+        view.put(loan(2L, 0, null));
+
+        view.updateBookTitle(20L, "Dune Messiah");
+        view.updateMemberName(10L, "Ada Lovelace");
+
+        assertThat(view.findAll()).extracting(BorrowerDto::getBookTitle, BorrowerDto::getMemberName, BorrowerDto::getReturnDate)
+                .containsExactly(tuple("Dune Messiah", "Ada Lovelace", LocalDate.of(2024, 3, 9)),
+                        tuple("Dune Messiah", "Ada Lovelace", null));
+        assertThat(view.findDueBetween(LocalDate.MIN, LocalDate.MAX, 10)).extracting(BorrowerDto::getId).containsExactly(2L);
+    }
+
+    @Test
+    void aReconcileRewritesTheRecordsThatDifferFromTheDatabase() {
+        when(borrowerRepository.findDtoPageAfter(eq(0L), any(Limit.class)))
+                .thenReturn(List.of(borrowing(1L, null), borrowing(2L, null)));
+        assertThat(view.rebuild()).isTrue();
+        // as if a lost race had left a return undone and a deleted loan behind
+        view.put(loan(3L, 0, null));
+        when(borrowerRepository.findDtoPageAfter(eq(0L), any(Limit.class)))
+                .thenReturn(List.of(borrowing(1L, null), borrowing(2L, LocalDate.of(2024, 3, 9))));
+
+        assertThat(view.reconcile()).isEqualTo(2);
+
+        assertThat(view.findAll()).containsExactly(borrowing(1L, null), borrowing(2L, LocalDate.of(2024, 3, 9)));
+        assertThat(view.findDueBetween(LocalDate.MIN, LocalDate.MAX, 10)).extracting(BorrowerDto::getId).containsExactly(1L);
+        assertThat(view.reconcile()).isZero();
+    }
+
+    private static Borrower loan(Long id, long version, LocalDate returnDate) {
+        Member member = new Member();
+        member.setId(10L);
+        member.setName("Ada");
+        Book book = new Book();
+        book.setId(20L);
+        book.setTitle("Dune");
+        Borrower borrower = new Borrower();
+        borrower.setId(id);
+        borrower.setVersion(version);
+        borrower.setMember(member);
+        borrower.setBook(book);
+        borrower.setIssueDate(LocalDate.of(2024, 3, 1));
+        borrower.setDueDate(LocalDate.of(2024, 3, 15));
+        borrower.setReturnDate(returnDate);
+        return borrower;
+    }
+
+    private static BorrowerDto borrowing(Long id, LocalDate returnDate) {
+        return new BorrowerDto(id, 10L, "Ada", 20L, "Dune", LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 15), returnDate);
+    }
+}
@@ -0,0 +1,152 @@
+package com.library.librarymanagement.service;
+
+import com.library.librarymanagement.config.PaginationProperties;
+import com.library.librarymanagement.config.ThumbnailProperties;
+import com.library.librarymanagement.model.User;
+import com.library.librarymanagement.repository.StoredBlobRepository;
+import com.library.librarymanagement.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@Import({FileStorageService.class, UserService.class, PaginationProperties.class, ThumbnailService.class,
+        ThumbnailProperties.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class FileStorageServiceTests {
+
+    @TempDir
+    static Path uploadDir;
+
+    @DynamicPropertySource
+    static void uploadDir(DynamicPropertyRegistry registry) {
+        registry.add("file.upload-dir", uploadDir::toString);
+    }
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private StoredBlobRepository storedBlobRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        storedBlobRepository.deleteAll();
+    }
+
+    @Test
+    void storesIdenticalContentOnceUnderAShardedPath() throws Exception {
+        String first = fileStorageService.store(upload("me.PNG", "avatar"));
+        String second = fileStorageService.store(upload("same.jpg", "avatar"));
+        String other = fileStorageService.store(upload("other.png", "another avatar"));
+
+        String hash = first.substring(0, 64);
+        assertThat(first).isEqualTo(hash + ".png");
+        assertThat(second).isEqualTo(hash + ".jpg");
+        assertThat(other.substring(0, 64)).isNotEqualTo(hash);
+
+        Path blob = uploadDir.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+        assertThat(blob).hasContent("avatar");
+        assertThat(fileStorageService.load(first)).isEqualTo(blob);
+        assertThat(fileStorageService.load(second)).isEqualTo(blob);
+        assertThat(storedBlobRepository.findById(hash).orElseThrow().getRefCount()).isEqualTo(2);
+        try (Stream<Path> temp = Files.list(uploadDir.resolve(".tmp"))) {
+            assertThat(temp).isEmpty();
+        }
+    }
+
+    @Test
+    void deletesContentWithItsLastReferenceAndStoresItAgainAfterwards() {
+        String first = fileStorageService.store(upload("a.png", "avatar"));
+        String second = fileStorageService.store(upload("b.png", "avatar"));
+        Path blob = fileStorageService.load(first);
+
+        fileStorageService.release(first);
+        assertThat(blob).exists();
+
+        fileStorageService.release(second);
+        assertThat(blob).doesNotExist();
+        assertThat(storedBlobRepository.count()).isZero();
+        assertThatThrownBy(() -> fileStorageService.load(first)).hasMessageContaining("Could not read file");
+
+        String again = fileStorageService.store(upload("c.png", "avatar"));
+        assertThat(fileStorageService.load(again)).hasContent("avatar");
+    }
+
+    @Test
+    void replacingAProfilePictureReleasesThePreviousOne() throws Exception {
+        Path legacy = Files.writeString(uploadDir.resolve("9b2f6c1e-0d4a-4c3b-8e5f-7a6b5c4d3e2f.png"), "old", StandardCharsets.UTF_8);
+        User user = new User();
+        user.setEmail("reader@example.com");
+        user.setRole(User.Role.MEMBER);
+        user.setProfilePictureUrl("http://localhost/api/users/profile/picture/" + legacy.getFileName());
+        userRepository.save(user);
+
+        String first = fileStorageService.store(upload("a.png", "avatar"));
+        userService.updateProfilePictureUrl("reader@example.com", "http://localhost/api/users/profile/picture/" + first);
+        assertThat(legacy).doesNotExist();
+
+        String second = fileStorageService.store(upload("b.png", "newer avatar"));
+        userService.updateProfilePictureUrl("reader@example.com", "http://localhost/api/users/profile/picture/" + second);
+        assertThat(storedBlobRepository.findById(first.substring(0, 64))).isEmpty();
+        assertThat(fileStorageService.load(second)).hasContent("newer avatar");
+    }
+
+    @Test
+    void rendersThumbnailsOfNewPicturesAndDeletesThemWithTheContent() throws Exception {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(640, 480, BufferedImage.TYPE_INT_RGB), "png", png);
+        String name = fileStorageService.store(new MockMultipartFile("file", "me.png", "image/png", png.toByteArray()));
+
+        Optional<Path> rendered = fileStorageService.loadThumbnail(name, 60);
+        for (int i = 0; i < 100 && rendered.isEmpty(); i++) {
+            Thread.sleep(100);
+            rendered = fileStorageService.loadThumbnail(name, 60);
+        }
+        Path thumbnail = rendered.orElseThrow();
+        assertThat(thumbnail.getFileName()).hasToString(name.substring(0, 64) + "@96.jpg");
+        assertThat(thumbnail.getParent()).isEqualTo(fileStorageService.load(name).getParent());
+        assertThat(fileStorageService.loadThumbnail(name, 1024)).isEmpty();
+
+        fileStorageService.release(name);
+        assertThat(thumbnail).doesNotExist();
+    }
+
+    @Test
+    void resolvesOnlyNamesInsideTheUploadDirectory() {
+        assertThatThrownBy(() -> fileStorageService.load("../secret.txt")).hasMessageContaining("Could not read file");
+        assertThatThrownBy(() -> fileStorageService.load(".tmp")).hasMessageContaining("Could not read file");
+    }
+
+    private static MockMultipartFile upload(String name, String content) {
+        return new MockMultipartFile("file", name, "image/png", content.getBytes(StandardCharsets.UTF_8));
+    }
+}
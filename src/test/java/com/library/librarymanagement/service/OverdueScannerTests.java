@@ -0,0 +1,152 @@
+package com.library.librarymanagement.service;
+
+import com.library.librarymanagement.config.OverdueProperties;
+import com.library.librarymanagement.config.PaginationProperties;
+import com.library.librarymanagement.dto.BorrowerDto;
+import com.library.librarymanagement.dto.CursorPage;
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.model.Borrower;
+import com.library.librarymanagement.model.Member;
+import com.library.librarymanagement.repository.BookRepository;
+import com.library.librarymanagement.repository.BorrowerRepository;
+import com.library.librarymanagement.repository.MemberRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {"borrowings.overdue.horizon-days=14", "borrowings.overdue.scan-chunk-size=2"})
+@Import({BorrowerService.class, DueDateWheel.class, OverdueScanner.class, OverdueProperties.class,
+        PaginationProperties.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OverdueScannerTests {
+
+    @MockitoBean
+    private BorrowingView borrowingView;
+
+    @Autowired
+    private BorrowerService borrowerService;
+
+    @Autowired
+    private OverdueScanner overdueScanner;
+
+    @Autowired
+    private DueDateWheel dueDateWheel;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private BorrowerRepository borrowerRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    private final LocalDate today = LocalDate.now();
+    private Member member;
+    private Book book;
+
+    @BeforeEach
+    void setUp() {
+        borrowerRepository.deleteAll();
+        bookRepository.deleteAll();
+        memberRepository.deleteAll();
+        member = new Member();
+        member.setName("Reader");
+        member = memberRepository.save(member);
+        book = new Book();
+        book.setTitle("Plenty");
+        book.setTotalCopies(100);
+        book.setAvailableCopies(100);
+        book = bookRepository.save(book);
+    }
+
+    @Test
+    void scanCountsOverdueLoansAndLoadsTheWheel() {
+        Borrower longOverdue = loan(today.minusDays(30));
+        Borrower overdue = loan(today.minusDays(1));
+        loan(today.minusDays(5), today.minusDays(2));
+        Borrower dueToday = loan(today);
+        Borrower dueSoon = loan(today.plusDays(3));
+        loan(today.plusDays(40));
+
+        overdueScanner.scan();
+
+        assertThat(overdueScanner.getOverdueCount()).isEqualTo(2);
+        assertThat(meterRegistry.get("library.borrowings.overdue").gauge().value()).isEqualTo(2.0);
+        assertThat(dueDateWheel.size()).isEqualTo(2);
+        assertThat(dueDateWheel.findDue(today, today.plusDays(6), CursorPage.DateKey.FIRST, 10))
+                .contains(List.of(dueToday.getId(), dueSoon.getId()));
+
+        assertThat(allPages(cursor -> borrowerService.findOverduePage(cursor, 1)))
+                .containsExactly(longOverdue.getId(), overdue.getId());
+        assertThat(allPages(cursor -> borrowerService.findDueSoonPage(7, cursor, 1)))
+                .containsExactly(dueToday.getId(), dueSoon.getId());
+    }
+
+    @Test
+    void wheelFollowsIssuesAndReturnsAfterTheScan() {
+        Borrower first = loan(today.plusDays(2));
+        overdueScanner.scan();
+
+        Borrower issued = borrowerService.issueBook(member.getId(), book.getId(), today, today.plusDays(1));
+        borrowerService.returnBook(first.getId(), today);
+
+        assertThat(dueDateWheel.findDue(today, today.plusDays(13), CursorPage.DateKey.FIRST, 10))
+                .contains(List.of(issued.getId()));
+        assertThat(allPages(cursor -> borrowerService.findDueSoonPage(14, cursor, 10)))
+                .containsExactly(issued.getId());
+    }
+
+    @Test
+    void windowsBeyondTheHorizonAreReadFromTheDatabase() {
+        Borrower soon = loan(today.plusDays(1));
+        Borrower later = loan(today.plusDays(20));
+        overdueScanner.scan();
+
+        assertThat(dueDateWheel.findDue(today, today.plusDays(29), CursorPage.DateKey.FIRST, 10)).isEmpty();
+        assertThat(allPages(cursor -> borrowerService.findDueSoonPage(30, cursor, 1)))
+                .containsExactly(soon.getId(), later.getId());
+    }
+
+    private Borrower loan(LocalDate dueDate) {
+        return loan(dueDate, null);
+    }
+
+    private Borrower loan(LocalDate dueDate, LocalDate returnDate) {
+        Borrower borrower = new Borrower();
+        borrower.setMember(member);
+        borrower.setBook(book);
+        borrower.setIssueDate(dueDate.minusDays(14));
+        borrower.setDueDate(dueDate);
+        borrower.setReturnDate(returnDate);
+        return borrowerRepository.save(borrower);
+    }
+
+    private static List<Long> allPages(Function<String, CursorPage<BorrowerDto>> fetch) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<BorrowerDto> page = fetch.apply(cursor);
+            page.getItems().forEach(borrowing -> ids.add(borrowing.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return ids;
+    }
+}
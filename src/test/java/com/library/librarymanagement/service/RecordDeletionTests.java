@@ -0,0 +1,174 @@
+package com.library.librarymanagement.service;
+
+import com.library.librarymanagement.config.OverdueProperties;
+import com.library.librarymanagement.config.PaginationProperties;
+import com.library.librarymanagement.model.Book;
+import com.library.librarymanagement.model.Borrower;
+import com.library.librarymanagement.model.Member;
+import com.library.librarymanagement.repository.BookRepository;
+import com.library.librarymanagement.repository.BorrowerRepository;
+import com.library.librarymanagement.repository.MemberRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Deleting a book or a member must cost the same number of statements whether it has one
+ * borrowing or years of them.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({BookService.class, MemberService.class, BorrowerService.class, DueDateWheel.class, OverdueProperties.class,
+        BookSearchIndex.class, PaginationProperties.class, ModificationCounters.class, RecordDeletionTests.Caching.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RecordDeletionTests {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 3, 1);
+
+    @TestConfiguration
+    @EnableCaching
+    static class Caching {
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager("books", "members", "borrowings");
+        }
+    }
+
+    @MockitoBean
+    private BorrowingView borrowingView;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private MemberService memberService;
+
+    @Autowired
+    private BorrowerService borrowerService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private BorrowerRepository borrowerRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        borrowerRepository.deleteAll();
+        bookRepository.deleteAll();
+        memberRepository.deleteAll();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    void deletingABookCostsTheSameStatementsForAnyHistory() {
+        Member reader = member("Reader");
+        Book fewLoans = book("Emma", 1);
+        Book manyLoans = book("Dune", 1);
+        Book untouched = book("Kim", 1);
+        lend(reader, fewLoans, 1);
+        Long cachedLoan = lend(reader, manyLoans, 200).get(0);
+        Long otherLoan = lend(reader, untouched, 1).get(0);
+        borrowerService.findBorrowingById(otherLoan);
+
+        long few = count(() -> bookService.deleteBookById(fewLoans.getId()));
+        assertThat(borrowerService.findBorrowingById(cachedLoan)).isPresent();
+        bookService.findBookById(manyLoans.getId());
+        long many = count(() -> bookService.deleteBookById(manyLoans.getId()));
+
+        assertThat(many).isEqualTo(few);
+        assertThat(bookRepository.existsById(manyLoans.getId())).isFalse();
+        assertThat(borrowerRepository.count()).isEqualTo(1);
+        assertThat(cacheManager.getCache("books").get(manyLoans.getId())).isNull();
+        // only the deleted loans are evicted
+        assertThat(((ConcurrentMapCache) cacheManager.getCache("borrowings")).getNativeCache()).containsOnlyKeys(otherLoan);
+    }
+
+    @Test
+    void deletingAMemberCostsTheSameStatementsForAnyHistoryAndGivesBackTheirCopies() {
+        Book book = book("Dune", 2);
+        Member fewLoans = member("Ada");
+        Member manyLoans = member("Grace");
+        lend(fewLoans, book, 1);
+        lend(manyLoans, book, 200);
+
+        long few = count(() -> memberService.deleteMemberById(fewLoans.getId()));
+        memberService.findMemberById(manyLoans.getId());
+        long many = count(() -> memberService.deleteMemberById(manyLoans.getId()));
+
+        assertThat(many).isEqualTo(few);
+        assertThat(memberRepository.count()).isZero();
+        assertThat(borrowerRepository.count()).isZero();
+        assertThat(bookRepository.findAvailability(book.getId())).get()
+                .satisfies(availability -> assertThat(availability.getAvailableCopies()).isEqualTo(availability.getTotalCopies()));
+        assertThat(cacheManager.getCache("members").get(manyLoans.getId())).isNull();
+    }
+
+    private long count(Runnable delete) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        delete.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    /**
+     * Lends the book to the member {@code loans} times, all returned but the last.
+     *
+     * @return the ids of the loans, oldest first
+     */
+    private List<Long> lend(Member member, Book book, int loans) {
+        List<Borrower> history = new ArrayList<>();
+        for (int i = 0; i < loans; i++) {
+            Borrower loan = new Borrower();
+            loan.setMember(member);
+            loan.setBook(book);
+            loan.setIssueDate(TODAY.minusDays(loans - i));
+            loan.setDueDate(TODAY.minusDays(loans - i).plusDays(14));
+            loan.setReturnDate(i < loans - 1 ? TODAY.minusDays(loans - i - 1) : null);
+            history.add(loan);
+        }
+        return borrowerService.saveClaimedLoans(history).stream().map(Borrower::getId).toList();
+    }
+
+    private Book book(String title, int onLoan) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setTotalCopies(3);
+        book.setAvailableCopies(3 - onLoan);
+        return bookRepository.save(book);
+    }
+
+    private Member member(String name) {
+        Member member = new Member();
+        member.setName(name);
+        return memberRepository.save(member);
+    }
+}
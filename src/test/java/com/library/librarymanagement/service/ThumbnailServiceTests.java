@@ -0,0 +1,86 @@
+package com.library.librarymanagement.service;
+
+import com.library.librarymanagement.config.ThumbnailProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.OptionalInt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ThumbnailServiceTests {
+
+    @TempDir
+    Path directory;
+
+    private final ThumbnailService thumbnailService = new ThumbnailService(new ThumbnailProperties(), new SimpleMeterRegistry());
+
+    @AfterEach
+    void tearDown() {
+        thumbnailService.shutdown();
+    }
+
+    @Test
+    void picksTheSmallestRenditionAtLeastTheRequestedSize() {
+        assertThat(thumbnailService.renditionSize(1)).isEqualTo(OptionalInt.of(48));
+        assertThat(thumbnailService.renditionSize(60)).isEqualTo(OptionalInt.of(96));
+        assertThat(thumbnailService.renditionSize(256)).isEqualTo(OptionalInt.of(256));
+        assertThat(thumbnailService.renditionSize(257)).isEmpty();
+        assertThatThrownBy(() -> thumbnailService.renditionSize(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rendersSquareCentredJpegsOfEverySize() throws Exception {
+        // a wide picture with red side bands around a blue centre square
+        BufferedImage picture = new BufferedImage(1600, 900, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = picture.createGraphics();
+        graphics.setColor(Color.RED);
+        graphics.fillRect(0, 0, 1600, 900);
+        graphics.setColor(Color.BLUE);
+        graphics.fillRect(350, 0, 900, 900);
+        graphics.dispose();
+        Path original = directory.resolve("picture");
+        ImageIO.write(picture, "png", original.toFile());
+
+        thumbnailService.render(original);
+
+        for (int size : List.of(48, 96, 256)) {
+            Path rendition = directory.resolve("picture@" + size + ".jpg");
+            BufferedImage thumbnail = ImageIO.read(rendition.toFile());
+            assertThat(thumbnail.getWidth()).isEqualTo(size);
+            assertThat(thumbnail.getHeight()).isEqualTo(size);
+            Color corner = new Color(thumbnail.getRGB(0, 0));
+            assertThat(corner.getBlue()).isGreaterThan(200);
+            assertThat(corner.getRed()).isLessThan(50);
+        }
+        assertThat(thumbnailService.findOrSchedule(original, 96)).contains(directory.resolve("picture@96.jpg"));
+
+        thumbnailService.deleteRenditions(original);
+        try (var files = Files.list(directory)) {
+            assertThat(files).containsExactly(original);
+        }
+    }
+
+    @Test
+    void doesNotRetryFilesThatAreNotImages() throws Exception {
+        Path original = Files.writeString(directory.resolve("notes"), "not a picture");
+
+        thumbnailService.render(original);
+
+        assertThat(directory.resolve("notes.unrenderable")).exists();
+        assertThat(thumbnailService.findOrSchedule(original, 48)).isEmpty();
+        try (var files = Files.list(directory)) {
+            assertThat(files).hasSize(2);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.library.librarymanagement.service;
+
+import com.library.librarymanagement.config.PaginationProperties;
+import com.library.librarymanagement.dto.UserSnapshot;
+import com.library.librarymanagement.model.Member;
+import com.library.librarymanagement.model.User;
+import com.library.librarymanagement.repository.MemberRepository;
+import com.library.librarymanagement.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({UserService.class, PaginationProperties.class, UserServiceTests.Caching.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserServiceTests {
+
+    private static final String EMAIL = "reader@example.com";
+
+    @TestConfiguration
+    @EnableCaching
+    static class Caching {
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager("users");
+        }
+    }
+
+    @MockitoBean
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        memberRepository.deleteAll();
+        cacheManager.getCache("users").clear();
+
+        Member member = new Member();
+        member.setName("Reader");
+        user = new User();
+        user.setEmail(EMAIL);
+        user.setName("Reader");
+        user.setRole(User.Role.MEMBER);
+        user.setMemberProfile(member);
+        user = userRepository.save(user);
+    }
+
+    @Test
+    void readsTheSnapshotOnceWithoutLoadingTheMemberProfile() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        UserSnapshot first = userService.findSnapshot(EMAIL);
+        UserSnapshot second = userService.findSnapshot(EMAIL);
+
+        assertThat(first.getId()).isEqualTo(user.getId());
+        assertThat(first.getMemberId()).isEqualTo(user.getMemberProfile().getId());
+        assertThat(first.getRole()).isEqualTo(User.Role.MEMBER);
+        assertThat(second).isSameAs(first);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void streamsUsersAsSnapshotsWithoutLoadingEntities() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<UserSnapshot> streamed = new ArrayList<>();
+
+        userService.streamAllUsers(streamed::add);
+
+        assertThat(streamed).extracting(UserSnapshot::getEmail).containsExactly(EMAIL);
+        assertThat(streamed.get(0).getMemberId()).isEqualTo(user.getMemberProfile().getId());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void changingTheRoleOrPictureReplacesTheCachedSnapshot() {
+        userService.cacheSnapshot(user);
+        assertThat(userService.findSnapshot(EMAIL).getMemberId()).isEqualTo(user.getMemberProfile().getId());
+
+        userService.changeUserRole(EMAIL, User.Role.PERSONNEL);
+        assertThat(userService.findSnapshot(EMAIL).getRole()).isEqualTo(User.Role.PERSONNEL);
+
+        userService.updateProfilePictureUrl(EMAIL, "https://example.com/reader.png");
+        assertThat(userService.findSnapshot(EMAIL).getProfilePictureUrl()).isEqualTo("https://example.com/reader.png");
+    }
+}